@@ -87,25 +87,38 @@ public interface ControllerMethods {
         return writerForTopLevelObject(request, response, writer -> writer.add("message", result.fullMessage()));
     }
 
+    // Responses are compact unless asked for otherwise, using `?pretty=true` or e.g. `Accept: application/vnd.go.cd+json; pretty=true`
+    default boolean prettyPrint(Request request) {
+        String pretty = request.queryParams("pretty");
+        if (pretty != null) {
+            return Boolean.parseBoolean(pretty);
+        }
+        String accept = request.headers("Accept");
+        if (accept != null && accept.replace(" ", "").toLowerCase().contains(";pretty=true")) {
+            return true;
+        }
+        return JsonOutputWriter.PRETTY_PRINT_BY_DEFAULT;
+    }
+
     default String writerForTopLevelObject(Request request, Response response, Consumer<OutputWriter> consumer) throws IOException {
-        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request)).forTopLevelObject(consumer);
+        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request), prettyPrint(request)).forTopLevelObject(consumer);
         return NOTHING;
     }
 
     default String writerForTopLevelArray(Request request, Response response, Consumer<OutputListWriter> consumer) throws IOException {
-        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request)).forTopLevelArray(consumer);
+        new JsonOutputWriter(response.raw().getWriter(), RequestContext.requestContext(request), prettyPrint(request)).forTopLevelArray(consumer);
         return NOTHING;
     }
 
     default String jsonizeAsTopLevelObject(Request request, Consumer<OutputWriter> consumer) {
         StringWriter writer = new StringWriter(1024);
-        new JsonOutputWriter(writer, RequestContext.requestContext(request)).forTopLevelObject(consumer);
+        new JsonOutputWriter(writer, RequestContext.requestContext(request), prettyPrint(request)).forTopLevelObject(consumer);
         return writer.toString();
     }
 
     default String jsonizeAsTopLevelArray(Request request, Consumer<OutputListWriter> consumer) {
         StringWriter writer = new StringWriter(1024);
-        new JsonOutputWriter(writer, RequestContext.requestContext(request)).forTopLevelArray(consumer);
+        new JsonOutputWriter(writer, RequestContext.requestContext(request), prettyPrint(request)).forTopLevelArray(consumer);
         return writer.toString();
     }
 
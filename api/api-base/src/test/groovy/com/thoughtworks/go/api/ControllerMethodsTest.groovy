@@ -94,4 +94,32 @@ class ControllerMethodsTest {
       assertThat(controllerMethods.getIfMatch(RequestResponseFactory.create(req))).isEqualTo('foo')
     }
   }
+
+  @Nested
+  class PrettyPrint {
+
+    @Test
+    void 'should pretty print when asked to in the query'() {
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo?pretty=true').build()))).isTrue()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo?pretty=TRUE').build()))).isTrue()
+    }
+
+    @Test
+    void 'should not pretty print when the query value is anything other than true'() {
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo?pretty=false').build()))).isFalse()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo?pretty=yes').build()))).isFalse()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo?pretty=').build()))).isFalse()
+    }
+
+    @Test
+    void 'should pretty print when asked to in the accept header'() {
+      def req = HttpRequestBuilder.GET('/foo').withHeaders(['accept': 'application/vnd.go.cd+json; pretty=true']).build()
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(req))).isTrue()
+    }
+
+    @Test
+    void 'should write compact json by default'() {
+      assertThat(controllerMethods.prettyPrint(RequestResponseFactory.create(HttpRequestBuilder.GET('/foo').build()))).isFalse()
+    }
+  }
 }
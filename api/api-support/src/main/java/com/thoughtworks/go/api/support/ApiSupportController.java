@@ -20,6 +20,7 @@ import com.google.gson.FieldAttributes;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.thoughtworks.go.api.ControllerMethods;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult;
 import com.thoughtworks.go.server.service.support.ServerStatusService;
 import com.thoughtworks.go.spark.Routes;
@@ -50,10 +51,12 @@ public class ApiSupportController implements SparkController, ControllerMethods,
         .create();
 
     private final ServerStatusService serverStatusService;
+    private final MetricsRegistry metricsRegistry;
 
     @Autowired
-    public ApiSupportController(ServerStatusService serverStatusService) {
+    public ApiSupportController(ServerStatusService serverStatusService, MetricsRegistry metricsRegistry) {
         this.serverStatusService = serverStatusService;
+        this.metricsRegistry = metricsRegistry;
     }
 
     @Override
@@ -66,6 +69,7 @@ public class ApiSupportController implements SparkController, ControllerMethods,
         path(controllerBasePath(), () -> {
             get("", this::show);
             get(Routes.Support.PROCESS_LIST, this::processList);
+            get(Routes.Support.METRICS, this::metrics);
         });
     }
 
@@ -87,6 +91,12 @@ public class ApiSupportController implements SparkController, ControllerMethods,
         return writerForTopLevelObject(request, response, outputWriter -> toJSON(outputWriter, processList));
     }
 
+    public String metrics(Request request, Response response) throws IOException {
+        response.type(MetricsRegistry.CONTENT_TYPE);
+        metricsRegistry.writeTo(response.raw().getWriter());
+        return "";
+    }
+
     private static ExclusionStrategy excludeLocks() {
         return new ExclusionStrategy() {
             @Override
@@ -16,6 +16,7 @@
 package com.thoughtworks.go.api.support
 
 import com.thoughtworks.go.server.domain.Username
+import com.thoughtworks.go.server.perf.MetricsRegistry
 import com.thoughtworks.go.server.service.result.HttpLocalizedOperationResult
 import com.thoughtworks.go.server.service.support.ServerStatusService
 import com.thoughtworks.go.spark.ControllerTrait
@@ -38,10 +39,11 @@ class ApiSupportControllerV1Test implements SecurityServiceTrait, ControllerTrai
   @Mock
   private ServerStatusService serverStatusService
 
+  private MetricsRegistry metricsRegistry = new MetricsRegistry()
 
   @Override
   ApiSupportController createControllerInstance() {
-    new ApiSupportController(serverStatusService)
+    new ApiSupportController(serverStatusService, metricsRegistry)
   }
 
   @Nested
@@ -90,4 +92,19 @@ class ApiSupportControllerV1Test implements SecurityServiceTrait, ControllerTrai
         .hasContentType("application/json")
     }
   }
+
+  @Nested
+  class Metrics {
+    @Test
+    void 'should return metrics in prometheus text format'() {
+      metricsRegistry.counter("gocd_test_total", "A test counter.").increment()
+
+      get(controller.controllerPath(Routes.Support.METRICS))
+
+      assertThatResponse()
+        .isOk()
+        .hasContentType(MetricsRegistry.CONTENT_TYPE)
+        .hasBody("# HELP gocd_test_total A test counter.\n# TYPE gocd_test_total counter\ngocd_test_total 1\n")
+    }
+  }
 }
@@ -0,0 +1,382 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Understands writing a zip whose entries are compressed on a pool of threads. Entries are still written out in the
+ * order they were added, in the standard zip format (with zip64 extensions where needed). Only a bounded number of
+ * entries are compressed ahead of the one being written; compressed entries too big to keep in memory wait for their
+ * turn in temporary files.
+ */
+class ParallelZipWriter implements ZipUtil.ZipSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int IN_MEMORY_LIMIT = 4 * 1024 * 1024;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_UTF8 = 0x800;
+
+    private final CountingOutputStream out;
+    private final int level;
+    private final int maxPending;
+    private final ExecutorService executor;
+    private final Deque<Future<CompressedEntry>> pending = new ArrayDeque<>();
+    private final List<WrittenEntry> written = new ArrayList<>();
+    private final Set<File> spilledFiles = ConcurrentHashMap.newKeySet();
+
+    ParallelZipWriter(OutputStream destination, int level, int threads) {
+        this.out = new CountingOutputStream(new BufferedOutputStream(destination, BUFFER_SIZE));
+        this.level = level;
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "zip-compression");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void addDirectory(ZipEntry entry) throws IOException {
+        enqueue(CompletableFuture.completedFuture(new CompressedEntry(entry, ZipEntry.STORED, 0, 0, null)));
+    }
+
+    @Override
+    public void addFile(ZipEntry entry, File file) throws IOException {
+        enqueue(executor.submit(() -> compress(entry, file)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            while (!pending.isEmpty()) {
+                writeNext();
+            }
+            writeCentralDirectory();
+            out.flush();
+        } finally {
+            executor.shutdownNow();
+            awaitTermination();
+            spilledFiles.forEach(File::delete);
+            out.close();
+        }
+    }
+
+    private void enqueue(Future<CompressedEntry> entry) throws IOException {
+        pending.addLast(entry);
+        while (pending.size() > maxPending) {
+            writeNext();
+        }
+    }
+
+    private CompressedEntry compress(ZipEntry entry, File file) throws IOException {
+        int method = level == Deflater.NO_COMPRESSION ? ZipEntry.STORED : ZipEntry.DEFLATED;
+        CRC32 crc = new CRC32();
+        long size = 0;
+        SpillingBuffer data = new SpillingBuffer();
+        Deflater deflater = new Deflater(level, true);
+        try (InputStream input = new FileInputStream(file);
+             OutputStream output = method == ZipEntry.STORED ? data : new DeflaterOutputStream(data, deflater, BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                output.write(buffer, 0, read);
+                size += read;
+            }
+        } catch (IOException | RuntimeException e) {
+            data.discard();
+            throw e;
+        } finally {
+            deflater.end();
+        }
+        return new CompressedEntry(entry, method, crc.getValue(), size, data);
+    }
+
+    private void writeNext() throws IOException {
+        CompressedEntry entry = await(pending.removeFirst());
+        try {
+            long offset = out.count();
+            long compressedSize = entry.compressedSize();
+            boolean zip64 = entry.size() >= ZIP64_MAGIC || compressedSize >= ZIP64_MAGIC;
+            byte[] name = entry.entry().getName().getBytes(UTF_8);
+            long dosTime = dosTime(entry.entry().getTime());
+
+            writeInt(0x04034b50L);
+            writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+            writeShort(FLAG_UTF8);
+            writeShort(entry.method());
+            writeInt(dosTime);
+            writeInt(entry.crc());
+            writeInt(zip64 ? ZIP64_MAGIC : compressedSize);
+            writeInt(zip64 ? ZIP64_MAGIC : entry.size());
+            writeShort(name.length);
+            writeShort(zip64 ? 20 : 0);
+            out.write(name);
+            if (zip64) {
+                writeShort(0x0001);
+                writeShort(16);
+                writeLong(entry.size());
+                writeLong(compressedSize);
+            }
+            if (entry.data() != null) {
+                entry.data().writeTo(out);
+            }
+            written.add(new WrittenEntry(name, entry.method(), dosTime, entry.crc(), compressedSize, entry.size(), offset));
+        } finally {
+            if (entry.data() != null) {
+                entry.data().discard();
+            }
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        long centralDirectoryOffset = out.count();
+        for (WrittenEntry entry : written) {
+            ByteArrayOutputStream extra = new ByteArrayOutputStream();
+            if (entry.size() >= ZIP64_MAGIC) {
+                writeLong(extra, entry.size());
+            }
+            if (entry.compressedSize() >= ZIP64_MAGIC) {
+                writeLong(extra, entry.compressedSize());
+            }
+            if (entry.offset() >= ZIP64_MAGIC) {
+                writeLong(extra, entry.offset());
+            }
+            boolean zip64 = extra.size() > 0;
+
+            writeInt(0x02014b50L);
+            writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+            writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+            writeShort(FLAG_UTF8);
+            writeShort(entry.method());
+            writeInt(entry.dosTime());
+            writeInt(entry.crc());
+            writeInt(Math.min(entry.compressedSize(), ZIP64_MAGIC));
+            writeInt(Math.min(entry.size(), ZIP64_MAGIC));
+            writeShort(entry.name().length);
+            writeShort(zip64 ? extra.size() + 4 : 0);
+            writeShort(0);
+            writeShort(0);
+            writeShort(0);
+            writeInt(0);
+            writeInt(Math.min(entry.offset(), ZIP64_MAGIC));
+            out.write(entry.name());
+            if (zip64) {
+                writeShort(0x0001);
+                writeShort(extra.size());
+                extra.writeTo(out);
+            }
+        }
+        long centralDirectorySize = out.count() - centralDirectoryOffset;
+        int entries = written.size();
+
+        if (entries >= ZIP64_MAGIC_COUNT || centralDirectoryOffset >= ZIP64_MAGIC || centralDirectorySize >= ZIP64_MAGIC) {
+            long zip64EndOffset = out.count();
+            writeInt(0x06064b50L);
+            writeLong(44);
+            writeShort(VERSION_ZIP64);
+            writeShort(VERSION_ZIP64);
+            writeInt(0);
+            writeInt(0);
+            writeLong(entries);
+            writeLong(entries);
+            writeLong(centralDirectorySize);
+            writeLong(centralDirectoryOffset);
+
+            writeInt(0x07064b50L);
+            writeInt(0);
+            writeLong(zip64EndOffset);
+            writeInt(1);
+        }
+
+        writeInt(0x06054b50L);
+        writeShort(0);
+        writeShort(0);
+        writeShort(Math.min(entries, ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(entries, ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(centralDirectorySize, ZIP64_MAGIC));
+        writeInt(Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        writeShort(0);
+    }
+
+    private static CompressedEntry await(Future<CompressedEntry> entry) throws IOException {
+        try {
+            return entry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing zip entries");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Failed to compress zip entry", e.getCause());
+        }
+    }
+
+    private void awaitTermination() {
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static long dosTime(long time) {
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time == -1 ? System.currentTimeMillis() : time), ZoneId.systemDefault());
+        if (dateTime.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (long) (dateTime.getYear() - 1980) << 25 | dateTime.getMonthValue() << 21 | dateTime.getDayOfMonth() << 16
+                | dateTime.getHour() << 11 | dateTime.getMinute() << 5 | dateTime.getSecond() >> 1;
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xFFFF));
+        writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeLong(out, value);
+    }
+
+    private static void writeLong(OutputStream stream, long value) throws IOException {
+        for (int i = 0; i < 8; i++) {
+            stream.write((int) (value >>> (i * 8)) & 0xFF);
+        }
+    }
+
+    private record CompressedEntry(ZipEntry entry, int method, long crc, long size, SpillingBuffer data) {
+        long compressedSize() {
+            return data == null ? 0 : data.size();
+        }
+    }
+
+    private record WrittenEntry(byte[] name, int method, long dosTime, long crc, long compressedSize, long size, long offset) {
+    }
+
+    /**
+     * Holds compressed bytes in memory, moving them to a temporary file once there are too many of them.
+     */
+    private class SpillingBuffer extends OutputStream {
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private File file;
+        private OutputStream fileStream;
+        private long size;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (fileStream == null && memory.size() + length > IN_MEMORY_LIMIT) {
+                file = Files.createTempFile("gocd-zip-entry", ".tmp").toFile();
+                spilledFiles.add(file);
+                fileStream = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+                memory.writeTo(fileStream);
+                memory = null;
+            }
+            if (fileStream == null) {
+                memory.write(bytes, offset, length);
+            } else {
+                fileStream.write(bytes, offset, length);
+            }
+            size += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileStream != null) {
+                fileStream.close();
+            }
+        }
+
+        long size() {
+            return size;
+        }
+
+        void writeTo(OutputStream destination) throws IOException {
+            if (file == null) {
+                memory.writeTo(destination);
+            } else {
+                try (InputStream input = new FileInputStream(file)) {
+                    input.transferTo(destination);
+                }
+            }
+        }
+
+        void discard() {
+            memory = null;
+            if (file != null) {
+                try {
+                    close();
+                } catch (IOException ignored) {
+                }
+                file.delete();
+                spilledFiles.remove(file);
+            }
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        long count() {
+            return count;
+        }
+    }
+}
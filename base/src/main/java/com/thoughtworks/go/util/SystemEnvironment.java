@@ -124,6 +124,11 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Integer> RESPONSE_BUFFER_SIZE = new GoIntSystemProperty("response.buffer.size", 32 * 1024);
     public static final GoSystemProperty<Integer> API_REQUEST_IDLE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("api.request.idle.timeout.seconds", (int) MINUTES.toSeconds(5));
     public static final GoSystemProperty<Integer> AGENT_REQUEST_IDLE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("agent.request.idle.timeout.seconds", 30);
+    public static final GoSystemProperty<Integer> AGENT_MATERIAL_CHECKOUT_THREADS = new GoIntSystemProperty("go.agent.material.checkout.threads", 1);
+    public static final GoSystemProperty<Integer> GO_ZIP_COMPRESSION_THREADS = new GoIntSystemProperty("go.zip.compression.threads", 0);
+    public static final GoSystemProperty<Integer> GO_ZIP_COMPRESSION_LEVEL = new GoIntSystemProperty("go.zip.compression.level", null);
+    public static final GoSystemProperty<Integer> AGENT_GIT_OBJECT_CACHE_SIZE_IN_MB = new GoIntSystemProperty("go.agent.git.object.cache.size.mb", 0);
+    public static final GoSystemProperty<String> AGENT_GIT_OBJECT_CACHE_DIR = new GoStringSystemProperty("go.agent.git.object.cache.dir", "git-object-cache");
     public static final GoSystemProperty<Integer> GO_SERVER_SESSION_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("go.server.session.timeout.seconds", (int) DAYS.toSeconds(14));
     public static final GoSystemProperty<Integer> GO_SERVER_SESSION_COOKIE_MAX_AGE_IN_SECONDS = new GoIntSystemProperty("go.sessioncookie.maxage.seconds", (int) DAYS.toSeconds(14));
     public static final GoSystemProperty<Boolean> GO_SERVER_SESSION_COOKIE_SECURE = new GoBooleanSystemProperty("go.sessioncookie.secure", false);
@@ -131,6 +136,13 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Long> JMS_LISTENER_BACKOFF_TIME_IN_MILLIS = new GoLongSystemProperty("go.jms.listener.backoff.time.in.milliseconds", SECONDS.toMillis(5));
 
     public static final GoSystemProperty<Integer> GO_SERVER_AUTHORIZATION_EXTENSION_CALLS_CACHE_TIMEOUT_IN_SECONDS = new GoIntSystemProperty("go.server.authorization.extension.calls.cache.timeout.in.secs", 60);
+    public static final GoSystemProperty<Integer> GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS = new GoIntSystemProperty("go.server.secrets.lookup.cache.ttl.in.secs", 0);
+    public static final GoSystemProperty<Boolean> GO_SERVER_GIT_REMOTE_REF_PROBE_ENABLED = new GoBooleanSystemProperty("go.server.git.remote.ref.probe.enabled", false);
+    public static final GoSystemProperty<Integer> GO_SERVER_GIT_REMOTE_REF_PROBE_TTL_IN_SECONDS = new GoIntSystemProperty("go.server.git.remote.ref.probe.ttl.in.secs", 10);
+    public static final GoSystemProperty<Boolean> GO_SERVER_SCHEDULE_CHECK_CHANGED_PIPELINES_ONLY = new GoBooleanSystemProperty("go.server.schedule.check.changed.pipelines.only", false);
+    public static final GoSystemProperty<Integer> GO_SERVER_SCHEDULE_CHECK_SWEEP_INTERVAL_IN_SECONDS = new GoIntSystemProperty("go.server.schedule.check.sweep.interval.in.secs", (int) MINUTES.toSeconds(5));
+    public static final GoSystemProperty<Integer> GO_SERVER_VALUE_STREAM_MAP_CACHE_SIZE = new GoIntSystemProperty("go.server.value.stream.map.cache.size", 0);
+    public static final GoSystemProperty<Integer> GO_SERVER_FANIN_GRAPH_CACHE_SIZE = new GoIntSystemProperty("go.server.fanin.graph.cache.size", 0);
 
     public static final GoSystemProperty<String> JETTY_XML_FILE_NAME = new GoStringSystemProperty("jetty.xml.file.name", JETTY_XML);
 
@@ -144,7 +156,13 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> GO_CONFIG_REPO_GC_AGGRESSIVE = new GoBooleanSystemProperty("go.config.repo.gc.aggressive", true);
     public static final GoSystemProperty<Long> GO_CONFIG_REPO_GC_EXPIRE_IN_HOURS = new GoLongSystemProperty("go.config.repo.gc.expire", 24L);
     public static final GoSystemProperty<Long> GO_CONFIG_REPO_GC_LOOSE_OBJECT_WARNING_THRESHOLD = new GoLongSystemProperty("go.config.repo.gc.warning.looseobject.threshold", 10000L);
+    public static final GoSystemProperty<Boolean> GO_CONFIG_REPO_ASYNC_CHECKIN = new GoBooleanSystemProperty("go.config.repo.async.checkin", false);
+    public static final GoSystemProperty<Long> GO_CONFIG_REPO_GC_LOOSE_OBJECT_THRESHOLD = new GoLongSystemProperty("go.config.repo.gc.looseobject.threshold", 0L);
     public static final GoSystemProperty<Boolean> GO_CONFIG_REPO_PERIODIC_GC = new GoBooleanSystemProperty("go.config.repo.gc.periodic", false);
+    public static final GoSystemProperty<Integer> GO_CONFIG_REPO_PARTIAL_MERGE_WINDOW_IN_MILLIS = new GoIntSystemProperty("go.config.repo.partial.merge.window.ms", 0);
+    public static final GoSystemProperty<Boolean> GO_SERVER_BACKUP_STEPS_IN_PARALLEL = new GoBooleanSystemProperty("go.server.backup.steps.in.parallel", false);
+    public static final GoSystemProperty<Boolean> GO_MODIFICATION_FULL_TEXT_SEARCH = new GoBooleanSystemProperty("go.modification.search.full.text", false);
+    public static final GoSystemProperty<Boolean> GO_CONFIG_REPO_SKIP_PARSING_UNCHANGED_FILES = new GoBooleanSystemProperty("go.config.repo.skip.parsing.unchanged.files", false);
 
     public static final GoSystemProperty<String> GO_UPDATE_SERVER_PUBLIC_KEY_FILE_NAME = new GoStringSystemProperty("go.update.server.public.key.file.name", "go_update_server.pub");
     public static final GoSystemProperty<String> GO_UPDATE_SERVER_URL = new GoStringSystemProperty("go.update.server.url", "https://update.gocd.org/channels/supported/latest.json");
@@ -161,8 +179,11 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     public static final GoSystemProperty<Integer> MAX_PENDING_AGENTS_ALLOWED = new GoIntSystemProperty("max.pending.agents.allowed", 100);
     public static final GoSystemProperty<Boolean> CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS = new GoBooleanSystemProperty("go.modifications.removeDuplicates", true);
+    public static final GoSystemProperty<Integer> MATERIAL_MODIFICATIONS_SAVE_CHUNK_SIZE = new GoIntSystemProperty("go.modifications.save.chunk.size", 0);
     public static final GoSystemProperty<Boolean> GO_DIAGNOSTICS_MODE = new GoBooleanSystemProperty("go.diagnostics.mode", false);
 
+    public static final GoSystemProperty<Integer> ARTIFACTS_PURGE_THREADS = new GoIntSystemProperty("go.artifacts.purge.threads", 0);
+    public static final GoSystemProperty<Integer> ARTIFACTS_PURGE_SOFT_WATERMARK_PERCENT = new GoIntSystemProperty("go.artifacts.purge.soft.watermark.percent", 0);
     public static final GoSystemProperty<Integer> DEPENDENCY_MATERIAL_UPDATE_LISTENERS = new GoIntSystemProperty("dependency.material.check.threads", 3);
 
     public static final GoSystemProperty<Integer> CONFIG_MATERIAL_POST_UPDATE_LISTENERS = new GoIntSystemProperty("config.material.post.update.threads", 2);
@@ -179,6 +200,8 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
 
     private static final GoSystemProperty<Integer> GO_SPA_TIMEOUT_IN_MILLIS = new GoIntSystemProperty("go.spa.timeout", (int) SECONDS.toMillis(60));
     private static final GoSystemProperty<Integer> GO_SPA_REFRESH_INTERVAL_IN_MILLIS = new GoIntSystemProperty("go.spa.refresh.interval", (int) SECONDS.toMillis(5));
+    public static final GoSystemProperty<Boolean> GO_API_JSON_PRETTY_PRINT = new GoBooleanSystemProperty("go.api.json.pretty.print", false);
+    public static final GoSystemProperty<Boolean> GO_API_JSON_STRICT_DUPLICATE_DETECTION = new GoBooleanSystemProperty("go.api.json.strict.duplicate.detection", false);
     private static final GoSystemProperty<Long> GO_PAC_CLONE_TIMEOUT_IN_MILLIS = new GoLongSystemProperty("go.pac.clone.timeout", SECONDS.toMillis(30));
 
     private static final GoSystemProperty<Boolean> ENABLE_ANALYTICS_ONLY_FOR_ADMINS = new GoBooleanSystemProperty("go.enable.analytics.only.for.admins", false);
@@ -191,11 +214,17 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
     public static final GoSystemProperty<Boolean> HSTS_HEADER_PRELOAD = new GoBooleanSystemProperty("gocd.hsts.header.preload", false);
     public static final GoSystemProperty<Long> EPHEMERAL_AUTO_REGISTER_KEY_EXPIRY_IN_MILLIS = new GoLongSystemProperty("gocd.ephemeral.auto.register.key.expiry.millis", MINUTES.toMillis(30));
     public static final GoSystemProperty<Double> MDU_EXPONENTIAL_BACKOFF_MULTIPLIER = new GoDoubleSystemProperty("gocd.mdu.exponential.backoff.multiplier", 1.5);
+    public static final GoSystemProperty<Boolean> MDU_ADAPTIVE_POLLING_ENABLED = new GoBooleanSystemProperty("gocd.mdu.adaptive.polling.enabled", false);
+    public static final GoSystemProperty<Integer> MDU_ADAPTIVE_POLLING_MIN_INTERVAL_IN_SECONDS = new GoIntSystemProperty("gocd.mdu.adaptive.polling.min.interval.secs", 60);
+    public static final GoSystemProperty<Integer> MDU_ADAPTIVE_POLLING_MAX_INTERVAL_IN_SECONDS = new GoIntSystemProperty("gocd.mdu.adaptive.polling.max.interval.secs", (int) MINUTES.toSeconds(30));
+    public static final GoSystemProperty<Integer> MDU_ADAPTIVE_POLLING_MAX_QUEUED = new GoIntSystemProperty("gocd.mdu.adaptive.polling.max.queued", 100);
 
     public static final GoSystemProperty<Boolean> START_IN_MAINTENANCE_MODE = new GoBooleanSystemProperty("gocd.server.start.in.maintenance.mode", false);
 
     public static final GoSystemProperty<Boolean> INITIALIZE_CONFIG_REPOSITORIES_ON_STARTUP = new GoBooleanSystemProperty("gocd.initialize.config.repositories.on.startup", true);
 
+    public static final GoSystemProperty<Boolean> LOAD_VALIDATED_CONFIG_SNAPSHOT_ON_STARTUP = new GoBooleanSystemProperty("gocd.load.validated.config.snapshot.on.startup", true);
+
     private static final Map<String, String> GIT_ALLOW_PROTOCOL = Map.of(
         "GIT_ALLOW_PROTOCOL",
         System.getenv("GIT_ALLOW_PROTOCOL") == null ? "http:https:ssh:git:file:rsync" : System.getenv("GIT_ALLOW_PROTOCOL")
@@ -371,6 +400,14 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return CONFIG_MATERIAL_POST_UPDATE_LISTENERS.getValue();
     }
 
+    public int getNumberOfArtifactsPurgeThreads() {
+        return ARTIFACTS_PURGE_THREADS.getValue();
+    }
+
+    public int getArtifactsPurgeSoftWatermarkPercent() {
+        return ARTIFACTS_PURGE_SOFT_WATERMARK_PERCENT.getValue();
+    }
+
     public String getAgentMd5() {
         return getPropertyImpl(AGENT_JAR_MD5, "");
     }
@@ -581,6 +618,14 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return HOURS.toMillis(GO_CONFIG_REPO_GC_EXPIRE_IN_HOURS.getValue());
     }
 
+    public boolean shouldCheckinConfigAsynchronously() {
+        return GO_CONFIG_REPO_ASYNC_CHECKIN.getValue();
+    }
+
+    public long getConfigRepoGcLooseObjectThreshold() {
+        return GO_CONFIG_REPO_GC_LOOSE_OBJECT_THRESHOLD.getValue();
+    }
+
     public int sessionTimeoutInSeconds() {
         return GO_SERVER_SESSION_TIMEOUT_IN_SECONDS.getValue();
     }
@@ -673,6 +718,26 @@ public class SystemEnvironment implements Serializable, ConfigDirProvider {
         return INITIALIZE_CONFIG_REPOSITORIES_ON_STARTUP.getValue();
     }
 
+    public boolean shouldRunServerBackupStepsInParallel() {
+        return GO_SERVER_BACKUP_STEPS_IN_PARALLEL.getValue();
+    }
+
+    public int getModificationsSaveChunkSize() {
+        return MATERIAL_MODIFICATIONS_SAVE_CHUNK_SIZE.getValue();
+    }
+
+    public boolean shouldSearchModificationsUsingFullTextIndex() {
+        return GO_MODIFICATION_FULL_TEXT_SEARCH.getValue();
+    }
+
+    public int getCacheRegionMaximumSize(String region, int defaultSize) {
+        return new GoIntSystemProperty("go.cache." + region + ".max.entries", defaultSize).getValue();
+    }
+
+    public long getCacheRegionTimeToLiveInSeconds(String region, long defaultTimeToLive) {
+        return new GoLongSystemProperty("go.cache." + region + ".ttl.seconds", defaultTimeToLive).getValue();
+    }
+
     public long getPluginLocationMonitorIntervalInMillis() {
         return SECONDS.toMillis(PLUGIN_LOCATION_MONITOR_INTERVAL_IN_SECONDS.getValue());
     }
@@ -15,13 +15,11 @@
  */
 package com.thoughtworks.go.util;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.zip.ZipOutputStream;
 
 public class ZipBuilder {
     private final int level;
@@ -43,14 +41,12 @@ public class ZipBuilder {
     }
 
     public void done() throws IOException {
-        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(destinationStream))) {
-            zip.setLevel(level);
+        try (ZipUtil.ZipSink zip = zipUtil.newZipSink(destinationStream, level)) {
             for (Map.Entry<String, File> zipDirToSourceFileEntry : toAdd.entrySet()) {
                 File sourceFileToZip = zipDirToSourceFileEntry.getValue();
                 String destinationFolder = zipDirToSourceFileEntry.getKey();
                 zipUtil.addToZip(new ZipPath(destinationFolder), sourceFileToZip, zip, excludeRootDir);
             }
-            zip.flush();
         }
     }
 }
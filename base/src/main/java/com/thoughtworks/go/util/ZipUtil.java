@@ -19,6 +19,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -28,14 +30,27 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class ZipUtil {
     private static final Logger LOGGER = LoggerFactory.getLogger(ZipUtil.class);
     private ZipEntryHandler zipEntryHandler = null;
+    private final int compressionThreads;
+    private final Integer compressionLevel;
 
     public ZipUtil() {
+        this(new SystemEnvironment());
     }
 
     public ZipUtil(ZipEntryHandler zipEntryHandler) {
+        this();
         this.zipEntryHandler = zipEntryHandler;
     }
 
+    private ZipUtil(SystemEnvironment systemEnvironment) {
+        this(systemEnvironment.get(SystemEnvironment.GO_ZIP_COMPRESSION_THREADS), systemEnvironment.get(SystemEnvironment.GO_ZIP_COMPRESSION_LEVEL));
+    }
+
+    ZipUtil(int compressionThreads, Integer compressionLevel) {
+        this.compressionThreads = compressionThreads;
+        this.compressionLevel = compressionLevel;
+    }
+
     public File zip(File source, File destZipFile, int level) throws IOException {
         zipContents(source, new FileOutputStream(destZipFile), level, false);
         return destZipFile;
@@ -58,7 +73,22 @@ public class ZipUtil {
         new ZipBuilder(this, level, output, excludeRootDir).add("", file).done();
     }
 
-    private void addFolderToZip(ZipPath path, File source, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    /**
+     * Entries are compressed on {@code go.zip.compression.threads} threads when more than one is configured.
+     * {@code go.zip.compression.level}, when set, takes precedence over the level asked for, e.g. to store artifacts
+     * which are already compressed rather than deflating them again.
+     */
+    ZipSink newZipSink(OutputStream destination, int level) {
+        int levelToUse = compressionLevel == null ? level : compressionLevel;
+        if (compressionThreads > 1) {
+            return new ParallelZipWriter(destination, levelToUse, compressionThreads);
+        }
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(destination));
+        zip.setLevel(levelToUse);
+        return new StreamingZipSink(zip, levelToUse == Deflater.NO_COMPRESSION);
+    }
+
+    private void addFolderToZip(ZipPath path, File source, ZipSink zip, boolean excludeRootDir) throws IOException {
         ZipPath newPath = path.with(source);
         if (source.isFile()) {
             addToZip(newPath, source, zip, false);
@@ -67,32 +97,29 @@ public class ZipUtil {
         }
     }
 
-    private void addDirectory(ZipPath path, File source, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    private void addDirectory(ZipPath path, File source, ZipSink zip, boolean excludeRootDir) throws IOException {
         if (excludeRootDir) {
             addDirContents(path, source, zip);
             return;
         }
         ZipPath newPath = path.with(source);
-        zip.putNextEntry(newPath.asZipEntryDirectory());
+        zip.addDirectory(newPath.asZipEntryDirectory());
         addDirContents(newPath, source, zip);
     }
 
-    private void addDirContents(ZipPath path, File source, ZipOutputStream zip) throws IOException {
+    private void addDirContents(ZipPath path, File source, ZipSink zip) throws IOException {
         for (File file : source.listFiles()) {
             addToZip(path, file, zip, false);
         }
     }
 
-    void addToZip(ZipPath path, File srcFile, ZipOutputStream zip, boolean excludeRootDir) throws IOException {
+    void addToZip(ZipPath path, File srcFile, ZipSink zip, boolean excludeRootDir) throws IOException {
         if (srcFile.isDirectory()) {
             addFolderToZip(path, srcFile, zip, excludeRootDir);
         } else {
-            try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(srcFile))) {
-                ZipEntry zipEntry = path.with(srcFile).asZipEntry();
-                zipEntry.setTime(srcFile.lastModified());
-                zip.putNextEntry(zipEntry);
-                inputStream.transferTo(zip);
-            }
+            ZipEntry zipEntry = path.with(srcFile).asZipEntry();
+            zipEntry.setTime(srcFile.lastModified());
+            zip.addFile(zipEntry, srcFile);
         }
     }
 
@@ -169,4 +196,52 @@ public class ZipUtil {
         void handleEntry(ZipEntry entry, InputStream stream) throws IOException;
     }
 
+    interface ZipSink extends Closeable {
+        void addDirectory(ZipEntry entry) throws IOException;
+
+        void addFile(ZipEntry entry, File file) throws IOException;
+    }
+
+    private record StreamingZipSink(ZipOutputStream zip, boolean store) implements ZipSink {
+        @Override
+        public void addDirectory(ZipEntry entry) throws IOException {
+            zip.putNextEntry(entry);
+        }
+
+        @Override
+        public void addFile(ZipEntry entry, File file) throws IOException {
+            if (store) {
+                storeAs(entry, file);
+            }
+            try (BufferedInputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+                zip.putNextEntry(entry);
+                inputStream.transferTo(zip);
+            }
+        }
+
+        /**
+         * A stored entry has to carry its size and CRC up front, so the file is read once for them before it is copied.
+         */
+        private static void storeAs(ZipEntry entry, File file) throws IOException {
+            CRC32 crc = new CRC32();
+            try (InputStream inputStream = new FileInputStream(file)) {
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = inputStream.read(buffer)) != -1) {
+                    crc.update(buffer, 0, read);
+                }
+            }
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(file.length());
+            entry.setCompressedSize(file.length());
+            entry.setCrc(crc.getValue());
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.flush();
+            zip.close();
+        }
+    }
+
 }
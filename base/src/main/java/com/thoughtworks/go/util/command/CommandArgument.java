@@ -18,6 +18,7 @@ package com.thoughtworks.go.util.command;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.Serializable;
+import java.util.Map;
 
 public abstract class CommandArgument implements Serializable, SecretRedactor {
     public abstract String originalArgument();
@@ -58,4 +59,13 @@ public abstract class CommandArgument implements Serializable, SecretRedactor {
         }
         return toRedact;
     }
+
+    /**
+     * The secrets {@link #redactFrom(Redactable)} replaces, each with what it is replaced by, so that many arguments
+     * can be redacted in a single pass. Arguments overriding one of the two should override the other to match.
+     */
+    public Map<String, String> secretsToRedact() {
+        String originalArgument = originalArgument();
+        return originalArgument == null || originalArgument.isEmpty() ? Map.of() : Map.of(originalArgument, forDisplay());
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.*;
+
+/**
+ * Understands redacting many secrets from a line in a single pass over it, whatever the number of secrets. The
+ * {@link CommandArgument#secretsToRedact() secrets} of {@link CommandArgument}s, which are replaced wherever they occur,
+ * are compiled into an Aho-Corasick automaton; any other redactors, including arguments which redact differently from
+ * the secrets they declare, are applied one after another once those have been replaced. Where secrets overlap, all of
+ * them are replaced by the replacement of the one starting first (and of those, the longest).
+ */
+public class MultiPatternSecretRedactor implements SecretRedactor {
+    private static final MultiPatternSecretRedactor NONE = new MultiPatternSecretRedactor(List.of());
+    private static final ClassValue<Boolean> REDACTS_ITS_SECRETS = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("redactFrom", Redactable.class).getDeclaringClass() == type.getMethod("secretsToRedact").getDeclaringClass();
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    };
+
+    private final State root = new State();
+    private final List<String> replacements = new ArrayList<>();
+    private final List<SecretRedactor> others = new ArrayList<>();
+
+    private MultiPatternSecretRedactor(List<? extends SecretRedactor> redactors) {
+        Set<String> secrets = new HashSet<>();
+        for (SecretRedactor redactor : redactors) {
+            if (redactor instanceof CommandArgument argument && REDACTS_ITS_SECRETS.get(argument.getClass())) {
+                argument.secretsToRedact().forEach((secret, replacement) -> {
+                    if (!secret.isEmpty() && !secret.equals(replacement) && secrets.add(secret)) {
+                        add(secret, replacement);
+                    }
+                });
+            } else {
+                others.add(redactor);
+            }
+        }
+        linkFailures();
+    }
+
+    @SafeVarargs
+    public static MultiPatternSecretRedactor of(List<? extends SecretRedactor>... redactors) {
+        List<SecretRedactor> all = new ArrayList<>();
+        for (List<? extends SecretRedactor> list : redactors) {
+            all.addAll(list);
+        }
+        return all.isEmpty() ? NONE : new MultiPatternSecretRedactor(all);
+    }
+
+    @Override
+    public @NotNull Redactable redactFrom(@NotNull Redactable toRedact) {
+        Redactable redacted = toRedact.value() == null ? toRedact : toRedact.next(replaceSecretsIn(toRedact.value()));
+        for (SecretRedactor other : others) {
+            redacted = other.redactFrom(redacted);
+        }
+        return redacted;
+    }
+
+    private String replaceSecretsIn(String line) {
+        if (root.next.isEmpty()) {
+            return line;
+        }
+
+        int[] longestStartingAt = null;
+        int[] secretStartingAt = null;
+        State state = root;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            State next;
+            while ((next = state.next.get(c)) == null && state != root) {
+                state = state.failure;
+            }
+            state = next == null ? root : next;
+
+            for (State match = state.secret >= 0 ? state : state.output; match != null; match = match.output) {
+                if (longestStartingAt == null) {
+                    longestStartingAt = new int[line.length()];
+                    secretStartingAt = new int[line.length()];
+                }
+                int start = i - match.depth + 1;
+                if (match.depth > longestStartingAt[start]) {
+                    longestStartingAt[start] = match.depth;
+                    secretStartingAt[start] = match.secret;
+                }
+            }
+        }
+        if (longestStartingAt == null) {
+            return line;
+        }
+
+        // Secrets overlapping one which is being replaced are replaced along with it, so that no part of them shows
+        StringBuilder redacted = new StringBuilder(line.length());
+        int i = 0;
+        while (i < line.length()) {
+            if (longestStartingAt[i] == 0) {
+                redacted.append(line.charAt(i++));
+                continue;
+            }
+            redacted.append(replacements.get(secretStartingAt[i]));
+            int end = i + longestStartingAt[i];
+            for (i++; i < end; i++) {
+                end = Math.max(end, i + longestStartingAt[i]);
+            }
+        }
+        return redacted.toString();
+    }
+
+    private void add(String secret, String replacement) {
+        State state = root;
+        for (int i = 0; i < secret.length(); i++) {
+            State parent = state;
+            state = state.next.computeIfAbsent(secret.charAt(i), c -> new State(parent.depth + 1));
+        }
+        state.secret = replacements.size();
+        replacements.add(replacement);
+    }
+
+    private void linkFailures() {
+        Deque<State> queue = new ArrayDeque<>();
+        for (State child : root.next.values()) {
+            child.failure = root;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            State state = queue.remove();
+            for (Map.Entry<Character, State> entry : state.next.entrySet()) {
+                State child = entry.getValue();
+                State failure = state.failure;
+                while (failure != root && !failure.next.containsKey(entry.getKey())) {
+                    failure = failure.failure;
+                }
+                child.failure = failure.next.getOrDefault(entry.getKey(), root);
+                child.output = child.failure.secret >= 0 ? child.failure : child.failure.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private static class State {
+        private final Map<Character, State> next = new HashMap<>();
+        private final int depth;
+        private State failure;
+        // The state of the longest secret which is a proper suffix of this state, if any
+        private State output;
+        private int secret = -1;
+
+        State() {
+            this(0);
+        }
+
+        State(int depth) {
+            this.depth = depth;
+        }
+    }
+}
@@ -20,6 +20,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.EnabledOnOs;
 import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -221,6 +223,39 @@ public class ZipUtilTest {
         }
     }
 
+    @Test
+    void shouldCompressEntriesInParallelIntoAStandardZip() throws IOException {
+        File bigFile = new File(childDir1, "_big");
+        Files.writeString(bigFile.toPath(), "some repeated text\n".repeat(500_000), UTF_8);
+        bigFile.setLastModified(1297989100000L);
+
+        zipFile = new ZipUtil(4, null).zip(srcDir, createFileInTempDir(), Deflater.BEST_SPEED);
+
+        try (ZipFile actualZip = new ZipFile(zipFile)) {
+            ZipEntry entry = actualZip.getEntry(srcDir.getName() + "/" + childDir1.getName() + "/" + bigFile.getName());
+            assertThat(entry.getMethod()).isEqualTo(ZipEntry.DEFLATED);
+            assertThat(entry.getCompressedSize()).isLessThan(bigFile.length());
+            assertThat(entry.getTime()).isEqualTo(bigFile.lastModified());
+        }
+        zipUtil.unzip(zipFile, destDir);
+        File baseDir = new File(destDir, srcDir.getName());
+        assertIsDirectory(new File(baseDir, emptyDir.getName()));
+        assertThat(fileContent(new File(baseDir, file1.getName()))).isEqualTo(fileContent(file1));
+        assertThat(fileContent(new File(baseDir, childDir1.getName() + File.separator + file2.getName()))).isEqualTo(fileContent(file2));
+        assertThat(fileContent(new File(baseDir, childDir1.getName() + File.separator + bigFile.getName()))).isEqualTo(fileContent(bigFile));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void shouldStoreEntriesWithoutCompressingThemWhenTheConfiguredLevelSaysSo(int threads) throws IOException {
+        zipFile = new ZipUtil(threads, Deflater.NO_COMPRESSION).zip(srcDir, createFileInTempDir(), Deflater.BEST_COMPRESSION);
+
+        assertContent(zipFile, srcDir.getName() + "/" + file1.getName(), "_file1");
+        try (ZipFile actualZip = new ZipFile(zipFile)) {
+            assertThat(actualZip.getEntry(srcDir.getName() + "/" + file1.getName()).getMethod()).isEqualTo(ZipEntry.STORED);
+        }
+    }
+
     @Test
     void shouldThrowUpWhileTryingToUnzipIfAnyOfTheFilePathsInArchiveHasAPathContainingDotDotSlashPath() {
         assertThatThrownBy(() -> zipUtil.unzip(new File(requireNonNull(getClass().getResource("/archive_traversal_attack.zip")).toURI()), destDir))
@@ -0,0 +1,128 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.apiv4.dashboard;
+
+import com.thoughtworks.go.api.base.JsonOutputWriter;
+import com.thoughtworks.go.apiv4.dashboard.representers.DashboardFor;
+import com.thoughtworks.go.apiv4.dashboard.representers.DashboardRepresenter;
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.config.PipelineConfigs;
+import com.thoughtworks.go.config.security.Permissions;
+import com.thoughtworks.go.config.security.permissions.EveryonePermission;
+import com.thoughtworks.go.config.security.users.Everyone;
+import com.thoughtworks.go.domain.JobResult;
+import com.thoughtworks.go.domain.JobState;
+import com.thoughtworks.go.domain.PipelinePauseInfo;
+import com.thoughtworks.go.domain.StageIdentifier;
+import com.thoughtworks.go.domain.buildcause.BuildCause;
+import com.thoughtworks.go.helper.BenchmarkConfigMother;
+import com.thoughtworks.go.presentation.pipelinehistory.*;
+import com.thoughtworks.go.server.dashboard.GoDashboardPipeline;
+import com.thoughtworks.go.server.dashboard.GoDashboardPipelineGroup;
+import com.thoughtworks.go.server.dashboard.TimeStampBasedCounter;
+import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.spark.RequestContext;
+import com.thoughtworks.go.util.SystemTimeClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.helper.BenchmarkConfigMother.BUILD_STAGE;
+import static com.thoughtworks.go.helper.BenchmarkConfigMother.TEST_STAGE;
+
+/**
+ * Writing the dashboard API response, with and without pretty printing, for a dashboard of pipelines that have each
+ * run once. The response is counted rather than kept, so that only serialization is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class DashboardSerializationBenchmark {
+    @Param({"1000", "5000"})
+    public int pipelines;
+
+    @Param({"false", "true"})
+    public boolean prettyPrint;
+
+    private final TimeStampBasedCounter counter = new TimeStampBasedCounter(new SystemTimeClock());
+    private final Permissions permissions = new Permissions(Everyone.INSTANCE, Everyone.INSTANCE, Everyone.INSTANCE, EveryonePermission.INSTANCE);
+    private final RequestContext requestContext = new RequestContext("https", "gocd.example.com", 443, "/go");
+    private DashboardFor dashboard;
+
+    @Setup
+    public void setUp() {
+        List<GoDashboardPipelineGroup> groups = new ArrayList<>();
+        for (PipelineConfigs group : BenchmarkConfigMother.configWithPipelines(pipelines).getGroups()) {
+            GoDashboardPipelineGroup dashboardGroup = new GoDashboardPipelineGroup(group.getGroup(), permissions, true);
+            for (PipelineConfig pipelineConfig : group) {
+                dashboardGroup.addPipeline(dashboardPipeline(group.getGroup(), pipelineConfig));
+            }
+            groups.add(dashboardGroup);
+        }
+        dashboard = new DashboardFor(groups, List.of(), new Username("admin"), "personalization-etag");
+    }
+
+    @Benchmark
+    public long writeDashboard() {
+        CountingWriter writer = new CountingWriter();
+        new JsonOutputWriter(writer, requestContext, prettyPrint).forTopLevelObject(outputWriter -> DashboardRepresenter.toJSON(outputWriter, dashboard));
+        return writer.count;
+    }
+
+    private GoDashboardPipeline dashboardPipeline(String groupName, PipelineConfig pipelineConfig) {
+        String pipelineName = CaseInsensitiveString.str(pipelineConfig.name());
+        StageInstanceModels stages = new StageInstanceModels();
+        stages.add(stage(pipelineName, BUILD_STAGE));
+        stages.add(stage(pipelineName, TEST_STAGE));
+
+        PipelineModel model = new PipelineModel(pipelineName, true, true, PipelinePauseInfo.notPaused());
+        model.addPipelineInstance(PipelineInstanceModel.createPipeline(pipelineName, 1, "1", BuildCause.createManualForced(), stages));
+        return new GoDashboardPipeline(model, permissions, groupName, counter, pipelineConfig);
+    }
+
+    private StageInstanceModel stage(String pipelineName, String stageName) {
+        JobHistory jobs = JobHistory.withJob("compile", JobState.Completed, JobResult.Passed, new Date())
+                .addJob("package", JobState.Completed, JobResult.Passed, new Date());
+        StageInstanceModel stage = new StageInstanceModel(stageName, "1", jobs, new StageIdentifier(pipelineName, 1, stageName, "1"));
+        stage.setApprovedBy("changes");
+        return stage;
+    }
+
+    private static class CountingWriter extends Writer {
+        private long count;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            count += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
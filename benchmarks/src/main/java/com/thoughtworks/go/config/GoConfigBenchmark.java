@@ -0,0 +1,92 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
+import com.thoughtworks.go.helper.BenchmarkConfigMother;
+import com.thoughtworks.go.util.ClonerFactory;
+import com.thoughtworks.go.util.ConfigElementImplementationRegistryMother;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.helper.BenchmarkConfigMother.pipelineName;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Loading the config XML, as done on startup and on every change to the config file, and saving a pipeline through
+ * the entity save path of {@link GoFileConfigDataSource#writeEntityWithLock}, minus writing to disk and to the config
+ * repository.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class GoConfigBenchmark {
+    @Param({"1000", "5000", "20000"})
+    public int pipelines;
+
+    private MagicalGoConfigXmlLoader loader;
+    private MagicalGoConfigXmlWriter writer;
+    private String xml;
+    private CruiseConfig configForEdit;
+    private CaseInsensitiveString editedPipeline;
+
+    @Setup
+    public void setUp() throws Exception {
+        ConfigElementImplementationRegistry registry = ConfigElementImplementationRegistryMother.withNoPlugins();
+        loader = new MagicalGoConfigXmlLoader(new ConfigCache(), registry);
+        writer = new MagicalGoConfigXmlWriter(new ConfigCache(), registry);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(BenchmarkConfigMother.configWithPipelines(pipelines), output, false);
+        xml = output.toString(UTF_8);
+        configForEdit = loader.loadConfigHolder(xml).configForEdit;
+        editedPipeline = new CaseInsensitiveString(pipelineName(pipelines / 2));
+    }
+
+    @Benchmark
+    public GoConfigHolder loadConfigHolder() throws Exception {
+        return loader.loadConfigHolder(xml);
+    }
+
+    @Benchmark
+    public GoConfigHolder loadValidatedConfigHolder() throws Exception {
+        return loader.loadValidatedConfigHolder(xml);
+    }
+
+    @Benchmark
+    public String saveEntity() throws Exception {
+        CruiseConfig modifiedConfig = ClonerFactory.instance().deepClone(configForEdit);
+        modifiedConfig.pipelineConfigByName(editedPipeline).addEnvironmentVariable("EDITED", "true");
+
+        CruiseConfig preprocessedConfig = ClonerFactory.instance().deepClone(modifiedConfig);
+        MagicalGoConfigXmlLoader.preprocess(preprocessedConfig);
+        PipelineConfig preprocessedPipeline = preprocessedConfig.pipelineConfigByName(editedPipeline);
+        String group = preprocessedConfig.findGroupOfPipeline(preprocessedPipeline).getGroup();
+        if (!preprocessedPipeline.validateTree(PipelineConfigSaveValidationContext.forChain(false, group, preprocessedConfig, preprocessedPipeline))) {
+            throw new IllegalStateException("Edited pipeline is invalid: " + preprocessedPipeline.getAllErrors());
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(modifiedConfig, output, true);
+        return DigestUtils.md5Hex(output.toByteArray());
+    }
+}
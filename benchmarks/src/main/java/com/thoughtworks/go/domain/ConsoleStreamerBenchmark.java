@@ -0,0 +1,70 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Streaming the last lines of a large console log, as done every time the job details page polls for new console
+ * output of a running job.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ConsoleStreamerBenchmark {
+    @Param({"100000", "1000000"})
+    public int lines;
+
+    @Param({"100"})
+    public int tail;
+
+    private Path consoleLog;
+
+    @Setup
+    public void setUp() throws IOException {
+        consoleLog = Files.createTempFile("console", ".log");
+        try (BufferedWriter writer = Files.newBufferedWriter(consoleLog, UTF_8)) {
+            for (int i = 0; i < lines; i++) {
+                writer.write("01:02:03.456 [go] Line " + i + " of the output of a long running build task, padded to a typical length");
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(consoleLog);
+    }
+
+    @Benchmark
+    public long streamTail(Blackhole blackhole) throws IOException {
+        try (ConsoleStreamer streamer = new ConsoleStreamer(consoleLog, lines - tail)) {
+            return streamer.stream(blackhole::consume);
+        }
+    }
+}
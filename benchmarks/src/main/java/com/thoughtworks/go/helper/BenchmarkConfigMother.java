@@ -0,0 +1,108 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.helper;
+
+import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.config.materials.MaterialConfigs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.dependencyMaterialConfig;
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+
+/**
+ * Generates large, deterministic configurations for benchmarks. The same arguments always generate the same config.
+ */
+public class BenchmarkConfigMother {
+    public static final int PIPELINES_PER_GROUP = 50;
+    public static final int PIPELINES_PER_CHAIN = 10;
+    public static final String BUILD_STAGE = "build";
+    public static final String TEST_STAGE = "test";
+
+    /**
+     * A config with the given number of pipelines, in groups of {@link #PIPELINES_PER_GROUP}. Each pipeline has its
+     * own git material, two stages of two jobs and a few environment variables; pipelines are chained in runs of
+     * {@link #PIPELINES_PER_CHAIN} through dependency materials on the previous pipeline's test stage.
+     */
+    public static BasicCruiseConfig configWithPipelines(int pipelineCount) {
+        List<PipelineConfigs> groups = new ArrayList<>();
+        PipelineConfigs group = null;
+        for (int i = 0; i < pipelineCount; i++) {
+            if (i % PIPELINES_PER_GROUP == 0) {
+                group = new BasicPipelineConfigs("group-" + (i / PIPELINES_PER_GROUP), new Authorization(new ViewConfig(new AdminUser("viewer"))));
+                groups.add(group);
+            }
+
+            MaterialConfigs materials = new MaterialConfigs(git("https://git.example.com/repository-" + i + ".git"));
+            if (i % PIPELINES_PER_CHAIN != 0) {
+                materials.add(dependencyMaterialConfig(pipelineName(i - 1), TEST_STAGE));
+            }
+            PipelineConfig pipeline = new PipelineConfig(new CaseInsensitiveString(pipelineName(i)), materials, stage(BUILD_STAGE, i), stage(TEST_STAGE, i));
+            pipeline.addEnvironmentVariable("PIPELINE_INDEX", Integer.toString(i));
+            pipeline.addEnvironmentVariable("GROUP", group.getGroup());
+            group.add(pipeline);
+        }
+        return new BasicCruiseConfig(groups.toArray(new PipelineConfigs[0]));
+    }
+
+    /**
+     * A config whose {@code target} pipeline sits at the bottom of {@code depth} layers of {@code width} pipelines each.
+     * Every pipeline depends on all pipelines of the layer above, and the first layer on a single {@code source}
+     * pipeline, so every path from {@code target} leads back to the same git material.
+     */
+    public static BasicCruiseConfig diamondConfig(int depth, int width) {
+        List<PipelineConfig> pipelines = new ArrayList<>();
+        pipelines.add(new PipelineConfig(new CaseInsensitiveString("source"), new MaterialConfigs(git("https://git.example.com/source.git")), stage(BUILD_STAGE, 0)));
+
+        List<String> upstreams = List.of("source");
+        for (int layer = 0; layer < depth; layer++) {
+            List<String> layerPipelines = new ArrayList<>();
+            for (int i = 0; i < width; i++) {
+                String name = diamondPipelineName(layer, i);
+                pipelines.add(new PipelineConfig(new CaseInsensitiveString(name), dependenciesOn(upstreams), stage(BUILD_STAGE, i)));
+                layerPipelines.add(name);
+            }
+            upstreams = layerPipelines;
+        }
+        pipelines.add(new PipelineConfig(new CaseInsensitiveString("target"), dependenciesOn(upstreams), stage(BUILD_STAGE, 0)));
+
+        return new BasicCruiseConfig(new BasicPipelineConfigs("diamond", new Authorization(), pipelines.toArray(new PipelineConfig[0])));
+    }
+
+    public static String pipelineName(int index) {
+        return "pipeline-" + index;
+    }
+
+    public static String diamondPipelineName(int layer, int index) {
+        return "layer-" + layer + "-" + index;
+    }
+
+    private static MaterialConfigs dependenciesOn(List<String> upstreams) {
+        MaterialConfigs materials = new MaterialConfigs();
+        upstreams.forEach(upstream -> materials.add(dependencyMaterialConfig(upstream, BUILD_STAGE)));
+        return materials;
+    }
+
+    private static StageConfig stage(String name, int index) {
+        return new StageConfig(new CaseInsensitiveString(name), new JobConfigs(job("compile", index), job("package", index)));
+    }
+
+    private static JobConfig job(String name, int index) {
+        Tasks tasks = new Tasks(new ExecTask("make", name + " -j" + (index % 8 + 1), "src"), new ExecTask("ls", "-la", "target"));
+        return new JobConfig(new CaseInsensitiveString(name), new ResourceConfigs("linux,resource-" + (index % 20)), new ArtifactTypeConfigs(), tasks);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.dashboard;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.config.PipelineConfigs;
+import com.thoughtworks.go.config.security.Permissions;
+import com.thoughtworks.go.config.security.permissions.EveryonePermission;
+import com.thoughtworks.go.config.security.users.Everyone;
+import com.thoughtworks.go.domain.PipelinePauseInfo;
+import com.thoughtworks.go.helper.BenchmarkConfigMother;
+import com.thoughtworks.go.presentation.pipelinehistory.PipelineModel;
+import com.thoughtworks.go.util.SystemTimeClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Updating the dashboard cache, either for a single pipeline (as done on every stage status change) or for all of them
+ * at once (as done on every config change).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GoDashboardCacheBenchmark {
+    @Param({"1000", "5000", "20000"})
+    public int pipelines;
+
+    private final TimeStampBasedCounter counter = new TimeStampBasedCounter(new SystemTimeClock());
+    private final Permissions permissions = new Permissions(Everyone.INSTANCE, Everyone.INSTANCE, Everyone.INSTANCE, EveryonePermission.INSTANCE);
+    private List<GoDashboardPipeline> dashboardPipelines;
+    private GoDashboardCache cache;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dashboardPipelines = new ArrayList<>();
+        for (PipelineConfigs group : BenchmarkConfigMother.configWithPipelines(pipelines).getGroups()) {
+            for (PipelineConfig pipelineConfig : group) {
+                dashboardPipelines.add(dashboardPipeline(group.getGroup(), pipelineConfig));
+            }
+        }
+        cache = new GoDashboardCache(counter);
+        cache.replaceAllEntriesInCacheWith(dashboardPipelines);
+    }
+
+    @Benchmark
+    public GoDashboardPipelines putSinglePipeline() {
+        cache.put(dashboardPipelines.get(next++ % pipelines));
+        return cache.allEntries();
+    }
+
+    @Benchmark
+    public GoDashboardPipelines replaceAllPipelines() {
+        cache.replaceAllEntriesInCacheWith(dashboardPipelines);
+        return cache.allEntries();
+    }
+
+    private GoDashboardPipeline dashboardPipeline(String groupName, PipelineConfig pipelineConfig) {
+        PipelineModel model = new PipelineModel(CaseInsensitiveString.str(pipelineConfig.name()), false, false, PipelinePauseInfo.notPaused());
+        return new GoDashboardPipeline(model, permissions, groupName, counter, pipelineConfig);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.domain.*;
+import com.thoughtworks.go.helper.AgentInstanceMother;
+import com.thoughtworks.go.server.messaging.JobStatusTopic;
+import com.thoughtworks.go.server.service.builders.BuilderFactory;
+import com.thoughtworks.go.server.transaction.TransactionTemplate;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Matching scheduled jobs to agents, as done by {@link BuildAssignmentService} every time an agent asks for work. Each
+ * agent has a resource of its own which only every {@code agents}-th job plan needs, and one more agent has no
+ * resources at all so that it has to look at every plan without finding a match.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class BuildAssignmentServiceBenchmark {
+    @Param({"1000", "5000"})
+    public int plans;
+
+    @Param({"100", "1000"})
+    public int agents;
+
+    private BuildAssignmentService buildAssignmentService;
+    private List<AgentInstance> agentInstances;
+    private AgentInstance agentWithoutResources;
+
+    @Setup
+    public void setUp() {
+        List<JobPlan> scheduled = new ArrayList<>();
+        for (int i = 0; i < plans; i++) {
+            JobIdentifier identifier = new JobIdentifier("pipeline-" + i, 1, "1", "build", "1", "job", (long) i);
+            scheduled.add(new DefaultJobPlan(new Resources("linux, resource-" + (i % agents)), new ArrayList<>(), i, identifier, null, new EnvironmentVariables(), new EnvironmentVariables(), null, null));
+        }
+
+        agentInstances = new ArrayList<>();
+        for (int i = 0; i < agents; i++) {
+            agentInstances.add(AgentInstanceMother.idleWith("uuid-" + i, "agent-" + i, "10.0.0." + (i % 256), "/var/lib/go-agent", 10_000_000_000L, "linux", List.of("linux", "resource-" + i), "20.5.0", "20.5.0"));
+        }
+        agentWithoutResources = AgentInstanceMother.idleWith("uuid-none", "agent-none", "10.0.1.1", "/var/lib/go-agent", 10_000_000_000L, "linux", List.of(), "20.5.0", "20.5.0");
+
+        // Stub-only mocks do not record invocations, which would otherwise pile up over millions of benchmark calls
+        JobInstanceService jobInstanceService = mock(JobInstanceService.class, withSettings().stubOnly());
+        when(jobInstanceService.orderedScheduledBuilds()).thenAnswer(invocation -> new ArrayList<>(scheduled));
+        EnvironmentConfigService environmentConfigService = mock(EnvironmentConfigService.class, withSettings().stubOnly());
+        when(environmentConfigService.filterJobsByAgent(anyList(), anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        buildAssignmentService = new BuildAssignmentService(
+                stub(GoConfigService.class), jobInstanceService, stub(ScheduleService.class), stub(AgentService.class),
+                environmentConfigService, stub(TransactionTemplate.class), stub(ScheduledPipelineLoader.class),
+                stub(PipelineService.class), stub(BuilderFactory.class), stub(MaintenanceModeService.class),
+                stub(ElasticAgentPluginService.class), new SystemEnvironment(), stub(SecretParamResolver.class),
+                stub(JobStatusTopic.class), stub(ConsoleService.class));
+    }
+
+    @Setup(Level.Invocation)
+    public void reloadJobPlans() {
+        // A matched plan is taken off the list, so every invocation starts from the full list of scheduled jobs
+        buildAssignmentService.onTimer();
+    }
+
+    @Benchmark
+    public void findMatchingJobForEveryAgent(Blackhole blackhole) {
+        for (AgentInstance agentInstance : agentInstances) {
+            blackhole.consume(buildAssignmentService.findMatchingJob(agentInstance));
+        }
+    }
+
+    @Benchmark
+    public JobPlan findNoMatchingJob() {
+        return buildAssignmentService.findMatchingJob(agentWithoutResources);
+    }
+
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
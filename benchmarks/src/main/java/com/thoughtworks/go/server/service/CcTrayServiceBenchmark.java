@@ -0,0 +1,86 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.security.users.AllowedUsers;
+import com.thoughtworks.go.domain.activity.ProjectStatus;
+import com.thoughtworks.go.domain.cctray.CcTrayCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Rendering the CcTray feed, which CI monitors keep polling, with a project for every pipeline, stage and job. With
+ * security enabled, the user rendering the feed can only view one pipeline in ten.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class CcTrayServiceBenchmark {
+    private static final String SITE_URL_PREFIX = "https://gocd.example.com/go";
+
+    @Param({"1000", "5000"})
+    public int pipelines;
+
+    @Param({"false", "true"})
+    public boolean securityEnabled;
+
+    private CcTrayService ccTrayService;
+
+    @Setup
+    public void setUp() {
+        List<ProjectStatus> statuses = new ArrayList<>();
+        for (int i = 0; i < pipelines; i++) {
+            AllowedUsers viewers = new AllowedUsers(Set.of("admin", "viewer-" + (i % 10)), Set.of());
+            String pipeline = "pipeline-" + i;
+            statuses.add(projectStatus(pipeline, pipeline, viewers));
+            for (String stage : List.of("build", "test")) {
+                statuses.add(projectStatus(pipeline + " :: " + stage, pipeline + "/1/" + stage + "/1", viewers));
+                for (String job : List.of("compile", "package")) {
+                    statuses.add(projectStatus(pipeline + " :: " + stage + " :: " + job, pipeline + "/1/" + stage + "/1/" + job, viewers));
+                }
+            }
+        }
+        CcTrayCache ccTrayCache = new CcTrayCache();
+        ccTrayCache.putAll(statuses);
+
+        GoConfigService goConfigService = mock(GoConfigService.class, withSettings().stubOnly());
+        when(goConfigService.isSecurityEnabled()).thenReturn(securityEnabled);
+        ccTrayService = new CcTrayService(ccTrayCache, goConfigService);
+    }
+
+    @Benchmark
+    public Appendable renderCCTrayXML(Blackhole blackhole) {
+        return ccTrayService.renderCCTrayXML(SITE_URL_PREFIX, "viewer-0", new StringBuilder(), blackhole::consume);
+    }
+
+    private static ProjectStatus projectStatus(String name, String locator, AllowedUsers viewers) {
+        ProjectStatus status = new ProjectStatus(name, "Sleeping", "Success", "1", new Date(), ProjectStatus.SITE_URL_PREFIX + "/" + locator);
+        return status.updateViewers(viewers);
+    }
+}
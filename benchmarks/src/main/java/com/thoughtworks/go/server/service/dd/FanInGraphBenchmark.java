@@ -0,0 +1,131 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.config.materials.dependency.DependencyMaterialConfig;
+import com.thoughtworks.go.domain.*;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.helper.BenchmarkConfigMother;
+import com.thoughtworks.go.server.dao.PipelineDao;
+import com.thoughtworks.go.server.domain.PipelineTimeline;
+import com.thoughtworks.go.server.persistence.MaterialRepository;
+import com.thoughtworks.go.server.service.MaterialConfigConverter;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.thoughtworks.go.helper.BenchmarkConfigMother.BUILD_STAGE;
+import static com.thoughtworks.go.helper.BenchmarkConfigMother.diamondPipelineName;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Resolving fan-in revisions for a pipeline at the bottom of a deep diamond of dependencies, as done by
+ * {@code PipelineService} every time the pipeline is scheduled. The pipeline timeline is held in memory as it is on
+ * the server; the few database lookups are answered from memory.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class FanInGraphBenchmark {
+    private static final CaseInsensitiveString TARGET = new CaseInsensitiveString("target");
+
+    @Param({"5", "10", "20"})
+    public int depth;
+
+    @Param({"2", "4"})
+    public int width;
+
+    @Param({"10"})
+    public int instancesPerPipeline;
+
+    private CruiseConfig config;
+    private PipelineTimeline pipelineTimeline;
+    private MaterialRepository materialRepository;
+    private PipelineDao pipelineDao;
+    private MaterialRevisions actualRevisions;
+    private final SystemEnvironment systemEnvironment = new SystemEnvironment();
+    private final MaterialConfigConverter materialConfigConverter = new MaterialConfigConverter();
+
+    @Setup
+    public void setUp() {
+        config = BenchmarkConfigMother.diamondConfig(depth, width);
+        pipelineTimeline = new PipelineTimeline(null, null, null);
+
+        Map<Long, StageIdentifier> stagesByPipelineId = new HashMap<>();
+        List<PipelineConfig> pipelinesInOrder = new ArrayList<>();
+        pipelinesInOrder.add(config.pipelineConfigByName(new CaseInsensitiveString("source")));
+        for (int layer = 0; layer < depth; layer++) {
+            for (int i = 0; i < width; i++) {
+                pipelinesInOrder.add(config.pipelineConfigByName(new CaseInsensitiveString(diamondPipelineName(layer, i))));
+            }
+        }
+        pipelinesInOrder.add(config.pipelineConfigByName(TARGET));
+
+        long id = 0;
+        for (int counter = 1; counter <= instancesPerPipeline; counter++) {
+            for (PipelineConfig pipeline : pipelinesInOrder) {
+                id++;
+                Date scheduledAt = new Date(id * 1000);
+                Map<String, List<PipelineTimelineEntry.Revision>> revisions = new HashMap<>();
+                for (MaterialConfig material : pipeline.materialConfigs()) {
+                    String revision = material instanceof DependencyMaterialConfig dependency
+                            ? new StageIdentifier(CaseInsensitiveString.str(dependency.getPipelineName()), counter, BUILD_STAGE, "1").getStageLocator()
+                            : "revision-" + counter;
+                    revisions.put(material.getFingerprint(), List.of(new PipelineTimelineEntry.Revision(scheduledAt, revision, "", id)));
+                }
+                pipelineTimeline.add(new PipelineTimelineEntry(CaseInsensitiveString.str(pipeline.name()), id, counter, revisions));
+                stagesByPipelineId.put(id, new StageIdentifier(CaseInsensitiveString.str(pipeline.name()), counter, Integer.toString(counter), BUILD_STAGE, "1"));
+            }
+        }
+
+        // Stub-only mocks do not record invocations, which would otherwise pile up over millions of benchmark calls
+        pipelineDao = mock(PipelineDao.class, withSettings().stubOnly());
+        when(pipelineDao.latestPassedStageIdentifier(anyLong(), anyString())).thenAnswer(invocation -> stagesByPipelineId.get(invocation.<Long>getArgument(0)));
+        materialRepository = mock(MaterialRepository.class, withSettings().stubOnly());
+        when(materialRepository.modificationFor(any(StageIdentifier.class))).thenAnswer(invocation -> {
+            StageIdentifier stage = invocation.getArgument(0);
+            return List.of(new Modification(new Date(), stage.getStageLocator(), stage.getPipelineLabel(), null));
+        });
+
+        List<MaterialRevision> revisions = new ArrayList<>();
+        for (MaterialConfig material : config.pipelineConfigByName(TARGET).materialConfigs()) {
+            DependencyMaterialConfig dependency = (DependencyMaterialConfig) material;
+            String revision = new StageIdentifier(CaseInsensitiveString.str(dependency.getPipelineName()), instancesPerPipeline, BUILD_STAGE, "1").getStageLocator();
+            revisions.add(new MaterialRevision(materialConfigConverter.toMaterial(material), new Modification(new Date(), revision, Integer.toString(instancesPerPipeline), null)));
+        }
+        actualRevisions = new MaterialRevisions(revisions);
+    }
+
+    @Benchmark
+    public MaterialRevisions computeRevisions() {
+        FanInGraph fanInGraph = new FanInGraph(config, TARGET, materialRepository, pipelineDao, systemEnvironment, materialConfigConverter);
+        return fanInGraph.computeRevisions(actualRevisions, pipelineTimeline);
+    }
+}
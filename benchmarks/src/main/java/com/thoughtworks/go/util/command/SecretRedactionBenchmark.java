@@ -0,0 +1,100 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redacting the secrets of a job (secure environment variables and resolved secret params) from a line of its console
+ * output, as done on the agent for every line a task writes. {@code sequentially} replaces the secrets one after
+ * another, as done before they were compiled into a single redactor; {@code compiled} should cost the same whatever
+ * the number of secrets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SecretRedactionBenchmark {
+    @Param({"1", "10", "100", "1000"})
+    public int secrets;
+
+    private final List<SecretRedactor> redactors = new ArrayList<>();
+    private final List<String> lines = new ArrayList<>();
+    private SafeOutputStreamConsumer consumer;
+    private SecretRedactor compiled;
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < secrets; i++) {
+            redactors.add(new PasswordArgument(UUID.randomUUID().toString()));
+        }
+        for (int i = 0; i < 100; i++) {
+            String line = "01:02:03.456 [go] Line " + i + " of the output of a long running build task, padded to a typical length";
+            lines.add(i % 10 == 0 ? line + " " + ((PasswordArgument) redactors.get(i % secrets)).originalArgument() : line);
+        }
+        compiled = MultiPatternSecretRedactor.of(redactors);
+        consumer = new SafeOutputStreamConsumer(new ConsoleOutputStreamConsumer() {
+            @Override
+            public void stdOutput(String line) {
+            }
+
+            @Override
+            public void errOutput(String line) {
+            }
+
+            @Override
+            public void taggedStdOutput(String tag, String line) {
+            }
+
+            @Override
+            public void taggedErrOutput(String tag, String line) {
+            }
+        });
+        consumer.addSecrets(redactors);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void sequentially(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(SecretRedactor.redact(line, List.of(), redactors));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void compiled(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(compiled.redactFrom(line));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(100)
+    public void throughConsumer() {
+        for (String line : lines) {
+            consumer.stdOutput(line);
+        }
+    }
+}
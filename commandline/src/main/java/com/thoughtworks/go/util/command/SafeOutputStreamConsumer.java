@@ -22,6 +22,7 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
     private final List<CommandArgument> arguments = new ArrayList<>();
     private final List<SecretRedactor> secrets = new ArrayList<>();
     private final ConsoleOutputStreamConsumer consumer;
+    private volatile SecretRedactor redactor;
 
     public SafeOutputStreamConsumer(ConsoleOutputStreamConsumer consumer) {
         this.consumer = consumer;
@@ -29,6 +30,7 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
 
     public void addArgument(CommandArgument argument) {
         arguments.add(argument);
+        redactor = null;
     }
 
     @Override
@@ -51,15 +53,24 @@ public class SafeOutputStreamConsumer implements ConsoleOutputStreamConsumer {
         consumer.errOutput(redactSecretsFrom(line));
     }
 
+    // All secrets are compiled into one redactor the first time a line is written, so that redacting a line costs the
+    // same however many secrets there are
     private String redactSecretsFrom(String line) {
-        return SecretRedactor.redact(line, arguments, secrets);
+        SecretRedactor redactor = this.redactor;
+        if (redactor == null) {
+            redactor = MultiPatternSecretRedactor.of(arguments, secrets);
+            this.redactor = redactor;
+        }
+        return redactor.redactFrom(line);
     }
 
     public void addArguments(List<CommandArgument> arguments) {
         this.arguments.addAll(arguments);
+        redactor = null;
     }
 
     public void addSecrets(List<SecretRedactor> secrets) {
         this.secrets.addAll(secrets);
+        redactor = null;
     }
 }
@@ -17,7 +17,6 @@ package com.thoughtworks.go.remote.work;
 
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.JobResult;
-import com.thoughtworks.go.domain.MaterialRevision;
 import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
 import com.thoughtworks.go.plugin.access.scm.SCMExtension;
@@ -168,15 +167,12 @@ public class BuildWork implements Work {
         }
 
         ConsoleOutputStreamConsumer consumer = new LabeledOutputStreamConsumer(DefaultGoPublisher.PREP, DefaultGoPublisher.PREP_ERR, processOutputStreamConsumer());
-        MaterialAgentFactory materialAgentFactory = new MaterialAgentFactory(consumer, workingDirectory, agentIdentifier, scmExtension);
-
         materialRevisions.getMaterials().cleanUp(workingDirectory, consumer);
 
         goPublisher.taggedConsumeLineWithPrefix(DefaultGoPublisher.PREP, "Start to update materials.\n");
 
-        for (MaterialRevision revision : materialRevisions.getRevisions()) {
-            materialAgentFactory.createAgent(revision).prepare();
-        }
+        new MaterialCheckout(output -> new MaterialAgentFactory(output, workingDirectory, agentIdentifier, scmExtension), consumer, workingDirectory,
+                new SystemEnvironment().get(SystemEnvironment.AGENT_MATERIAL_CHECKOUT_THREADS)).update(materialRevisions.getRevisions());
     }
 
     private ProcessOutputStreamConsumer<GoPublisher, GoPublisher> processOutputStreamConsumer() {
@@ -0,0 +1,141 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
+import com.thoughtworks.go.config.materials.ScmMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
+import com.thoughtworks.go.util.command.BufferedOutputStreamConsumer;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Understands bringing the materials of a job up to the revisions it is to be built with, updating several of them at
+ * a time when allowed to and none of their destination folders lie within another's. The output of each material is
+ * held back until it is done, so that the console shows it in one piece and in the order the materials are listed in.
+ * As when updating them one after another, the first material to fail (in that order) fails the job, and the output of
+ * the materials after it is not shown.
+ */
+class MaterialCheckout {
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final Function<ConsoleOutputStreamConsumer, MaterialAgentFactory> agentFactory;
+    private final ConsoleOutputStreamConsumer consumer;
+    private final File workingDirectory;
+    private final int threads;
+
+    MaterialCheckout(Function<ConsoleOutputStreamConsumer, MaterialAgentFactory> agentFactory, ConsoleOutputStreamConsumer consumer, File workingDirectory, int threads) {
+        this.agentFactory = agentFactory;
+        this.consumer = consumer;
+        this.workingDirectory = workingDirectory;
+        this.threads = threads;
+    }
+
+    void update(List<MaterialRevision> revisions) {
+        List<Path> destinations = destinationsOfMaterialsToCheckout(revisions);
+        if (threads <= 1 || destinations.size() <= 1 || overlap(destinations)) {
+            MaterialAgentFactory materialAgentFactory = agentFactory.apply(consumer);
+            for (MaterialRevision revision : revisions) {
+                materialAgentFactory.createAgent(revision).prepare();
+            }
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, destinations.size()), MaterialCheckout::newThread);
+        try {
+            List<BufferedOutputStreamConsumer> outputs = new ArrayList<>();
+            List<Future<?>> updates = new ArrayList<>();
+            for (MaterialRevision revision : revisions) {
+                BufferedOutputStreamConsumer output = new BufferedOutputStreamConsumer();
+                outputs.add(output);
+                updates.add(executor.submit(() -> agentFactory.apply(output).createAgent(revision).prepare()));
+            }
+
+            for (int i = 0; i < updates.size(); i++) {
+                try {
+                    updates.get(i).get();
+                    outputs.get(i).writeTo(consumer);
+                } catch (ExecutionException e) {
+                    outputs.get(i).writeTo(consumer);
+                    abandon(executor, updates.subList(i + 1, updates.size()));
+                    throw asUnchecked(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while updating materials", e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Path> destinationsOfMaterialsToCheckout(List<MaterialRevision> revisions) {
+        List<Path> destinations = new ArrayList<>();
+        for (MaterialRevision revision : revisions) {
+            Material material = revision.getMaterial();
+            if (material instanceof ScmMaterial || material instanceof PluggableSCMMaterial) {
+                destinations.add(new File(workingDirectory, Objects.toString(material.getFolder(), "")).toPath().toAbsolutePath().normalize());
+            }
+        }
+        return destinations;
+    }
+
+    private static boolean overlap(List<Path> destinations) {
+        for (int i = 0; i < destinations.size(); i++) {
+            for (int j = i + 1; j < destinations.size(); j++) {
+                if (destinations.get(i).startsWith(destinations.get(j)) || destinations.get(j).startsWith(destinations.get(i))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Updates which have not started yet are cancelled. Those which have are waited for rather than interrupted, so
+    // that nothing is still writing to the working directory once the job is reported as failed. A cancelled future
+    // does not wait for its task to finish, so it is the executor that is waited on.
+    private static void abandon(ExecutorService executor, List<Future<?>> updates) throws InterruptedException {
+        updates.forEach(update -> update.cancel(false));
+        executor.shutdown();
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+    }
+
+    private static RuntimeException asUnchecked(Throwable cause) {
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new RuntimeException(cause);
+    }
+
+    private static Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "material-checkout-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    }
+}
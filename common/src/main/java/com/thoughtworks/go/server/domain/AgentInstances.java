@@ -36,6 +36,7 @@ import static com.thoughtworks.go.domain.AgentInstance.createFromAgent;
 import static com.thoughtworks.go.util.SystemEnvironment.MAX_PENDING_AGENTS_ALLOWED;
 import static java.lang.String.format;
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.StreamSupport.stream;
 import static org.apache.commons.lang3.StringUtils.isBlank;
@@ -46,6 +47,12 @@ public class AgentInstances implements Iterable<AgentInstance> {
 
     private final Map<String, AgentInstance> uuidToAgentInstanceMap = new ConcurrentHashMap<>();
 
+    // Elastic agents are looked up by their elastic agent id on every call from an elastic agent plugin, so they are
+    // indexed instead of scanning all agents. The index is updated whenever agents are added, removed or updated
+    // through this class, and candidates are checked again on lookup in case an agent changed in the meantime.
+    private final Map<ElasticAgentKey, Set<String>> elasticAgentIndex = new ConcurrentHashMap<>();
+    private final Map<String, ElasticAgentKey> indexedElasticAgents = new ConcurrentHashMap<>();
+
     private final AgentStatusChangeListener agentStatusChangeListener;
 
     public AgentInstances(AgentStatusChangeListener listener) {
@@ -64,6 +71,14 @@ public class AgentInstances implements Iterable<AgentInstance> {
 
     public void add(AgentInstance agent) {
         uuidToAgentInstanceMap.put(agent.getAgent().getUuid(), agent);
+        index(agent);
+    }
+
+    // To be called after changing an agent instance which is already known, other than through this class
+    public void reindex(AgentInstance agentInstance) {
+        if (uuidToAgentInstanceMap.get(agentInstance.getUuid()) == agentInstance) {
+            index(agentInstance);
+        }
     }
 
     public void updateAgentAboutCancelledBuild(String uuid, boolean isCancelled) {
@@ -93,10 +108,15 @@ public class AgentInstances implements Iterable<AgentInstance> {
 
     public void removeAgent(String uuid) {
         uuidToAgentInstanceMap.remove(uuid);
+        unindex(uuid);
     }
 
     public void clearAll() {
         uuidToAgentInstanceMap.clear();
+        synchronized (elasticAgentIndex) {
+            elasticAgentIndex.clear();
+            indexedElasticAgents.clear();
+        }
     }
 
     public AgentInstances getAllAgents() {
@@ -140,11 +160,12 @@ public class AgentInstances implements Iterable<AgentInstance> {
     public void syncAgentInstancesFrom(Agents agentsFromDB) {
         for (Agent agentFromDB : agentsFromDB) {
             String uuid = agentFromDB.getUuid();
-            if (uuidToAgentInstanceMap.containsKey(uuid)) {
-                uuidToAgentInstanceMap.get(uuid).syncAgentFrom(agentFromDB);
+            AgentInstance existingAgent = uuidToAgentInstanceMap.get(uuid);
+            if (existingAgent != null) {
+                existingAgent.syncAgentFrom(agentFromDB);
+                index(existingAgent);
             } else {
-                AgentInstance newAgent = createFromAgent(agentFromDB, new SystemEnvironment(), agentStatusChangeListener);
-                uuidToAgentInstanceMap.put(uuid, newAgent);
+                add(createFromAgent(agentFromDB, new SystemEnvironment(), agentStatusChangeListener));
             }
         }
 
@@ -158,7 +179,7 @@ public class AgentInstances implements Iterable<AgentInstance> {
                     }
                 }
             }
-            uuids.forEach(uuidToAgentInstanceMap::remove);
+            uuids.forEach(this::removeAgent);
         }
     }
 
@@ -177,12 +198,16 @@ public class AgentInstances implements Iterable<AgentInstance> {
             this.add(agentInstance);
         }
         agentInstance.update(runtimeInfo);
+        index(agentInstance);
         return agentInstance;
     }
 
     public void updateAgentRuntimeInfo(AgentRuntimeInfo runtimeInfo) {
         AgentInstance agentInstance = this.findAgentAndRefreshStatus(runtimeInfo.getUUId());
         agentInstance.update(runtimeInfo);
+        if (!agentInstance.isNullAgent()) {
+            index(agentInstance);
+        }
     }
 
     public void building(String uuid, AgentBuildingInfo agentBuildingInfo) {
@@ -194,8 +219,11 @@ public class AgentInstances implements Iterable<AgentInstance> {
             return emptyList();
         }
 
-        return stream(this.spliterator(), false)
-                .filter(agentInstance -> uuids.contains(agentInstance.getUuid()))
+        return new HashSet<>(uuids).stream()
+                .filter(Objects::nonNull)
+                .map(uuidToAgentInstanceMap::get)
+                .filter(Objects::nonNull)
+                .sorted()
                 .collect(toList());
     }
 
@@ -214,9 +242,11 @@ public class AgentInstances implements Iterable<AgentInstance> {
     }
 
     public AgentInstance findElasticAgent(final String elasticAgentId, final String elasticPluginId) {
-        Collection<AgentInstance> agentInstances = uuidToAgentInstanceMap.values();
+        Set<String> candidateUuids = elasticAgentIndex.getOrDefault(new ElasticAgentKey(elasticAgentId, elasticPluginId), emptySet());
 
-        List<AgentInstance> matchingElasticInstances = agentInstances.stream()
+        List<AgentInstance> matchingElasticInstances = candidateUuids.stream()
+                .map(uuidToAgentInstanceMap::get)
+                .filter(Objects::nonNull)
                 .filter(agentInstance -> agentInstance.isElastic()
                         && agentInstance.elasticAgentMetadata().elasticAgentId().equals(elasticAgentId)
                         && agentInstance.elasticAgentMetadata().elasticPluginId().equals(elasticPluginId))
@@ -268,7 +298,47 @@ public class AgentInstances implements Iterable<AgentInstance> {
 
     private boolean isMaxPendingAgentsLimitReached() {
         Integer maxPendingAgentsAllowed = systemEnvironment.get(MAX_PENDING_AGENTS_ALLOWED);
-        int pendingAgentsCount = this.size() - findRegisteredAgents().size();
+        long pendingAgentsCount = uuidToAgentInstanceMap.values().stream().filter(AgentInstance::isPending).count();
         return pendingAgentsCount >= maxPendingAgentsAllowed;
     }
+
+    private void index(AgentInstance agentInstance) {
+        String uuid = agentInstance.getUuid();
+        ElasticAgentKey key = agentInstance.isElastic() ? ElasticAgentKey.of(agentInstance.elasticAgentMetadata()) : null;
+
+        synchronized (elasticAgentIndex) {
+            ElasticAgentKey previousKey = key == null ? indexedElasticAgents.remove(uuid) : indexedElasticAgents.put(uuid, key);
+            if (Objects.equals(previousKey, key)) {
+                return;
+            }
+            if (previousKey != null) {
+                removeFromIndex(previousKey, uuid);
+            }
+            if (key != null) {
+                elasticAgentIndex.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(uuid);
+            }
+        }
+    }
+
+    private void unindex(String uuid) {
+        synchronized (elasticAgentIndex) {
+            ElasticAgentKey previousKey = indexedElasticAgents.remove(uuid);
+            if (previousKey != null) {
+                removeFromIndex(previousKey, uuid);
+            }
+        }
+    }
+
+    private void removeFromIndex(ElasticAgentKey key, String uuid) {
+        elasticAgentIndex.computeIfPresent(key, (k, uuids) -> {
+            uuids.remove(uuid);
+            return uuids.isEmpty() ? null : uuids;
+        });
+    }
+
+    private record ElasticAgentKey(String elasticAgentId, String elasticPluginId) {
+        static ElasticAgentKey of(ElasticAgentMetadata metadata) {
+            return new ElasticAgentKey(metadata.elasticAgentId(), metadata.elasticPluginId());
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.remote.work;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialRevision;
+import com.thoughtworks.go.domain.materials.MaterialAgent;
+import com.thoughtworks.go.domain.materials.MaterialAgentFactory;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.util.command.InMemoryStreamConsumer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MaterialCheckoutTest {
+    @TempDir
+    File workingDirectory;
+
+    private final InMemoryStreamConsumer console = new InMemoryStreamConsumer();
+    private final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+    @Test
+    void shouldUpdateMaterialsInSeparateFoldersConcurrentlyAndShowTheirOutputInOrder() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        MaterialCheckout checkout = new MaterialCheckout(output -> factory(output, revision -> () -> {
+            bothStarted.countDown();
+            await(bothStarted);
+            output.stdOutput("updated " + revision.getMaterial().getFolder());
+        }), console, workingDirectory, 4);
+
+        checkout.update(List.of(revision("first"), revision("second")));
+
+        assertThat(console.getStdLines()).containsExactly("updated first", "updated second");
+        assertThat(threads).hasSize(2).doesNotContain(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldUpdateMaterialsOneAfterAnotherWhenOneIsCheckedOutWithinAnother() {
+        MaterialCheckout checkout = new MaterialCheckout(output -> factory(output, revision -> () -> output.stdOutput("updated " + revision.getMaterial().getFolder())),
+                console, workingDirectory, 4);
+
+        checkout.update(List.of(revision("parent"), revision("parent/child")));
+
+        assertThat(console.getStdLines()).containsExactly("updated parent", "updated parent/child");
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldUpdateMaterialsOneAfterAnotherUnlessAllowedToUseMoreThreads() {
+        MaterialCheckout checkout = new MaterialCheckout(output -> factory(output, revision -> MaterialAgent.NO_OP), console, workingDirectory, 1);
+
+        checkout.update(List.of(revision("first"), revision("second")));
+
+        assertThat(threads).containsExactly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void shouldFailWithTheFirstMaterialWhichFailedAndNotShowTheOutputOfTheMaterialsAfterIt() {
+        MaterialCheckout checkout = new MaterialCheckout(output -> factory(output, revision -> () -> {
+            output.stdOutput("updating " + revision.getMaterial().getFolder());
+            if (!revision.getMaterial().getFolder().equals("first")) {
+                throw new RuntimeException("could not update " + revision.getMaterial().getFolder());
+            }
+        }), console, workingDirectory, 4);
+
+        assertThatThrownBy(() -> checkout.update(List.of(revision("first"), revision("second"), revision("third"))))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("could not update second");
+        assertThat(console.getStdLines()).containsExactly("updating first", "updating second");
+    }
+
+    @Test
+    void shouldWaitForMaterialsWhichAreStillUpdatingBeforeFailing() {
+        CountDownLatch slowOneStarted = new CountDownLatch(1);
+        AtomicBoolean slowOneFinished = new AtomicBoolean();
+        MaterialCheckout checkout = new MaterialCheckout(output -> factory(output, revision -> () -> {
+            if (revision.getMaterial().getFolder().equals("first")) {
+                await(slowOneStarted);
+                throw new RuntimeException("could not update first");
+            }
+            slowOneStarted.countDown();
+            sleep(500);
+            slowOneFinished.set(true);
+        }), console, workingDirectory, 4);
+
+        assertThatThrownBy(() -> checkout.update(List.of(revision("first"), revision("second"))))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("could not update first");
+        assertThat(slowOneFinished).isTrue();
+    }
+
+    private MaterialAgentFactory factory(ConsoleOutputStreamConsumer output, Function<MaterialRevision, MaterialAgent> agents) {
+        return new MaterialAgentFactory(output, workingDirectory, null, null) {
+            @Override
+            public MaterialAgent createAgent(MaterialRevision revision) {
+                MaterialAgent agent = agents.apply(revision);
+                return () -> {
+                    threads.add(Thread.currentThread().getName());
+                    agent.prepare();
+                };
+            }
+        };
+    }
+
+    private static MaterialRevision revision(String folder) {
+        return new MaterialRevision(new GitMaterial("https://example.com/" + folder + ".git", "main", folder));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(10, SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
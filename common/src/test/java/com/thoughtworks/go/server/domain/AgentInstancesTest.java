@@ -381,6 +381,29 @@ class AgentInstancesTest {
             assertThat(elasticAgentInstance).isNull();
         }
 
+        @Test
+        void shouldFindElasticAgentByItsNewElasticAgentIdOnceItHasBeenUpdated() {
+            AgentInstances agentInstances = createAgentInstancesWithElasticAgents();
+            String elasticPluginId = "go.cd.elastic-agent-plugin.docker";
+            AgentInstance elasticAgentInstance = agentInstances.findElasticAgent("elastic-agent-id-1", elasticPluginId);
+
+            agentInstances.updateAgentRuntimeInfo(new ElasticAgentRuntimeInfo(elasticAgentInstance.getAgentIdentifier(), Idle, "/foo/one", null, "elastic-agent-id-42", elasticPluginId));
+
+            assertThat(agentInstances.findElasticAgent("elastic-agent-id-1", elasticPluginId)).isNull();
+            assertThat(agentInstances.findElasticAgent("elastic-agent-id-42", elasticPluginId)).isSameAs(elasticAgentInstance);
+        }
+
+        @Test
+        void shouldNotFindElasticAgentOnceItHasBeenRemoved() {
+            AgentInstances agentInstances = createAgentInstancesWithElasticAgents();
+            String elasticPluginId = "go.cd.elastic-agent-plugin.docker";
+
+            agentInstances.removeAgent(agentInstances.findElasticAgent("elastic-agent-id-1", elasticPluginId).getUuid());
+
+            assertThat(agentInstances.findElasticAgent("elastic-agent-id-1", elasticPluginId)).isNull();
+            assertThat(agentInstances.findElasticAgent("elastic-agent-id-2", elasticPluginId)).isNotNull();
+        }
+
         @Test
         void shouldThrowExceptionWhenMoreThanOneElasticAgentWithSameElasticAgentIdAndElasticPluginId() {
             AgentInstances agentInstances = createAgentInstancesWithElasticAgents();
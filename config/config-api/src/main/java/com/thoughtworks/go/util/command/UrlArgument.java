@@ -21,6 +21,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bombIfNull;
@@ -81,21 +82,36 @@ public class UrlArgument extends CommandArgument {
 
     @Override
     public @NotNull Redactable redactFrom(@NotNull Redactable toRedact) {
-        if (toRedact.isBlank() || this.url == null || this.url.isBlank()) {
+        if (toRedact.isBlank()) {
             return toRedact;
         }
 
+        for (Map.Entry<String, String> secret : secretsToRedact().entrySet()) {
+            toRedact = toRedact.next(toRedact.value().replace(secret.getKey(), secret.getValue()));
+        }
+        return toRedact;
+    }
+
+    /**
+     * Only the user info is a secret, which is masked wherever it occurs, including in urls other than this one.
+     */
+    @Override
+    public Map<String, String> secretsToRedact() {
+        if (this.url == null || this.url.isBlank()) {
+            return Map.of();
+        }
+
         try {
             final URIBuilder uriBuilder = new URIBuilder(this.url).setPath(null).setCustomQuery(null).setFragment(null);
-            final UrlUserInfo urlUserInfo = new UrlUserInfo(uriBuilder.getUserInfo());
             if (uriBuilder.getUserInfo() != null) {
-                return toRedact.next(toRedact.value().replace(uriBuilder.getUserInfo(), urlUserInfo.maskedUserInfo()));
+                final String maskedUserInfo = new UrlUserInfo(uriBuilder.getUserInfo()).maskedUserInfo();
+                return maskedUserInfo == null ? Map.of() : Map.of(uriBuilder.getUserInfo(), maskedUserInfo);
             }
         } catch (URISyntaxException ignore) {
             //Ignore as url is not according to URI specs
         }
 
-        return toRedact;
+        return Map.of();
     }
 
     @Override
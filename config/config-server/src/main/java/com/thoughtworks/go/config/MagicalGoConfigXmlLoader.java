@@ -110,6 +110,20 @@ public class MagicalGoConfigXmlLoader {
         return configForEdit;
     }
 
+    /**
+     * Loads content which is known to have already passed {@link #loadConfigHolder(String)} with the current schema,
+     * for instance an unchanged config file on server startup. The content still goes through the XSD and DOM validations
+     * of {@link #deserializeConfig(String)} and is preprocessed, only the semantic validation of the config is skipped.
+     */
+    public GoConfigHolder loadValidatedConfigHolder(final String content) throws Exception {
+        LOGGER.debug("[Config Save] Loading previously validated config holder");
+        CruiseConfig configForEdit = deserializeConfig(content);
+        CruiseConfig config = CLONER.deepClone(configForEdit);
+        preprocess(config);
+        configForEdit.encryptSecureProperties(config);
+        return new GoConfigHolder(config, configForEdit);
+    }
+
     public CruiseConfig preprocessAndValidate(CruiseConfig config) {
         LOGGER.debug("[Config Validation] In preprocessAndValidate: Cloning.");
         CruiseConfig cloned = CLONER.deepClone(config);
@@ -43,13 +43,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
@@ -74,6 +79,14 @@ public class ConfigRepository {
     private final File workingDir;
     private final Git git;
     private final Repository gitRepo;
+    private final List<GoConfigRevision> pendingCheckins = new ArrayList<>();
+    private final ExecutorService checkinWriter = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-repo-checkin");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // guarded by this; set while pending check-ins are being committed, or while a merge has a branch checked out
+    private boolean pendingCheckinsSuspended;
 
     @Autowired
     public ConfigRepository(SystemEnvironment systemEnvironment) throws IOException {
@@ -117,9 +130,31 @@ public class ConfigRepository {
         return result;
     }
 
+    /**
+     * With {@code go.config.repo.async.checkin} turned on, the revision is only queued here and committed later, in
+     * order, by a background writer which commits whatever has queued up in one go. Queued revisions are visible to
+     * {@link #getRevision(String)} and {@link #getCurrentRevision()} right away, and everything else that reads the
+     * repository commits them first.
+     */
     public void checkin(final GoConfigRevision rev) throws Exception {
+        if (!systemEnvironment.shouldCheckinConfigAsynchronously()) {
+            commit(rev);
+            return;
+        }
+        synchronized (pendingCheckins) {
+            pendingCheckins.add(rev);
+        }
+        checkinWriter.execute(() -> {
+            synchronized (this) {
+                commitPendingCheckins();
+            }
+            collectGarbageIfTooManyLooseObjects();
+        });
+    }
+
+    private void commit(final GoConfigRevision rev) throws Exception {
         try {
-            if (rev.equals(getCurrentRevision())) {
+            if (rev.equals(committedRevision())) {
                 return;
             }
             final File file = new File(workingDir, CRUISE_CONFIG_XML);
@@ -140,12 +175,70 @@ public class ConfigRepository {
 
     public <T, E extends Exception> T doLocked(ThrowingFn<T, E> runnable) throws E {
         synchronized (this) {
+            commitPendingCheckins();
             return runnable.call();
         }
     }
 
+    // callers hold the lock on this
+    private void commitPendingCheckins() {
+        if (pendingCheckinsSuspended) {
+            return;
+        }
+        List<GoConfigRevision> revisions;
+        synchronized (pendingCheckins) {
+            if (pendingCheckins.isEmpty()) {
+                return;
+            }
+            revisions = new ArrayList<>(pendingCheckins);
+            pendingCheckins.clear();
+        }
+        pendingCheckinsSuspended = true;
+        try {
+            for (GoConfigRevision revision : revisions) {
+                try {
+                    commit(revision);
+                } catch (Exception e) {
+                    // already logged, carry on with the revisions after it
+                }
+            }
+            LOGGER.debug("[CONFIG SAVE] Checked in {} queued config revisions", revisions.size());
+        } finally {
+            pendingCheckinsSuspended = false;
+        }
+    }
+
+    private GoConfigRevision pendingRevision(String md5) {
+        synchronized (pendingCheckins) {
+            for (int i = pendingCheckins.size() - 1; i >= 0; i--) {
+                GoConfigRevision revision = pendingCheckins.get(i);
+                if (CURRENT.equals(md5) || md5.equals(revision.getMd5())) {
+                    return revision;
+                }
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void stopCheckinWriter() {
+        checkinWriter.shutdown();
+        try {
+            checkinWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            commitPendingCheckins();
+        }
+    }
+
     public GoConfigRevision getRevision(String md5) throws GitAPIException {
-        return CURRENT.equals(md5) ? getCurrentRevision() : findRevisionByMd5(md5);
+        if (CURRENT.equals(md5)) {
+            return getCurrentRevision();
+        }
+        GoConfigRevision pending = pendingRevision(md5);
+        return pending != null ? pending : findRevisionByMd5(md5);
     }
 
     Iterable<RevCommit> revisions() throws GitAPIException {
@@ -159,6 +252,9 @@ public class ConfigRepository {
 
     public RevCommit getRevCommitForMd5(String md5) throws GitAPIException {
         Assert.notNull(md5, "md5 is required");
+        synchronized (this) {
+            commitPendingCheckins();
+        }
 
         final String expectedPart = GoConfigRevision.Fragment.md5.represent(GoConfigRevision.esc(md5));
         for (RevCommit revision : revisions()) {
@@ -180,6 +276,11 @@ public class ConfigRepository {
     }
 
     public GoConfigRevision getCurrentRevision() {
+        GoConfigRevision pending = pendingRevision(CURRENT);
+        return pending != null ? pending : committedRevision();
+    }
+
+    private GoConfigRevision committedRevision() {
         return doLocked(() -> {
             RevCommit revision;
             try {
@@ -196,6 +297,9 @@ public class ConfigRepository {
     }
 
     public RevCommit getCurrentRevCommit() throws GitAPIException {
+        synchronized (this) {
+            commitPendingCheckins();
+        }
         try {
             return revisions().iterator().next();
         } catch (NoHeadException e) {
@@ -312,18 +416,27 @@ public class ConfigRepository {
     }
 
     public String getConfigMergedWithLatestRevision(GoConfigRevision configRevision, String oldMD5) throws Exception {
-        try {
-            LOGGER.debug("[Config Save] Starting git merge of config");
-            createBranch(BRANCH_AT_REVISION, getRevCommitForMd5(oldMD5));
-            createBranch(BRANCH_AT_HEAD, getCurrentRevCommit());
-            RevCommit newCommit = checkinToBranch(BRANCH_AT_REVISION, configRevision);
-            return getMergedConfig(BRANCH_AT_HEAD, newCommit);
-        } catch (Exception e) {
-            LOGGER.info("[CONFIG_MERGE] Could not merge");
-            throw new ConfigMergeException(e.getMessage(), e);
-        } finally {
-            cleanAndResetToMaster();
-            LOGGER.debug("[Config Save] Ending git merge of config");
+        synchronized (this) {
+            commitPendingCheckins();
+            // nothing queued after this point may be committed while a merge branch is checked out
+            pendingCheckinsSuspended = true;
+            try {
+                LOGGER.debug("[Config Save] Starting git merge of config");
+                createBranch(BRANCH_AT_REVISION, getRevCommitForMd5(oldMD5));
+                createBranch(BRANCH_AT_HEAD, getCurrentRevCommit());
+                RevCommit newCommit = checkinToBranch(BRANCH_AT_REVISION, configRevision);
+                return getMergedConfig(BRANCH_AT_HEAD, newCommit);
+            } catch (Exception e) {
+                LOGGER.info("[CONFIG_MERGE] Could not merge");
+                throw new ConfigMergeException(e.getMessage(), e);
+            } finally {
+                try {
+                    cleanAndResetToMaster();
+                } finally {
+                    pendingCheckinsSuspended = false;
+                }
+                LOGGER.debug("[Config Save] Ending git merge of config");
+            }
         }
     }
 
@@ -348,7 +461,7 @@ public class ConfigRepository {
     RevCommit checkinToBranch(String branchName, GoConfigRevision rev) throws Exception {
         try {
             checkout(branchName);
-            checkin(rev);
+            commit(rev);
             return getCurrentRevCommit();
         } catch (Exception e) {
             LOGGER.error("[CONFIG_MERGE] Check-in to branch {} failed", branchName, e);
@@ -409,23 +522,48 @@ public class ConfigRepository {
         doLocked(new VoidThrowingFn<Exception>() {
             @Override
             public void run() throws Exception {
-                try {
-                    LOGGER.info("Before GC: {}", git.gc().getStatistics());
-                    LOGGER.debug("Before GC: Size - {}", getConfigRepoDisplaySize());
-                    long expireTimeInMs = systemEnvironment.getConfigGitGcExpireInMillis();
-                    git.gc().setAggressive(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_GC_AGGRESSIVE))
-                            .setExpire(new Date(System.currentTimeMillis() - expireTimeInMs))
-                            .call();
-                    LOGGER.info("After GC: {}", git.gc().getStatistics());
-                    LOGGER.debug("After GC: Size: {}", getConfigRepoDisplaySize());
-                } catch (GitAPIException e) {
-                    LOGGER.error("Could not perform GC", e);
-                    throw e;
-                }
+                gc();
             }
         });
     }
 
+    private void collectGarbageIfTooManyLooseObjects() {
+        long threshold = systemEnvironment.getConfigRepoGcLooseObjectThreshold();
+        if (threshold <= 0) {
+            return;
+        }
+        try {
+            long looseObjects = (Long) getStatistics().get("numberOfLooseObjects");
+            if (looseObjects >= threshold) {
+                LOGGER.info("Config repository has {} loose objects, at least {} triggers a GC.", looseObjects, threshold);
+                doLocked(new VoidThrowingFn<Exception>() {
+                    @Override
+                    public void run() throws Exception {
+                        gc();
+                    }
+                });
+            }
+        } catch (Exception e) {
+            LOGGER.warn("Could not check whether the config repository needs a GC", e);
+        }
+    }
+
+    private void gc() throws GitAPIException {
+        try {
+            LOGGER.info("Before GC: {}", git.gc().getStatistics());
+            LOGGER.debug("Before GC: Size - {}", getConfigRepoDisplaySize());
+            long expireTimeInMs = systemEnvironment.getConfigGitGcExpireInMillis();
+            git.gc().setAggressive(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_GC_AGGRESSIVE))
+                    .setExpire(new Date(System.currentTimeMillis() - expireTimeInMs))
+                    .call();
+            LOGGER.info("After GC: {}", git.gc().getStatistics());
+            LOGGER.debug("After GC: Size: {}", getConfigRepoDisplaySize());
+        } catch (GitAPIException e) {
+            LOGGER.error("Could not perform GC", e);
+            throw e;
+        }
+    }
+
     private String getConfigRepoDisplaySize() {
         return FileUtils.byteCountToDisplaySize(FileUtils.sizeOfDirectory(workingDir));
     }
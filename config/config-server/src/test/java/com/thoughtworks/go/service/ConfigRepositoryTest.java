@@ -434,6 +434,46 @@ public class ConfigRepositoryTest {
     }
 
 
+    @Test
+    public void shouldMakeRevisionsCheckedInAsynchronouslyVisibleStraightAway() throws Exception {
+        when(systemEnvironment.shouldCheckinConfigAsynchronously()).thenReturn(true);
+
+        configRepo.checkin(goConfigRevision("v1", "md5-v1"));
+        configRepo.checkin(goConfigRevision("v2", "md5-v2"));
+
+        assertThat(configRepo.getRevision("md5-v1").getContent()).isEqualTo("v1");
+        assertThat(configRepo.getRevision(ConfigRepository.CURRENT).getContent()).isEqualTo("v2");
+        assertThat(configRepo.getRevCommitForMd5("md5-v2")).isEqualTo(configRepo.getCurrentRevCommit());
+        assertThat(configRepo.commitCountOnMaster()).isEqualTo(2L);
+    }
+
+    @Test
+    public void shouldCommitQueuedRevisionsInOrderBeforeStopping() throws Exception {
+        when(systemEnvironment.shouldCheckinConfigAsynchronously()).thenReturn(true);
+
+        for (int i = 1; i <= 20; i++) {
+            configRepo.checkin(goConfigRevision("v" + i, "md5-v" + i));
+        }
+        configRepo.stopCheckinWriter();
+
+        GoConfigRevisions commits = configRepo.getCommits(30, 0);
+        assertThat(commits).hasSize(20);
+        assertThat(commits.get(0).getMd5()).isEqualTo("md5-v20");
+        assertThat(commits.get(19).getMd5()).isEqualTo("md5-v1");
+    }
+
+    @Test
+    public void shouldPerformGCOnceThereAreEnoughLooseObjectsAfterAnAsynchronousCheckin() throws Exception {
+        when(systemEnvironment.shouldCheckinConfigAsynchronously()).thenReturn(true);
+        when(systemEnvironment.getConfigRepoGcLooseObjectThreshold()).thenReturn(1L);
+
+        configRepo.checkin(goConfigRevision("v1", "md5-1"));
+        configRepo.stopCheckinWriter();
+
+        assertThat(configRepo.commitCountOnMaster()).isEqualTo(1L);
+        assertThat((Long) configRepoRawGit.gc().getStatistics().get("numberOfLooseObjects")).isEqualTo(0L);
+    }
+
     @Test
     public void shouldReturnNumberOfCommitsOnMaster() throws Exception {
         configRepo.checkin(goConfigRevision("v1", "md5-1"));
@@ -63,6 +63,24 @@ public abstract class QueryExtensions {
                 + "AND p.id > :pipelineId";
     }
 
+    // Searching modifications is done with LIKE '%...%' unless the database can use a full text index instead, in which
+    // case comments and user names are matched by (prefixes of) words, and revisions by their prefix.
+    public boolean supportsFullTextModificationSearch() {
+        return false;
+    }
+
+    public String fullTextModificationSearchCondition(String alias) {
+        return "1 = 0";
+    }
+
+    public String toFullTextQuery(String searchString) {
+        return "";
+    }
+
+    public String toPrefixPattern(String searchString) {
+        return searchString.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
     protected <T> String joinWithQuotesForSql(T[] array) {
         StringBuilder buffer = new StringBuilder();
         for (int i = 0; i < array.length; i++) {
@@ -18,7 +18,35 @@ package com.thoughtworks.go.server.database.pg;
 
 import com.thoughtworks.go.server.database.QueryExtensions;
 
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
 public class PostgresqlQueryExtensions extends QueryExtensions {
+    // The expression has to be the same as the one IDX_MODIFICATIONS_FULL_TEXT is created on, for the index to be used
+    static final String MODIFICATION_FULL_TEXT = "to_tsvector('simple', COALESCE(%1$s.comment, '') || ' ' || COALESCE(%1$s.userName, ''))";
+
+    @Override
+    public boolean supportsFullTextModificationSearch() {
+        return true;
+    }
+
+    @Override
+    public String fullTextModificationSearchCondition(String alias) {
+        return "(" + MODIFICATION_FULL_TEXT.formatted(alias) + " @@ to_tsquery('simple', :search_terms)"
+                + " OR LOWER(" + alias + ".revision) LIKE :revision_prefix)";
+    }
+
+    // Each word is quoted rather than split up here, so that to_tsquery hands it whole to the same parser the comments
+    // were indexed with, which keeps e-mail addresses, host names, urls and paths together as single tokens
+    @Override
+    public String toFullTextQuery(String searchString) {
+        return Arrays.stream(searchString.toLowerCase(Locale.ROOT).split("\\s+"))
+                .filter(word -> word.codePoints().anyMatch(Character::isLetterOrDigit))
+                .map(word -> "'" + word.replace("\\", "\\\\").replace("'", "''") + "':*")
+                .collect(Collectors.joining(" & "));
+    }
+
     @Override
     public String retrievePipelineTimeline() {
         // we run a `CAST` because otherwise hibernate is unable to understand the `citext` datatype
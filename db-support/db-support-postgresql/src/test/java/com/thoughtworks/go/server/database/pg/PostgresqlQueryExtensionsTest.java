@@ -0,0 +1,47 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.database.pg;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PostgresqlQueryExtensionsTest {
+    private final PostgresqlQueryExtensions queryExtensions = new PostgresqlQueryExtensions();
+
+    @Test
+    void shouldMatchPrefixesOfAllWordsInTheSearchString() {
+        assertEquals("'fix':* & 'build':* & '#42':*", queryExtensions.toFullTextQuery("Fix build #42"));
+    }
+
+    @Test
+    void shouldKeepWordsWhichTheParserIndexesAsSingleTokensTogether() {
+        assertEquals("'jane.doe@example.com':*", queryExtensions.toFullTextQuery("Jane.Doe@example.com"));
+        assertEquals("'https://example.com/gocd':* & 'src/main':*", queryExtensions.toFullTextQuery("https://example.com/gocd src/main"));
+    }
+
+    @Test
+    void shouldNotPassOnFullTextQueryOperators() {
+        assertEquals("'!foo':* & '(bar:*)':*", queryExtensions.toFullTextQuery("!foo | (bar:*)"));
+        assertEquals("'it''s':* & 'c:\\\\dir':*", queryExtensions.toFullTextQuery("it's c:\\dir"));
+        assertEquals("", queryExtensions.toFullTextQuery(" & "));
+    }
+
+    @Test
+    void shouldEscapeWildcardsInRevisionPrefix() {
+        assertEquals("ab\\_c\\%%", queryExtensions.toPrefixPattern("ab_c%"));
+    }
+}
@@ -23,6 +23,7 @@ import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.git.GitCommand;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
+import com.thoughtworks.go.domain.materials.git.GitObjectCache;
 import com.thoughtworks.go.domain.materials.git.GitVersion;
 import com.thoughtworks.go.domain.materials.svn.MaterialUrl;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
@@ -39,6 +40,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static com.thoughtworks.go.config.materials.git.RefSpecHelper.localBranch;
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
@@ -136,6 +138,17 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         }
     }
 
+    /**
+     * Lists the refs of the remote repository and the revisions they point to, without touching the working copy.
+     */
+    public Map<String, String> remoteRefs() {
+        return new GitCommand(null, null, refSpecOrBranch, false, secrets()).remoteRefs(new UrlArgument(urlForCommandLine()));
+    }
+
+    public String fullUpstreamRef() {
+        return RefSpecHelper.fullUpstreamRef(refSpecOrBranch);
+    }
+
     @Override
     public MaterialInstance createMaterialInstance() {
         return new GitMaterialInstance(url.originalArgument(), userName, refSpecOrBranch, submoduleFolder, UUID.randomUUID().toString());
@@ -147,7 +160,9 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
         try {
             outputStreamConsumer.stdOutput(format("[%s] Start updating %s at revision %s from %s", GoConstants.PRODUCT_NAME, updatingTarget(), revision.getRevision(), getUriForDisplay()));
             File workingDir = execCtx.isServer() ? baseDir : workingdir(baseDir);
-            GitCommand git = git(outputStreamConsumer, workingDir, revisionContext.numberOfModifications() + 1, execCtx);
+            // The shared object cache is only brought up to date for working copies which are about to be cloned from it
+            Supplier<File> objectCache = () -> execCtx.isServer() ? null : GitObjectCache.forAgent().lendTo(workingDir, urlForCommandLine(), getUriForDisplay(), secrets(), outputStreamConsumer);
+            GitCommand git = git(outputStreamConsumer, workingDir, revisionContext.numberOfModifications() + 1, execCtx, objectCache);
             git.fetch(outputStreamConsumer);
             unshallowIfNeeded(git, outputStreamConsumer, revisionContext.getOldestRevision());
             git.resetWorkingDir(outputStreamConsumer, revision, shallowClone);
@@ -341,19 +356,20 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
     private GitCommand getGit(File workingdir, SubprocessExecutionContext executionContext) {
         InMemoryStreamConsumer output = inMemoryConsumer();
         try {
-            return git(output, workingdir, DEFAULT_SHALLOW_CLONE_DEPTH, executionContext);
+            return git(output, workingdir, DEFAULT_SHALLOW_CLONE_DEPTH, executionContext, () -> null);
         } catch (Exception e) {
             throw bomb(e.getMessage() + " " + output.getStdError(), e);
         }
     }
 
-    private GitCommand git(ConsoleOutputStreamConsumer outputStreamConsumer, final File workingFolder, int preferredCloneDepth, SubprocessExecutionContext executionContext) throws Exception {
+    private GitCommand git(ConsoleOutputStreamConsumer outputStreamConsumer, final File workingFolder, int preferredCloneDepth, SubprocessExecutionContext executionContext,
+                           Supplier<File> objectCache) throws Exception {
         if (isSubmoduleFolder()) {
             return new GitCommand(getFingerprint(), new File(workingFolder.getPath()), GitMaterialConfig.DEFAULT_BRANCH, true, secrets());
         }
 
         GitCommand gitCommand = new GitCommand(getFingerprint(), workingFolder, refSpecOrBranch, false, secrets());
-        if (!isGitRepository(workingFolder) || isRepositoryChanged(gitCommand, workingFolder)) {
+        if (!isGitRepository(workingFolder) || GitObjectCache.borrowsFromMissingRepository(workingFolder) || isRepositoryChanged(gitCommand, workingFolder)) {
             LOG.debug("Invalid git working copy or repository changed. Delete folder: {}", workingFolder);
             try {
                 FileUtils.deleteDirectory(workingFolder);
@@ -379,7 +395,7 @@ public class GitMaterial extends ScmMaterial implements PasswordAwareMaterial {
             if (executionContext.isServer()) {
                 returnValue = gitCommand.cloneWithNoCheckout(outputStreamConsumer, urlForCommandLine());
             } else {
-                returnValue = gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth);
+                returnValue = gitCommand.clone(outputStreamConsumer, urlForCommandLine(), cloneDepth, objectCache.get());
             }
             bombIfFailedToRunCommandLine(returnValue, "Failed to run git clone command");
         }
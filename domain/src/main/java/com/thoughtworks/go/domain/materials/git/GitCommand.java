@@ -132,12 +132,17 @@ public class GitCommand extends SCMCommand {
         return clone(outputStreamConsumer, url, Integer.MAX_VALUE);
     }
 
-    // Clone repository from url with specified depth.
-    // Special depth 2147483647 (Integer.MAX_VALUE) are treated as full clone
     public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, Integer depth) {
+        return clone(outputStreamConsumer, url, depth, null);
+    }
+
+    // Clone repository from url with specified depth, borrowing objects from the given repository when there is one.
+    // Special depth 2147483647 (Integer.MAX_VALUE) are treated as full clone
+    public int clone(ConsoleOutputStreamConsumer outputStreamConsumer, String url, Integer depth, File reference) {
         CommandLine gitClone = cloneCommand()
             .when(!hasRefSpec(), git -> git.withArgs("--branch", branch))
             .when(depth < Integer.MAX_VALUE, git -> git.withArg(format("--depth=%s", depth)))
+            .when(reference != null, git -> git.withArgs("--reference-if-able", reference.getAbsolutePath()))
             .withArg(new UrlArgument(url)).withArg(workingDir.getAbsolutePath());
 
         if (!hasRefSpec()) {
@@ -152,6 +157,22 @@ public class GitCommand extends SCMCommand {
         );
     }
 
+    // Mirrors are never garbage collected, as working copies cloned with them as a reference rely on their objects
+    public int cloneMirror(ConsoleOutputStreamConsumer outputStreamConsumer, String url) {
+        log(outputStreamConsumer, "Cloning into shared object cache");
+        return runCascade(outputStreamConsumer,
+                cloneCommand().withArg("--mirror").withArg(new UrlArgument(url)).withArg(workingDir.getAbsolutePath()),
+                git_C().withArgs("config", "gc.auto", "0")
+        );
+    }
+
+    // Fetches from the url as it is now, rather than the origin the mirror was cloned from, whose credentials may have
+    // changed since or may belong to another material with the same url
+    public int fetchMirror(ConsoleOutputStreamConsumer outputStreamConsumer, String url) {
+        log(outputStreamConsumer, "Fetching changes into shared object cache");
+        return run(git_C().withArgs("fetch", "--prune").withArg(new UrlArgument(url)).withArg("+refs/*:refs/*"), outputStreamConsumer);
+    }
+
     public List<Modification> latestModification() {
         return gitLog("-1", "--date=iso-strict", "--no-decorate", "--pretty=medium", "--no-color", remoteBranch());
 
@@ -226,6 +247,25 @@ public class GitCommand extends SCMCommand {
         }
     }
 
+    /**
+     * Lists the refs of the remote repository and the revisions they point to, without needing a working copy.
+     *
+     * @return the revisions by full ref name, e.g. {@code refs/heads/master}
+     */
+    public Map<String, String> remoteRefs(UrlArgument repoUrl) {
+        final CommandLine commandLine = git().withArgs("ls-remote", "--").withArg(repoUrl);
+        final ConsoleResult result = commandLine.runOrBomb(new NamedProcessTag(repoUrl.forDisplay()));
+
+        Map<String, String> refs = new HashMap<>();
+        for (String line : result.output()) {
+            String[] revisionAndRef = line.split("\t", 2);
+            if (revisionAndRef.length == 2) {
+                refs.put(revisionAndRef[1], revisionAndRef[0]);
+            }
+        }
+        return refs;
+    }
+
     public GitVersion version() {
         CommandLine gitVersion = git().withArgs("version");
 
@@ -0,0 +1,222 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.command.ConsoleOutputStreamConsumer;
+import com.thoughtworks.go.util.command.SecretRedactor;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Understands keeping a bare mirror of each git repository an agent builds, for the working copies of all pipelines
+ * using that repository to borrow objects from instead of each fetching and storing all of them. Mirrors are only
+ * ever added to, so that objects working copies rely on do not disappear from under them. Each mirror records the
+ * working copies it is lent to, and once all mirrors take up more than the disk budget, the least recently used
+ * mirrors which no working copy borrows from any more are deleted as a whole. Working copies which borrowed from a
+ * mirror deleted by other means are cloned again.
+ */
+public class GitObjectCache {
+    private static final Logger LOG = LoggerFactory.getLogger(GitObjectCache.class);
+    private static final ConcurrentMap<File, Object> LOCKS = new ConcurrentHashMap<>();
+    // Sizes of mirrors are measured when they are updated, rather than walking all of them on every update
+    private static final ConcurrentMap<File, Long> SIZES = new ConcurrentHashMap<>();
+
+    private final File cacheDir;
+    private final long budgetInBytes;
+
+    public GitObjectCache(File cacheDir, long budgetInBytes) {
+        this.cacheDir = cacheDir.getAbsoluteFile();
+        this.budgetInBytes = budgetInBytes;
+    }
+
+    public static GitObjectCache forAgent() {
+        SystemEnvironment systemEnvironment = new SystemEnvironment();
+        return new GitObjectCache(new File(systemEnvironment.get(SystemEnvironment.AGENT_GIT_OBJECT_CACHE_DIR)),
+                FileUtils.ONE_MB * systemEnvironment.get(SystemEnvironment.AGENT_GIT_OBJECT_CACHE_SIZE_IN_MB));
+    }
+
+    public boolean isEnabled() {
+        return budgetInBytes > 0;
+    }
+
+    /**
+     * Brings the mirror of the repository up to date, cloning it if there is none yet, and records that the working
+     * copy is about to be cloned with it as a reference. Returns the mirror, or null if it could not be updated, in
+     * which case the working copy should do without it.
+     */
+    public File lendTo(File workingCopy, String url, String urlForDisplay, List<SecretRedactor> secrets, ConsoleOutputStreamConsumer outputStreamConsumer) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        File mirror = new File(cacheDir, DigestUtils.sha256Hex(urlForDisplay) + ".git");
+        try {
+            synchronized (lockFor(mirror)) {
+                FileUtils.forceMkdir(cacheDir);
+                try (FileChannel channel = FileChannel.open(lockFileOf(mirror).toPath(), CREATE, WRITE); FileLock ignored = channel.lock()) {
+                    GitCommand git = new GitCommand(null, mirror, null, false, secrets);
+                    boolean existed = mirror.isDirectory();
+                    int returnValue = existed ? git.fetchMirror(outputStreamConsumer, url) : git.cloneMirror(outputStreamConsumer, url);
+                    if (returnValue != 0) {
+                        if (!existed) {
+                            FileUtils.deleteQuietly(mirror);
+                        }
+                        return null;
+                    }
+                    mirror.setLastModified(System.currentTimeMillis());
+                    SIZES.put(mirror, sizeOf(mirror));
+
+                    Set<String> borrowers = new LinkedHashSet<>(readBorrowers(mirror));
+                    borrowers.add(workingCopy.getAbsolutePath());
+                    FileUtils.writeLines(borrowersFileOf(mirror), UTF_8.name(), borrowers);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Unable to update shared git object cache {} for {}", mirror, urlForDisplay, e);
+            return null;
+        }
+
+        deleteLeastRecentlyUsedMirrorsOverBudget();
+        return mirror;
+    }
+
+    /**
+     * Whether the working copy borrows objects from a repository which no longer exists, which leaves it unusable.
+     */
+    public static boolean borrowsFromMissingRepository(File workingCopy) {
+        File alternates = new File(workingCopy, ".git/objects/info/alternates");
+        if (!alternates.isFile()) {
+            return false;
+        }
+        try {
+            for (String line : FileUtils.readLines(alternates, UTF_8)) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                File objectStore = new File(line.trim());
+                if (!objectStore.isAbsolute()) {
+                    objectStore = new File(alternates.getParentFile().getParentFile(), line.trim());
+                }
+                if (!objectStore.isDirectory()) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private void deleteLeastRecentlyUsedMirrorsOverBudget() {
+        File[] mirrors = cacheDir.listFiles(file -> file.isDirectory() && file.getName().endsWith(".git"));
+        if (mirrors == null) {
+            return;
+        }
+        Arrays.sort(mirrors, Comparator.comparingLong(File::lastModified).reversed());
+
+        long total = 0;
+        for (File mirror : mirrors) {
+            total += SIZES.computeIfAbsent(mirror, GitObjectCache::sizeOf);
+            if (total > budgetInBytes && mirror != mirrors[0]) {
+                delete(mirror);
+            }
+        }
+    }
+
+    // Mirrors which are being updated by another agent sharing the cache, or are still lent to a working copy, are left alone
+    private void delete(File mirror) {
+        synchronized (lockFor(mirror)) {
+            try (FileChannel channel = FileChannel.open(lockFileOf(mirror).toPath(), CREATE, WRITE); FileLock lock = channel.tryLock()) {
+                if (lock != null && !isLent(mirror)) {
+                    LOG.info("Deleting shared git object cache {} to stay within the disk budget", mirror);
+                    FileUtils.deleteDirectory(mirror);
+                    FileUtils.deleteQuietly(borrowersFileOf(mirror));
+                    SIZES.remove(mirror);
+                }
+            } catch (IOException e) {
+                LOG.warn("Unable to delete shared git object cache {}", mirror, e);
+            }
+        }
+    }
+
+    // Forgets working copies which were deleted or cloned again without the mirror since it was lent to them
+    private boolean isLent(File mirror) throws IOException {
+        List<String> borrowers = new ArrayList<>();
+        for (String borrower : readBorrowers(mirror)) {
+            if (borrowsFrom(new File(borrower), mirror)) {
+                borrowers.add(borrower);
+            }
+        }
+        FileUtils.writeLines(borrowersFileOf(mirror), UTF_8.name(), borrowers);
+        return !borrowers.isEmpty();
+    }
+
+    private static boolean borrowsFrom(File workingCopy, File mirror) throws IOException {
+        if (!workingCopy.isDirectory()) {
+            return false;
+        }
+        File alternates = new File(workingCopy, ".git/objects/info/alternates");
+        if (!alternates.isFile()) {
+            // A working copy without a git directory yet is still being cloned
+            return !new File(workingCopy, ".git").exists();
+        }
+        return FileUtils.readFileToString(alternates, UTF_8).contains(mirror.getAbsolutePath());
+    }
+
+    private static List<String> readBorrowers(File mirror) throws IOException {
+        File borrowers = borrowersFileOf(mirror);
+        if (!borrowers.isFile()) {
+            return List.of();
+        }
+        return FileUtils.readLines(borrowers, UTF_8).stream().filter(line -> !line.isBlank()).toList();
+    }
+
+    private static long sizeOf(File mirror) {
+        try {
+            return FileUtils.sizeOfDirectory(mirror);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            return 0;
+        }
+    }
+
+    private static File lockFileOf(File mirror) {
+        return new File(mirror.getParentFile(), mirror.getName() + ".lock");
+    }
+
+    private static File borrowersFileOf(File mirror) {
+        return new File(mirror.getParentFile(), mirror.getName() + ".borrowers");
+    }
+
+    private static Object lockFor(File mirror) {
+        return LOCKS.computeIfAbsent(mirror, file -> new Object());
+    }
+}
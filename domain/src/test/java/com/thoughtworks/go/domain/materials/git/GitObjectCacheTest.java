@@ -0,0 +1,110 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.domain.materials.git;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.thoughtworks.go.util.command.ProcessOutputStreamConsumer.inMemoryConsumer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GitObjectCacheTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void shouldNotMirrorRepositoriesWithoutADiskBudget() throws IOException {
+        GitTestRepo repo = new GitTestRepo(tempDir);
+        GitObjectCache cache = new GitObjectCache(tempDir.resolve("cache").toFile(), 0);
+
+        assertThat(cache.lendTo(tempDir.resolve("working-copy").toFile(), repo.projectRepositoryUrl(), repo.projectRepositoryUrl(), List.of(), inMemoryConsumer())).isNull();
+        assertThat(tempDir.resolve("cache")).doesNotExist();
+    }
+
+    @Test
+    void shouldMirrorRepositoriesForWorkingCopiesToBorrowObjectsFrom() throws IOException {
+        GitTestRepo repo = new GitTestRepo(tempDir);
+        GitObjectCache cache = new GitObjectCache(tempDir.resolve("cache").toFile(), FileUtils.ONE_GB);
+
+        File workingCopy = tempDir.resolve("working-copy").toFile();
+        File mirror = cache.lendTo(workingCopy, repo.projectRepositoryUrl(), repo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+        new GitCommand(null, workingCopy, null, false, null).clone(inMemoryConsumer(), repo.projectRepositoryUrl(), Integer.MAX_VALUE, mirror);
+
+        assertThat(new File(mirror, "objects")).isDirectory();
+        assertThat(new File(workingCopy, ".git/objects/info/alternates")).content(UTF_8).contains(mirror.getAbsolutePath());
+        assertThat(GitObjectCache.borrowsFromMissingRepository(workingCopy)).isFalse();
+
+        FileUtils.deleteDirectory(mirror);
+
+        assertThat(GitObjectCache.borrowsFromMissingRepository(workingCopy)).isTrue();
+    }
+
+    @Test
+    void shouldFetchIntoTheMirrorFromTheUrlItIsLentWithRatherThanTheOneItWasClonedFrom() throws IOException {
+        GitTestRepo repo = new GitTestRepo(tempDir);
+        GitObjectCache cache = new GitObjectCache(tempDir.resolve("cache").toFile(), FileUtils.ONE_GB);
+        String urlForDisplay = "https://example.com/repository.git";
+
+        File mirror = cache.lendTo(tempDir.resolve("working-copy").toFile(), repo.projectRepositoryUrl(), urlForDisplay, List.of(), inMemoryConsumer());
+        File moved = tempDir.resolve("moved").toFile();
+        FileUtils.moveDirectory(repo.gitRepository(), moved);
+
+        assertThat(cache.lendTo(tempDir.resolve("another-working-copy").toFile(), moved.toURI().toString(), urlForDisplay, List.of(), inMemoryConsumer()))
+                .isEqualTo(mirror);
+    }
+
+    @Test
+    void shouldOnlyKeepTheMostRecentlyUsedMirrorWhenOverBudget() throws IOException {
+        GitTestRepo repo = new GitTestRepo(tempDir);
+        GitTestRepo anotherRepo = new GitTestRepo(tempDir);
+        GitObjectCache cache = new GitObjectCache(tempDir.resolve("cache").toFile(), 1);
+
+        File mirror = cache.lendTo(tempDir.resolve("working-copy").toFile(), repo.projectRepositoryUrl(), repo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+        mirror.setLastModified(mirror.lastModified() - 60_000);
+        File anotherMirror = cache.lendTo(tempDir.resolve("another-working-copy").toFile(), anotherRepo.projectRepositoryUrl(), anotherRepo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+
+        assertThat(mirror).doesNotExist();
+        assertThat(anotherMirror).isDirectory();
+    }
+
+    @Test
+    void shouldKeepMirrorsWhichWorkingCopiesStillBorrowFromWhenOverBudget() throws IOException {
+        GitTestRepo repo = new GitTestRepo(tempDir);
+        GitTestRepo anotherRepo = new GitTestRepo(tempDir);
+        GitObjectCache cache = new GitObjectCache(tempDir.resolve("cache").toFile(), 1);
+
+        File workingCopy = tempDir.resolve("working-copy").toFile();
+        File mirror = cache.lendTo(workingCopy, repo.projectRepositoryUrl(), repo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+        new GitCommand(null, workingCopy, null, false, null).clone(inMemoryConsumer(), repo.projectRepositoryUrl(), Integer.MAX_VALUE, mirror);
+        mirror.setLastModified(mirror.lastModified() - 60_000);
+        cache.lendTo(tempDir.resolve("another-working-copy").toFile(), anotherRepo.projectRepositoryUrl(), anotherRepo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+
+        assertThat(mirror).isDirectory();
+
+        FileUtils.deleteDirectory(workingCopy);
+        mirror.setLastModified(mirror.lastModified() - 60_000);
+        cache.lendTo(tempDir.resolve("another-working-copy").toFile(), anotherRepo.projectRepositoryUrl(), anotherRepo.projectRepositoryUrl(), List.of(), inMemoryConsumer());
+
+        assertThat(mirror).doesNotExist();
+    }
+}
@@ -34,6 +34,7 @@ import org.springframework.stereotype.Service;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static com.thoughtworks.go.util.SystemEnvironment.PLUGIN_WORK_DIR;
 import static java.lang.Double.parseDouble;
@@ -50,6 +51,7 @@ public class DefaultPluginManager implements PluginManager {
     private final GoPluginOSGiFramework goPluginOSGiFramework;
     private final Map<PluginDescriptor, Set<String>> initializedPluginsWithTheirExtensionTypes = new HashMap<>();
     private final PluginRequestProcessorRegistry requestProcessRegistry;
+    private final List<PluginRequestListener> requestListeners = new CopyOnWriteArrayList<>();
 
     @Autowired
     public DefaultPluginManager(DefaultPluginJarLocationMonitor monitor, DefaultPluginRegistry registry, GoPluginOSGiFramework goPluginOSGiFramework,
@@ -136,18 +138,41 @@ public class DefaultPluginManager implements PluginManager {
         return pluginLoader.addPluginPostLoadHook(pluginPostLoadHook);
     }
 
+    @Override
+    public void addPluginRequestListener(PluginRequestListener pluginRequestListener) {
+        requestListeners.add(pluginRequestListener);
+    }
+
     @Override
     public GoPluginApiResponse submitTo(final String pluginId, String extensionType, final GoPluginApiRequest apiRequest) {
-        return goPluginOSGiFramework.doOn(GoPlugin.class, pluginId, extensionType, (plugin, pluginDescriptor) -> {
-            ensureInitializerInvoked(pluginDescriptor, plugin, extensionType);
+        long start = System.nanoTime();
+        boolean successful = false;
+        try {
+            GoPluginApiResponse response = goPluginOSGiFramework.doOn(GoPlugin.class, pluginId, extensionType, (plugin, pluginDescriptor) -> {
+                ensureInitializerInvoked(pluginDescriptor, plugin, extensionType);
+                try {
+                    return plugin.handle(apiRequest);
+                } catch (UnhandledRequestTypeException e) {
+                    LOGGER.error(e.getMessage());
+                    LOGGER.debug(e.getMessage(), e);
+                    throw new RuntimeException(e);
+                }
+            });
+            successful = true;
+            return response;
+        } finally {
+            notifyRequestCompleted(pluginId, extensionType, apiRequest, System.nanoTime() - start, successful);
+        }
+    }
+
+    private void notifyRequestCompleted(String pluginId, String extensionType, GoPluginApiRequest apiRequest, long durationInNanos, boolean successful) {
+        for (PluginRequestListener listener : requestListeners) {
             try {
-                return plugin.handle(apiRequest);
-            } catch (UnhandledRequestTypeException e) {
-                LOGGER.error(e.getMessage());
-                LOGGER.debug(e.getMessage(), e);
-                throw new RuntimeException(e);
+                listener.requestCompleted(pluginId, extensionType, apiRequest.requestName(), durationInNanos, successful);
+            } catch (Exception e) {
+                LOGGER.warn("Plugin request listener {} failed.", listener, e);
             }
-        });
+        }
     }
 
     private void ensureInitializerInvoked(GoPluginDescriptor pluginDescriptor, GoPlugin plugin, String extensionType) {
@@ -36,6 +36,8 @@ public interface PluginManager {
 
     PluginPostLoadHook addPluginPostLoadHook(PluginPostLoadHook pluginPostLoadHook);
 
+    void addPluginRequestListener(PluginRequestListener pluginRequestListener);
+
     GoPluginApiResponse submitTo(String pluginId, String extensionType, GoPluginApiRequest apiRequest);
 
     boolean isPluginOfType(String extension, String pluginId);
@@ -0,0 +1,110 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.plugin.configrepo.contract.CRConfigurationProperty;
+import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Understands remembering what config repo plugins last parsed out of each config repo, along with a digest of the
+ * config files they listed for it, so that a change which does not touch any of those files (e.g. one to application
+ * code living in the same repo) does not make the plugin parse all of them again. Only used when
+ * {@link SystemEnvironment#GO_CONFIG_REPO_SKIP_PARSING_UNCHANGED_FILES} is turned on.
+ */
+public class ConfigRepoParseCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConfigRepoParseCache.class);
+
+    private final SystemEnvironment systemEnvironment;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public ConfigRepoParseCache() {
+        this(new SystemEnvironment());
+    }
+
+    ConfigRepoParseCache(SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    public boolean isEnabled() {
+        return systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_SKIP_PARSING_UNCHANGED_FILES);
+    }
+
+    /**
+     * Returns what the plugin parsed out of the config repo last time if none of its config files have changed since,
+     * otherwise asks the plugin (through {@code parser}) to parse it again. Results with errors are never reused.
+     */
+    public CRParseResult parse(String materialFingerprint, String pluginId, Collection<CRConfigurationProperty> configurations,
+                               File checkoutDirectory, List<String> configFiles, Supplier<CRParseResult> parser) {
+        String digest = digest(checkoutDirectory, configFiles);
+        List<CRConfigurationProperty> configurationList = new ArrayList<>(configurations);
+
+        Entry entry = entries.get(materialFingerprint);
+        if (digest != null && entry != null && entry.pluginId().equals(pluginId) && entry.configurations().equals(configurationList) && entry.digest().equals(digest)) {
+            LOGGER.debug("[Config Repos] None of the {} config files of {} have changed, not parsing them again.", configFiles.size(), materialFingerprint);
+            return entry.parseResult();
+        }
+
+        entries.remove(materialFingerprint);
+        CRParseResult parseResult = parser.get();
+        if (digest != null && !parseResult.hasErrors()) {
+            entries.put(materialFingerprint, new Entry(pluginId, configurationList, digest, parseResult));
+        }
+        return parseResult;
+    }
+
+    public void removeIf(Predicate<String> materialFingerprint) {
+        entries.keySet().removeIf(materialFingerprint);
+    }
+
+    // Returns null when any of the files cannot be read, in which case nothing is reused
+    private String digest(File checkoutDirectory, List<String> configFiles) {
+        MessageDigest digest = DigestUtils.getSha256Digest();
+        for (String configFile : new TreeSet<>(configFiles)) {
+            File file = new File(configFile).isAbsolute() ? new File(configFile) : new File(checkoutDirectory, configFile);
+            digest.update(configFile.getBytes(UTF_8));
+            digest.update((byte) 0);
+            try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                DigestUtils.updateDigest(digest, inputStream);
+            } catch (IOException e) {
+                LOGGER.debug("[Config Repos] Unable to read config file {}, it will be parsed again.", file, e);
+                return null;
+            }
+            digest.update((byte) 0);
+        }
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    private record Entry(String pluginId, List<CRConfigurationProperty> configurations, String digest, CRParseResult parseResult) {
+    }
+}
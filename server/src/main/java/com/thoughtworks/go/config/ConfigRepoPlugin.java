@@ -19,10 +19,12 @@ import com.thoughtworks.go.config.remote.PartialConfig;
 import com.thoughtworks.go.domain.config.Configuration;
 import com.thoughtworks.go.plugin.access.configrepo.ConfigFileList;
 import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoExtension;
+import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoMetadataStore;
 import com.thoughtworks.go.plugin.access.configrepo.ExportedConfig;
 import com.thoughtworks.go.plugin.configrepo.contract.CRConfigurationProperty;
 import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
 import com.thoughtworks.go.plugin.configrepo.contract.CRPipeline;
+import com.thoughtworks.go.plugin.domain.configrepo.ConfigRepoPluginInfo;
 
 import java.io.File;
 import java.util.Collection;
@@ -34,11 +36,17 @@ public class ConfigRepoPlugin implements PartialConfigProvider {
     private final ConfigConverter configConverter;
     private final ConfigRepoExtension crExtension;
     private final String pluginId;
+    private final ConfigRepoParseCache parseCache;
 
     public ConfigRepoPlugin(ConfigConverter configConverter, ConfigRepoExtension crExtension, String pluginId) {
+        this(configConverter, crExtension, pluginId, null);
+    }
+
+    public ConfigRepoPlugin(ConfigConverter configConverter, ConfigRepoExtension crExtension, String pluginId, ConfigRepoParseCache parseCache) {
         this.configConverter = configConverter;
         this.crExtension = crExtension;
         this.pluginId = pluginId;
+        this.parseCache = parseCache;
     }
 
     /**
@@ -61,10 +69,34 @@ public class ConfigRepoPlugin implements PartialConfigProvider {
     @Override
     public PartialConfig load(File configRepoCheckoutDirectory, PartialConfigLoadContext context) {
         Collection<CRConfigurationProperty> cRconfigurations = getCrConfigurations(context.configuration());
-        CRParseResult crPartialConfig = parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
+        CRParseResult crPartialConfig = canSkipParsingUnchangedFiles()
+            ? parseChangedDirectory(configRepoCheckoutDirectory, cRconfigurations, context)
+            : parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
         return configConverter.toPartialConfig(crPartialConfig, context);
     }
 
+    // Conversion is done every time though, since what it produces also depends on the rest of the config
+    private CRParseResult parseChangedDirectory(File configRepoCheckoutDirectory, Collection<CRConfigurationProperty> cRconfigurations, PartialConfigLoadContext context) {
+        ConfigFileList configFiles = getConfigFiles(configRepoCheckoutDirectory, cRconfigurations);
+        if (configFiles.hasErrors()) {
+            return parseDirectory(configRepoCheckoutDirectory, cRconfigurations);
+        }
+
+        CRParseResult crParseResult = parseCache.parse(context.configMaterial().getFingerprint(), pluginId, cRconfigurations, configRepoCheckoutDirectory,
+            configFiles.getFiles(), () -> crExtension.parseDirectory(pluginId, configRepoCheckoutDirectory.getAbsolutePath(), cRconfigurations));
+        if (crParseResult.hasErrors())
+            throw new InvalidPartialConfigException(crParseResult, crParseResult.getErrors().getErrorsAsText());
+        return crParseResult;
+    }
+
+    private boolean canSkipParsingUnchangedFiles() {
+        if (parseCache == null || !parseCache.isEnabled()) {
+            return false;
+        }
+        ConfigRepoPluginInfo pluginInfo = ConfigRepoMetadataStore.instance().getPluginInfo(pluginId);
+        return pluginInfo != null && pluginInfo.getCapabilities().isSupportsListConfigFiles();
+    }
+
     public String id() {
         return this.pluginId;
     }
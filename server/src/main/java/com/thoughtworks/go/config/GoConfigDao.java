@@ -24,6 +24,7 @@ import com.thoughtworks.go.listener.ConfigChangedListener;
 import com.thoughtworks.go.presentation.TriStateSelection;
 import com.thoughtworks.go.server.domain.Username;
 import com.thoughtworks.go.server.newsecurity.utils.SessionUtils;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import com.thoughtworks.go.util.ExceptionUtils;
 import org.jetbrains.annotations.TestOnly;
 import org.slf4j.Logger;
@@ -43,10 +44,14 @@ import java.util.function.Function;
 public class GoConfigDao {
     private static final Logger LOGGER = LoggerFactory.getLogger(GoConfigDao.class);
     private final CachedGoConfig cachedConfigService;
+    private final MetricsRegistry.Histogram lockWaitTime;
+    private final MetricsRegistry.Histogram saveTime;
 
     @Autowired
-    public GoConfigDao(CachedGoConfig cachedConfigService) {
+    public GoConfigDao(CachedGoConfig cachedConfigService, MetricsRegistry metricsRegistry) {
         this.cachedConfigService = cachedConfigService;
+        this.lockWaitTime = metricsRegistry.histogram("gocd_config_save_lock_wait_seconds", "Time config updates spent waiting for the config write lock, by kind of update.", "kind");
+        this.saveTime = metricsRegistry.histogram("gocd_config_save_duration_seconds", "Time taken to save a config update while holding the config write lock, by kind of update.", "kind");
     }
 
     public String fileLocation() {
@@ -86,7 +91,10 @@ public class GoConfigDao {
 
     public void updateConfig(EntityConfigUpdateCommand<?> command, Username currentUser) {
         LOGGER.info("Config update for entity request by {} is in queue - {}", currentUser, command);
+        long queuedAt = System.nanoTime();
         synchronized (GoConfigWriteLock.class) {
+            long startedAt = System.nanoTime();
+            lockWaitTime.observeNanos(startedAt - queuedAt, "entity");
             try {
                 LOGGER.info("Config update for entity request by {} is being processed", currentUser);
                 if (!command.canContinue(cachedConfigService.currentConfig())) {
@@ -98,13 +106,14 @@ public class GoConfigDao {
                 throw e;
             }
             finally {
+                saveTime.observeSince(startedAt, "entity");
                 LOGGER.info("Entity update for request by {} is completed", currentUser);
             }
         }
     }
 
     public ConfigSaveState updateConfig(UpdateConfigCommand command) {
-        return doSaveWith(command, c -> {
+        return doSaveWith(command, "command", c -> {
             if (c instanceof CheckedUpdateCommand checkedCommand) {
                 if (!checkedCommand.canContinue(cachedConfigService.currentConfig())) {
                     throw new ConfigUpdateCheckFailedException();
@@ -115,13 +124,16 @@ public class GoConfigDao {
     }
 
     public ConfigSaveState updateFullConfig(FullConfigUpdateCommand command) {
-        return doSaveWith(command, cachedConfigService::writeFullConfigWithLock);
+        return doSaveWith(command, "full", cachedConfigService::writeFullConfigWithLock);
     }
 
-    private <T extends UpdateConfigCommand> ConfigSaveState doSaveWith(T command, Function<T, ConfigSaveState> configOperation) {
+    private <T extends UpdateConfigCommand> ConfigSaveState doSaveWith(T command, String kind, Function<T, ConfigSaveState> configOperation) {
         ConfigSaveState configSaveState;
         LOGGER.info("Config update request by {} is in queue - {}", SessionUtils.currentUsername().getUsername(), command);
+        long queuedAt = System.nanoTime();
         synchronized (GoConfigWriteLock.class) {
+            long startedAt = System.nanoTime();
+            lockWaitTime.observeNanos(startedAt - queuedAt, kind);
             try {
                 LOGGER.info("Config update request {} by {} is being processed", command, SessionUtils.currentUsername().getUsername());
 
@@ -130,6 +142,7 @@ public class GoConfigDao {
                 LOGGER.error("{} failed", command, e);
                 throw e;
             } finally {
+                saveTime.observeSince(startedAt, kind);
                 LOGGER.info("Config update request by {} is completed", SessionUtils.currentUsername().getUsername());
             }
         }
@@ -47,15 +47,17 @@ public class GoConfigMigrator {
     private final ConfigRepository configRepository;
     private final ServerHealthService serverHealthService;
     private final UpgradeFailedHandler upgradeFailedHandler;
+    private final ValidatedConfigSnapshot validatedConfigSnapshot;
 
     @Autowired
     public GoConfigMigrator(GoConfigMigration goConfigMigration, SystemEnvironment systemEnvironment, ConfigCache configCache,
                             ConfigElementImplementationRegistry registry, FullConfigSaveNormalFlow fullConfigSaveNormalFlow,
-                            ConfigRepository configRepository, ServerHealthService serverHealthService) {
+                            ConfigRepository configRepository, ServerHealthService serverHealthService,
+                            ValidatedConfigSnapshot validatedConfigSnapshot) {
 
         this(goConfigMigration, systemEnvironment, fullConfigSaveNormalFlow,
                 new MagicalGoConfigXmlLoader(configCache, registry),
-                new GoConfigFileReader(systemEnvironment), configRepository, serverHealthService,
+                new GoConfigFileReader(systemEnvironment), configRepository, serverHealthService, validatedConfigSnapshot,
                 e -> {
                     //noinspection CallToPrintStackTrace
                     e.printStackTrace();
@@ -70,7 +72,8 @@ public class GoConfigMigrator {
 
     public GoConfigMigrator(GoConfigMigration goConfigMigration, SystemEnvironment systemEnvironment,
                             FullConfigSaveNormalFlow fullConfigSaveNormalFlow, MagicalGoConfigXmlLoader loader,
-                            GoConfigFileReader goConfigFileReader, ConfigRepository configRepository, ServerHealthService serverHealthService, UpgradeFailedHandler upgradeFailedHandler) {
+                            GoConfigFileReader goConfigFileReader, ConfigRepository configRepository, ServerHealthService serverHealthService,
+                            ValidatedConfigSnapshot validatedConfigSnapshot, UpgradeFailedHandler upgradeFailedHandler) {
         this.goConfigMigration = goConfigMigration;
         this.systemEnvironment = systemEnvironment;
         this.fullConfigSaveNormalFlow = fullConfigSaveNormalFlow;
@@ -79,6 +82,7 @@ public class GoConfigMigrator {
         this.configRepository = configRepository;
         this.serverHealthService = serverHealthService;
         this.upgradeFailedHandler = upgradeFailedHandler;
+        this.validatedConfigSnapshot = validatedConfigSnapshot;
     }
 
     public GoConfigHolder migrate() {
@@ -100,13 +104,37 @@ public class GoConfigMigrator {
     }
 
     private GoConfigHolder upgradeConfigFile() throws Exception {
-        String upgradedXml = this.goConfigMigration.upgradeIfNecessary(this.goConfigFileReader.configXml());
+        String configXml = this.goConfigFileReader.configXml();
+
+        GoConfigHolder previouslyValidated = loadPreviouslyValidated(configXml);
+        if (previouslyValidated != null) {
+            return previouslyValidated;
+        }
+
+        String upgradedXml = this.goConfigMigration.upgradeIfNecessary(configXml);
 
         LOGGER.info("[Config Save] Starting Config Save post upgrade using FullConfigSaveNormalFlow");
 
         CruiseConfig cruiseConfig = this.loader.deserializeConfig(upgradedXml);
 
-        return fullConfigSaveNormalFlow.execute(new FullConfigUpdateCommand(cruiseConfig, null), new ArrayList<>(), "Upgrade");
+        GoConfigHolder goConfigHolder = fullConfigSaveNormalFlow.execute(new FullConfigUpdateCommand(cruiseConfig, null), new ArrayList<>(), "Upgrade");
+        validatedConfigSnapshot.remember(goConfigHolder);
+        return goConfigHolder;
+    }
+
+    private GoConfigHolder loadPreviouslyValidated(String configXml) {
+        if (!validatedConfigSnapshot.hasValidated(configXml)) {
+            return null;
+        }
+
+        try {
+            LOGGER.info("[Config Save] Config file is unchanged since it was last validated, skipping upgrade and validation");
+            return this.loader.loadValidatedConfigHolder(configXml);
+        } catch (Exception e) {
+            LOGGER.warn("Unable to load previously validated config file, falling back to a full upgrade and validation", e);
+            validatedConfigSnapshot.forget();
+            return null;
+        }
     }
 
     private GoConfigHolder upgradeVersionedConfigFile(Exception originalException) throws Exception {
@@ -18,6 +18,7 @@ package com.thoughtworks.go.config;
 import com.thoughtworks.go.config.parts.XmlPartialConfigProvider;
 import com.thoughtworks.go.config.registry.ConfigElementImplementationRegistry;
 import com.thoughtworks.go.config.remote.ConfigRepoConfig;
+import com.thoughtworks.go.config.remote.ConfigReposConfig;
 import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoExtension;
 import com.thoughtworks.go.plugin.access.configrepo.ConfigRepoMetadataStore;
 import com.thoughtworks.go.security.GoCipher;
@@ -33,6 +34,7 @@ public class GoConfigPluginService {
 
     private final ConfigRepoExtension crExtension;
     private final XmlPartialConfigProvider embeddedXmlPlugin;
+    private final ConfigRepoParseCache parseCache = new ConfigRepoParseCache();
     private ConfigConverter configConverter;
 
     @Autowired
@@ -54,7 +56,11 @@ public class GoConfigPluginService {
         if (pluginId == null || pluginId.equals(XmlPartialConfigProvider.providerName))
             return embeddedXmlPlugin;
 
-        return new ConfigRepoPlugin(configConverter, crExtension, pluginId);
+        return new ConfigRepoPlugin(configConverter, crExtension, pluginId, parseCache);
+    }
+
+    public void forgetParseResultsOfConfigReposNotIn(ConfigReposConfig configRepos) {
+        parseCache.removeIf(fingerprint -> !configRepos.hasMaterialWithFingerprint(fingerprint));
     }
 
     public boolean isConfigRepoPlugin(String pluginId) {
@@ -120,6 +120,7 @@ public class GoConfigRepoConfigDataSource implements ChangedRepoConfigWatchListL
                 this.configReposMaterialParseResultManager.remove(fingerprint);
             }
         }
+        this.configPluginService.forgetParseResultsOfConfigReposNotIn(newConfigRepos);
     }
 
     public void onCheckoutComplete(MaterialConfig material, File folder, Modification modification) {
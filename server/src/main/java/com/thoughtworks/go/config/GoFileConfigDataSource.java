@@ -69,6 +69,7 @@ public class GoFileConfigDataSource {
     private final GoConfigFileReader goConfigFileReader;
     private final GoConfigFileWriter goConfigFileWriter;
     private final PartialConfigHelper partials;
+    private final ValidatedConfigSnapshot validatedConfigSnapshot;
     private ReloadStrategy reloadStrategy = new ReloadIfModified();
 
     /* Will only upgrade cruise config file on application startup. */
@@ -77,12 +78,13 @@ public class GoFileConfigDataSource {
                                   TimeProvider timeProvider, ConfigCache configCache,
                                   ConfigElementImplementationRegistry configElementImplementationRegistry,
                                   CachedGoPartials cachedGoPartials,
-                                  FullConfigSaveMergeFlow fullConfigSaveMergeFlow, FullConfigSaveNormalFlow fullConfigSaveNormalFlow, PartialConfigHelper partials) {
+                                  FullConfigSaveMergeFlow fullConfigSaveMergeFlow, FullConfigSaveNormalFlow fullConfigSaveNormalFlow, PartialConfigHelper partials,
+                                  ValidatedConfigSnapshot validatedConfigSnapshot) {
         this(upgrader, configRepository, systemEnvironment, timeProvider,
                 new MagicalGoConfigXmlLoader(configCache, configElementImplementationRegistry),
                 new MagicalGoConfigXmlWriter(configCache, configElementImplementationRegistry),
                 cachedGoPartials, fullConfigSaveMergeFlow, fullConfigSaveNormalFlow,
-                new GoConfigFileReader(systemEnvironment), new GoConfigFileWriter(systemEnvironment), partials);
+                new GoConfigFileReader(systemEnvironment), new GoConfigFileWriter(systemEnvironment), partials, validatedConfigSnapshot);
     }
 
     GoFileConfigDataSource(GoConfigMigration upgrader, ConfigRepository configRepository, SystemEnvironment systemEnvironment,
@@ -90,7 +92,7 @@ public class GoFileConfigDataSource {
                            MagicalGoConfigXmlWriter magicalGoConfigXmlWriter,
                            CachedGoPartials cachedGoPartials, FullConfigSaveMergeFlow fullConfigSaveMergeFlow,
                            FullConfigSaveNormalFlow fullConfigSaveNormalFlow, GoConfigFileReader goConfigFileReader,
-                           GoConfigFileWriter goConfigFileWriter, PartialConfigHelper partials) {
+                           GoConfigFileWriter goConfigFileWriter, PartialConfigHelper partials, ValidatedConfigSnapshot validatedConfigSnapshot) {
         this.configRepository = configRepository;
         this.systemEnvironment = systemEnvironment;
         this.upgrader = upgrader;
@@ -103,6 +105,7 @@ public class GoFileConfigDataSource {
         this.goConfigFileReader = goConfigFileReader;
         this.goConfigFileWriter = goConfigFileWriter;
         this.partials = partials;
+        this.validatedConfigSnapshot = validatedConfigSnapshot;
     }
 
     private interface ReloadStrategy {
@@ -433,6 +436,7 @@ public class GoFileConfigDataSource {
                 goConfigHolder = fullConfigSaveNormalFlow.execute(new FullConfigUpdateCommand(cruiseConfig, null), cachedGoPartials.lastValidPartials(), FILESYSTEM);
             }
             reloadStrategy.latestState(goConfigHolder.config);
+            validatedConfigSnapshot.remember(goConfigHolder);
             return goConfigHolder;
         } catch (Exception e) {
             logConfigLoadException(configFile, e);
@@ -556,6 +560,7 @@ public class GoFileConfigDataSource {
         }
 
         reloadStrategy.latestState(goConfigHolder.config);
+        validatedConfigSnapshot.remember(goConfigHolder);
 
         return goConfigHolder;
     }
@@ -652,5 +657,6 @@ public class GoFileConfigDataSource {
         configRepository.checkin(new GoConfigRevision(configAsXml, md5, currentUser, CurrentGoCDVersion.getInstance().formatted(), timeProvider));
         LOGGER.debug("[Config Save] === Done checking in to config.git");
         cachedGoPartials.markAsValid(partials);
+        validatedConfigSnapshot.remember(md5);
     }
 }
@@ -25,16 +25,23 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 
 @Component
 public class PartialConfigService implements PartialConfigUpdateCompletedListener, ChangedRepoConfigWatchListListener {
     public static final String INVALID_CRUISE_CONFIG_MERGE = "Invalid Merged Configuration";
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartialConfigService.class);
 
     private final GoConfigService goConfigService;
     private final CachedGoPartials cachedGoPartials;
@@ -42,17 +49,22 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
     private final PartialConfigHelper partialConfigHelper;
     private final GoConfigRepoConfigDataSource repoConfigDataSource;
     private final GoConfigWatchList configWatchList;
+    private final SystemEnvironment systemEnvironment;
+    private final Map<String, PendingMerge> pendingMerges = new LinkedHashMap<>();
+    private ScheduledExecutorService mergeScheduler;
 
     @Autowired
     public PartialConfigService(GoConfigRepoConfigDataSource repoConfigDataSource,
                                 GoConfigWatchList configWatchList, GoConfigService goConfigService,
-                                CachedGoPartials cachedGoPartials, ServerHealthService serverHealthService, PartialConfigHelper partialConfigHelper) {
+                                CachedGoPartials cachedGoPartials, ServerHealthService serverHealthService, PartialConfigHelper partialConfigHelper,
+                                SystemEnvironment systemEnvironment) {
         this.repoConfigDataSource = repoConfigDataSource;
         this.configWatchList = configWatchList;
         this.goConfigService = goConfigService;
         this.cachedGoPartials = cachedGoPartials;
         this.serverHealthService = serverHealthService;
         this.partialConfigHelper = partialConfigHelper;
+        this.systemEnvironment = systemEnvironment;
 
         this.configWatchList.registerListener(this);
         this.repoConfigDataSource.registerListener(this);
@@ -80,28 +92,107 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
                 //validate rules
                 hasRuleViolations(incoming);
 
-                /* Validate config.
-                UpdateConfig will fail to update the configuration if there are validation errors.
-                Even in case of rules violation, the updateConfig method is required to populate a server health message
-                of rule violation, which also will be shown on the config repo spa.*/
-                if (updateConfig(incoming, fingerprint, repoConfig)) {
-                    // mark the partial as valid when config is updated successfully for it.
-                    cachedGoPartials.markAsValid(fingerprint, incoming);
+                int mergeWindowInMillis = systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_PARTIAL_MERGE_WINDOW_IN_MILLIS);
+                if (mergeWindowInMillis > 0) {
+                    queueMerge(new PendingMerge(repoConfig, incoming), mergeWindowInMillis);
                 } else {
-                    /* If the latest partial is invalid for the current config repo rules.
-                    1. Apply latest config repo rules to previous valid partial.
-                    2. If the previous valid partials are valid - do nothing - as the error for the latest partial is
-                       already populated and config contains the last known partial.
-                    3. If the previous valid partials are invalid - remove those config without clearing the server health message.
-                       Server health message is populated for the same fingerprint with the latest parse failure message.*/
-                    if (hasRuleViolationsOnPreviousValidPartial(repoConfig)) {
-                        removeCachedLastValidPartial(fingerprint);
-                    }
+                    mergeAlone(new PendingMerge(repoConfig, incoming));
                 }
             }
         }
     }
 
+    /**
+     * Merges all the partials queued up since the first one of them arrived in a single config update. Only if the
+     * result is invalid is each of them merged on its own, so that the invalid ones do not keep the others out.
+     */
+    void mergePending() {
+        List<PendingMerge> merges;
+        synchronized (pendingMerges) {
+            merges = new ArrayList<>(pendingMerges.values());
+            pendingMerges.clear();
+        }
+        merges.removeIf(merge -> !configWatchList.hasConfigRepoWithFingerprint(merge.fingerprint()));
+
+        // partials violating the rules of their config repo are known to be invalid, they only need their errors reported
+        List<PendingMerge> violatingRules = merges.stream().filter(merge -> merge.partial().hasErrors()).toList();
+        merges.removeAll(violatingRules);
+        violatingRules.forEach(this::mergeAlone);
+
+        if (merges.isEmpty()) {
+            return;
+        }
+        if (merges.size() == 1) {
+            mergeAlone(merges.get(0));
+            return;
+        }
+
+        try {
+            goConfigService.updateConfig(cruiseConfig -> {
+                for (PendingMerge merge : merges) {
+                    buildUpdateCommand(merge.partial(), merge.fingerprint()).update(cruiseConfig);
+                }
+                return cruiseConfig;
+            });
+            merges.forEach(merge -> cachedGoPartials.markAsValid(merge.fingerprint(), merge.partial()));
+        } catch (Exception e) {
+            LOGGER.warn("[Config Repos] Merging partials of {} config repos at once failed, merging them one at a time.", merges.size(), e);
+            merges.forEach(this::mergeAlone);
+        }
+    }
+
+    private void queueMerge(PendingMerge merge, int mergeWindowInMillis) {
+        synchronized (pendingMerges) {
+            boolean mergeScheduled = !pendingMerges.isEmpty();
+            pendingMerges.put(merge.fingerprint(), merge);
+            if (!mergeScheduled) {
+                mergeScheduler().schedule(this::mergePendingLoggingErrors, mergeWindowInMillis, MILLISECONDS);
+            }
+        }
+    }
+
+    private void mergePendingLoggingErrors() {
+        try {
+            mergePending();
+        } catch (Exception e) {
+            LOGGER.error("[Config Repos] Failed to merge partials of config repos.", e);
+        }
+    }
+
+    private ScheduledExecutorService mergeScheduler() {
+        if (mergeScheduler == null) {
+            mergeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "partial-config-merge");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return mergeScheduler;
+    }
+
+    private void mergeAlone(PendingMerge merge) {
+        final String fingerprint = merge.fingerprint();
+
+        /* Validate config.
+        UpdateConfig will fail to update the configuration if there are validation errors.
+        Even in case of rules violation, the updateConfig method is required to populate a server health message
+        of rule violation, which also will be shown on the config repo spa.*/
+        if (updateConfig(merge.partial(), fingerprint, merge.repoConfig())) {
+            // mark the partial as valid when config is updated successfully for it.
+            cachedGoPartials.markAsValid(fingerprint, merge.partial());
+        } else {
+            /* If the latest partial is invalid for the current config repo rules.
+            1. Apply latest config repo rules to previous valid partial.
+            2. If the previous valid partials are valid - do nothing - as the error for the latest partial is
+               already populated and config contains the last known partial.
+            3. If the previous valid partials are invalid - remove those config without clearing the server health message.
+               Server health message is populated for the same fingerprint with the latest parse failure message.*/
+            if (hasRuleViolationsOnPreviousValidPartial(merge.repoConfig())) {
+                removeCachedLastValidPartial(fingerprint);
+            }
+        }
+    }
+
     @Override
     public void onChangedRepoConfigWatchList(ConfigReposConfig newConfigRepos) {
         // remove partial configs from map which are no longer on the list
@@ -194,4 +285,10 @@ public class PartialConfigService implements PartialConfigUpdateCompletedListene
         partial.validatePermissionsOnSubtree();
         return partial.hasErrors();
     }
+
+    private record PendingMerge(ConfigRepoConfig repoConfig, PartialConfig partial) {
+        String fingerprint() {
+            return repoConfig.getRepo().getFingerprint();
+        }
+    }
 }
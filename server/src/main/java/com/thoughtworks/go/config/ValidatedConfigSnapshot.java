@@ -0,0 +1,156 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.CurrentGoCDVersion;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/*
+ValidatedConfigSnapshot remembers which cruise-config.xml content last went through the complete upgrade, XSD and
+semantic validation flow, keyed by the MD5 of the file, the config schema version and the GoCD version. Only the main
+config file is fingerprinted: on startup the upgrade flow validates it without any partials, since config repositories
+have not been parsed yet, so an unchanged config file can then be loaded without upgrading and revalidating it.
+*/
+@Component
+public class ValidatedConfigSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidatedConfigSnapshot.class);
+    static final String SNAPSHOT_FILE_SUFFIX = ".validated";
+    private static final int MAGIC = 0x60CDC0F6;
+    private static final int FORMAT_VERSION = 2;
+
+    private final SystemEnvironment systemEnvironment;
+
+    @Autowired
+    public ValidatedConfigSnapshot(SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    public boolean isEnabled() {
+        return systemEnvironment.get(SystemEnvironment.LOAD_VALIDATED_CONFIG_SNAPSHOT_ON_STARTUP);
+    }
+
+    public boolean hasValidated(String configXml) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        Fingerprint snapshot = read();
+        return snapshot != null && snapshot.equals(fingerprintOf(DigestUtils.md5Hex(configXml)));
+    }
+
+    public void remember(GoConfigHolder configHolder) {
+        remember(configHolder.configForEdit.getMd5());
+    }
+
+    public void remember(String md5) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Fingerprint fingerprint = fingerprintOf(md5);
+        Path location = location();
+        Path tempFile = location.resolveSibling(location.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            fingerprint.writeTo(out);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write validated config snapshot to {}", location, e);
+            return;
+        }
+
+        try {
+            Files.move(tempFile, location, REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to write validated config snapshot to {}", location, e);
+        }
+    }
+
+    public void forget() {
+        try {
+            Files.deleteIfExists(location());
+        } catch (IOException e) {
+            LOGGER.warn("Unable to delete validated config snapshot {}", location(), e);
+        }
+    }
+
+    Path location() {
+        return Path.of(systemEnvironment.getCruiseConfigFile() + SNAPSHOT_FILE_SUFFIX);
+    }
+
+    private Fingerprint fingerprintOf(String md5) {
+        return new Fingerprint(md5, GoConfigSchema.currentSchemaVersion(), CurrentGoCDVersion.getInstance().formatted());
+    }
+
+    private Fingerprint read() {
+        Path location = location();
+        if (!Files.isRegularFile(location)) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(location)))) {
+            return Fingerprint.readFrom(in);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable validated config snapshot {}", location, e);
+            return null;
+        }
+    }
+
+    record Fingerprint(String md5, int schemaVersion, String goCDVersion) {
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, md5);
+            out.writeInt(schemaVersion);
+            writeString(out, goCDVersion);
+        }
+
+        static Fingerprint readFrom(DataInputStream in) throws IOException {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            String md5 = readString(in);
+            int schemaVersion = in.readInt();
+            String goCDVersion = readString(in);
+            return new Fingerprint(md5, schemaVersion, goCDVersion);
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0 || length > 4096) {
+                throw new IOException("Corrupt validated config snapshot");
+            }
+            return new String(in.readNBytes(length), UTF_8);
+        }
+    }
+}
@@ -16,11 +16,6 @@
 package com.thoughtworks.go.server.cache;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
-import org.apache.commons.lang3.StringUtils;
-
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.Collectors;
 
 public class CacheKeyGenerator {
     private static final String DELIMITER = ".$";
@@ -31,23 +26,20 @@ public class CacheKeyGenerator {
     }
 
     public String generate(String identifier, Object... args) {
-        final List<Object> allArgs = Arrays.stream(args).map(arg -> {
-            if (isAllowed(arg)) {
-                return arg;
+        StringBuilder key = new StringBuilder(clazz.getName()).append(DELIMITER).append(identifier);
+        for (Object arg : args) {
+            if (!isAllowed(arg)) {
+                throw new IllegalArgumentException("Type " + arg.getClass() + " is not allowed here!");
             }
-            throw new IllegalArgumentException("Type " + arg.getClass() + " is not allowed here!");
-        }).map(arg -> {
-            if (arg instanceof CaseInsensitiveString) {
-                return ((CaseInsensitiveString) arg).toLower();
-            } else {
-                return arg;
+            key.append(DELIMITER);
+            if (arg instanceof CaseInsensitiveString caseInsensitiveString) {
+                key.append(caseInsensitiveString.toLower());
+            } else if (arg != null) {
+                key.append(arg);
             }
-        }).collect(Collectors.toList());
-
-        allArgs.add(0, clazz.getName());
-        allArgs.add(1, identifier);
-
-        return StringUtils.join(allArgs, DELIMITER).intern();
+        }
+        // keys are still interned, since callers synchronize on them
+        return key.toString().intern();
     }
 
     private static boolean isAllowed(Object arg) {
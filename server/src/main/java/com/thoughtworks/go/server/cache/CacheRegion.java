@@ -0,0 +1,139 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Understands caching one kind of object under typed keys (usually records), with its own size, time to live and
+ * statistics. Keys need not be built into strings or interned for every lookup, and loading an entry only locks out
+ * callers asking for an equal key. Entries are served and stored following the same transaction rules as
+ * {@link GoCache}, which regions are obtained from.
+ */
+public class CacheRegion<K, V> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CacheRegion.class);
+
+    private final String name;
+    private final GoCache goCache;
+    private final int maximumSize;
+    private final long timeToLiveInSeconds;
+    private final Cache<K, V> cache;
+    private final LoadingCache<K, Object> locks = Caffeine.newBuilder().weakValues().build(key -> new Object());
+
+    CacheRegion(String name, GoCache goCache, int maximumSize, long timeToLiveInSeconds) {
+        this.name = name;
+        this.goCache = goCache;
+        this.maximumSize = maximumSize;
+        this.timeToLiveInSeconds = timeToLiveInSeconds;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().maximumSize(maximumSize).recordStats();
+        if (timeToLiveInSeconds > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(timeToLiveInSeconds));
+        }
+        this.cache = builder.build();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public V get(K key) {
+        if (goCache.doNotServeForTransaction()) {
+            return null;
+        }
+        V value = cache.getIfPresent(key);
+        goCache.logUnsavedPersistentObjectInteraction(value, "PersistentObject {} without an id served out of cache.");
+        return value;
+    }
+
+    /**
+     * Returns the cached value for the key, or loads and caches it while holding the lock for the key. Values which
+     * load as {@code null} are not cached.
+     */
+    public V get(K key, Supplier<V> loader) {
+        V value = get(key);
+        if (value == null) {
+            synchronized (lockFor(key)) {
+                value = get(key);
+                if (value == null) {
+                    value = loader.get();
+                    if (value != null) {
+                        put(key, value);
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        goCache.logUnsavedPersistentObjectInteraction(value, "PersistentObject {} added to cache without an id.");
+        if (goCache.isTransactionActive()) {
+            LOGGER.debug("transaction active during cache put for {} = {} in region {}", key, value, name, new IllegalStateException());
+            return;
+        }
+        cache.put(key, value);
+    }
+
+    public void remove(K key) {
+        synchronized (lockFor(key)) {
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * The object to synchronize on when a cached value and what it is derived from need to change together. The
+     * same object is returned for equal keys for as long as anyone holds on to it.
+     */
+    public Object lockFor(K key) {
+        return locks.get(key);
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> statistics() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("Maximum Size", maximumSize);
+        json.put("Time To Live Seconds", timeToLiveInSeconds);
+        json.put("Size", cache.estimatedSize());
+        json.put("Hits", stats.hitCount());
+        json.put("Miss", stats.missCount());
+        json.put("Eviction", stats.evictionCount());
+        json.put("Hit Ratio", stats.hitRate());
+        return json;
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+}
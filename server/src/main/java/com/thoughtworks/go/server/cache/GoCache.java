@@ -18,6 +18,7 @@ package com.thoughtworks.go.server.cache;
 import com.thoughtworks.go.domain.NullUser;
 import com.thoughtworks.go.domain.PersistentObject;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import com.thoughtworks.go.util.SystemEnvironment;
 import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.config.CacheConfiguration;
@@ -29,10 +30,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 
 import javax.annotation.PreDestroy;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bomb;
 
@@ -48,18 +48,24 @@ public class GoCache {
     private final TransactionSynchronizationManager transactionSynchronizationManager;
 
     private final Set<Class<? extends PersistentObject>> nullObjectClasses;
+    private final ConcurrentMap<String, CacheRegion<?, ?>> regions;
 
     static class KeyList extends HashSet<String> {
     }
 
     @TestOnly
     public GoCache(GoCache goCache) {
-        this(goCache.ehCache, goCache.transactionSynchronizationManager);
+        this(goCache.ehCache, goCache.transactionSynchronizationManager, goCache.regions);
     }
 
     public GoCache(Ehcache cache, TransactionSynchronizationManager transactionSynchronizationManager) {
+        this(cache, transactionSynchronizationManager, new ConcurrentHashMap<>());
+    }
+
+    private GoCache(Ehcache cache, TransactionSynchronizationManager transactionSynchronizationManager, ConcurrentMap<String, CacheRegion<?, ?>> regions) {
         this.ehCache = cache;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
+        this.regions = regions;
         this.nullObjectClasses = new HashSet<>();
         nullObjectClasses.add(NullUser.class);
         registerAsCacheEvictionListener();
@@ -92,9 +98,28 @@ public class GoCache {
         }
     }
 
+    /**
+     * Returns the region of the cache with the given name, creating it the first time it is asked for. The size and
+     * time to live of a region can be overridden using the {@code go.cache.<name>.max.entries} and
+     * {@code go.cache.<name>.ttl.seconds} system properties. A time to live of 0 means entries do not expire.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, V> CacheRegion<K, V> region(String name, int maximumSize, long timeToLiveInSeconds) {
+        return (CacheRegion<K, V>) regions.computeIfAbsent(name, regionName -> {
+            SystemEnvironment systemEnvironment = new SystemEnvironment();
+            return new CacheRegion<>(regionName, this,
+                systemEnvironment.getCacheRegionMaximumSize(regionName, maximumSize),
+                systemEnvironment.getCacheRegionTimeToLiveInSeconds(regionName, timeToLiveInSeconds));
+        });
+    }
+
+    public Collection<CacheRegion<?, ?>> regions() {
+        return new TreeMap<>(regions).values();
+    }
+
     public void put(String key, Object value) {
         logUnsavedPersistentObjectInteraction(value, "PersistentObject {} added to cache without an id.");
-        if (transactionSynchronizationManager.isActualTransactionActive()) {
+        if (isTransactionActive()) {
             LOGGER.debug("transaction active during cache put for {} = {}", key, value, new IllegalStateException());
             return;
         }
@@ -106,7 +131,11 @@ public class GoCache {
         return ehCache.getKeys();
     }
 
-    private void logUnsavedPersistentObjectInteraction(Object value, String message) {
+    boolean isTransactionActive() {
+        return transactionSynchronizationManager.isActualTransactionActive();
+    }
+
+    void logUnsavedPersistentObjectInteraction(Object value, String message) {
         if (value instanceof PersistentObject persistentObject) {
             for (Class<? extends PersistentObject> nullObjectClass : nullObjectClasses) {
                 if (value.getClass().equals(nullObjectClass)) {
@@ -139,12 +168,17 @@ public class GoCache {
         return value;
     }
 
-    private boolean doNotServeForTransaction() {
+    boolean doNotServeForTransaction() {
         return doNotServeForTransaction.get() != null && doNotServeForTransaction.get();
     }
 
     public void clear() {
         ehCache.removeAll();
+        clearRegions();
+    }
+
+    protected void clearRegions() {
+        regions.values().forEach(CacheRegion::clear);
     }
 
     public boolean remove(String key) {
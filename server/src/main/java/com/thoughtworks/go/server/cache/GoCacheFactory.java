@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.cache;
 
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
@@ -26,11 +27,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
 @Component
 public class GoCacheFactory {
 
     private final CacheConfiguration cacheConfiguration;
     private TransactionSynchronizationManager transactionSynchronizationManager;
+    private final MetricsRegistry metricsRegistry;
 
     static {
         System.setProperty("net.sf.ehcache.skipUpdateCheck", "true");
@@ -38,8 +44,10 @@ public class GoCacheFactory {
 
     public GoCacheFactory(TransactionSynchronizationManager transactionSynchronizationManager,
                           @Value("${cruise.cache.elements.limit}") int maxElementsInMemory,
-                          @Value("${cruise.cache.is.eternal}") boolean eternal) {
+                          @Value("${cruise.cache.is.eternal}") boolean eternal,
+                          MetricsRegistry metricsRegistry) {
         this.transactionSynchronizationManager = transactionSynchronizationManager;
+        this.metricsRegistry = metricsRegistry;
         cacheConfiguration = new CacheConfiguration("goCache", maxElementsInMemory)
                 .persistence(new PersistenceConfiguration().strategy(PersistenceConfiguration.Strategy.NONE))
                 .eternal(eternal)
@@ -51,7 +59,24 @@ public class GoCacheFactory {
         CacheManager cacheManager = CacheManager.newInstance(new Configuration().name(getClass().getName()));
         Cache cache = new Cache(cacheConfiguration);
         cacheManager.addCache(cache);
-        return new GoCache(cache, transactionSynchronizationManager);
+        GoCache goCache = new GoCache(cache, transactionSynchronizationManager);
+        registerRegionMetrics(goCache);
+        return goCache;
+    }
+
+    private void registerRegionMetrics(GoCache goCache) {
+        metricsRegistry.gauge("gocd_cache_region_size", "Entries held in a region of the cache, by region.", "region", () -> byRegion(goCache, CacheRegion::size));
+        metricsRegistry.gauge("gocd_cache_region_hits", "Lookups served by a region of the cache since startup, by region.", "region", () -> byRegion(goCache, region -> region.stats().hitCount()));
+        metricsRegistry.gauge("gocd_cache_region_misses", "Lookups not served by a region of the cache since startup, by region.", "region", () -> byRegion(goCache, region -> region.stats().missCount()));
+        metricsRegistry.gauge("gocd_cache_region_evictions", "Entries evicted from a region of the cache since startup, by region.", "region", () -> byRegion(goCache, region -> region.stats().evictionCount()));
+    }
+
+    private static Map<String, Long> byRegion(GoCache goCache, ToLongFunction<CacheRegion<?, ?>> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (CacheRegion<?, ?> region : goCache.regions()) {
+            values.put(region.name(), value.applyAsLong(region));
+        }
+        return values;
     }
 
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.dao;
+
+import com.thoughtworks.go.domain.PipelineIdentifier;
+
+/**
+ * Understands a pipeline instance, and the revision of the dependency material it was triggered with.
+ */
+public class DependentPipelineInstance {
+    private String pipelineName;
+    private Integer pipelineCounter;
+    private String pipelineLabel;
+    private String dependencyRevision;
+
+    public DependentPipelineInstance() {
+    }
+
+    public DependentPipelineInstance(String pipelineName, Integer pipelineCounter, String pipelineLabel, String dependencyRevision) {
+        this.pipelineName = pipelineName;
+        this.pipelineCounter = pipelineCounter;
+        this.pipelineLabel = pipelineLabel;
+        this.dependencyRevision = dependencyRevision;
+    }
+
+    public PipelineIdentifier getPipelineIdentifier() {
+        return new PipelineIdentifier(pipelineName, pipelineCounter, pipelineLabel);
+    }
+
+    /**
+     * Returns the upstream pipeline instance (as "name/counter") of the stage locator the instance was triggered with.
+     */
+    public String getDependencyPipelineLocator() {
+        String[] parts = dependencyRevision.split("/");
+        return parts[0] + "/" + parts[1];
+    }
+
+    public void setPipelineName(String pipelineName) {
+        this.pipelineName = pipelineName;
+    }
+
+    public void setPipelineCounter(Integer pipelineCounter) {
+        this.pipelineCounter = pipelineCounter;
+    }
+
+    public void setPipelineLabel(String pipelineLabel) {
+        this.pipelineLabel = pipelineLabel;
+    }
+
+    public void setDependencyRevision(String dependencyRevision) {
+        this.dependencyRevision = dependencyRevision;
+    }
+}
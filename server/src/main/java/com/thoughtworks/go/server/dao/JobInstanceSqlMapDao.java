@@ -15,12 +15,12 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
 import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.elastic.ClusterProfile;
 import com.thoughtworks.go.config.elastic.ElasticProfile;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
+import com.thoughtworks.go.server.cache.CacheRegion;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.cache.LazyCache;
 import com.thoughtworks.go.server.domain.JobStatusListener;
@@ -57,7 +57,8 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     private static final Logger LOG = LoggerFactory.getLogger(JobInstanceSqlMapDao.class);
     private final LazyCache latestCompletedCache;
     private final CacheKeyGenerator cacheKeyGenerator;
-    private final Cache cache;
+    private final CacheRegion<Long, JobInstance> jobInstancesWithTransitions;
+    private final CacheRegion<Long, JobPlan> jobPlans;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
     private final TransactionTemplate transactionTemplate;
     private final EnvironmentVariableDao environmentVariableDao;
@@ -71,7 +72,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                                 GoCache goCache,
                                 TransactionTemplate transactionTemplate,
                                 SqlSessionFactory sqlSessionFactory,
-                                Cache cache,
                                 TransactionSynchronizationManager transactionSynchronizationManager,
                                 ResourceRepository resourceRepository,
                                 ArtifactPlanRepository artifactPlanRepository,
@@ -79,12 +79,13 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         super(goCache, sqlSessionFactory);
         this.environmentVariableDao = environmentVariableDao;
         this.transactionTemplate = transactionTemplate;
-        this.cache = cache;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.resourceRepository = resourceRepository;
         this.artifactPlanRepository = artifactPlanRepository;
         this.jobAgentMetadataDao = jobAgentMetadataDao;
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
+        this.jobInstancesWithTransitions = goCache.region("jobInstanceWithTransitions", 10_000, 0);
+        this.jobPlans = goCache.region("jobPlan", 10_000, 0);
         this.latestCompletedCache = new LazyCache(createCacheIfRequired(getClass().getName()), transactionSynchronizationManager);
     }
 
@@ -107,19 +108,8 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
     @Override
     public JobInstance buildByIdWithTransitions(long buildInstanceId) {
-        String cacheKey = cacheKeyForJobInstanceWithTransitions(buildInstanceId);
-        synchronized (cacheKey) {
-            JobInstance instance = goCache.get(cacheKey);
-            if (instance == null) {
-                instance = job(buildInstanceId, "buildByIdWithTransitions");
-                goCache.put(cacheKey, instance);
-            }
-            return cloner.deepClone(instance);
-        }
-    }
-
-    String cacheKeyForJobInstanceWithTransitions(long jobId) {
-        return cacheKeyGenerator.generate("jobInstanceWithTransitionIds", jobId);
+        JobInstance instance = jobInstancesWithTransitions.get(buildInstanceId, () -> job(buildInstanceId, "buildByIdWithTransitions"));
+        return cloner.deepClone(instance);
     }
 
     @Override
@@ -366,7 +356,7 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 @Override
                 public void afterCommit() {
                     // Methods not extracted in order to make synchronization visible.
-                    synchronized (cacheKeyForJobPlan(jobInstance.getId())) {
+                    synchronized (jobPlans.lockFor(jobInstance.getId())) {
                         removeCachedJobPlan(jobInstance);
                     }
                     synchronized (cacheKeyForActiveJobIds()) {
@@ -388,14 +378,11 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
     }
 
     private void removeCachedJobInstance(JobInstance jobInstance) {
-        String cacheKeyOfJob = cacheKeyForJobInstanceWithTransitions(jobInstance.getId());
-        synchronized (cacheKeyOfJob) {
-            goCache.remove(cacheKeyOfJob);
-        }
+        jobInstancesWithTransitions.remove(jobInstance.getId());
     }
 
     private void removeCachedJobPlan(JobInstance jobInstance) {
-        goCache.remove(cacheKeyForJobPlan(jobInstance.getId()));
+        jobPlans.remove(jobInstance.getId());
     }
 
     // TODO: (ketan) do we really need to reload the current state from DB?
@@ -539,15 +526,14 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
         List<JobPlan> plans = new ArrayList<>();
         for (Long jobId : jobIds) {
-            String cacheKey = cacheKeyForJobPlan(jobId);
-            synchronized (cacheKey) {
-                JobPlan jobPlan = goCache.get(cacheKey);
+            synchronized (jobPlans.lockFor(jobId)) {
+                JobPlan jobPlan = jobPlans.get(jobId);
                 if (jobPlan == null) {
                     jobPlan = _loadJobPlan(jobId);
                 }
                 if (jobPlan != null) {
                     jobPlan = cloner.deepClone(jobPlan);
-                    goCache.put(cacheKey, jobPlan);
+                    jobPlans.put(jobId, jobPlan);
                     plans.add(jobPlan);
                 }
             }
@@ -564,10 +550,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
         return jobPlan;
     }
 
-    String cacheKeyForJobPlan(Long jobId) {
-        return cacheKeyGenerator.generate("jobPlan", jobId);
-    }
-
     String cacheKeyForActiveJob(Long jobId) {
         return cacheKeyGenerator.generate("activeJob", jobId);
     }
@@ -611,11 +593,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
                 saveTransition(jobInstance, transition);
             }
         }
-        if (jobInstance.getIdentifier() != null) {
-            String pipelineName = jobInstance.getIdentifier().getPipelineName();
-            String stageName = jobInstance.getIdentifier().getStageName();
-            cache.flushEntry(jobInstance.getBuildDurationKey(pipelineName, stageName));
-        }
     }
 
     private void saveTransition(JobInstance jobInstance, JobStateTransition transition) {
@@ -663,7 +640,6 @@ public class JobInstanceSqlMapDao extends SqlMapClientDaoSupport implements JobI
 
     @PreDestroy
     public void destroy() {
-        cache.flushAll(new Date());
         latestCompletedCache.destroy();
     }
 }
@@ -21,7 +21,9 @@ import com.thoughtworks.go.domain.buildcause.BuildCause;
 import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModel;
 import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModels;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 
 public interface PipelineDao {
@@ -78,6 +80,8 @@ public interface PipelineDao {
 
     List<PipelineIdentifier> getPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName, PipelineIdentifier revision);
 
+    Map<PipelineIdentifier, List<PipelineIdentifier>> getPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName, Collection<PipelineIdentifier> revisions);
+
     List<PipelineIdentifier> getPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName, MaterialInstance materialInstance, String revision);
 
     PipelineInstanceModels loadHistoryForDashboard(List<String> pipelineNames);
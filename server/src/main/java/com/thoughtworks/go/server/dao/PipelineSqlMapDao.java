@@ -27,6 +27,7 @@ import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialRevisio
 import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModel;
 import com.thoughtworks.go.presentation.pipelinehistory.PipelineInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
+import com.thoughtworks.go.server.cache.CacheRegion;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.cache.LazyCache;
 import com.thoughtworks.go.server.database.Database;
@@ -72,8 +73,11 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initializer, PipelineDao, StageStatusListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(PipelineSqlMapDao.class);
     private static final Marker FATAL = MarkerFactory.getMarker("FATAL");
+    static final int DEPENDENCY_REVISIONS_PER_QUERY = 100;
     private final LazyCache pipelineByBuildIdCache;
     private final CacheKeyGenerator cacheKeyGenerator;
+    private final CacheRegion<String, List<Long>> latestPipelineIds;
+    private final CacheRegion<String, PipelinePauseInfo> pauseStates;
     private StageDao stageDao;
     private final MaterialRepository materialRepository;
     private final EnvironmentVariableDao environmentVariableDao;
@@ -82,6 +86,8 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
     private final GoConfigDao configFileDao;
     private final Cloner cloner = ClonerFactory.instance();
     private final Clock timeProvider;
+    private final SystemEnvironment systemEnvironment;
+    private final Database database;
     private final ReadWriteLock activePipelineRWLock = new ReentrantReadWriteLock();
     private final Lock activePipelineReadLock = activePipelineRWLock.readLock();
     private final Lock activePipelineWriteLock = activePipelineRWLock.writeLock();
@@ -106,7 +112,11 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.configFileDao = configFileDao;
         this.timeProvider = timeProvider;
+        this.systemEnvironment = systemEnvironment;
+        this.database = database;
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
+        this.latestPipelineIds = goCache.region("latestPipelineIdByPipelineName", 10_000, 0);
+        this.pauseStates = goCache.region("pipelinePauseState", 10_000, 0);
         this.pipelineByBuildIdCache = new LazyCache(createCacheIfRequired(PipelineSqlMapDao.class.getName()), transactionSynchronizationManager);
     }
 
@@ -149,7 +159,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
                 @Override
                 public void afterCommit() {
-                    goCache.remove(cacheKeyForLatestPipelineIdByPipelineName(pipeline.getName()));
+                    latestPipelineIds.remove(pipeline.getName().toLowerCase());
                     invalidateCacheConditionallyForPipelineInstancesTriggeredWithDependencyMaterial(pipeline);
                 }
             });
@@ -666,12 +676,19 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     @Override
     public PipelineInstanceModels findMatchingPipelineInstances(String pipelineName, String pattern, int limit) {
+        boolean fullTextSearch = systemEnvironment.shouldSearchModificationsUsingFullTextIndex() && database.getQueryExtensions().supportsFullTextModificationSearch();
         Map<String, Object> args =
             arguments("pipelineName", pipelineName)
                 .and("pattern", "%" + pattern.toLowerCase() + "%")
                 .and("rawPattern", pattern.toLowerCase())
                 .and("limit", limit)
+                .and("fullTextSearch", fullTextSearch)
                 .asMap();
+        if (fullTextSearch) {
+            // the pattern has its wildcards escaped already, which only matters for the revision prefix
+            args.put("searchTerms", database.getQueryExtensions().toFullTextQuery(pattern.replace("\\%", "%").replace("\\_", "_")));
+            args.put("revisionPrefix", pattern.toLowerCase() + "%");
+        }
         long begin = System.currentTimeMillis();
         List<PipelineInstanceModel> matchingPIMs = getSqlMapClientTemplate().queryForList("findMatchingPipelineInstances", args);
         List<PipelineInstanceModel> exactMatchingPims = getSqlMapClientTemplate().queryForList("findExactMatchingPipelineInstances", args);
@@ -683,18 +700,7 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
 
     List<Long> findPipelineIds(String pipelineName, int limit, int offset) {
         if (wantLatestIdOnly(limit, offset)) {
-            String cacheKey = cacheKeyForLatestPipelineIdByPipelineName(pipelineName);
-            List<Long> ids = goCache.get(cacheKey);
-            if (ids == null) {
-                synchronized (cacheKey) {
-                    ids = goCache.get(cacheKey);
-                    if (ids == null) {
-                        ids = fetchPipelineIds(pipelineName, limit, offset);
-                        goCache.put(cacheKey, ids);
-                    }
-                }
-            }
-            return ids;
+            return latestPipelineIds.get(pipelineName.toLowerCase(), () -> fetchPipelineIds(pipelineName, limit, offset));
         } //dont bother caching if looking for more than the latest, because limit and offset may changed
         return fetchPipelineIds(pipelineName, limit, offset);
     }
@@ -713,10 +719,6 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         return ids;
     }
 
-    String cacheKeyForLatestPipelineIdByPipelineName(String pipelineName) {
-        return cacheKeyGenerator.generate("latestPipelineIdByPipelineName", pipelineName.toLowerCase());
-    }
-
     private PipelineInstanceModels loadHistory(String pipelineName, List<Long> ids) {
         if (ids.isEmpty()) {
             return PipelineInstanceModels.createPipelineInstanceModels();
@@ -790,8 +792,8 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
     }
 
     public void pause(String pipelineName, String pauseCause, String pauseBy) {
-        String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        String cacheKey = pipelineName.toLowerCase();
+        synchronized (pauseStates.lockFor(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName).and("pauseCause", pauseCause).and("pauseBy", pauseBy).and("paused", true).and("pausedAt", timeProvider.currentTime()).asMap();
             PipelinePauseInfo pipelinePauseInfo = getSqlMapClientTemplate().queryForObject("getPipelinePauseState", pipelineName);
             if (pipelinePauseInfo == null) {
@@ -799,38 +801,25 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
             } else {
                 getSqlMapClientTemplate().update("updatePipelinePauseState", args);
             }
-            goCache.remove(cacheKey);
+            pauseStates.remove(cacheKey);
         }
     }
 
     public void unpause(String pipelineName) {
-        String cacheKey = cacheKeyForPauseState(pipelineName);
-        synchronized (cacheKey) {
+        String cacheKey = pipelineName.toLowerCase();
+        synchronized (pauseStates.lockFor(cacheKey)) {
             Map<String, Object> args = arguments("pipelineName", pipelineName).and("pauseCause", null).and("pauseBy", null).and("paused", false).and("pausedAt", null).asMap();
             getSqlMapClientTemplate().update("updatePipelinePauseState", args);
-            goCache.remove(cacheKey);
+            pauseStates.remove(cacheKey);
         }
 
     }
 
     public PipelinePauseInfo pauseState(String pipelineName) {
-        String cacheKey = cacheKeyForPauseState(pipelineName);
-        PipelinePauseInfo result = goCache.get(cacheKey);
-        if (result == null) {
-            synchronized (cacheKey) {
-                result = goCache.get(cacheKey);
-                if (result == null) {
-                    result = getSqlMapClientTemplate().queryForObject("getPipelinePauseState", pipelineName);
-                    result = (result == null) ? PipelinePauseInfo.NULL : result;
-                    goCache.put(cacheKey, result);
-                }
-            }
-        }
-        return result;
-    }
-
-    String cacheKeyForPauseState(String pipelineName) {
-        return cacheKeyGenerator.generate("cacheKeyForPauseState", pipelineName.toLowerCase());
+        return pauseStates.get(pipelineName.toLowerCase(), () -> {
+            PipelinePauseInfo result = getSqlMapClientTemplate().queryForObject("getPipelinePauseState", pipelineName);
+            return (result == null) ? PipelinePauseInfo.NULL : result;
+        });
     }
 
     String cacheKeyForLatestPassedStage(long pipelineId, String stage) {
@@ -874,6 +863,79 @@ public class PipelineSqlMapDao extends SqlMapClientDaoSupport implements Initial
         return pipelineIdentifiers;
     }
 
+    /**
+     * Same as {@link #getPipelineInstancesTriggeredWithDependencyMaterial(String, PipelineIdentifier)} for many upstream
+     * instances, looking up all those which are not cached with one query per upstream pipeline (and per
+     * {@link #DEPENDENCY_REVISIONS_PER_QUERY} instances of it).
+     */
+    @Override
+    public Map<PipelineIdentifier, List<PipelineIdentifier>> getPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName,
+                                                                                                               Collection<PipelineIdentifier> dependencyPipelineIdentifiers) {
+        Map<PipelineIdentifier, List<PipelineIdentifier>> result = new LinkedHashMap<>();
+        Map<String, List<PipelineIdentifier>> notCachedByDependencyPipeline = new LinkedHashMap<>();
+        for (PipelineIdentifier dependencyPipelineIdentifier : dependencyPipelineIdentifiers) {
+            List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineIdentifier.getName(), dependencyPipelineIdentifier.getCounter()));
+            if (pipelineIdentifiers != null) {
+                result.put(dependencyPipelineIdentifier, pipelineIdentifiers);
+            } else {
+                notCachedByDependencyPipeline.computeIfAbsent(dependencyPipelineIdentifier.getName(), name -> new ArrayList<>()).add(dependencyPipelineIdentifier);
+            }
+        }
+
+        notCachedByDependencyPipeline.forEach((dependencyPipelineName, notCached) -> {
+            for (int from = 0; from < notCached.size(); from += DEPENDENCY_REVISIONS_PER_QUERY) {
+                List<PipelineIdentifier> batch = notCached.subList(from, Math.min(from + DEPENDENCY_REVISIONS_PER_QUERY, notCached.size()));
+                List<String> cacheKeys = batch.stream().map(identifier -> cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, identifier.getName(), identifier.getCounter())).distinct().sorted().toList();
+                synchronizedOnAll(cacheKeys, () -> loadPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineName, batch, result));
+            }
+        });
+        return result;
+    }
+
+    private void loadPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName, String dependencyPipelineName, List<PipelineIdentifier> batch,
+                                                                      Map<PipelineIdentifier, List<PipelineIdentifier>> result) {
+        List<PipelineIdentifier> notCached = new ArrayList<>();
+        for (PipelineIdentifier dependencyPipelineIdentifier : batch) {
+            List<PipelineIdentifier> pipelineIdentifiers = goCache.get(cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineIdentifier.getName(), dependencyPipelineIdentifier.getCounter()));
+            if (pipelineIdentifiers != null) {
+                result.put(dependencyPipelineIdentifier, pipelineIdentifiers);
+            } else {
+                notCached.add(dependencyPipelineIdentifier);
+            }
+        }
+        if (notCached.isEmpty()) {
+            return;
+        }
+
+        List<String> stageLocators = notCached.stream().map(identifier -> identifier.getName() + "/" + identifier.getCounter() + "/%/%").toList();
+        List<DependentPipelineInstance> instances = getSqlMapClientTemplate().queryForList("pipelineInstancesTriggeredOutOfDependencyMaterials",
+            arguments("pipelineName", pipelineName).and("dependencyPipelineName", dependencyPipelineName).and("stageLocators", stageLocators).asMap());
+
+        Map<String, Set<PipelineIdentifier>> instancesByDependencyPipeline = new HashMap<>();
+        for (DependentPipelineInstance instance : instances) {
+            instancesByDependencyPipeline.computeIfAbsent(instance.getDependencyPipelineLocator(), locator -> new LinkedHashSet<>()).add(instance.getPipelineIdentifier());
+        }
+        for (PipelineIdentifier dependencyPipelineIdentifier : notCached) {
+            List<PipelineIdentifier> pipelineIdentifiers = new ArrayList<>(instancesByDependencyPipeline.getOrDefault(dependencyPipelineIdentifier.getName() + "/" + dependencyPipelineIdentifier.getCounter(), Set.of()));
+            goCache.put(cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial(pipelineName, dependencyPipelineIdentifier.getName(), dependencyPipelineIdentifier.getCounter()), pipelineIdentifiers);
+            result.put(dependencyPipelineIdentifier, pipelineIdentifiers);
+        }
+    }
+
+    /*
+     * Holds the same per cache key locks as the single lookups, so a batch neither races them nor an invalidation of
+     * one of its keys. The keys are locked in sorted order so that two batches cannot deadlock.
+     */
+    private static void synchronizedOnAll(List<String> cacheKeys, Runnable action) {
+        if (cacheKeys.isEmpty()) {
+            action.run();
+            return;
+        }
+        synchronized (cacheKeys.get(0)) {
+            synchronizedOnAll(cacheKeys.subList(1, cacheKeys.size()), action);
+        }
+    }
+
     @Override
     public List<PipelineIdentifier> getPipelineInstancesTriggeredWithDependencyMaterial(String pipelineName,
                                                                                         MaterialInstance materialInstance,
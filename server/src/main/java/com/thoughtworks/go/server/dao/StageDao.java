@@ -50,8 +50,6 @@ public interface StageDao extends JobDurationStrategy {
 
     boolean isStageActive(String pipelineName, String stageName);
 
-    Long getDurationOfLastSuccessfulOnAgent(String pipelineName, String stageName, JobInstance job);
-
     int getMaxStageOrder(long pipelineId);
 
     Integer getStageOrderInPipeline(long pipelineId, String stageName);
@@ -103,6 +101,8 @@ public interface StageDao extends JobDurationStrategy {
 
     void markArtifactsDeletedFor(Stage stage);
 
+    void markArtifactsDeletedFor(List<Stage> stages);
+
     void clearCachedStage(StageIdentifier stageIdentifier);
 
     int getTotalStageCountForChart(String pipelineName, String stageName);
@@ -15,9 +15,6 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
-import com.opensymphony.oscache.base.CacheEntry;
-import com.opensymphony.oscache.base.NeedsRefreshException;
 import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.config.StageConfig;
@@ -28,7 +25,9 @@ import com.thoughtworks.go.presentation.pipelinehistory.StageHistoryPage;
 import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModel;
 import com.thoughtworks.go.presentation.pipelinehistory.StageInstanceModels;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
+import com.thoughtworks.go.server.cache.CacheRegion;
 import com.thoughtworks.go.server.cache.GoCache;
+import com.thoughtworks.go.server.domain.JobDurationStatistics;
 import com.thoughtworks.go.server.domain.JobStatusListener;
 import com.thoughtworks.go.server.domain.StageIdentity;
 import com.thoughtworks.go.server.domain.StageStatusListener;
@@ -41,9 +40,6 @@ import com.thoughtworks.go.util.DynamicReadWriteLock;
 import com.thoughtworks.go.util.IBatisUtil;
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.jetbrains.annotations.TestOnly;
-import org.mybatis.spring.support.SqlSessionDaoSupport;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataRetrievalFailureException;
 import org.springframework.stereotype.Component;
@@ -62,28 +58,28 @@ import static java.lang.String.format;
 
 @Component
 public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao, StageStatusListener, JobStatusListener {
-    private static final Logger LOGGER = LoggerFactory.getLogger(SqlSessionDaoSupport.class);
+    private static final int RECENT_RUNS_FOR_EXPECTED_DURATION = 10;
     private final CacheKeyGenerator cacheKeyGenerator;
+    private final CacheRegion<Long, Stage> stagesById;
     private final TransactionTemplate transactionTemplate;
     private final JobInstanceSqlMapDao buildInstanceDao;
-    private final Cache cache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
     private final Cloner cloner = ClonerFactory.instance();
     private final DynamicReadWriteLock readWriteLock = new DynamicReadWriteLock();
+    private final JobDurationStatistics jobDurationStatistics = new JobDurationStatistics();
 
     @Autowired
     public StageSqlMapDao(JobInstanceSqlMapDao buildInstanceDao,
-                          Cache cache,
                           TransactionTemplate transactionTemplate,
                           SqlSessionFactory sqlSessionFactory,
                           GoCache goCache,
                           TransactionSynchronizationManager transactionSynchronizationManager) {
         super(goCache, sqlSessionFactory);
         this.buildInstanceDao = buildInstanceDao;
-        this.cache = cache;
         this.transactionTemplate = transactionTemplate;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
+        this.stagesById = goCache.region("stageById", 10_000, 0);
     }
 
     @Override
@@ -229,54 +225,25 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
 
     @Override
     public Duration getExpectedDuration(String pipelineName, String stageName, JobInstance job) {
-        Long durationSecs = getDurationOfLastSuccessfulOnAgent(pipelineName, stageName, job);
-        return durationSecs == null ? Duration.ZERO : Duration.ofSeconds(durationSecs);
+        return jobDurationStatistics.expectedDuration(pipelineName, stageName, job.getName(),
+            () -> durationsOfRecentSuccessfulRuns(pipelineName, stageName, job.getName()));
     }
 
-
-    // TODO: (ketan) do we really care about duration on this agent, can't we just average the last few runs?
-    // TODO: this performans (miserably) on an environment with elastic agents, and there is no result or ETA
-    // TODO: to show because of this implementation
-    @Override
-    public Long getDurationOfLastSuccessfulOnAgent(String pipelineName, String stageName, JobInstance job) {
-        String key = job.getBuildDurationKey(pipelineName, stageName);
-        Long duration;
-        try {
-            duration = (Long) cache.getFromCache(key, CacheEntry.INDEFINITE_EXPIRY);
-        } catch (NeedsRefreshException nre) {
-            boolean updated = false;
-            try {
-                duration = recalculateBuildDuration(pipelineName, stageName, job);
-                cache.putInCache(key, duration);
-                updated = true;
-            } finally {
-                if (!updated) {
-                    // It is essential that cancelUpdate is called if the
-                    // cached content could not be rebuilt
-                    cache.cancelUpdate(key);
-                    LOGGER.warn("refresh cancelled for {}", key);
-                }
-            }
-        }
-        return duration;
+    @TestOnly
+    public void clearJobDurationStatistics() {
+        jobDurationStatistics.clear();
     }
 
-    private Long recalculateBuildDuration(String pipelineName, String stageName, JobInstance job) {
+    private List<Long> durationsOfRecentSuccessfulRuns(String pipelineName, String stageName, String jobName) {
         Map<String, Object> toGet =
-            arguments("buildName", job.getName())
-                .and("agentUuid", job.getAgentUuid())
+            arguments("buildName", jobName)
                 .and("stageName", stageName)
                 .and("pipelineName", pipelineName)
+                .and("limit", RECENT_RUNS_FOR_EXPECTED_DURATION)
                 .asMap();
 
-        // Return a list of job id's and stage names, entries sorted by id.
-        Long buildId =
-            getSqlMapClientTemplate().queryForObject("getLastSuccessfulBuildIdOnAgent", toGet);
-        if (buildId == null) {
-            return null;
-        }
-        JobInstance mostRecent = buildInstanceDao.buildByIdWithTransitions(buildId);
-        return mostRecent.durationOfCompletedBuildInSeconds();
+        List<JobInstance> recentRuns = getSqlMapClientTemplate().queryForList("getRecentSuccessfulBuildsWithDurationTransitions", toGet);
+        return recentRuns.stream().map(JobInstance::durationOfCompletedBuildInSeconds).toList();
     }
 
     @Override
@@ -631,35 +598,23 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         removeFromCache(cacheKeyForMostRecentId(pipelineName, stageName));
         removeFromCache(cacheKeyForPipelineAndStage(pipelineName, stageName));
         removeFromCache(cacheKeyForPipelineAndCounter(pipelineName, stage.getIdentifier().getPipelineCounter()));
-        removeFromCache(cacheKeyForStageById(stage.getId()));
+        stagesById.remove(stage.getId());
         removeFromCache(cacheKeyForLatestStageInstances());
     }
 
 
     @Override
     public Stage stageById(long id) {
-        String key = cacheKeyForStageById(id);
-        Stage stage = goCache.get(key);
-
-        if (stage == null) {
-            synchronized (key) {
-                stage = goCache.get(key);
-                if (stage == null) {
-                    stage = getSqlMapClientTemplate().queryForObject("getStageById", id);
-                    if (stage == null) {
-                        throw new DataRetrievalFailureException("Unable to load related stage data for id " + id);
-                    }
-                    goCache.put(key, stage);
-                }
+        Stage stage = stagesById.get(id, () -> {
+            Stage loaded = getSqlMapClientTemplate().queryForObject("getStageById", id);
+            if (loaded == null) {
+                throw new DataRetrievalFailureException("Unable to load related stage data for id " + id);
             }
-        }
+            return loaded;
+        });
         return cloner.deepClone(stage);
     }
 
-    String cacheKeyForStageById(long id) {
-        return cacheKeyGenerator.generate("stageById", id);
-    }
-
     @Override
     public Stage mostRecentPassed(String pipelineName, String stageName) {
         Map<String, Object> toGet = arguments("pipelineName", pipelineName).and("stageName", stageName).asMap();
@@ -732,6 +687,14 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
         getSqlMapClientTemplate().update("markStageArtifactDeleted", arguments("stageId", stage.getId()).asMap());
     }
 
+    @Override
+    public void markArtifactsDeletedFor(List<Stage> stages) {
+        if (stages.isEmpty()) {
+            return;
+        }
+        getSqlMapClientTemplate().update("markStagesArtifactDeleted", arguments("stageIds", stages.stream().map(Stage::getId).toList()).asMap());
+    }
+
     String cacheKeyForPipelineAndCounter(String pipelineName, int counter) {
         return cacheKeyGenerator.generate("allStagesOfPipelineInstance", pipelineName, counter);
     }
@@ -739,10 +702,14 @@ public class StageSqlMapDao extends SqlMapClientDaoSupport implements StageDao,
     @Override
     public void jobStatusChanged(JobInstance job) {
         clearJobStatusDependentCaches(job.getStageId(), job.getIdentifier().getStageIdentifier());
+        if (job.isCompleted() && job.isPassed()) {
+            JobIdentifier identifier = job.getIdentifier();
+            jobDurationStatistics.recordSuccessfulRun(identifier.getPipelineName(), identifier.getStageName(), job.getName(), job.durationOfCompletedBuildInSeconds());
+        }
     }
 
     private void clearJobStatusDependentCaches(long stageId, StageIdentifier stageIdentifier) {
-        removeFromCache(cacheKeyForStageById(stageId));
+        stagesById.remove(stageId);
         clearCachedStage(stageIdentifier);
         clearCachedAllStages(stageIdentifier.getPipelineName(), stageIdentifier.getPipelineCounter(), stageIdentifier.getStageName());
     }
@@ -15,6 +15,7 @@
  */
 package com.thoughtworks.go.server.database;
 
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
 import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.session.Configuration;
@@ -36,12 +37,14 @@ import java.io.IOException;
 public class SqlSessionFactoryBean implements FactoryBean<SqlSessionFactory>, InitializingBean {
     private final DataSource dataSource;
     private final Resource configLocation;
+    private final MetricsRegistry metricsRegistry;
     private SqlSessionFactory sqlSessionFactory;
 
     @Autowired
-    public SqlSessionFactoryBean(DataSource dataSource, @Value("classpath:/sql-map-config.xml") Resource configLocation) {
+    public SqlSessionFactoryBean(DataSource dataSource, @Value("classpath:/sql-map-config.xml") Resource configLocation, MetricsRegistry metricsRegistry) {
         this.dataSource = dataSource instanceof TransactionAwareDataSourceProxy ? dataSource : new TransactionAwareDataSourceProxy(dataSource);
         this.configLocation = configLocation;
+        this.metricsRegistry = metricsRegistry;
     }
 
     @Override
@@ -75,6 +78,7 @@ public class SqlSessionFactoryBean implements FactoryBean<SqlSessionFactory>, In
         Configuration configuration = xmlConfigBuilder.getConfiguration();
         configuration.setEnvironment(new Environment(getClass().getSimpleName(), new SpringManagedTransactionFactory(), this.dataSource));
         xmlConfigBuilder.parse();
+        configuration.addInterceptor(new QueryMetricsInterceptor(metricsRegistry));
         return factoryBuilder.build(configuration);
     }
 
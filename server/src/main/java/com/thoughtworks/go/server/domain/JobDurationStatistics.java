@@ -0,0 +1,98 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Understands how long successful runs of a job usually take, irrespective of the agent they ran on. Keeps an
+ * exponentially weighted moving average per job, seeded once from history and then updated as runs complete.
+ */
+public class JobDurationStatistics {
+    static final double SMOOTHING_FACTOR = 0.3;
+    static final long MAXIMUM_TRACKED_JOBS = 10_000;
+
+    private final Cache<Key, MovingAverage> averages;
+
+    public JobDurationStatistics() {
+        this(Caffeine.newBuilder().maximumSize(MAXIMUM_TRACKED_JOBS).build());
+    }
+
+    JobDurationStatistics(Cache<Key, MovingAverage> averages) {
+        this.averages = averages;
+    }
+
+    /**
+     * Seeds an untracked job atomically, so a run recorded for the same job while its history is being read waits
+     * for the seed instead of being lost. Jobs evicted to stay within {@link #MAXIMUM_TRACKED_JOBS} are seeded again.
+     */
+    public Duration expectedDuration(String pipelineName, String stageName, String jobName, Supplier<List<Long>> historicDurationsInSeconds) {
+        return averages.get(new Key(pipelineName, stageName, jobName), key -> {
+            MovingAverage seeded = new MovingAverage();
+            historicDurationsInSeconds.get().forEach(seeded::add);
+            return seeded;
+        }).expected();
+    }
+
+    /**
+     * Only updates jobs that are already being tracked; an untracked job is seeded from history (which includes
+     * this run) the first time its expected duration is asked for.
+     */
+    public void recordSuccessfulRun(String pipelineName, String stageName, String jobName, long durationInSeconds) {
+        if (durationInSeconds <= 0) {
+            return;
+        }
+        averages.asMap().computeIfPresent(new Key(pipelineName, stageName, jobName), (key, average) -> {
+            average.add(durationInSeconds);
+            return average;
+        });
+    }
+
+    public void clear() {
+        averages.invalidateAll();
+    }
+
+    record Key(String pipelineName, String stageName, String jobName) {
+        private Key {
+            pipelineName = pipelineName.toLowerCase(Locale.ROOT);
+            stageName = stageName.toLowerCase(Locale.ROOT);
+            jobName = jobName.toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static class MovingAverage {
+        private double averageInSeconds;
+        private long samples;
+
+        synchronized void add(long durationInSeconds) {
+            if (durationInSeconds <= 0) {
+                return;
+            }
+            averageInSeconds = samples == 0 ? durationInSeconds : SMOOTHING_FACTOR * durationInSeconds + (1 - SMOOTHING_FACTOR) * averageInSeconds;
+            samples++;
+        }
+
+        synchronized Duration expected() {
+            return samples == 0 ? Duration.ZERO : Duration.ofSeconds(Math.round(averageInSeconds));
+        }
+    }
+}
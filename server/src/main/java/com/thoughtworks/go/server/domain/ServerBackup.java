@@ -19,8 +19,12 @@ import com.thoughtworks.go.domain.PersistentObject;
 import lombok.EqualsAndHashCode;
 
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
 
+import static java.util.stream.Collectors.joining;
+
 /**
  * Understands A single backup of the server
  */
@@ -32,6 +36,7 @@ public class ServerBackup extends PersistentObject {
     private BackupStatus status;
     private String message;
     private BackupProgressStatus backupProgressStatus;
+    private String stepDurations;
 
     private ServerBackup() {
     }
@@ -99,6 +104,26 @@ public class ServerBackup extends PersistentObject {
         this.message = status.getMessage();
     }
 
+    /**
+     * Remembers how long a step of the backup took. Steps may run in parallel.
+     */
+    public synchronized void recordStepDuration(BackupProgressStatus step, long durationInMillis) {
+        Map<BackupProgressStatus, Long> durations = getStepDurationsInMillis();
+        durations.put(step, durationInMillis);
+        this.stepDurations = durations.entrySet().stream().map(duration -> duration.getKey().name() + "=" + duration.getValue()).collect(joining(","));
+    }
+
+    public synchronized Map<BackupProgressStatus, Long> getStepDurationsInMillis() {
+        Map<BackupProgressStatus, Long> durations = new EnumMap<>(BackupProgressStatus.class);
+        if (stepDurations != null && !stepDurations.isBlank()) {
+            for (String duration : stepDurations.split(",")) {
+                String[] stepAndMillis = duration.split("=");
+                durations.put(BackupProgressStatus.valueOf(stepAndMillis[0]), Long.parseLong(stepAndMillis[1]));
+            }
+        }
+        return durations;
+    }
+
     public void markCompleted() {
         this.status = BackupStatus.COMPLETED;
     }
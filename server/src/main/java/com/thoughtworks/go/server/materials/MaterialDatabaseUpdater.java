@@ -21,9 +21,10 @@ import com.thoughtworks.go.config.materials.PackageMaterial;
 import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
 import com.thoughtworks.go.config.materials.dependency.DependencyMaterial;
 import com.thoughtworks.go.domain.MaterialInstance;
-import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
@@ -33,6 +34,7 @@ import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +43,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.TransactionStatus;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.apache.commons.text.StringEscapeUtils.escapeHtml4;
@@ -61,13 +64,16 @@ public class MaterialDatabaseUpdater {
     private final ScmMaterialUpdater scmMaterialUpdater;
     private MaterialExpansionService materialExpansionService;
     private GoConfigService goConfigService;
+    private final MDUPerformanceLogger mduPerformanceLogger;
     private PackageMaterialUpdater packageMaterialUpdater;
     private PluggableSCMMaterialUpdater pluggableSCMMaterialUpdater;
+    private final SystemEnvironment systemEnvironment;
 
     @Autowired
     public MaterialDatabaseUpdater(MaterialRepository materialRepository, ServerHealthService healthService, TransactionTemplate transactionTemplate,
                                    DependencyMaterialUpdater dependencyMaterialUpdater, ScmMaterialUpdater scmMaterialUpdater, PackageMaterialUpdater packageMaterialUpdater,
-                                   PluggableSCMMaterialUpdater pluggableSCMMaterialUpdater, MaterialExpansionService materialExpansionService, GoConfigService goConfigService) {
+                                   PluggableSCMMaterialUpdater pluggableSCMMaterialUpdater, MaterialExpansionService materialExpansionService, GoConfigService goConfigService,
+                                   MDUPerformanceLogger mduPerformanceLogger, SystemEnvironment systemEnvironment) {
         this.materialRepository = materialRepository;
         this.healthService = healthService;
         this.transactionTemplate = transactionTemplate;
@@ -77,41 +83,37 @@ public class MaterialDatabaseUpdater {
         this.pluggableSCMMaterialUpdater = pluggableSCMMaterialUpdater;
         this.materialExpansionService = materialExpansionService;
         this.goConfigService = goConfigService;
+        this.mduPerformanceLogger = mduPerformanceLogger;
+        this.systemEnvironment = systemEnvironment;
     }
 
-    public void updateMaterial(final Material material) throws Exception {
+    /**
+     * @return whether new modifications of a polled material were found. Dependency materials find their new
+     * modifications while saving them, so they are never reported as found.
+     */
+    public boolean updateMaterial(final Material material) throws Exception {
         String materialMutex = mutexForMaterial(material);
         HealthStateScope scope = HealthStateScope.forMaterial(material);
         try {
+            boolean foundNewModifications = false;
             MaterialInstance materialInstance = materialRepository.findMaterialInstance(material);
             if (materialInstance == null) {
                 LOGGER.debug("[Material Update] Material repository not found, creating with latest revision from {}", material);
 
                 synchronized (materialMutex) {
                     if (materialRepository.findMaterialInstance(material) == null) {
-                        transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
-                            @Override
-                            public Object doInTransaction(TransactionStatus status) {
-                                initializeMaterialWithLatestRevision(material);
-                                return null;
-                            }
-                        });
+                        foundNewModifications = updateMaterialWithNewRevisions(material);
                     }
                 }
             } else {
                 LOGGER.debug("[Material Update] Existing material repository, fetching new revisions from {} in flyweight {}", material, materialInstance.getFlyweightName());
 
                 synchronized (materialMutex) {
-                    transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
-                        @Override
-                        public Object doInTransaction(TransactionStatus status) {
-                            updateMaterialWithNewRevisions(material);
-                            return null;
-                        }
-                    });
+                    foundNewModifications = updateMaterialWithNewRevisions(material);
                 }
             }
             healthService.removeByScope(scope);
+            return foundNewModifications;
         } catch (Exception e) {
             String message = escapeHtml4("Modification check failed for material: " + material.getLongDescription());
             String finalMessage = message + affectedPipelinesMessageFor(material);
@@ -134,32 +136,93 @@ public class MaterialDatabaseUpdater {
             : "\nAffected pipelines are " + StringUtils.join(pipelineNames, ", ") + ".";
     }
 
-    private void initializeMaterialWithLatestRevision(Material material) {
-        Materials materials = new Materials();
-        materialExpansionService.expandForHistory(material, materials);
-        for (Material expanded : materials) {
-            addNewMaterialWithModifications(folderFor(expanded), expanded, updater(expanded));
+    /*
+     * Updates happen in two phases: new modifications are first found by talking to the material's repository, which
+     * can take minutes for a slow remote, and only then saved in a (short) transaction. This way, a database connection
+     * is not held on to while waiting for the repository.
+     */
+    boolean updateMaterialWithNewRevisions(Material material) throws Exception {
+        final List<Runnable> earlierSaves = new ArrayList<>();
+        final List<Runnable> saves = new ArrayList<>();
+        boolean foundNewModifications = false;
+        long findStart = System.nanoTime();
+        try {
+            Materials materials = new Materials();
+            materialExpansionService.expandForHistory(material, materials);
+            for (Material expanded : materials) {
+                foundNewModifications |= findNewModifications(expanded, saves, earlierSaves);
+            }
+        } finally {
+            mduPerformanceLogger.foundNewModifications(findStart);
         }
+
+        long saveStart = System.nanoTime();
+        try {
+            for (Runnable earlierSave : earlierSaves) {
+                saveInTransaction(List.of(earlierSave));
+            }
+            saveInTransaction(saves);
+        } finally {
+            mduPerformanceLogger.savedNewModifications(saveStart);
+        }
+        return foundNewModifications;
     }
 
-    void updateMaterialWithNewRevisions(Material material) {
-        Materials materials = new Materials();
-        materialExpansionService.expandForHistory(material, materials);
-        for (Material expanded : materials) {
-            MaterialInstance expandedInstance = materialRepository.findMaterialInstance(expanded);
-            File expandedFolder = folderFor(expanded);
-            if (expandedInstance == null) {
-                addNewMaterialWithModifications(expandedFolder, expanded, updater(expanded));
-            } else {
-                insertLatestOrNewModifications(expanded, expandedInstance, expandedFolder, updater(expanded));
+    private void saveInTransaction(List<Runnable> saves) throws Exception {
+        transactionTemplate.executeWithExceptionHandling(new TransactionCallback() {
+            @Override
+            public Object doInTransaction(TransactionStatus status) {
+                saves.forEach(Runnable::run);
+                return null;
             }
+        });
+    }
+
+    /*
+     * When there are more new modifications than go in one chunk, all but the newest chunk are saved beforehand, each in
+     * a transaction of its own and oldest first, so that what has been committed is always all of the history up to some
+     * revision. This keeps catching up on a busy repository from holding one long transaction open.
+     */
+    private boolean findNewModifications(Material material, List<Runnable> saves, List<Runnable> earlierSaves) {
+        File folder = folderFor(material);
+        MaterialUpdater updater = updater(material);
+        if (!(updater instanceof PollingMaterialUpdater pollingUpdater)) {
+            // New modifications of dependency materials come from the database itself, so are found while saving them
+            saves.add(() -> insertLatestOrNewModifications(material, folder, updater));
+            return false;
         }
+
+        MaterialInstance materialInstance = materialRepository.findMaterialInstance(material);
+        if (materialInstance == null) {
+            materialInstance = transactionTemplate.execute(status -> materialRepository.findOrCreateFrom(material));
+        }
+        Modifications latest = materialRepository.findLatestModification(material).getModifications(material);
+        List<Modification> newModifications = pollingUpdater.findNewModifications(material, materialInstance, folder, latest);
+
+        MaterialInstance instance = materialInstance;
+        int chunkSize = systemEnvironment.getModificationsSaveChunkSize();
+        if (chunkSize <= 0 || newModifications.size() <= chunkSize) {
+            saves.add(() -> pollingUpdater.saveNewModifications(material, instance, folder, newModifications));
+            return !newModifications.isEmpty();
+        }
+
+        for (int end = newModifications.size(); end > chunkSize; end -= chunkSize) {
+            List<Modification> chunk = newModifications.subList(Math.max(chunkSize, end - chunkSize), end);
+            earlierSaves.add(() -> pollingUpdater.saveNewModifications(material, instance, folder, chunk));
+        }
+        List<Modification> newest = newModifications.subList(0, chunkSize);
+        saves.add(() -> pollingUpdater.saveNewModifications(material, instance, folder, newest));
+        return true;
     }
 
-    private void insertLatestOrNewModifications(Material material, MaterialInstance materialInstance, File folder, MaterialUpdater updater) {
-        MaterialRevisions materialRevisions = materialRepository.findLatestModification(material);
-        Modifications list = materialRevisions.getModifications(material);
-        updater.insertLatestOrNewModifications(material, materialInstance, folder, list);
+    private void insertLatestOrNewModifications(Material material, File folder, MaterialUpdater updater) {
+        MaterialInstance materialInstance = materialRepository.findMaterialInstance(material);
+        if (materialInstance == null) {
+            updater.addNewMaterialWithModifications(material, folder);
+        } else {
+            Modifications list = materialRepository.findLatestModification(material).getModifications(material);
+            updater.insertLatestOrNewModifications(material, materialInstance, folder, list);
+        }
     }
 
     MaterialUpdater updater(Material material) {
@@ -179,10 +242,6 @@ public class MaterialDatabaseUpdater {
         return this.materialRepository.folderFor(material);
     }
 
-    private void addNewMaterialWithModifications(File folder, Material expanded, MaterialUpdater updater) {
-        updater.addNewMaterialWithModifications(expanded, folder);
-    }
-
     private String mutexForMaterial(Material material) {
         if (material instanceof DependencyMaterial dep) {
             return String.format(MATERIALS_MUTEX_FORMAT, dep.getPipelineName().toLower(), dep.getStageName().toLower()).intern();
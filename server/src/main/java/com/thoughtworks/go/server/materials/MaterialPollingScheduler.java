@@ -0,0 +1,200 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Understands when materials are due to be polled again. A material which changes often is polled every
+ * {@link SystemEnvironment#MDU_ADAPTIVE_POLLING_MIN_INTERVAL_IN_SECONDS}; the longer it goes without a change, and the
+ * longer its updates take, the less often it is polled, up to every
+ * {@link SystemEnvironment#MDU_ADAPTIVE_POLLING_MAX_INTERVAL_IN_SECONDS}. Polls only fill the update queues up to
+ * {@link SystemEnvironment#MDU_ADAPTIVE_POLLING_MAX_QUEUED}, most overdue first, so that updates triggered by users and
+ * post-commit hooks (which are never held back) do not wait behind a flood of polls.
+ */
+@Service
+public class MaterialPollingScheduler implements GoMessageListener<MaterialUpdateCompletedMessage> {
+    // Poll a material about ten times in the time it has gone without changing...
+    static final int CHANGE_INTERVAL_DIVISOR = 10;
+    // ...but do not spend more than about a tenth of the time updating it.
+    static final int UPDATE_TIME_MULTIPLIER = 10;
+    private static final double UPDATE_TIME_SMOOTHING = 0.3;
+
+    private final SystemEnvironment systemEnvironment;
+    private final Clock clock;
+    private final ConcurrentMap<Material, PollingState> materials = new ConcurrentHashMap<>();
+    private final MetricsRegistry.Histogram pollLag;
+    private volatile int heldBack;
+
+    @Autowired
+    public MaterialPollingScheduler(MaterialUpdateCompletedTopic completed, SystemEnvironment systemEnvironment, Clock clock,
+                                    MetricsRegistry metricsRegistry) {
+        this.systemEnvironment = systemEnvironment;
+        this.clock = clock;
+        this.pollLag = metricsRegistry.histogram("gocd_mdu_poll_lag_seconds", "Time materials were polled after they were due to be polled.");
+        metricsRegistry.gauge("gocd_mdu_polls_held_back", "Materials due to be polled which were held back to keep the update queues short.", () -> heldBack);
+        completed.addListener(this);
+    }
+
+    public boolean isEnabled() {
+        return systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_ENABLED);
+    }
+
+    /**
+     * Returns those of the given materials which are due to be polled, most overdue first, leaving out those which
+     * would take the number of materials queued for update beyond the limit. Materials which are being updated or are
+     * backed off are never due, but backed off materials are still remembered. Materials which are no longer given are
+     * forgotten.
+     */
+    public List<Material> dueForPolling(Collection<Material> candidates, Predicate<Material> backedOff, int queued) {
+        materials.keySet().retainAll(candidates);
+
+        long now = clock.currentTimeMillis();
+        List<Material> due = new ArrayList<>();
+        for (Material material : candidates) {
+            PollingState state = materials.get(material);
+            if ((state == null || (!state.isQueued() && state.nextPollAt <= now)) && !backedOff.test(material)) {
+                due.add(material);
+            }
+        }
+        due.sort(Comparator.comparingLong(material -> nextPollAt(material)));
+
+        int capacity = Math.max(0, systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_QUEUED) - queued);
+        heldBack = Math.max(0, due.size() - capacity);
+        return due.size() > capacity ? new ArrayList<>(due.subList(0, capacity)) : due;
+    }
+
+    /**
+     * To be called before the material is queued for update, whether it is being polled or the update was triggered.
+     */
+    public void queued(Material material) {
+        if (!isEnabled()) {
+            return;
+        }
+        stateOf(material).queuedAt = clock.currentTimeMillis();
+    }
+
+    /**
+     * To be called when the material could not be queued for update after all.
+     */
+    public void dequeued(Material material) {
+        PollingState state = materials.get(material);
+        if (state != null) {
+            state.queuedAt = 0;
+        }
+    }
+
+    /**
+     * To be called when the material has been queued for update because it was due to be polled.
+     */
+    public void polled(Material material) {
+        PollingState state = stateOf(material);
+        if (state.nextPollAt > 0) {
+            pollLag.observeMillis(clock.currentTimeMillis() - state.nextPollAt);
+        }
+    }
+
+    @Override
+    public void onMessage(MaterialUpdateCompletedMessage message) {
+        PollingState state = materials.get(message.getMaterial());
+        if (state == null || !state.isQueued()) {
+            return;
+        }
+
+        long now = clock.currentTimeMillis();
+        if (message instanceof MaterialUpdateSuccessfulMessage successful) {
+            state.updated(now, successful.updateTimeInMillis(), successful.foundNewModifications(), minInterval(), maxInterval());
+        } else if (message instanceof MaterialUpdateFailedMessage) {
+            // Retries of failing materials are left to the exponential back off
+            state.queuedAt = 0;
+            state.nextPollAt = now;
+        } else {
+            dequeued(message.getMaterial());
+        }
+    }
+
+    public Map<String, Object> statistics() {
+        long now = clock.currentTimeMillis();
+        Map<String, Object> json = new LinkedHashMap<>();
+        materials.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().nextPollAt))
+                .forEach(entry -> json.put(entry.getKey().getDisplayName() + " (" + entry.getKey().getFingerprint() + ")", entry.getValue().asJson(now)));
+        return json;
+    }
+
+    private long nextPollAt(Material material) {
+        PollingState state = materials.get(material);
+        return state == null ? 0 : state.nextPollAt;
+    }
+
+    private PollingState stateOf(Material material) {
+        return materials.computeIfAbsent(material, m -> new PollingState());
+    }
+
+    private long minInterval() {
+        return SECONDS.toMillis(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MIN_INTERVAL_IN_SECONDS));
+    }
+
+    private long maxInterval() {
+        return SECONDS.toMillis(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_INTERVAL_IN_SECONDS));
+    }
+
+    private static class PollingState {
+        private volatile long queuedAt;
+        private volatile long nextPollAt;
+        private volatile long lastChangedAt;
+        private volatile long averageUpdateTime;
+
+        boolean isQueued() {
+            return queuedAt > 0;
+        }
+
+        synchronized void updated(long now, long updateTime, boolean foundNewModifications, long minInterval, long maxInterval) {
+            boolean firstUpdate = lastChangedAt == 0;
+            averageUpdateTime = firstUpdate ? updateTime : (long) (UPDATE_TIME_SMOOTHING * updateTime + (1 - UPDATE_TIME_SMOOTHING) * averageUpdateTime);
+            if (firstUpdate || foundNewModifications) {
+                lastChangedAt = now;
+            }
+
+            long interval = Math.max((now - lastChangedAt) / CHANGE_INTERVAL_DIVISOR, averageUpdateTime * UPDATE_TIME_MULTIPLIER);
+            nextPollAt = now + Math.min(Math.max(interval, minInterval), Math.max(minInterval, maxInterval));
+            queuedAt = 0;
+        }
+
+        Map<String, Object> asJson(long now) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("Queued", isQueued());
+            json.put("PollLagInSeconds", nextPollAt > 0 ? Math.max(0, now - nextPollAt) / 1000 : 0);
+            json.put("NextPollInSeconds", Math.max(0, nextPollAt - now) / 1000);
+            json.put("LastChangedSecondsAgo", lastChangedAt > 0 ? (now - lastChangedAt) / 1000 : null);
+            json.put("AverageUpdateTimeInMillis", averageUpdateTime);
+            return json;
+        }
+    }
+}
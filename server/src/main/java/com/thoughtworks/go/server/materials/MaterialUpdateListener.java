@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import static com.thoughtworks.go.util.ExceptionUtils.bombIf;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 /**
  * Understands when to trigger updates for materials
@@ -61,9 +62,11 @@ public class MaterialUpdateListener implements GoMessageListener<MaterialUpdateM
             maintenanceModeService.mduStartedForMaterial(material);
             mduPerformanceLogger.pickedUpMaterialForMDU(message.trackingId(), material);
             bombIf(diskSpaceMonitor.isLowOnDisk(), "GoCD server is too low on disk to continue with material update");
-            updater.updateMaterial(material);
+            long updateStart = System.nanoTime();
+            boolean foundNewModifications = updater.updateMaterial(material);
+            long updateTimeInMillis = NANOSECONDS.toMillis(System.nanoTime() - updateStart);
             mduPerformanceLogger.postingMessageAboutMDUCompletion(message.trackingId(), material);
-            channel.post(new MaterialUpdateSuccessfulMessage(material, message.trackingId())); //This should happen only if the transaction is committed.
+            channel.post(new MaterialUpdateSuccessfulMessage(material, message.trackingId(), foundNewModifications, updateTimeInMillis)); //This should happen only if the transaction is committed.
         } catch (Exception e) {
             channel.post(new MaterialUpdateFailedMessage(material, message.trackingId(), e));
             mduPerformanceLogger.postingMessageAboutMDUFailure(message.trackingId(), material);
@@ -112,7 +112,7 @@ public class MaterialUpdateListenerFactory {
 
     private void createWorker(GoMessageQueue<MaterialUpdateMessage> queue, GoMessageChannel<MaterialUpdateCompletedMessage> topic) {
         MaterialDatabaseUpdater updater = new MaterialDatabaseUpdater(materialRepository, serverHealthService, transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater,
-                packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, goConfigService);
+                packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, goConfigService, mduPerformanceLogger, systemEnvironment);
         queue.addListener(new MaterialUpdateListener(topic, updater, mduPerformanceLogger, diskSpaceMonitor, maintenanceModeService));
     }
 }
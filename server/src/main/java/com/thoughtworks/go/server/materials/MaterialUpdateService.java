@@ -72,6 +72,7 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
     private final MaintenanceModeService maintenanceModeService;
     private final SecretParamResolver secretParamResolver;
     private final ExponentialBackoffService exponentialBackoffService;
+    private final MaterialPollingScheduler materialPollingScheduler;
     private final GoConfigWatchList watchList;
     private final GoConfigService goConfigService;
     private final SystemEnvironment systemEnvironment;
@@ -93,7 +94,8 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
                                  ServerHealthService serverHealthService, PostCommitHookMaterialTypeResolver postCommitHookMaterialType,
                                  MDUPerformanceLogger mduPerformanceLogger, MaterialConfigConverter materialConfigConverter,
                                  DependencyMaterialUpdateQueue dependencyMaterialUpdateQueue, MaintenanceModeService maintenanceModeService,
-                                 SecretParamResolver secretParamResolver, ExponentialBackoffService exponentialBackoffService) {
+                                 SecretParamResolver secretParamResolver, ExponentialBackoffService exponentialBackoffService,
+                                 MaterialPollingScheduler materialPollingScheduler) {
         this.watchList = watchList;
         this.goConfigService = goConfigService;
         this.systemEnvironment = systemEnvironment;
@@ -107,6 +109,7 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
         this.maintenanceModeService = maintenanceModeService;
         this.secretParamResolver = secretParamResolver;
         this.exponentialBackoffService = exponentialBackoffService;
+        this.materialPollingScheduler = materialPollingScheduler;
         completed.addListener(this);
     }
 
@@ -121,23 +124,48 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             return;
         }
 
+        if (materialPollingScheduler.isEnabled()) {
+            pollDueMaterials();
+            return;
+        }
+
         for (MaterialSource materialSource : materialSources) {
             Set<Material> materialsForUpdate = materialSource.materialsForUpdate();
             LOGGER.debug("[Material Update] [On Timer] materials IN-PROGRESS: {}, ALL-MATERIALS: {}", inProgress, materialsForUpdate);
 
             for (Material material : materialsForUpdate) {
-                BackOffResult backOffResult = exponentialBackoffService.shouldBackOff(material);
-                if (backOffResult.shouldBackOff()) {
-                    LOGGER.debug("[Material Update] [On Timer] Backing Off Material Update for: {}, failing since: {}, last failure time: {}, next retry will be attempted after: {}",
-                            material, backOffResult.getFailureStartTime(), backOffResult.getLastFailureTime(), backOffResult.getNextRetryAttempt());
-                    continue;
+                if (!shouldBackOff(material)) {
+                    updateMaterial(material);
                 }
+            }
+        }
+    }
 
-                updateMaterial(material);
+    private void pollDueMaterials() {
+        Set<Material> candidates = new LinkedHashSet<>();
+        for (MaterialSource materialSource : materialSources) {
+            candidates.addAll(materialSource.materialsForUpdate());
+        }
+
+        List<Material> dueForPolling = materialPollingScheduler.dueForPolling(candidates, this::shouldBackOff, inProgress.size());
+        LOGGER.debug("[Material Update] [On Timer] materials IN-PROGRESS: {}, DUE-FOR-POLLING: {}", inProgress, dueForPolling);
+        for (Material material : dueForPolling) {
+            if (updateMaterial(material)) {
+                materialPollingScheduler.polled(material);
             }
         }
     }
 
+    private boolean shouldBackOff(Material material) {
+        BackOffResult backOffResult = exponentialBackoffService.shouldBackOff(material);
+        if (backOffResult.shouldBackOff()) {
+            LOGGER.debug("[Material Update] [On Timer] Backing Off Material Update for: {}, failing since: {}, last failure time: {}, next retry will be attempted after: {}",
+                    material, backOffResult.getFailureStartTime(), backOffResult.getLastFailureTime(), backOffResult.getNextRetryAttempt());
+            return true;
+        }
+        return false;
+    }
+
     public void notifyMaterialsForUpdate(Username username, Map<String, String> attributes, HttpLocalizedOperationResult result) {
         if (!goConfigService.isUserAdmin(username)) {
             result.forbidden("Unauthorized to access this API.", HealthStateType.forbidden());
@@ -192,11 +220,13 @@ public class MaterialUpdateService implements GoMessageListener<MaterialUpdateCo
             LOGGER.debug("[Material Update] Starting update of material {}", material);
             try {
                 long trackingId = mduPerformanceLogger.materialSentToUpdateQueue(material);
+                materialPollingScheduler.queued(material);
                 queueFor(material).post(new MaterialUpdateMessage(material, trackingId));
 
                 return true;
             } catch (RuntimeException e) {
                 inProgress.remove(material);
+                materialPollingScheduler.dequeued(material);
                 throw e;
             }
         } else {
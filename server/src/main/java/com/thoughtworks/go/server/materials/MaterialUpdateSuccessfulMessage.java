@@ -21,7 +21,27 @@ import com.thoughtworks.go.domain.materials.Material;
  * Understands when a material has been updated successfully
  */
 public class MaterialUpdateSuccessfulMessage extends MaterialUpdateCompletedMessage {
+    private final boolean foundNewModifications;
+    private final long updateTimeInMillis;
+
     public MaterialUpdateSuccessfulMessage(Material material, long trackingId) {
+        this(material, trackingId, false, 0);
+    }
+
+    public MaterialUpdateSuccessfulMessage(Material material, long trackingId, boolean foundNewModifications, long updateTimeInMillis) {
         super(material, trackingId);
+        this.foundNewModifications = foundNewModifications;
+        this.updateTimeInMillis = updateTimeInMillis;
+    }
+
+    public boolean foundNewModifications() {
+        return foundNewModifications;
+    }
+
+    /**
+     * How long the update itself took, not counting the time the material waited in the update queue
+     */
+    public long updateTimeInMillis() {
+        return updateTimeInMillis;
     }
 }
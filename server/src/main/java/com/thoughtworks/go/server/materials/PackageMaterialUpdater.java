@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.domain.materials.packagematerial.PackageMaterialInstance;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
@@ -25,9 +26,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.List;
 
 @Component
-public class PackageMaterialUpdater implements MaterialUpdater {
+public class PackageMaterialUpdater implements PollingMaterialUpdater {
     private final MaterialRepository materialRepository;
     private final ScmMaterialUpdater scmMaterialUpdater;
     private final TransactionTemplate transactionTemplate;
@@ -42,8 +44,27 @@ public class PackageMaterialUpdater implements MaterialUpdater {
 
     @Override
     public void insertLatestOrNewModifications(final Material material, MaterialInstance materialInstance, File folder, Modifications list) {
-        final PackageMaterialInstance packageMaterialInstance = (PackageMaterialInstance) materialInstance;
+        upgradeIfConfigurationHasChanged(material, (PackageMaterialInstance) materialInstance);
+        scmMaterialUpdater.insertLatestOrNewModifications(material, materialInstance, folder, list);
+    }
 
+    @Override
+    public List<Modification> findNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list) {
+        upgradeIfConfigurationHasChanged(material, (PackageMaterialInstance) materialInstance);
+        return scmMaterialUpdater.findNewModifications(material, materialInstance, folder, list);
+    }
+
+    @Override
+    public void saveNewModifications(Material material, MaterialInstance materialInstance, File folder, List<Modification> newModifications) {
+        scmMaterialUpdater.saveNewModifications(material, materialInstance, folder, newModifications);
+    }
+
+    @Override
+    public void addNewMaterialWithModifications(Material material, File folder) {
+        scmMaterialUpdater.addNewMaterialWithModifications(material,folder);
+    }
+
+    private void upgradeIfConfigurationHasChanged(final Material material, final PackageMaterialInstance packageMaterialInstance) {
         if (packageMaterialInstance.shouldUpgradeTo((PackageMaterialInstance) material.createMaterialInstance())) {
             transactionTemplate.execute(transactionStatus -> {
                 PackageMaterialInstance materialInstance1 = (PackageMaterialInstance) materialRepository.find(packageMaterialInstance.getId());
@@ -52,11 +73,5 @@ public class PackageMaterialUpdater implements MaterialUpdater {
                 return materialInstance1;
             });
         }
-        scmMaterialUpdater.insertLatestOrNewModifications(material,packageMaterialInstance,folder,list);
-    }
-
-    @Override
-    public void addNewMaterialWithModifications(Material material, File folder) {
-        scmMaterialUpdater.addNewMaterialWithModifications(material,folder);
     }
 }
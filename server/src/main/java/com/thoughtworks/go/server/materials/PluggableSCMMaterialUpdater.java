@@ -17,6 +17,7 @@ package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.domain.MaterialInstance;
 import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.domain.materials.scm.PluggableSCMMaterialInstance;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
@@ -25,9 +26,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.util.List;
 
 @Component
-public class PluggableSCMMaterialUpdater implements MaterialUpdater {
+public class PluggableSCMMaterialUpdater implements PollingMaterialUpdater {
     private final MaterialRepository materialRepository;
     private final ScmMaterialUpdater scmMaterialUpdater;
     private final TransactionTemplate transactionTemplate;
@@ -41,8 +43,27 @@ public class PluggableSCMMaterialUpdater implements MaterialUpdater {
 
     @Override
     public void insertLatestOrNewModifications(final Material material, MaterialInstance materialInstance, File folder, Modifications list) {
-        final PluggableSCMMaterialInstance currentMaterialInstance = (PluggableSCMMaterialInstance) materialInstance;
+        upgradeIfConfigurationHasChanged(material, (PluggableSCMMaterialInstance) materialInstance);
+        scmMaterialUpdater.insertLatestOrNewModifications(material, materialInstance, folder, list);
+    }
 
+    @Override
+    public List<Modification> findNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list) {
+        upgradeIfConfigurationHasChanged(material, (PluggableSCMMaterialInstance) materialInstance);
+        return scmMaterialUpdater.findNewModifications(material, materialInstance, folder, list);
+    }
+
+    @Override
+    public void saveNewModifications(Material material, MaterialInstance materialInstance, File folder, List<Modification> newModifications) {
+        scmMaterialUpdater.saveNewModifications(material, materialInstance, folder, newModifications);
+    }
+
+    @Override
+    public void addNewMaterialWithModifications(Material material, File folder) {
+        scmMaterialUpdater.addNewMaterialWithModifications(material, folder);
+    }
+
+    private void upgradeIfConfigurationHasChanged(final Material material, final PluggableSCMMaterialInstance currentMaterialInstance) {
         final PluggableSCMMaterialInstance latestMaterialInstance = (PluggableSCMMaterialInstance) material.createMaterialInstance();
         if (currentMaterialInstance.shouldUpgradeTo(latestMaterialInstance)) {
             transactionTemplate.execute(transactionStatus -> {
@@ -52,11 +73,5 @@ public class PluggableSCMMaterialUpdater implements MaterialUpdater {
                 return materialInstance1;
             });
         }
-        scmMaterialUpdater.insertLatestOrNewModifications(material, currentMaterialInstance, folder, list);
-    }
-
-    @Override
-    public void addNewMaterialWithModifications(Material material, File folder) {
-        scmMaterialUpdater.addNewMaterialWithModifications(material, folder);
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.Modifications;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Understands updating materials whose new modifications are found by polling their repository, either directly or
+ * through a plugin. Finding and saving the modifications are separate steps, so that the (possibly slow) polling can
+ * be done without holding on to a database transaction.
+ */
+interface PollingMaterialUpdater extends MaterialUpdater {
+    /**
+     * Polls the repository for modifications made since the latest known one in {@code list}, or for the latest
+     * modification if none are known yet. Not run in a transaction, so must not save any modifications.
+     */
+    List<Modification> findNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list);
+
+    void saveNewModifications(Material material, MaterialInstance materialInstance, File folder, List<Modification> newModifications);
+}
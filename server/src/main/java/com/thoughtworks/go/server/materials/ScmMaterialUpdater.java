@@ -32,7 +32,7 @@ import java.io.File;
 import java.util.List;
 
 @Component
-class ScmMaterialUpdater implements MaterialUpdater {
+class ScmMaterialUpdater implements PollingMaterialUpdater {
     private static final Logger LOGGER = LoggerFactory.getLogger(ScmMaterialUpdater.class);
 
     private final MaterialRepository materialRepository;
@@ -51,9 +51,18 @@ class ScmMaterialUpdater implements MaterialUpdater {
 
     @Override
     public void insertLatestOrNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list) {
-        List<Modification> newChanges = list.isEmpty() ?
+        saveNewModifications(material, materialInstance, folder, findNewModifications(material, materialInstance, folder, list));
+    }
+
+    @Override
+    public List<Modification> findNewModifications(Material material, MaterialInstance materialInstance, File folder, Modifications list) {
+        return list.isEmpty() ?
                 materialChecker.findLatestModification(folder, material, subprocessExecutionContext) :
                 materialService.modificationsSince(material, folder, list.latestRevision(material), subprocessExecutionContext);
+    }
+
+    @Override
+    public void saveNewModifications(Material material, MaterialInstance materialInstance, File folder, List<Modification> newChanges) {
         if (newChanges.isEmpty()) {
             LOGGER.debug("[Material Update] Did not find any new modifications for material '{}' with flyweight '{}' using working directory '{}'", material, material.getFingerprint(), folder.getAbsolutePath());
         } else {
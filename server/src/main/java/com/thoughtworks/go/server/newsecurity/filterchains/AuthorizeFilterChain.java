@@ -116,6 +116,7 @@ public class AuthorizeFilterChain extends FilterChainProxy {
 
                 .addAuthorityFilterChain("/api/config-repository.git/**", apiAccessDeniedHandler, ROLE_SUPERVISOR)
                 .addAuthorityFilterChain("/api/support", apiAccessDeniedHandler, ROLE_SUPERVISOR)
+                .addAuthorityFilterChain("/api/support/metrics", apiAccessDeniedHandler, ROLE_SUPERVISOR)
 
                 // any other APIs require `ROLE_USER`
                 .addAuthorityFilterChain("/api/**", apiAccessDeniedHandler, ROLE_USER)
@@ -19,37 +19,74 @@ import com.thoughtworks.go.domain.materials.Material;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Component
 public class MDUPerformanceLogger {
-    private PerformanceLogger performanceLogger;
-    private static long currentTrackingId = 0;
+    private final PerformanceLogger performanceLogger;
+    private final AtomicLong currentTrackingId = new AtomicLong();
+    private final ConcurrentMap<Long, Long> queuedAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> startedAt = new ConcurrentHashMap<>();
+    private final MetricsRegistry.Histogram queueWaitTime;
+    private final MetricsRegistry.Histogram updateTime;
+    private final MetricsRegistry.Histogram phaseTime;
 
     @Autowired
-    public MDUPerformanceLogger(PerformanceLogger performanceLogger) {
+    public MDUPerformanceLogger(PerformanceLogger performanceLogger, MetricsRegistry metricsRegistry) {
         this.performanceLogger = performanceLogger;
+        this.queueWaitTime = metricsRegistry.histogram("gocd_mdu_queue_wait_seconds", "Time materials spent waiting in the material update queue.");
+        this.updateTime = metricsRegistry.histogram("gocd_mdu_duration_seconds", "Time taken to update a material, by result.", "result");
+        this.phaseTime = metricsRegistry.histogram("gocd_mdu_phase_duration_seconds", "Time taken to find new modifications of a material (outside a transaction) and to save them, by phase.", "phase");
+        metricsRegistry.gauge("gocd_mdu_in_progress", "Materials queued for or being updated.", queuedAt::size);
     }
 
     public long materialSentToUpdateQueue(Material material) {
-        long trackingId = currentTrackingId++;
+        long trackingId = currentTrackingId.getAndIncrement();
+        queuedAt.put(trackingId, System.nanoTime());
 
         performanceLogger.log("MDU-QUEUE-PUT {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
         return trackingId;
     }
 
     public void pickedUpMaterialForMDU(long trackingId, Material material) {
+        Long queued = queuedAt.get(trackingId);
+        if (queued != null) {
+            queueWaitTime.observeSince(queued);
+        }
+        startedAt.put(trackingId, System.nanoTime());
         performanceLogger.log("MDU-START {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
     public void postingMessageAboutMDUCompletion(long trackingId, Material material) {
+        recordUpdate(trackingId, "success");
         performanceLogger.log("MDU-DONE {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
     public void postingMessageAboutMDUFailure(long trackingId, Material material) {
+        recordUpdate(trackingId, "failure");
         performanceLogger.log("MDU-FAIL {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
     public void completionMessageForMaterialReceived(long trackingId, Material material) {
+        queuedAt.remove(trackingId);
+        startedAt.remove(trackingId);
         performanceLogger.log("MDU-QUEUE-REMOVE {} {} {}", trackingId, material.getFingerprint(), material.getDisplayName());
     }
 
+    public void foundNewModifications(long startNanos) {
+        phaseTime.observeSince(startNanos, "find");
+    }
+
+    public void savedNewModifications(long startNanos) {
+        phaseTime.observeSince(startNanos, "save");
+    }
+
+    private void recordUpdate(long trackingId, String result) {
+        Long started = startedAt.remove(trackingId);
+        if (started != null) {
+            updateTime.observeSince(started, result);
+        }
+    }
 }
@@ -0,0 +1,294 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.perf;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Understands keeping counters, gauges and latency histograms of what the server is doing, and writing them out in the
+ * Prometheus text exposition format. Recording a value only costs a few lock-free additions; everything else is only
+ * done when the metrics are scraped.
+ */
+@Component
+public class MetricsRegistry {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    static final double[] BUCKETS_IN_SECONDS = {0.001, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 300};
+
+    private final ConcurrentMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+    public Counter counter(String name, String help, String... labelNames) {
+        return register(name, Counter.class, () -> new Counter(name, help, labelNames));
+    }
+
+    public Histogram histogram(String name, String help, String... labelNames) {
+        return register(name, Histogram.class, () -> new Histogram(name, help, labelNames));
+    }
+
+    public void gauge(String name, String help, Supplier<? extends Number> value) {
+        metrics.put(name, new Gauge(name, help, value));
+    }
+
+    /**
+     * A gauge whose samples, one per value of its single label, are only known when scraped.
+     */
+    public void gauge(String name, String help, String labelName, Supplier<Map<String, ? extends Number>> values) {
+        metrics.put(name, new LabelledGauge(name, help, labelName, values));
+    }
+
+    public void writeTo(Writer writer) throws IOException {
+        for (Metric metric : metrics.values()) {
+            metric.writeTo(writer);
+        }
+        writer.flush();
+    }
+
+    private <T extends Metric> T register(String name, Class<T> type, Supplier<T> creator) {
+        Metric metric = metrics.computeIfAbsent(name, n -> creator.get());
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(format("Metric '%s' is already registered as a %s", name, metric.type()));
+        }
+        return type.cast(metric);
+    }
+
+    abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        abstract String type();
+
+        abstract void writeSamples(Writer writer) throws IOException;
+
+        void writeTo(Writer writer) throws IOException {
+            writer.write("# HELP " + name + " " + help.replace("\\", "\\\\").replace("\n", "\\n") + "\n");
+            writer.write("# TYPE " + name + " " + type() + "\n");
+            writeSamples(writer);
+        }
+    }
+
+    abstract static class LabelledMetric<C> extends Metric {
+        private final String[] labelNames;
+        private final ConcurrentMap<List<String>, C> children = new ConcurrentHashMap<>();
+
+        LabelledMetric(String name, String help, String[] labelNames) {
+            super(name, help);
+            this.labelNames = labelNames;
+        }
+
+        abstract C newChild();
+
+        C child(String... labelValues) {
+            if (labelValues.length != labelNames.length) {
+                throw new IllegalArgumentException(format("Metric '%s' expects labels %s", name, Arrays.toString(labelNames)));
+            }
+            return children.computeIfAbsent(List.of(labelValues), labels -> newChild());
+        }
+
+        Map<List<String>, C> children() {
+            Map<List<String>, C> sorted = new TreeMap<>(Comparator.comparing(List::toString));
+            sorted.putAll(children);
+            return sorted;
+        }
+
+        String labels(List<String> labelValues, String... extra) {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < labelNames.length; i++) {
+                append(builder, labelNames[i], labelValues.get(i));
+            }
+            for (int i = 0; i < extra.length; i += 2) {
+                append(builder, extra[i], extra[i + 1]);
+            }
+            return builder.isEmpty() ? "" : "{" + builder + "}";
+        }
+
+        private static void append(StringBuilder builder, String name, String value) {
+            if (!builder.isEmpty()) {
+                builder.append(',');
+            }
+            builder.append(name).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                    .append('"');
+        }
+    }
+
+    public static class Counter extends LabelledMetric<LongAdder> {
+        Counter(String name, String help, String[] labelNames) {
+            super(name, help, labelNames);
+        }
+
+        public void increment(String... labelValues) {
+            child(labelValues).increment();
+        }
+
+        public long get(String... labelValues) {
+            return child(labelValues).sum();
+        }
+
+        @Override
+        LongAdder newChild() {
+            return new LongAdder();
+        }
+
+        @Override
+        String type() {
+            return "counter";
+        }
+
+        @Override
+        void writeSamples(Writer writer) throws IOException {
+            for (Map.Entry<List<String>, LongAdder> entry : children().entrySet()) {
+                writer.write(name + labels(entry.getKey()) + " " + entry.getValue().sum() + "\n");
+            }
+        }
+    }
+
+    public static class Histogram extends LabelledMetric<Histogram.Buckets> {
+        Histogram(String name, String help, String[] labelNames) {
+            super(name, help, labelNames);
+        }
+
+        public void observeNanos(long nanos, String... labelValues) {
+            child(labelValues).observe(Math.max(nanos, 0));
+        }
+
+        public void observeMillis(long millis, String... labelValues) {
+            observeNanos(MILLISECONDS.toNanos(millis), labelValues);
+        }
+
+        public void observeSince(long startNanos, String... labelValues) {
+            observeNanos(System.nanoTime() - startNanos, labelValues);
+        }
+
+        public long count(String... labelValues) {
+            return child(labelValues).count.sum();
+        }
+
+        @Override
+        Buckets newChild() {
+            return new Buckets();
+        }
+
+        @Override
+        String type() {
+            return "histogram";
+        }
+
+        @Override
+        void writeSamples(Writer writer) throws IOException {
+            for (Map.Entry<List<String>, Buckets> entry : children().entrySet()) {
+                Buckets buckets = entry.getValue();
+                long cumulative = 0;
+                for (int i = 0; i < BUCKETS_IN_SECONDS.length; i++) {
+                    cumulative += buckets.counts[i].sum();
+                    writer.write(name + "_bucket" + labels(entry.getKey(), "le", Double.toString(BUCKETS_IN_SECONDS[i])) + " " + cumulative + "\n");
+                }
+                long count = buckets.count.sum();
+                writer.write(name + "_bucket" + labels(entry.getKey(), "le", "+Inf") + " " + count + "\n");
+                writer.write(name + "_sum" + labels(entry.getKey()) + " " + (double) buckets.sumInNanos.sum() / SECONDS.toNanos(1) + "\n");
+                writer.write(name + "_count" + labels(entry.getKey()) + " " + count + "\n");
+            }
+        }
+
+        static class Buckets {
+            private static final long[] BOUNDS_IN_NANOS = Arrays.stream(BUCKETS_IN_SECONDS).mapToLong(seconds -> (long) (seconds * SECONDS.toNanos(1))).toArray();
+
+            private final LongAdder[] counts = new LongAdder[BOUNDS_IN_NANOS.length];
+            private final LongAdder count = new LongAdder();
+            private final LongAdder sumInNanos = new LongAdder();
+
+            Buckets() {
+                Arrays.setAll(counts, i -> new LongAdder());
+            }
+
+            void observe(long nanos) {
+                for (int i = 0; i < BOUNDS_IN_NANOS.length; i++) {
+                    if (nanos <= BOUNDS_IN_NANOS[i]) {
+                        counts[i].increment();
+                        break;
+                    }
+                }
+                count.increment();
+                sumInNanos.add(nanos);
+            }
+        }
+    }
+
+    static class Gauge extends Metric {
+        private final Supplier<? extends Number> value;
+
+        Gauge(String name, String help, Supplier<? extends Number> value) {
+            super(name, help);
+            this.value = value;
+        }
+
+        @Override
+        String type() {
+            return "gauge";
+        }
+
+        @Override
+        void writeSamples(Writer writer) throws IOException {
+            writer.write(name + " " + value.get() + "\n");
+        }
+    }
+
+    static class LabelledGauge extends Metric {
+        private final String labelName;
+        private final Supplier<Map<String, ? extends Number>> values;
+
+        LabelledGauge(String name, String help, String labelName, Supplier<Map<String, ? extends Number>> values) {
+            super(name, help);
+            this.labelName = labelName;
+            this.values = values;
+        }
+
+        @Override
+        String type() {
+            return "gauge";
+        }
+
+        @Override
+        void writeSamples(Writer writer) throws IOException {
+            for (Map.Entry<String, ? extends Number> entry : new TreeMap<>(values.get()).entrySet()) {
+                StringBuilder labels = new StringBuilder();
+                LabelledMetric.append(labels, labelName, entry.getKey());
+                writer.write(name + "{" + labels + "} " + entry.getValue() + "\n");
+            }
+        }
+    }
+}
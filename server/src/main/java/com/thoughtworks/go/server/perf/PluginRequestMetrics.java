@@ -0,0 +1,37 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.perf;
+
+import com.thoughtworks.go.plugin.infra.PluginManager;
+import com.thoughtworks.go.plugin.infra.PluginRequestListener;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class PluginRequestMetrics implements PluginRequestListener {
+    private final MetricsRegistry.Histogram requestTime;
+
+    @Autowired
+    public PluginRequestMetrics(PluginManager pluginManager, MetricsRegistry metricsRegistry) {
+        this.requestTime = metricsRegistry.histogram("gocd_plugin_request_duration_seconds", "Time taken by plugins to answer requests from the server.", "extension", "plugin_id", "request", "result");
+        pluginManager.addPluginRequestListener(this);
+    }
+
+    @Override
+    public void requestCompleted(String pluginId, String extensionType, String requestName, long durationInNanos, boolean successful) {
+        requestTime.observeNanos(durationInNanos, extensionType, pluginId, requestName, successful ? "success" : "failure");
+    }
+}
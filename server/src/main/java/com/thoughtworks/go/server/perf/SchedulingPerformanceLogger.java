@@ -19,59 +19,95 @@ import com.thoughtworks.go.config.CaseInsensitiveString;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 @Component
 public class SchedulingPerformanceLogger {
-    private PerformanceLogger performanceLogger;
-    private long currentTrackingId = 0;
+    private final PerformanceLogger performanceLogger;
+    private final AtomicLong currentTrackingId = new AtomicLong();
+    private final AtomicInteger toBeScheduledQueueSize = new AtomicInteger();
+    private final ConcurrentMap<Long, Long> queuedAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> startedAt = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> producingBuildCauseSince = new ConcurrentHashMap<>();
+    private final MetricsRegistry.Histogram checkQueueWaitTime;
+    private final MetricsRegistry.Histogram checkTime;
+    private final MetricsRegistry.Histogram buildCauseTime;
+    private final MetricsRegistry.Histogram scheduleTime;
 
     @Autowired
-    public SchedulingPerformanceLogger(PerformanceLogger performanceLogger) {
+    public SchedulingPerformanceLogger(PerformanceLogger performanceLogger, MetricsRegistry metricsRegistry) {
         this.performanceLogger = performanceLogger;
+        this.checkQueueWaitTime = metricsRegistry.histogram("gocd_schedule_check_queue_wait_seconds", "Time pipelines spent waiting in the schedule check queue.");
+        this.checkTime = metricsRegistry.histogram("gocd_schedule_check_duration_seconds", "Time taken to check whether a pipeline should be scheduled.");
+        this.buildCauseTime = metricsRegistry.histogram("gocd_schedule_build_cause_duration_seconds", "Time taken to produce the build cause of a pipeline, by what triggered it.", "trigger");
+        this.scheduleTime = metricsRegistry.histogram("gocd_schedule_duration_seconds", "Time taken to schedule a pipeline once its build cause is known.");
+        metricsRegistry.gauge("gocd_schedule_to_be_scheduled_queue_size", "Pipelines waiting to be scheduled, as of the last scheduled pipeline.", toBeScheduledQueueSize::get);
     }
 
     public long pipelineSentToScheduleCheckQueue(String pipelineName) {
-        long trackingId = currentTrackingId++;
+        long trackingId = currentTrackingId.getAndIncrement();
+        queuedAt.put(trackingId, System.nanoTime());
         performanceLogger.log("SCH-CHECK-QUEUE-PUT {} {}", trackingId, pipelineName);
         return trackingId;
     }
 
     public void pickedUpPipelineForScheduleCheck(long trackingId, String pipelineName) {
+        Long queued = queuedAt.remove(trackingId);
+        if (queued != null) {
+            checkQueueWaitTime.observeSince(queued);
+        }
+        startedAt.put(trackingId, System.nanoTime());
         performanceLogger.log("SCH-CHECK-START {} {}", trackingId, pipelineName);
     }
 
     public void autoSchedulePipelineStart(long trackingId, String pipelineName) {
+        producingBuildCauseSince.put(trackingId, System.nanoTime());
         performanceLogger.log("SCH-AUTO-START {} {}", trackingId, pipelineName);
     }
 
     public void autoSchedulePipelineFinish(long trackingId, String pipelineName) {
+        recordBuildCause(trackingId, "auto");
         performanceLogger.log("SCH-AUTO-DONE {} {}", trackingId, pipelineName);
     }
 
     public void postingMessageAboutScheduleCheckCompletion(long trackingId, String pipelineName) {
+        Long started = startedAt.remove(trackingId);
+        if (started != null) {
+            checkTime.observeSince(started);
+        }
         performanceLogger.log("SCH-CHECK-DONE {} {}", trackingId, pipelineName);
     }
 
     public void completionMessageForScheduleCheckReceived(long trackingId, String pipelineName) {
+        queuedAt.remove(trackingId);
+        startedAt.remove(trackingId);
         performanceLogger.log("SCH-CHECK-QUEUE-REMOVE {} {}", trackingId, pipelineName);
     }
 
     public long manualSchedulePipelineStart(String pipelineName) {
-        long trackingId = currentTrackingId++;
+        long trackingId = currentTrackingId.getAndIncrement();
+        producingBuildCauseSince.put(trackingId, System.nanoTime());
         performanceLogger.log("SCH-MANUAL-START {} {}", trackingId, pipelineName);
         return trackingId;
     }
 
     public void manualSchedulePipelineFinish(long trackingId, String pipelineName) {
+        recordBuildCause(trackingId, "manual");
         performanceLogger.log("SCH-MANUAL-DONE {} {}", trackingId, pipelineName);
     }
 
     public long timerSchedulePipelineStart(String pipelineName) {
-        long trackingId = currentTrackingId++;
+        long trackingId = currentTrackingId.getAndIncrement();
+        producingBuildCauseSince.put(trackingId, System.nanoTime());
         performanceLogger.log("SCH-TIMER-START {} {}", trackingId, pipelineName);
         return trackingId;
     }
 
     public void timerSchedulePipelineFinish(long trackingId, String pipelineName) {
+        recordBuildCause(trackingId, "timer");
         performanceLogger.log("SCH-TIMER-DONE {} {}", trackingId, pipelineName);
     }
 
@@ -80,6 +116,15 @@ public class SchedulingPerformanceLogger {
     }
 
     public void scheduledPipeline(CaseInsensitiveString pipelineName, int toBeScheduledQueueSize, long schedulePipelineStartTime, long schedulePipelineEndTime) {
+        this.toBeScheduledQueueSize.set(toBeScheduledQueueSize);
+        scheduleTime.observeMillis(schedulePipelineEndTime - schedulePipelineStartTime);
         performanceLogger.log("SCH-SCHEDULED {} {} {} {}", pipelineName, toBeScheduledQueueSize, schedulePipelineStartTime, schedulePipelineEndTime);
     }
+
+    private void recordBuildCause(long trackingId, String trigger) {
+        Long started = producingBuildCauseSince.remove(trackingId);
+        if (started != null) {
+            buildCauseTime.observeSince(started, trigger);
+        }
+    }
 }
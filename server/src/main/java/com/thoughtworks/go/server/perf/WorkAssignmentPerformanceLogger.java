@@ -25,23 +25,32 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class WorkAssignmentPerformanceLogger {
-    private PerformanceLogger performanceLogger;
+    private final PerformanceLogger performanceLogger;
+    private final MetricsRegistry.Histogram retrieveWorkTime;
+    private final MetricsRegistry.Histogram assignWorkTime;
+    private final MetricsRegistry.Histogram reportCompletionTime;
 
     @Autowired
-    public WorkAssignmentPerformanceLogger(PerformanceLogger performanceLogger) {
+    public WorkAssignmentPerformanceLogger(PerformanceLogger performanceLogger, MetricsRegistry metricsRegistry) {
         this.performanceLogger = performanceLogger;
+        this.retrieveWorkTime = metricsRegistry.histogram("gocd_work_retrieve_duration_seconds", "Time taken to answer an agent asking for work, by whether work was found.", "result");
+        this.assignWorkTime = metricsRegistry.histogram("gocd_work_assign_duration_seconds", "Time taken to assign a job to an agent.");
+        this.reportCompletionTime = metricsRegistry.histogram("gocd_work_report_completion_duration_seconds", "Time taken to process an agent reporting a completed job.");
     }
 
     public void retrievedWorkForAgent(AgentRuntimeInfo agentRuntimeInfo, Work work, long retrieveWorkStartTime, long retrieveWorkEndTime) {
         if (work == null || !(work instanceof BuildWork buildWork)) {
+            retrieveWorkTime.observeMillis(retrieveWorkEndTime - retrieveWorkStartTime, "no_work");
             performanceLogger.log("WORK-NOWORK {} {} {}", agentRuntimeInfo.getIdentifier().getUuid(), retrieveWorkStartTime, retrieveWorkEndTime);
             return;
         }
 
+        retrieveWorkTime.observeMillis(retrieveWorkEndTime - retrieveWorkStartTime, "work");
         performanceLogger.log("WORK-RETRIEVED {} {} {} {}", agentRuntimeInfo.getIdentifier().getUuid(), buildWork.identifierForLogging(), retrieveWorkStartTime, retrieveWorkEndTime);
     }
 
     public void agentReportedCompletion(AgentRuntimeInfo agentRuntimeInfo, JobIdentifier jobIdentifier, long reportCompletionStartTime, long reportCompletionEndTime) {
+        reportCompletionTime.observeMillis(reportCompletionEndTime - reportCompletionStartTime);
         performanceLogger.log("WORK-COMPLETED {} {} {} {}", agentRuntimeInfo.getIdentifier().getUuid(), jobIdentifier, reportCompletionStartTime, reportCompletionEndTime);
     }
 
@@ -50,6 +59,7 @@ public class WorkAssignmentPerformanceLogger {
             return;
         }
 
+        assignWorkTime.observeMillis(assignWorkEndTime - assignWorkStartTime);
         performanceLogger.log("WORK-ASSIGNED {} {} {} {}", agentIdentifier.getUuid(), buildWork.identifierForLogging(), assignWorkStartTime, assignWorkEndTime);
     }
 }
@@ -23,6 +23,7 @@ import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.materials.*;
 import com.thoughtworks.go.domain.materials.dependency.DependencyMaterialInstance;
 import com.thoughtworks.go.server.cache.CacheKeyGenerator;
+import com.thoughtworks.go.server.cache.CacheRegion;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.dao.FeedModifier;
 import com.thoughtworks.go.server.database.Database;
@@ -36,6 +37,7 @@ import com.thoughtworks.go.server.util.CollectionUtil;
 import com.thoughtworks.go.server.util.Pagination;
 import com.thoughtworks.go.util.SystemEnvironment;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.hibernate.*;
 import org.hibernate.criterion.*;
 import org.hibernate.type.LongType;
@@ -52,6 +54,12 @@ import org.springframework.transaction.support.TransactionSynchronizationAdapter
 
 import java.io.File;
 import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -67,14 +75,24 @@ import static org.hibernate.criterion.Restrictions.isNull;
 @Component
 public class MaterialRepository extends HibernateDaoSupport {
     private static final Logger LOGGER = LoggerFactory.getLogger(MaterialRepository.class.getName());
+    static final int MODIFICATIONS_PER_BATCH = 1000;
+    private static final String INSERT_MODIFICATION = "INSERT INTO modifications (revision, comment, emailAddress, modifiedTime, userName, pipelineLabel, pipelineId, additionalData, materialId) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MODIFIED_FILE = "INSERT INTO modifiedFiles (modificationId, action, fileName, folderName) VALUES (?, ?, ?, ?)";
+    // Asks for the id alone, as PostgreSQL would otherwise return every column of the inserted rows
+    private static final String[] GENERATED_ID = {"id"};
 
     private final GoCache goCache;
     private final TransactionSynchronizationManager transactionSynchronizationManager;
     private final MaterialConfigConverter materialConfigConverter;
     private final QueryExtensions queryExtensions;
     private final CacheKeyGenerator cacheKeyGenerator;
+    private final CacheRegion<Long, List<PipelineMaterialRevision>> pipelineMaterialRevisions;
+    private final CacheRegion<Long, List<Modification>> pipelineMaterialRevisionModifications;
+    private final CacheRegion<LatestRunKey, Long> latestModificationRunByPipeline;
+    private final CacheRegion<PipelineRunKey, Boolean> pipelineRunsWithModification;
     private final int latestModificationsCacheLimit;
     private final MaterialExpansionService materialExpansionService;
+    private final SystemEnvironment systemEnvironment;
 
     @Autowired
     public MaterialRepository(SessionFactory sessionFactory,
@@ -83,15 +101,21 @@ public class MaterialRepository extends HibernateDaoSupport {
                               TransactionSynchronizationManager transactionSynchronizationManager,
                               MaterialConfigConverter materialConfigConverter,
                               MaterialExpansionService materialExpansionService,
-                              Database databaseStrategy) {
+                              Database databaseStrategy,
+                              SystemEnvironment systemEnvironment) {
         this.goCache = goCache;
         this.latestModificationsCacheLimit = latestModificationsCacheLimit;
         this.transactionSynchronizationManager = transactionSynchronizationManager;
         this.materialConfigConverter = materialConfigConverter;
         this.materialExpansionService = materialExpansionService;
         this.queryExtensions = databaseStrategy.getQueryExtensions();
+        this.systemEnvironment = systemEnvironment;
         setSessionFactory(sessionFactory);
         this.cacheKeyGenerator = new CacheKeyGenerator(getClass());
+        this.pipelineMaterialRevisions = goCache.region("pipelineMaterialRevisions", 10_000, 0);
+        this.pipelineMaterialRevisionModifications = goCache.region("pipelineMaterialRevisionModifications", 10_000, 0);
+        this.latestModificationRunByPipeline = goCache.region("latestModificationRunByPipeline", 10_000, 0);
+        this.pipelineRunsWithModification = goCache.region("pipelineRunsWithModification", 10_000, 0);
     }
 
     @SuppressWarnings("unchecked")
@@ -258,16 +282,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     }
 
     public List<PipelineMaterialRevision> findPipelineMaterialRevisions(long pipelineId) {
-        String cacheKey = pipelinePmrsKey(pipelineId);
-        synchronized (cacheKey) {
-            List<PipelineMaterialRevision> results = goCache.get(cacheKey);
-            if (results != null) {
-                return results;
-            }
-            results = findPMRByPipelineId(pipelineId);
-            goCache.put(cacheKey, results);
-            return results;
-        }
+        return pipelineMaterialRevisions.get(pipelineId, () -> findPMRByPipelineId(pipelineId));
     }
 
     @SuppressWarnings("unchecked")
@@ -280,11 +295,10 @@ public class MaterialRepository extends HibernateDaoSupport {
         sortPersistentObjectsById(pmrs, true);
         final Set<PipelineMaterialRevision> uniquePmrs = new HashSet<>();
         for (PipelineMaterialRevision pmr : pmrs) {
-            String cacheKey = pipelinePmrsKey(pmr.getPipelineId());
-            List<PipelineMaterialRevision> pmrsForId = goCache.get(cacheKey);
+            List<PipelineMaterialRevision> pmrsForId = pipelineMaterialRevisions.get(pmr.getPipelineId());
             if (pmrsForId == null) {
                 pmrsForId = new ArrayList<>();
-                goCache.put(cacheKey, pmrsForId);
+                pipelineMaterialRevisions.put(pmr.getPipelineId(), pmrsForId);
             }
             pmrsForId.add(pmr);
             putMaterialInstanceIntoCache(pmr.getToModification().getMaterialInstance());
@@ -325,7 +339,7 @@ public class MaterialRepository extends HibernateDaoSupport {
     private void loadModificationsForPMR(List<PipelineMaterialRevision> pmrs) {
         List<Criterion> criterions = new ArrayList<>();
         for (PipelineMaterialRevision pmr : pmrs) {
-            if (goCache.get(pmrModificationsKey(pmr)) != null) {
+            if (pipelineMaterialRevisionModifications.get(pmr.getId()) != null) {
                 continue;
             }
             final Criterion modificationClause = Restrictions.between("id", pmr.getFromModification().getId(), pmr.getToModification().getId());
@@ -335,12 +349,11 @@ public class MaterialRepository extends HibernateDaoSupport {
         @SuppressWarnings("unchecked") List<Modification> modifications = (List<Modification>) getHibernateTemplate().findByCriteria(buildModificationDetachedQuery(criterions));
         sortPersistentObjectsById(modifications, false);
         for (Modification modification : modifications) {
-            List<String> cacheKeys = pmrModificationsKey(modification, pmrs);
-            for (String cacheKey : cacheKeys) {
-                List<Modification> modificationList = goCache.get(cacheKey);
+            for (Long pmrId : idsOfPmrsContaining(modification, pmrs)) {
+                List<Modification> modificationList = pipelineMaterialRevisionModifications.get(pmrId);
                 if (modificationList == null) {
                     modificationList = new ArrayList<>();
-                    goCache.put(cacheKey, modificationList);
+                    pipelineMaterialRevisionModifications.put(pmrId, modificationList);
                 }
                 modificationList.add(modification);
             }
@@ -358,10 +371,6 @@ public class MaterialRepository extends HibernateDaoSupport {
         return detachedCriteria;
     }
 
-    private String pipelinePmrsKey(long pipelineId) {
-        return (MaterialRepository.class.getName() + "_pipelinePMRs_" + pipelineId).intern();
-    }
-
     @SuppressWarnings("unchecked")
     List<Modification> findMaterialRevisionsForMaterial(long id) {
         return (List<Modification>) getHibernateTemplate().find("FROM Modification WHERE materialId = ?", new Object[]{id});
@@ -369,28 +378,12 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     @SuppressWarnings("unchecked")
     List<Modification> findModificationsFor(PipelineMaterialRevision pmr) {
-        String cacheKey = pmrModificationsKey(pmr);
-        List<Modification> modifications = goCache.get(cacheKey);
-        if (modifications == null) {
-            synchronized (cacheKey) {
-                modifications = goCache.get(cacheKey);
-                if (modifications == null) {
-                    modifications = (List<Modification>) getHibernateTemplate().find(
-                        "FROM Modification WHERE materialId = ? AND id BETWEEN ? AND ? ORDER BY id DESC",
-                        new Object[]{findMaterialInstance(pmr.getMaterial()).getId(), pmr.getFromModification().getId(), pmr.getToModification().getId()});
-                    goCache.put(cacheKey, modifications);
-                }
-            }
-        }
-        return modifications;
+        return pipelineMaterialRevisionModifications.get(pmr.getId(), () -> (List<Modification>) getHibernateTemplate().find(
+            "FROM Modification WHERE materialId = ? AND id BETWEEN ? AND ? ORDER BY id DESC",
+            new Object[]{findMaterialInstance(pmr.getMaterial()).getId(), pmr.getFromModification().getId(), pmr.getToModification().getId()}));
     }
 
-    private String pmrModificationsKey(PipelineMaterialRevision pmr) {
-        // we intern() it because we might synchronize on the returned String
-        return (MaterialRepository.class.getName() + "_pmrModifications_" + pmr.getId()).intern();
-    }
-
-    private List<String> pmrModificationsKey(Modification modification, List<PipelineMaterialRevision> pmrs) {
+    private List<Long> idsOfPmrsContaining(Modification modification, List<PipelineMaterialRevision> pmrs) {
         final long id = modification.getId();
         final MaterialInstance materialInstance = modification.getMaterialInstance();
         Collection<PipelineMaterialRevision> matchedPmrs = CollectionUtils.select(pmrs, pmr -> {
@@ -399,11 +392,11 @@ public class MaterialRepository extends HibernateDaoSupport {
             MaterialInstance pmi = findMaterialInstance(pmr.getMaterial());
             return from <= id && id <= to && materialInstance.equals(pmi);
         });
-        List<String> keys = new ArrayList<>(matchedPmrs.size());
+        List<Long> ids = new ArrayList<>(matchedPmrs.size());
         for (PipelineMaterialRevision matchedPmr : matchedPmrs) {
-            keys.add(pmrModificationsKey(matchedPmr));
+            ids.add(matchedPmr.getId());
         }
-        return keys;
+        return ids;
     }
 
     String latestMaterialModificationsKey(MaterialInstance materialInstance) {
@@ -605,10 +598,7 @@ public class MaterialRepository extends HibernateDaoSupport {
         transactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
             @Override
             public void afterCommit() {
-                String key = cacheKeyForLatestPmrForPipelineKey(pipelineMaterialRevision.getMaterialId(), pipelineName.toLowerCase());
-                synchronized (key) {
-                    goCache.remove(key);
-                }
+                latestModificationRunByPipeline.remove(new LatestRunKey(pipelineMaterialRevision.getMaterialId(), pipelineName.toLowerCase()));
             }
         });
     }
@@ -764,9 +754,15 @@ public class MaterialRepository extends HibernateDaoSupport {
 
         try {
             checkAndRemoveDuplicates(materialInstance, newChanges, list);
+            List<Modification> newModifications = new ArrayList<>();
             for (Modification modification : list) {
-                getHibernateTemplate().saveOrUpdate(modification);
+                if (modification.hasId()) {
+                    getHibernateTemplate().saveOrUpdate(modification);
+                } else {
+                    newModifications.add(modification);
+                }
             }
+            insertInBatches(newModifications);
         } catch (Exception e) {
             String message = "Cannot save modification: ";
             LOGGER.error(message, e);
@@ -783,20 +779,21 @@ public class MaterialRepository extends HibernateDaoSupport {
         if (!new SystemEnvironment().get(SystemEnvironment.CHECK_AND_REMOVE_DUPLICATE_MODIFICATIONS)) {
             return;
         }
-        DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
-        criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
-        criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
         List<String> revisions = new ArrayList<>();
         for (Modification modification : newChanges) {
             revisions.add(modification.getRevision());
         }
-        criteria.add(Restrictions.in("revision", revisions));
-        @SuppressWarnings("unchecked") List<String> matchingRevisionsFromDb = (List<String>) getHibernateTemplate().findByCriteria(criteria);
+        Set<String> matchingRevisionsFromDb = new LinkedHashSet<>();
+        for (List<String> batch : ListUtils.partition(revisions, MODIFICATIONS_PER_BATCH)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(Modification.class);
+            criteria.setProjection(Projections.projectionList().add(Projections.property("revision")));
+            criteria.add(Restrictions.eq("materialInstance.id", materialInstance.getId()));
+            criteria.add(Restrictions.in("revision", batch));
+            @SuppressWarnings("unchecked") List<String> matching = (List<String>) getHibernateTemplate().findByCriteria(criteria);
+            matchingRevisionsFromDb.addAll(matching);
+        }
         if (!matchingRevisionsFromDb.isEmpty()) {
-            for (final String revision : matchingRevisionsFromDb) {
-                Modification modification = list.stream().filter(item -> item.getRevision().equals(revision)).findFirst().orElse(null);
-                list.remove(modification);
-            }
+            list.removeIf(modification -> matchingRevisionsFromDb.contains(modification.getRevision()));
         }
         if (!newChanges.isEmpty() && list.isEmpty()) {
             LOGGER.debug("All modifications already exist in db [{}]", revisions);
@@ -808,6 +805,83 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     }
 
+    /*
+     * New modifications, and their files, are inserted a batch at a time with plain JDBC, in the order they were made
+     * so that their ids keep increasing with time. Hibernate itself cannot batch them, as their ids are generated by
+     * the database.
+     */
+    private void insertInBatches(List<Modification> modifications) {
+        if (modifications.isEmpty()) {
+            return;
+        }
+        goCache.stopServingForTransaction();
+        getHibernateTemplate().execute(session -> {
+            session.flush();
+            session.doWork(connection -> {
+                for (List<Modification> batch : ListUtils.partition(modifications, MODIFICATIONS_PER_BATCH)) {
+                    insertModifications(connection, batch);
+                    insertModifiedFiles(connection, batch);
+                }
+            });
+            return null;
+        });
+    }
+
+    private void insertModifications(Connection connection, List<Modification> modifications) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MODIFICATION, GENERATED_ID)) {
+            for (Modification modification : modifications) {
+                statement.setString(1, modification.getRevision());
+                statement.setString(2, modification.getComment());
+                statement.setString(3, modification.getEmailAddress());
+                statement.setTimestamp(4, modification.getModifiedTime() == null ? null : new Timestamp(modification.getModifiedTime().getTime()));
+                statement.setString(5, modification.getUserName());
+                statement.setString(6, modification.getPipelineLabel());
+                statement.setObject(7, modification.getPipelineId(), Types.BIGINT);
+                statement.setString(8, modification.getAdditionalData());
+                statement.setLong(9, modification.getMaterialInstance().getId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            try (ResultSet ids = statement.getGeneratedKeys()) {
+                for (Modification modification : modifications) {
+                    if (!ids.next()) {
+                        throw new SQLException("Ids were not generated for all of the modifications inserted");
+                    }
+                    modification.setId(ids.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void insertModifiedFiles(Connection connection, List<Modification> modifications) throws SQLException {
+        List<ModifiedFile> files = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MODIFIED_FILE, GENERATED_ID)) {
+            for (Modification modification : modifications) {
+                for (ModifiedFile file : modification.getModifiedFiles()) {
+                    file.setModificationId(modification.getId());
+                    statement.setLong(1, modification.getId());
+                    statement.setString(2, file.getAction() == null ? null : file.getAction().name());
+                    statement.setString(3, file.getFileName());
+                    statement.setString(4, file.getFolderName());
+                    statement.addBatch();
+                    files.add(file);
+                }
+            }
+            if (files.isEmpty()) {
+                return;
+            }
+            statement.executeBatch();
+            try (ResultSet ids = statement.getGeneratedKeys()) {
+                for (ModifiedFile file : files) {
+                    if (!ids.next()) {
+                        throw new SQLException("Ids were not generated for all of the modified files inserted");
+                    }
+                    file.setId(ids.getLong(1));
+                }
+            }
+        }
+    }
+
     public Modification findModificationWithRevision(final Material material, final String revision) {
         return getHibernateTemplate().execute(session -> {
             try {
@@ -859,8 +933,8 @@ public class MaterialRepository extends HibernateDaoSupport {
             for (MaterialRevision revision : revisions) {
                 long materialId = findOrCreateFrom(revision.getMaterial()).getId();
                 long modificationId = revision.getLatestModification().getId();
-                String key = cacheKeyForHasPipelineEverRunWithModification(pipelineName, materialId, modificationId);
-                if (goCache.get(key) != null) {
+                PipelineRunKey key = new PipelineRunKey(pipelineName, materialId, modificationId);
+                if (pipelineRunsWithModification.get(key) != null) {
                     match++;
                     continue;
                 }
@@ -878,27 +952,24 @@ public class MaterialRepository extends HibernateDaoSupport {
                 query.setString(3, pipelineName);
                 if (!query.list().isEmpty()) {
                     match++;
-                    goCache.put(key, Boolean.TRUE);
+                    pipelineRunsWithModification.put(key, Boolean.TRUE);
                 }
             }
             return match == numberOfMaterials;
         });
     }
 
-    private String cacheKeyForHasPipelineEverRunWithModification(Object pipelineName,
-                                                                 long materialId,
-                                                                 long modificationId) {
-        return cacheKeyGenerator.generate("hasPipelineEverRunWithModification", pipelineName, materialId, modificationId);
-    }
-
     @SuppressWarnings("unchecked")
     public List<MatchedRevision> findRevisionsMatching(final MaterialConfig materialConfig, final String searchString) {
+        boolean fullTextSearch = useFullTextModificationSearch();
         return getHibernateTemplate().execute(session -> {
             String sql = "SELECT m.*"
                 + " FROM modifications AS m"
                 + " INNER JOIN materials mat ON mat.id = m.materialId"
                 + " WHERE mat.fingerprint = :finger_print"
-                + " AND (m.revision || ' ' || COALESCE(m.username, '') || ' ' || COALESCE(m.comment, '') LIKE :search_string OR m.pipelineLabel LIKE :search_string)"
+                + (fullTextSearch
+                    ? " AND (" + queryExtensions.fullTextModificationSearchCondition("m") + " OR m.pipelineLabel LIKE :search_string)"
+                    : " AND (m.revision || ' ' || COALESCE(m.username, '') || ' ' || COALESCE(m.comment, '') LIKE :search_string OR m.pipelineLabel LIKE :search_string)")
                 + " ORDER BY m.id DESC"
                 + " LIMIT 5";
             SQLQuery query = session.createSQLQuery(sql);
@@ -906,6 +977,10 @@ public class MaterialRepository extends HibernateDaoSupport {
             Material material = materialConfigConverter.toMaterial(materialConfig);
             query.setString("finger_print", material.getFingerprint());
             query.setString("search_string", "%" + searchString + "%");
+            if (fullTextSearch) {
+                query.setString("search_terms", queryExtensions.toFullTextQuery(searchString));
+                query.setString("revision_prefix", queryExtensions.toPrefixPattern(searchString.toLowerCase()));
+            }
             final List<MatchedRevision> list = new ArrayList<>();
             for (Modification mod : (List<Modification>) query.list()) {
                 list.add(material.createMatchedRevision(mod, searchString));
@@ -914,6 +989,10 @@ public class MaterialRepository extends HibernateDaoSupport {
         });
     }
 
+    private boolean useFullTextModificationSearch() {
+        return systemEnvironment.shouldSearchModificationsUsingFullTextIndex() && queryExtensions.supportsFullTextModificationSearch();
+    }
+
     @SuppressWarnings("unchecked")
     public List<Modification> modificationFor(final StageIdentifier stageIdentifier) {
         if (stageIdentifier == null) {
@@ -985,34 +1064,19 @@ public class MaterialRepository extends HibernateDaoSupport {
 
     public Long latestModificationRunByPipeline(final CaseInsensitiveString pipelineName, final Material material) {
         final long materialId = findMaterialInstance(material).getId();
-        String key = cacheKeyForLatestPmrForPipelineKey(materialId, pipelineName.toLower());
-        Long modificationId = goCache.get(key);
-        if (modificationId == null) {
-            synchronized (key) {
-                modificationId = goCache.get(key);
-                if (modificationId == null) {
-                    modificationId = (Long) getHibernateTemplate().execute(session -> {
-                        SQLQuery sqlQuery = session.createSQLQuery("SELECT  MAX(pmr.toRevisionId) toRevisionId "
-                            + "FROM (SELECT torevisionid, pipelineid FROM pipelineMaterialRevisions WHERE materialid = :material_id)  AS pmr\n"
-                            + "INNER JOIN pipelines p ON ( p.name = :pipeline_name AND p.id = pmr.pipelineId)");
-
-                        sqlQuery.setParameter("material_id", materialId);
-                        sqlQuery.setParameter("pipeline_name", pipelineName.toString());
-                        sqlQuery.addScalar("toRevisionId", new LongType());
-                        return sqlQuery.uniqueResult();
-                    });
-                    if (modificationId == null) {
-                        modificationId = -1L;
-                    }
-                    goCache.put(key, modificationId);
-                }
-            }
-        }
-        return modificationId;
-    }
-
-    private String cacheKeyForLatestPmrForPipelineKey(long materialId, final String lowerCasePipelineName) {
-        return cacheKeyGenerator.generate("latestPmrForPipeline", lowerCasePipelineName, "andMaterial", materialId);
+        return latestModificationRunByPipeline.get(new LatestRunKey(materialId, pipelineName.toLower()), () -> {
+            Long modificationId = (Long) getHibernateTemplate().execute(session -> {
+                SQLQuery sqlQuery = session.createSQLQuery("SELECT  MAX(pmr.toRevisionId) toRevisionId "
+                    + "FROM (SELECT torevisionid, pipelineid FROM pipelineMaterialRevisions WHERE materialid = :material_id)  AS pmr\n"
+                    + "INNER JOIN pipelines p ON ( p.name = :pipeline_name AND p.id = pmr.pipelineId)");
+
+                sqlQuery.setParameter("material_id", materialId);
+                sqlQuery.setParameter("pipeline_name", pipelineName.toString());
+                sqlQuery.addScalar("toRevisionId", new LongType());
+                return sqlQuery.uniqueResult();
+            });
+            return modificationId == null ? -1L : modificationId;
+        });
     }
 
     String cacheKeyForModificationWithRevision(long materialId, String revision) {
@@ -1108,4 +1172,10 @@ public class MaterialRepository extends HibernateDaoSupport {
                 .list();
         });
     }
+
+    private record LatestRunKey(long materialId, String lowerCasePipelineName) {
+    }
+
+    private record PipelineRunKey(String pipelineName, long materialId, long modificationId) {
+    }
 }
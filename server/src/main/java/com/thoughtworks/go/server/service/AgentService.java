@@ -412,6 +412,7 @@ public class AgentService implements DatabaseEntityChangeListener<Agent> {
     private void notifyAgentChangeListenersAndSyncAgentFromUpdatedAgent(Agent agentAfterUpdate, AgentInstance agentInstanceBeforeUpdate) {
         notifyAgentChangeListeners(agentAfterUpdate);
         agentInstanceBeforeUpdate.syncAgentFrom(agentAfterUpdate);
+        agentInstances.reindex(agentInstanceBeforeUpdate);
     }
 
     private void createNewAgentInstanceAndAddToCache(Agent agentAfterUpdate) {
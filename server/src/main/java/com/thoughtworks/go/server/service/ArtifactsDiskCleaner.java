@@ -25,7 +25,12 @@ import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactsDiskCleaner.class);
@@ -64,6 +69,11 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
         if (serverConfig.isArtifactPurgingAllowed()) {
             double requiredSpace = requiredSpaceInGb * GoConstants.GIGA_BYTE;
             LOGGER.info("Clearing old artifacts as the disk space is low. Current space: '{}'. Need to clear till we hit: '{}'.", availableSpace(), requiredSpace);
+            int purgeThreads = systemEnvironment.getNumberOfArtifactsPurgeThreads();
+            if (purgeThreads > 0) {
+                deleteOldArtifactsInBatches(requiredSpace, purgeThreads);
+                return;
+            }
             List<Stage> stages;
             int numberOfStagesPurged = 0;
             do {
@@ -84,6 +94,65 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
         }
     }
 
+    /**
+     * Purges stages a batch at a time, deleting the artifacts of a batch on several threads and marking its stages in one
+     * update. The free space is only checked after each batch; the size of the next batch is worked out from the space
+     * freed per stage so far, so that a batch clears about as much as is still needed.
+     */
+    private void deleteOldArtifactsInBatches(double requiredSpace, int purgeThreads) {
+        ExecutorService purgers = Executors.newFixedThreadPool(purgeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "goArtifactsDiskCleaner-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            configDbStateRepository.flushConfigState();
+            long available = availableSpace();
+            long freedSpace = 0;
+            int numberOfStagesPurged = 0;
+            List<Stage> stages = stageService.oldestStagesWithDeletableArtifacts();
+            while (available < requiredSpace && !stages.isEmpty()) {
+                int batchSize = purgeThreads;
+                if (freedSpace > 0) {
+                    double freedPerStage = (double) freedSpace / numberOfStagesPurged;
+                    batchSize = (int) Math.max(Math.ceil((requiredSpace - available) / freedPerStage), 1);
+                }
+                List<Stage> batch = stages.subList(0, Math.min(batchSize, stages.size()));
+                purge(batch, purgers);
+
+                long availableBefore = available;
+                available = availableSpace();
+                freedSpace += Math.max(available - availableBefore, 0);
+                numberOfStagesPurged += batch.size();
+                stages = stageService.oldestStagesWithDeletableArtifacts();
+            }
+            if (available < requiredSpace) {
+                LOGGER.warn("Ran out of stages to clear artifacts from but the disk space is still low");
+            }
+            LOGGER.info("Finished clearing old artifacts. Deleted artifacts for '{}' stages. Current space: '{}'", numberOfStagesPurged, available);
+        } finally {
+            purgers.shutdownNow();
+        }
+    }
+
+    private void purge(List<Stage> stages, ExecutorService purgers) {
+        List<Future<?>> deletions = new ArrayList<>();
+        for (Stage stage : stages) {
+            deletions.add(purgers.submit(() -> artifactService.deleteArtifactsForStage(stage)));
+        }
+        for (Future<?> deletion : deletions) {
+            try {
+                deletion.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } catch (ExecutionException e) {
+                LOGGER.error("Error occurred while clearing artifacts. Error: '{}'", e.getCause().getMessage(), e.getCause());
+            }
+        }
+        artifactService.markArtifactsDeletedFor(stages);
+    }
+
     @Override
     protected void createFailure(OperationResult result, long size, long availableSpace) {
         synchronized (triggerCleanup) {
@@ -99,7 +168,16 @@ public class ArtifactsDiskCleaner extends DiskSpaceChecker {
     @Override
     protected long limitInMb() {
         ServerConfig serverConfig = goConfigService.serverConfig();
-        return serverConfig.isArtifactPurgingAllowed() ? Double.valueOf(serverConfig.getPurgeStart() * GoConstants.MEGABYTES_IN_GIGABYTE).longValue() : Integer.MAX_VALUE;
+        if (!serverConfig.isArtifactPurgingAllowed()) {
+            return Integer.MAX_VALUE;
+        }
+        double purgeStartInGb = serverConfig.getPurgeStart();
+        // a soft watermark starts purging a part of the way between the purge start and the purge target, before the disk is nearly full
+        int softWatermarkPercent = Math.min(systemEnvironment.getArtifactsPurgeSoftWatermarkPercent(), 100);
+        if (softWatermarkPercent > 0 && serverConfig.getPurgeUpto() > purgeStartInGb) {
+            purgeStartInGb += (serverConfig.getPurgeUpto() - purgeStartInGb) * softWatermarkPercent / 100;
+        }
+        return Double.valueOf(purgeStartInGb * GoConstants.MEGABYTES_IN_GIGABYTE).longValue();
     }
 
     @Override
@@ -32,6 +32,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.util.List;
 import java.util.zip.ZipInputStream;
 
 import static java.lang.String.format;
@@ -155,6 +156,16 @@ public class ArtifactsService implements ArtifactUrlReader {
     }
 
     public void purgeArtifactsForStage(Stage stage) {
+        deleteArtifactsForStage(stage);
+        stageDao.markArtifactsDeletedFor(stage);
+        LOGGER.debug("Marked stage '{}' as artifacts deleted.", stage.getIdentifier().entityLocator());
+    }
+
+    /**
+     * Deletes the artifacts of a stage, without marking the stage as such. Used to purge many stages at once, marking
+     * them all with {@link #markArtifactsDeletedFor(List)}.
+     */
+    public void deleteArtifactsForStage(Stage stage) {
         StageIdentifier stageIdentifier = stage.getIdentifier();
         try {
             File stageRoot = chooser.findArtifact(stageIdentifier, "");
@@ -168,8 +179,11 @@ public class ArtifactsService implements ArtifactUrlReader {
         } catch (Exception e) {
             LOGGER.error("Error occurred while clearing artifacts for '{}'. Error: '{}'", stageIdentifier.entityLocator(), e.getMessage(), e);
         }
-        stageDao.markArtifactsDeletedFor(stage);
-        LOGGER.debug("Marked stage '{}' as artifacts deleted.", stageIdentifier.entityLocator());
+    }
+
+    public void markArtifactsDeletedFor(List<Stage> stages) {
+        stageDao.markArtifactsDeletedFor(stages);
+        LOGGER.debug("Marked {} stages as artifacts deleted.", stages.size());
     }
 
     private boolean deleteArtifactsExceptCruiseOutputAndPluggableArtifactMetadata(File stageRoot) throws IOException {
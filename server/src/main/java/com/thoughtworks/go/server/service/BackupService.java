@@ -51,10 +51,16 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.codec.binary.Hex.encodeHexString;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -173,10 +179,15 @@ public class BackupService implements BackupStatusProvider {
                     return backup;
                 }
                 backupVersion(destDir, backupUpdateListeners);
-                backupConfig(destDir, backupUpdateListeners);
-                boolean backedUpWrapperConfig = backupWrapperConfig(destDir, backupUpdateListeners);
-                backupConfigRepo(backupUpdateListeners, destDir);
-                backupDb(destDir, backupUpdateListeners);
+                boolean backedUpWrapperConfig;
+                if (systemEnvironment.shouldRunServerBackupStepsInParallel()) {
+                    backedUpWrapperConfig = backupConfigAndDbInParallel(backup, destDir, backupUpdateListeners);
+                } else {
+                    backupConfig(backup, destDir, backupUpdateListeners);
+                    backedUpWrapperConfig = backupWrapperConfig(backup, destDir, backupUpdateListeners);
+                    backupConfigRepo(backup, destDir, backupUpdateListeners);
+                    backupDb(backup, destDir, backupUpdateListeners);
+                }
                 boolean passed = executePostBackupScript(backup.getUsername(), initiatedBy, backup, backupUpdateListeners);
                 if (passed) {
                     sendBackupSuccessEmail(backup.getUsername(), mailSender, destDir);
@@ -202,13 +213,66 @@ public class BackupService implements BackupStatusProvider {
         return serverBackup;
     }
 
-    private void backupConfigRepo(List<BackupUpdateListener> backupUpdateListeners, File destDir) throws IOException {
+    /**
+     * The config, the config repo and the database do not depend on each other, so they are backed up at the same time.
+     * Listeners are told about all the steps up front, from this thread.
+     */
+    private boolean backupConfigAndDbInParallel(ServerBackup backup, File destDir, List<BackupUpdateListener> backupUpdateListeners) throws Exception {
+        Optional<String> wrapperConfigDirPath = systemEnvironment.wrapperConfigDirPath();
+        Map<BackupProgressStatus, BackupStep> steps = new LinkedHashMap<>();
+        steps.put(BackupProgressStatus.BACKUP_CONFIG, () -> backupConfig(destDir));
+        wrapperConfigDirPath.ifPresent(dir -> steps.put(BackupProgressStatus.BACKUP_WRAPPER_CONFIG, () -> backupWrapperConfig(destDir, dir)));
+        steps.put(BackupProgressStatus.BACKUP_CONFIG_REPO, () -> backupConfigRepo(destDir));
+        steps.put(BackupProgressStatus.BACKUP_DATABASE, () -> databaseStrategy.backup(destDir));
+
+        if (wrapperConfigDirPath.isEmpty()) {
+            skippingWrapperConfig(backupUpdateListeners);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(steps.size(), runnable -> {
+            Thread thread = new Thread(runnable, "server-backup-step");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            steps.forEach((status, step) -> {
+                notifyUpdateToListeners(backupUpdateListeners, status);
+                running.add(executor.submit(() -> timed(backup, status, step)));
+            });
+            for (Future<?> step : running) {
+                step.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
+        return wrapperConfigDirPath.isPresent();
+    }
+
+    private Void timed(ServerBackup backup, BackupProgressStatus status, BackupStep step) throws Exception {
+        long start = System.nanoTime();
+        step.run();
+        long durationInMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        backup.recordStepDuration(status, durationInMillis);
+        LOGGER.debug("[Backup] {} took {}ms", status.getMessage(), durationInMillis);
+        return null;
+    }
+
+    private void backupConfigRepo(ServerBackup backup, File destDir, List<BackupUpdateListener> backupUpdateListeners) throws Exception {
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG_REPO);
+        timed(backup, BackupProgressStatus.BACKUP_CONFIG_REPO, () -> backupConfigRepo(destDir));
+    }
+
+    private void backupConfigRepo(File destDir) throws IOException {
         configRepository.doLocked(new VoidThrowingFn<IOException>() {
             @Override
             public void run() throws IOException {
                 File configRepoDir = systemEnvironment.getConfigRepoDir();
                 try (ZipOutputStream configRepoZipStream = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(destDir, CONFIG_REPOSITORY_BACKUP_ZIP))))) {
+                    // git compresses its objects already, deflating them again only costs time
+                    configRepoZipStream.setLevel(Deflater.NO_COMPRESSION);
                     new DirectoryStructureWalker(configRepoDir.getAbsolutePath(), configRepoZipStream).walk();
                 }
             }
@@ -296,25 +360,36 @@ public class BackupService implements BackupStatusProvider {
         Files.writeString(versionFile.toPath(), CurrentGoCDVersion.getInstance().formatted(), UTF_8);
     }
 
-    private boolean backupWrapperConfig(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
+    private boolean backupWrapperConfig(ServerBackup backup, File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws Exception {
         Optional<String> wrapperConfigDirPath = systemEnvironment.wrapperConfigDirPath();
 
         if (wrapperConfigDirPath.isEmpty()) {
-            notifyErrorToListeners(backupUpdateListeners, "Skipping wrapper config backups.");
-            LOGGER.warn("[Backup] Not backing up Wrapper Config dir as `WRAPPER_CONF_DIR` env variable not set.");
-
+            skippingWrapperConfig(backupUpdateListeners);
             return false;
         }
 
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_WRAPPER_CONFIG);
+        timed(backup, BackupProgressStatus.BACKUP_WRAPPER_CONFIG, () -> backupWrapperConfig(backupDir, wrapperConfigDirPath.get()));
+        return true;
+    }
+
+    private void skippingWrapperConfig(List<BackupUpdateListener> backupUpdateListeners) {
+        notifyErrorToListeners(backupUpdateListeners, "Skipping wrapper config backups.");
+        LOGGER.warn("[Backup] Not backing up Wrapper Config dir as `WRAPPER_CONF_DIR` env variable not set.");
+    }
+
+    private void backupWrapperConfig(File backupDir, String wrapperConfigDirPath) throws IOException {
         try (ZipOutputStream configZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(backupDir, WRAPPER_CONFIG_BACKUP_ZIP))))) {
-            new DirectoryStructureWalker(wrapperConfigDirPath.get(), configZip).walk();
+            new DirectoryStructureWalker(wrapperConfigDirPath, configZip).walk();
         }
-        return true;
     }
 
-    private void backupConfig(File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws IOException {
+    private void backupConfig(ServerBackup backup, File backupDir, List<BackupUpdateListener> backupUpdateListeners) throws Exception {
         notifyUpdateToListeners(backupUpdateListeners, BackupProgressStatus.BACKUP_CONFIG);
+        timed(backup, BackupProgressStatus.BACKUP_CONFIG, () -> backupConfig(backupDir));
+    }
+
+    private void backupConfig(File backupDir) throws IOException {
         String configDirectory = systemEnvironment.getConfigDir();
         try (ZipOutputStream configZip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(new File(backupDir, CONFIG_BACKUP_ZIP))))) {
             File cruiseConfigFile = new File(systemEnvironment.getCruiseConfigFile());
@@ -338,9 +413,9 @@ public class BackupService implements BackupStatusProvider {
         }
     }
 
-    private void backupDb(File backupDir, List<BackupUpdateListener> backupUpdateListener) {
+    private void backupDb(ServerBackup backup, File backupDir, List<BackupUpdateListener> backupUpdateListener) throws Exception {
         notifyUpdateToListeners(backupUpdateListener, BackupProgressStatus.BACKUP_DATABASE);
-        databaseStrategy.backup(backupDir);
+        timed(backup, BackupProgressStatus.BACKUP_DATABASE, () -> databaseStrategy.backup(backupDir));
     }
 
     public String backupLocation() {
@@ -384,6 +459,10 @@ public class BackupService implements BackupStatusProvider {
         File artifactsDir = artifactsDirHolder.getArtifactsDir();
         return FileUtils.byteCountToDisplaySize(artifactsDir.getUsableSpace());
     }
+
+    private interface BackupStep {
+        void run() throws Exception;
+    }
 }
 
 
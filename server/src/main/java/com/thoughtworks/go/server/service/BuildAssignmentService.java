@@ -15,10 +15,9 @@
  */
 package com.thoughtworks.go.server.service;
 
+import com.rits.cloning.Cloner;
 import com.thoughtworks.go.config.*;
 import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
-import com.thoughtworks.go.config.materials.PackageMaterial;
-import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
 import com.thoughtworks.go.domain.*;
 import com.thoughtworks.go.domain.builder.Builder;
 import com.thoughtworks.go.domain.exception.IllegalArtifactLocationException;
@@ -34,6 +33,7 @@ import com.thoughtworks.go.server.messaging.JobStatusMessage;
 import com.thoughtworks.go.server.messaging.JobStatusTopic;
 import com.thoughtworks.go.server.service.builders.BuilderFactory;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
+import com.thoughtworks.go.util.ClonerFactory;
 import com.thoughtworks.go.util.SystemEnvironment;
 import com.thoughtworks.go.util.command.EnvironmentVariableContext;
 import org.apache.commons.collections4.CollectionUtils;
@@ -80,6 +80,7 @@ public class BuildAssignmentService implements ConfigChangedListener {
     private SecretParamResolver secretParamResolver;
     private JobStatusTopic jobStatusTopic;
     private ConsoleService consoleService;
+    private final Cloner cloner = ClonerFactory.instance();
 
     @Autowired
     public BuildAssignmentService(GoConfigService goConfigService, JobInstanceService jobInstanceService,
@@ -172,6 +173,8 @@ public class BuildAssignmentService implements ConfigChangedListener {
             return new DeniedAgentWork(agent.getUuid());
         }
 
+        final JobPlan job;
+        final ClaimedJob claimedJob;
         synchronized (this) {
 //          check to ensure agent is not disabled after entering the synchronized block
             if (agent.isDisabled()) {
@@ -179,18 +182,22 @@ public class BuildAssignmentService implements ConfigChangedListener {
             }
             //check if agent already has assigned build, if so, reschedule it
             scheduleService.rescheduleAbandonedBuildIfNecessary(agent.getAgentIdentifier());
-            final JobPlan job = findMatchingJob(agent);
-            if (job != null) {
-                Work buildWork = createWork(agent, job);
-                AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(),
-                        job.getIdentifier().buildLocator());
-                agentService.building(agent.getUuid(), buildingInfo);
-                LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
-
-                return buildWork;
+            job = findMatchingJob(agent);
+            if (job == null) {
+                return NO_WORK;
             }
+            claimedJob = claimJob(agent, job);
         }
-        return NO_WORK;
+
+        // The job is assigned to this agent by now, so secrets (which may need slow calls to secrets plugins) are
+        // resolved without holding up work assignment for other agents
+        Work buildWork = claimedJob == null ? NO_WORK : createWork(agent, job, claimedJob);
+        AgentBuildingInfo buildingInfo = new AgentBuildingInfo(job.getIdentifier().buildLocatorForDisplay(),
+                job.getIdentifier().buildLocator());
+        agentService.building(agent.getUuid(), buildingInfo);
+        LOGGER.info("[Agent Assignment] Assigned job [{}] to agent [{}]", job.getIdentifier(), agent.getAgent().getAgentIdentifier());
+
+        return buildWork;
     }
 
     JobPlan findMatchingJob(AgentInstance agent) {
@@ -279,11 +286,9 @@ public class BuildAssignmentService implements ConfigChangedListener {
         }
     }
 
-    private Work createWork(final AgentInstance agent, final JobPlan job) {
+    private ClaimedJob claimJob(final AgentInstance agent, final JobPlan job) {
         try {
-            return (Work) transactionTemplate.transactionSurrounding(() -> {
-                final String agentUuid = agent.getUuid();
-
+            return (ClaimedJob) transactionTemplate.transactionSurrounding(() -> {
                 //TODO: Use fullPipeline and get the Stage from it?
                 final Pipeline pipeline;
                 try {
@@ -291,38 +296,45 @@ public class BuildAssignmentService implements ConfigChangedListener {
                 } catch (StaleMaterialsOnBuildCause e) {
                     // Detailed error msg is part of the exception object and it would be logged. Hence not adding msg while logging.
                     LOGGER.error("", e);
-                    return NO_WORK;
+                    return null;
                 }
 
                 List<Task> tasks = goConfigService.tasksForJob(pipeline.getName(), job.getIdentifier().getStageName(), job.getName());
                 final List<Builder> builders = builderFactory.buildersForTasks(pipeline, tasks, resolver);
 
                 return transactionTemplate.execute(status -> {
-                    if (scheduleService.updateAssignedInfo(agentUuid, job)) {
-                        return NO_WORK;
-                    }
-
-                    final EnvironmentVariableContext environmentVariableContext = buildEnvVarContext(job.getIdentifier().getPipelineName());
-
-                    // Agent may have a NULL "resources"
-                    if (CollectionUtils.isNotEmpty(agent.getResourceConfigs())) {
-                        // Users relying on this env. var. can test for its existence rather than checking for an empty string
-                        environmentVariableContext.setProperty(GO_AGENT_RESOURCES, agent.getResourceConfigs().getCommaSeparatedResourceNames(), false);
+                    if (scheduleService.updateAssignedInfo(agent.getUuid(), job)) {
+                        return null;
                     }
-                    // Reason to resolve them separately: the rules for pluggable scm material verifies `SCM` based rules
-                    // whereas the assignment considers `PipelineGroup` based rules
-                    resolveSecretsForMaterials(pipeline.getBuildCause().getMaterialRevisions());
-                    final ArtifactStores requiredArtifactStores = goConfigService.artifactStores().getArtifactStores(getArtifactStoreIdsRequiredByArtifactPlans(job.getArtifactPlans()));
-                    BuildAssignment buildAssignment = BuildAssignment.create(job, pipeline.getBuildCause(), builders, pipeline.defaultWorkingFolder(), environmentVariableContext, requiredArtifactStores);
-
-                    secretParamResolver.resolve(buildAssignment);
-
-                    return new BuildWork(buildAssignment, systemEnvironment.consoleLogCharset());
+                    return new ClaimedJob(pipeline, builders);
                 });
             });
         } catch (RecordNotFoundException e) {
             removeJobIfNotPresentInCruiseConfig(goConfigService.getCurrentConfig(), job);
             throw e;
+        }
+    }
+
+    private Work createWork(final AgentInstance agent, final JobPlan job, final ClaimedJob claimedJob) {
+        final Pipeline pipeline = claimedJob.pipeline();
+        try {
+            final String pipelineName = job.getIdentifier().getPipelineName();
+            // Resolved secrets are set on the environment config, so each assignment resolves them on its own copy of the
+            // shared config rather than racing other assignments that are no longer serialized
+            final EnvironmentConfig environmentForPipeline = cloner.deepClone(environmentConfigService.environmentForPipeline(pipelineName));
+            final BuildAssignment buildAssignment = secretParamResolver.resolve(environmentForPipeline, materials(pipeline.getBuildCause().getMaterialRevisions()), () -> {
+                final EnvironmentVariableContext environmentVariableContext = buildEnvVarContext(pipelineName, environmentForPipeline);
+
+                // Agent may have a NULL "resources"
+                if (CollectionUtils.isNotEmpty(agent.getResourceConfigs())) {
+                    // Users relying on this env. var. can test for its existence rather than checking for an empty string
+                    environmentVariableContext.setProperty(GO_AGENT_RESOURCES, agent.getResourceConfigs().getCommaSeparatedResourceNames(), false);
+                }
+                final ArtifactStores requiredArtifactStores = goConfigService.artifactStores().getArtifactStores(getArtifactStoreIdsRequiredByArtifactPlans(job.getArtifactPlans()));
+                return BuildAssignment.create(job, pipeline.getBuildCause(), claimedJob.builders(), pipeline.defaultWorkingFolder(), environmentVariableContext, requiredArtifactStores);
+            });
+
+            return new BuildWork(buildAssignment, systemEnvironment.consoleLogCharset());
         } catch (SecretResolutionFailureException e) {
             JobInstance instance = jobInstanceService.buildById(job.getJobId());
             logSecretsResolutionFailure(job.getIdentifier(), e);
@@ -335,24 +347,31 @@ public class BuildAssignmentService implements ConfigChangedListener {
             scheduleService.failJob(instance);
             jobStatusTopic.post(new JobStatusMessage(job.getIdentifier(), instance.getState(), agent.getUuid()));
             throw e;
+        } catch (RuntimeException e) {
+            // The assignment is committed already, so the job is taken back from the agent rather than left assigned
+            LOGGER.error("[Agent Assignment] Failed to create work for job [{}] on agent [{}], rescheduling it", job.getIdentifier(), agent.getUuid(), e);
+            if (e instanceof RecordNotFoundException) {
+                removeJobIfNotPresentInCruiseConfig(goConfigService.getCurrentConfig(), job);
+            }
+            scheduleService.rescheduleJob(jobInstanceService.buildById(job.getJobId()));
+            JobInstance instance = jobInstanceService.buildById(job.getJobId());
+            jobStatusTopic.post(new JobStatusMessage(job.getIdentifier(), instance.getState(), agent.getUuid()));
+            throw e;
         }
     }
 
     /*
      * This method will build the initial environment variable context as well as add the environment related variables.
-     * It will also resolve secrets, if any wrt environment config
+     * Secrets in the environment config are expected to have been resolved already.
      */
-    EnvironmentVariableContext buildEnvVarContext(String pipelineName) {
+    EnvironmentVariableContext buildEnvVarContext(String pipelineName, EnvironmentConfig environmentForPipeline) {
         String pipelineGroupName = goConfigService.findGroupNameByPipeline(new CaseInsensitiveString(pipelineName));
         EnvironmentVariableContext environmentVariableContext = new EnvironmentVariableContext(GO_PIPELINE_GROUP_NAME, pipelineGroupName);
 
-        EnvironmentConfig environmentForPipeline = environmentConfigService.environmentForPipeline(pipelineName);
         if (environmentForPipeline == null) {
             return environmentVariableContext;
         }
 
-        secretParamResolver.resolve(environmentForPipeline);
-
         environmentVariableContext.setProperty(GO_ENVIRONMENT_NAME, CaseInsensitiveString.str(environmentForPipeline.name()), false);
         environmentForPipeline.getVariables().forEach(variable -> environmentVariableContext.setProperty(variable.getName(), variable.valueForCommandline(), variable.isSecure() || variable.hasSecretParams()));
         return environmentVariableContext;
@@ -399,12 +418,12 @@ public class BuildAssignmentService implements ConfigChangedListener {
         return jobPlans;
     }
 
-    // This method will resolve secrets in all the pluggable scm materials if any
-    private void resolveSecretsForMaterials(MaterialRevisions materialRevisions) {
-        List<Material> materials = stream(materialRevisions.spliterator(), true)
+    private List<Material> materials(MaterialRevisions materialRevisions) {
+        return stream(materialRevisions.spliterator(), false)
                 .map(MaterialRevision::getMaterial)
-                .filter((material) -> material instanceof PluggableSCMMaterial || material instanceof PackageMaterial)
                 .collect(toList());
-        secretParamResolver.resolve(materials);
+    }
+
+    private record ClaimedJob(Pipeline pipeline, List<Builder> builders) {
     }
 }
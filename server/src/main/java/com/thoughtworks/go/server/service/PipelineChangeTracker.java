@@ -0,0 +1,158 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.domain.PipelineConfigVisitor;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
+import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
+import com.thoughtworks.go.server.materials.MaterialUpdateCompletedMessage;
+import com.thoughtworks.go.server.materials.MaterialUpdateCompletedTopic;
+import com.thoughtworks.go.server.materials.MaterialUpdateSuccessfulMessage;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.StageStatusMessage;
+import com.thoughtworks.go.server.messaging.StageStatusTopic;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Understands which pipelines could have become schedulable since they were last checked: those one of whose
+ * materials has new modifications, one of whose stages has completed, which have been locked, unlocked, paused or unpaused,
+ * or whose config has changed. Every pipeline is considered changed once every
+ * {@link SystemEnvironment#GO_SERVER_SCHEDULE_CHECK_SWEEP_INTERVAL_IN_SECONDS}, in case anything else made a difference.
+ */
+@Component
+public class PipelineChangeTracker implements PipelinePauseChangeListener, PipelineLockStatusChangeListener {
+    private final SystemEnvironment systemEnvironment;
+    private final Clock clock;
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+    private volatile Map<String, PipelineConfig> pipelineConfigs = Map.of();
+    private volatile Map<String, Set<String>> pipelinesByMaterialFingerprint = Map.of();
+    private volatile long lastSweepAt;
+
+    @Autowired
+    public PipelineChangeTracker(MaterialUpdateCompletedTopic materialUpdateCompletedTopic, StageStatusTopic stageStatusTopic,
+                                 PipelinePauseService pipelinePauseService, PipelineLockService pipelineLockService,
+                                 SystemEnvironment systemEnvironment, Clock clock) {
+        this.systemEnvironment = systemEnvironment;
+        this.clock = clock;
+        this.lastSweepAt = clock.currentTimeMillis();
+        materialUpdateCompletedTopic.addListener(new MaterialUpdatedListener());
+        stageStatusTopic.addListener(new StageCompletedListener());
+        pipelinePauseService.registerListener(this);
+        pipelineLockService.registerListener(this);
+    }
+
+    public boolean isEnabled() {
+        return systemEnvironment.get(SystemEnvironment.GO_SERVER_SCHEDULE_CHECK_CHANGED_PIPELINES_ONLY);
+    }
+
+    /**
+     * Returns true (once) if it is time to check every pipeline, changed or not.
+     */
+    public boolean isSweepDue() {
+        long now = clock.currentTimeMillis();
+        if (now - lastSweepAt < SECONDS.toMillis(systemEnvironment.get(SystemEnvironment.GO_SERVER_SCHEDULE_CHECK_SWEEP_INTERVAL_IN_SECONDS))) {
+            return false;
+        }
+        lastSweepAt = now;
+        return true;
+    }
+
+    /**
+     * Returns true if the pipeline has changed since this was last called for it.
+     */
+    public boolean hasChanged(String pipelineName) {
+        return changed.remove(key(pipelineName));
+    }
+
+    public synchronized void onConfigChange(CruiseConfig newCruiseConfig) {
+        Map<String, PipelineConfig> previous = pipelineConfigs;
+        Map<String, PipelineConfig> current = new HashMap<>();
+        newCruiseConfig.accept((PipelineConfigVisitor) pipelineConfig -> current.put(key(pipelineConfig.name()), pipelineConfig));
+        current.forEach((pipelineName, pipelineConfig) -> {
+            if (!pipelineConfig.equals(previous.get(pipelineName))) {
+                changed.add(pipelineName);
+            }
+        });
+        changed.retainAll(current.keySet());
+        updatePipelineConfigs(current);
+    }
+
+    public synchronized void onPipelineConfigChange(PipelineConfig pipelineConfig) {
+        Map<String, PipelineConfig> current = new HashMap<>(pipelineConfigs);
+        current.put(key(pipelineConfig.name()), pipelineConfig);
+        changed.add(key(pipelineConfig.name()));
+        updatePipelineConfigs(current);
+    }
+
+    @Override
+    public void pauseStatusChanged(PipelinePauseChangeListener.Event event) {
+        changed.add(key(event.pipelineName()));
+    }
+
+    @Override
+    public void lockStatusChanged(PipelineLockStatusChangeListener.Event event) {
+        changed.add(key(event.pipelineName()));
+    }
+
+    private void updatePipelineConfigs(Map<String, PipelineConfig> current) {
+        Map<String, Set<String>> byFingerprint = new HashMap<>();
+        current.forEach((pipelineName, pipelineConfig) -> {
+            for (MaterialConfig materialConfig : pipelineConfig.materialConfigs()) {
+                byFingerprint.computeIfAbsent(materialConfig.getFingerprint(), fingerprint -> new HashSet<>()).add(pipelineName);
+            }
+        });
+        pipelineConfigs = current;
+        pipelinesByMaterialFingerprint = byFingerprint;
+    }
+
+    private static String key(CaseInsensitiveString pipelineName) {
+        return key(CaseInsensitiveString.str(pipelineName));
+    }
+
+    private static String key(String pipelineName) {
+        return pipelineName.toLowerCase();
+    }
+
+    private class MaterialUpdatedListener implements GoMessageListener<MaterialUpdateCompletedMessage> {
+        @Override
+        public void onMessage(MaterialUpdateCompletedMessage message) {
+            if (message instanceof MaterialUpdateSuccessfulMessage successful && successful.foundNewModifications()) {
+                changed.addAll(pipelinesByMaterialFingerprint.getOrDefault(message.getMaterial().getFingerprint(), Set.of()));
+            }
+        }
+    }
+
+    private class StageCompletedListener implements GoMessageListener<StageStatusMessage> {
+        @Override
+        public void onMessage(StageStatusMessage message) {
+            if (message.isStageCompleted()) {
+                changed.add(key(message.getStageIdentifier().getPipelineName()));
+            }
+        }
+    }
+}
@@ -52,6 +52,7 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
     private ScheduleCheckQueue scheduleCheckQueue;
     private ScheduleCheckCompletedTopic scheduleCheckCompletedTopic;
     private SchedulingPerformanceLogger schedulingPerformanceLogger;
+    private PipelineChangeTracker pipelineChangeTracker;
     private final Map<String, ScheduleCheckState> pipelines = new HashMap<>();
 
     protected PipelineScheduler() {
@@ -64,7 +65,8 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
                       BuildCauseProducerService buildCauseProducerService,
                       ScheduleCheckQueue scheduleCheckQueue,
                       ScheduleCheckCompletedTopic scheduleCheckCompletedTopic,
-                      SchedulingPerformanceLogger schedulingPerformanceLogger) {
+                      SchedulingPerformanceLogger schedulingPerformanceLogger,
+                      PipelineChangeTracker pipelineChangeTracker) {
         this.goConfigService = goConfigService;
         this.serverHealthService = serverHealthService;
         this.schedulingChecker = schedulingChecker;
@@ -72,6 +74,7 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
         this.scheduleCheckQueue = scheduleCheckQueue;
         this.scheduleCheckCompletedTopic = scheduleCheckCompletedTopic;
         this.schedulingPerformanceLogger = schedulingPerformanceLogger;
+        this.pipelineChangeTracker = pipelineChangeTracker;
     }
 
     public void initialize() {
@@ -85,6 +88,7 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
         return new EntityConfigChangedListener<>() {
             @Override
             public void onEntityConfigChange(PipelineConfig pipelineConfig) {
+                pipelineChangeTracker.onPipelineConfigChange(pipelineConfig);
                 synchronized (pipelines) {
                     addPipelineIfNotPresent(pipelineConfig, pipelines);
                     if (!goConfigService.getAllPipelineConfigs().contains(pipelineConfig)) {
@@ -125,9 +129,15 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
     }
 
     void checkPipelines() {
+        boolean checkAll = !pipelineChangeTracker.isEnabled() || pipelineChangeTracker.isSweepDue();
         synchronized (pipelines) {
             for (Map.Entry<String, ScheduleCheckState> entry : pipelines.entrySet()) {
                 if (entry.getValue().equals(ScheduleCheckState.IDLE)) {
+                    if (!pipelineChangeTracker.hasChanged(entry.getKey()) && !checkAll) {
+                        LOGGER.trace("skipping scheduling pipeline {} because nothing it depends on has changed", entry.getKey());
+                        continue;
+                    }
+
                     long trackingId = schedulingPerformanceLogger.pipelineSentToScheduleCheckQueue(entry.getKey());
 
                     scheduleCheckQueue.post(new ScheduleCheckMessage(entry.getKey(), trackingId));
@@ -206,6 +216,7 @@ public class PipelineScheduler implements ConfigChangedListener, GoMessageListen
 
     @Override
     public void onConfigChange(CruiseConfig newCruiseConfig) {
+        pipelineChangeTracker.onConfigChange(newCruiseConfig);
         synchronized (pipelines) {
             newCruiseConfig.accept((PipelineConfigVisitor) pipelineConfig -> addPipelineIfNotPresent(pipelineConfig, pipelines));
 
@@ -0,0 +1,201 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.SecretConfig;
+import com.thoughtworks.go.plugin.domain.secrets.Secret;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Understands remembering secrets looked up from secrets plugins for a short while, so that a burst of jobs referring
+ * to the same secrets does not call out to the plugin for every one of them. Cached values are only ever held
+ * encrypted, with a key generated on startup that never leaves memory. Caching is off unless a TTL is configured,
+ * lookup statistics per secret config are kept either way.
+ */
+@Component
+public class SecretLookupCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecretLookupCache.class);
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH_IN_BYTES = 12;
+    private static final int TAG_LENGTH_IN_BITS = 128;
+
+    private final SystemEnvironment systemEnvironment;
+    private final Clock clock;
+    private final SecretKey encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LookupStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SecretLookupCache(SystemEnvironment systemEnvironment, Clock clock) {
+        this.systemEnvironment = systemEnvironment;
+        this.clock = clock;
+        this.encryptionKey = generateKey();
+    }
+
+    /**
+     * Returns the secrets for the given keys, asking the plugin (through {@code lookup}) only for the keys which are
+     * not cached.
+     */
+    public List<Secret> lookup(SecretConfig secretConfig, Set<String> keys, Function<Set<String>, List<Secret>> lookup) {
+        LookupStatistics lookupStatistics = statistics.computeIfAbsent(secretConfig.getId(), id -> new LookupStatistics());
+        long ttlInMillis = SECONDS.toMillis(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS));
+        if (ttlInMillis <= 0) {
+            entries.clear();
+            return timed(lookupStatistics, keys, lookup);
+        }
+
+        long now = clock.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.hasExpired(now));
+
+        List<Secret> secrets = new ArrayList<>();
+        Set<String> keysToLookup = new LinkedHashSet<>();
+        for (String key : keys) {
+            String value = cachedValue(new Key(secretConfig, key));
+            if (value == null) {
+                keysToLookup.add(key);
+            } else {
+                secrets.add(new Secret(key, value));
+            }
+        }
+        lookupStatistics.hits.add(keys.size() - keysToLookup.size());
+
+        if (!keysToLookup.isEmpty()) {
+            List<Secret> lookedUp = timed(lookupStatistics, keysToLookup, lookup);
+            long expiresAt = clock.currentTimeMillis() + ttlInMillis;
+            lookedUp.forEach(secret -> cache(new Key(secretConfig, secret.getKey()), secret.getValue(), expiresAt));
+            secrets.addAll(lookedUp);
+        }
+        return secrets;
+    }
+
+    public Map<String, Object> statistics() {
+        Map<String, Object> json = new LinkedHashMap<>();
+        new TreeMap<>(statistics).forEach((secretConfigId, lookupStatistics) -> json.put(secretConfigId, lookupStatistics.asJson()));
+        return json;
+    }
+
+    private List<Secret> timed(LookupStatistics lookupStatistics, Set<String> keys, Function<Set<String>, List<Secret>> lookup) {
+        long start = System.nanoTime();
+        try {
+            return lookup.apply(keys);
+        } finally {
+            lookupStatistics.recordLookup(keys.size(), System.nanoTime() - start);
+        }
+    }
+
+    private String cachedValue(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.hasExpired(clock.currentTimeMillis())) {
+            return null;
+        }
+
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_IN_BITS, entry.iv()));
+            return new String(cipher.doFinal(entry.encryptedValue()), UTF_8);
+        } catch (GeneralSecurityException e) {
+            LOGGER.warn("Unable to read cached secret '{}' of secret config '{}', it will be looked up again.", key.key(), key.secretConfig().getId(), e);
+            entries.remove(key);
+            return null;
+        }
+    }
+
+    private void cache(Key key, String value, long expiresAt) {
+        if (value == null) {
+            return;
+        }
+
+        try {
+            byte[] iv = new byte[IV_LENGTH_IN_BYTES];
+            random.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_IN_BITS, iv));
+            entries.put(key, new Entry(iv, cipher.doFinal(value.getBytes(UTF_8)), expiresAt));
+        } catch (GeneralSecurityException e) {
+            LOGGER.warn("Unable to cache secret '{}' of secret config '{}'.", key.key(), key.secretConfig().getId(), e);
+        }
+    }
+
+    private static SecretKey generateKey() {
+        try {
+            KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+            keyGenerator.init(256);
+            return keyGenerator.generateKey();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // The whole secret config is part of the key, so that changing it (e.g. pointing it to another vault) invalidates
+    // the secrets looked up using its previous version.
+    private record Key(SecretConfig secretConfig, String key) {
+    }
+
+    private record Entry(byte[] iv, byte[] encryptedValue, long expiresAt) {
+        boolean hasExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private static class LookupStatistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder lookups = new LongAdder();
+        private final LongAdder keysLookedUp = new LongAdder();
+        private final LongAdder totalLookupTimeInNanos = new LongAdder();
+        private final LongAccumulator maxLookupTimeInNanos = new LongAccumulator(Long::max, 0);
+
+        void recordLookup(int keys, long timeInNanos) {
+            lookups.increment();
+            keysLookedUp.add(keys);
+            totalLookupTimeInNanos.add(timeInNanos);
+            maxLookupTimeInNanos.accumulate(timeInNanos);
+        }
+
+        Map<String, Object> asJson() {
+            long lookupCount = lookups.sum();
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("CacheHits", hits.sum());
+            json.put("CacheMisses", keysLookedUp.sum());
+            json.put("PluginLookups", lookupCount);
+            json.put("AverageLookupTimeInMillis", lookupCount == 0 ? 0 : totalLookupTimeInNanos.sum() / lookupCount / 1_000_000);
+            json.put("MaxLookupTimeInMillis", maxLookupTimeInNanos.get() / 1_000_000);
+            return json;
+        }
+    }
+}
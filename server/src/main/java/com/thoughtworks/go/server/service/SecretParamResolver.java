@@ -33,10 +33,12 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -48,12 +50,14 @@ public class SecretParamResolver {
     private SecretsExtension secretsExtension;
     private GoConfigService goConfigService;
     private RulesService rulesService;
+    private SecretLookupCache secretLookupCache;
 
     @Autowired
-    public SecretParamResolver(SecretsExtension secretsExtension, GoConfigService goConfigService, RulesService rulesService) {
+    public SecretParamResolver(SecretsExtension secretsExtension, GoConfigService goConfigService, RulesService rulesService, SecretLookupCache secretLookupCache) {
         this.secretsExtension = secretsExtension;
         this.goConfigService = goConfigService;
         this.rulesService = rulesService;
+        this.secretLookupCache = secretLookupCache;
     }
 
     public void resolve(List<Material> materials) {
@@ -120,6 +124,41 @@ public class SecretParamResolver {
         }
     }
 
+    /**
+     * Resolves everything a build assignment needs. The secret params of the environment and of the pluggable SCM and
+     * package materials are looked up together before the assignment is created, since their values get copied into
+     * it. Only the params of the assignment that were not part of that lookup are looked up afterwards.
+     */
+    public BuildAssignment resolve(EnvironmentConfig environmentConfig, List<Material> materials, Supplier<BuildAssignment> buildAssignmentSupplier) {
+        SecretParams secretParams = new SecretParams();
+        if (environmentConfig != null && environmentConfig.hasSecretParams()) {
+            rulesService.validateSecretConfigReferences(environmentConfig);
+            secretParams.addAll(environmentConfig.getSecretParams());
+        }
+
+        // Reason to validate them separately: the rules for pluggable scm material verifies `SCM` based rules
+        // whereas the assignment considers `PipelineGroup` based rules
+        for (Material material : materials) {
+            if (material instanceof PluggableSCMMaterial pluggableSCMMaterial && pluggableSCMMaterial.hasSecretParams()) {
+                rulesService.validateSecretConfigReferences(pluggableSCMMaterial);
+                secretParams.addAll(pluggableSCMMaterial.getSecretParams());
+            } else if (material instanceof PackageMaterial packageMaterial && packageMaterial.hasSecretParams()) {
+                rulesService.validateSecretConfigReferences(packageMaterial);
+                secretParams.addAll(packageMaterial.getSecretParams());
+            }
+        }
+        resolve(secretParams);
+
+        BuildAssignment buildAssignment = buildAssignmentSupplier.get();
+        if (buildAssignment.hasSecretParams()) {
+            rulesService.validateSecretConfigReferences(buildAssignment);
+            resolve(unresolvedAfterReusing(secretParams, buildAssignment.getSecretParams()));
+        } else {
+            LOGGER.debug("No secret params available in build assignment {}.", buildAssignment.getJobIdentifier());
+        }
+        return buildAssignment;
+    }
+
     public void resolve(EnvironmentConfig environmentConfig) {
         if (environmentConfig.hasSecretParams()) {
             rulesService.validateSecretConfigReferences(environmentConfig);
@@ -178,13 +217,28 @@ public class SecretParamResolver {
         secretParams.groupBySecretConfigId().forEach(lookupAndUpdateSecretParamsValue());
     }
 
+    private SecretParams unresolvedAfterReusing(SecretParams resolved, SecretParams secretParams) {
+        Map<SecretParam, String> values = new HashMap<>();
+        resolved.stream().filter(secretParam -> !secretParam.isUnresolved()).forEach(secretParam -> values.put(secretParam, secretParam.getValue()));
+
+        SecretParams unresolved = new SecretParams();
+        for (SecretParam secretParam : secretParams) {
+            if (values.containsKey(secretParam)) {
+                secretParam.setValue(values.get(secretParam));
+            } else if (secretParam.isUnresolved()) {
+                unresolved.add(secretParam);
+            }
+        }
+        return unresolved;
+    }
+
     private BiConsumer<String, SecretParams> lookupAndUpdateSecretParamsValue() {
         return (secretConfigId, secretParamsToResolve) -> {
             Map<String, List<SecretParam>> secretParamMap = secretParamsToResolve.stream().collect(groupingBy(SecretParam::getKey, Collectors.toList()));
             final SecretConfig secretConfig = goConfigService.cruiseConfig().getSecretConfigs().find(secretConfigId);
 
             LOGGER.debug("Resolving secret params '{}' using secret config '{}'", secretParamMap.keySet(), secretConfig.getId());
-            List<Secret> resolvedSecrets = secretsExtension.lookupSecrets(secretConfig.getPluginId(), secretConfig, secretParamMap.keySet());
+            List<Secret> resolvedSecrets = secretLookupCache.lookup(secretConfig, secretParamMap.keySet(), keys -> secretsExtension.lookupSecrets(secretConfig.getPluginId(), secretConfig, keys));
             LOGGER.debug("Resolved secret size '{}'", resolvedSecrets.size());
 
             LOGGER.debug("Updating secret params '{}' with values.", secretParamMap.keySet());
@@ -239,12 +239,11 @@ public class StageService implements StageFinder {
 
     private DurationBean getDuration(String pipelineName, String stageName, JobInstance job) {
         if (job.isCompleted()) {
-            // Calculating duration is an expensive query; only do so when the stage is building.
+            // Expected duration is only of interest while the job is still building.
             return new DurationBean(job.getId(), 0L);
         }
 
-        Long duration = stageDao.getDurationOfLastSuccessfulOnAgent(pipelineName, stageName, job);
-        return new DurationBean(job.getId(), duration == null ? 0L : duration);
+        return new DurationBean(job.getId(), stageDao.getExpectedDuration(pipelineName, stageName, job).getSeconds());
     }
 
     public Stage mostRecentPassed(String pipelineName, String stageName) {
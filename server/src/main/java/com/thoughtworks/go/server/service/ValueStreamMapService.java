@@ -38,6 +38,7 @@ import com.thoughtworks.go.server.service.result.LocalizedOperationResult;
 import com.thoughtworks.go.server.valuestreammap.DownstreamInstancePopulator;
 import com.thoughtworks.go.server.valuestreammap.RunStagesPopulator;
 import com.thoughtworks.go.server.valuestreammap.UnrunStagesPopulator;
+import com.thoughtworks.go.server.valuestreammap.ValueStreamMapCache;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import org.slf4j.Logger;
@@ -60,11 +61,13 @@ public class ValueStreamMapService {
     private final RunStagesPopulator runStagesPopulator;
     private final UnrunStagesPopulator unrunStagePopulator;
     private final SecurityService securityService;
+    private final ValueStreamMapCache valueStreamMapCache;
     private static final Logger LOGGER = LoggerFactory.getLogger(ValueStreamMapService.class);
 
     @Autowired
     public ValueStreamMapService(PipelineService pipelineService, MaterialRepository materialRepository, GoConfigService goConfigService, DownstreamInstancePopulator downstreamInstancePopulator,
-                                 RunStagesPopulator runStagesPopulator, UnrunStagesPopulator unrunStagePopulator, SecurityService securityService) {
+                                 RunStagesPopulator runStagesPopulator, UnrunStagesPopulator unrunStagePopulator, SecurityService securityService,
+                                 ValueStreamMapCache valueStreamMapCache) {
         this.pipelineService = pipelineService;
         this.materialRepository = materialRepository;
         this.goConfigService = goConfigService;
@@ -72,6 +75,7 @@ public class ValueStreamMapService {
         this.runStagesPopulator = runStagesPopulator;
         this.unrunStagePopulator = unrunStagePopulator;
         this.securityService = securityService;
+        this.valueStreamMapCache = valueStreamMapCache;
     }
 
     public ValueStreamMapPresentationModel getValueStreamMap(CaseInsensitiveString pipelineName, int counter, Username username, LocalizedOperationResult result) {
@@ -80,11 +84,20 @@ public class ValueStreamMapService {
                 result.forbidden(LocalizedMessage.forbiddenToViewPipeline(pipelineName), HealthStateType.general(HealthStateScope.forPipeline(pipelineName.toString())));
                 return null;
             }
+            CruiseConfig cruiseConfig = goConfigService.currentCruiseConfig();
+            ValueStreamMapPresentationModel cached = valueStreamMapCache.get(pipelineName, counter, username, cruiseConfig);
+            if (cached != null) {
+                return cached;
+            }
+
+            long changesSoFar = valueStreamMapCache.changesSoFar();
             ValueStreamMap valueStreamMap = buildValueStreamMap(pipelineName, counter, username, result);
             if (valueStreamMap == null) {
                 return null;
             }
-            return valueStreamMap.presentationModel();
+            ValueStreamMapPresentationModel presentationModel = valueStreamMap.presentationModel();
+            valueStreamMapCache.put(pipelineName, counter, username, cruiseConfig, valueStreamMap, presentationModel, changesSoFar);
+            return presentationModel;
         } catch (Exception e) {
             result.internalServerError("Value Stream Map of pipeline '" + pipelineName + "' with counter '" + counter + "' can not be rendered. Please check the server log for details.");
             LOGGER.error("[Value Stream Map] Pipeline {} with counter {} could not be rendered.", pipelineName, counter, e);
@@ -98,6 +98,15 @@ public class DependencyFanInNode extends FanInNode {
         return revisionAlteration;
     }
 
+    @Override
+    void reset() {
+        totalInstanceCount = Integer.MAX_VALUE;
+        maxBackTrackLimit = Integer.MAX_VALUE;
+        currentCount = 0;
+        currentRevision = null;
+        stageIdentifierScmMaterial.clear();
+    }
+
     public void initialize(FanInGraphContext context) {
         totalInstanceCount = context.pipelineTimeline.instanceCount(((DependencyMaterialConfig) materialConfig).getPipelineName());
         maxBackTrackLimit = context.maxBackTrackLimit;
@@ -132,28 +141,38 @@ public class DependencyFanInNode extends FanInNode {
     }
 
     private Pair<StageIdentifier, List<FaninScmMaterial>> getRevisionNthFor(int n, FanInGraphContext context) {
-        List<FaninScmMaterial> scmMaterials = new ArrayList<>();
-        PipelineTimeline pipelineTimeline = context.pipelineTimeline;
-        Queue<PipelineTimelineEntry.Revision> revisionQueue = new ConcurrentLinkedQueue<>();
         DependencyMaterialConfig dependencyMaterial = (DependencyMaterialConfig) materialConfig;
-        PipelineTimelineEntry entry = pipelineTimeline.instanceFor(dependencyMaterial.getPipelineName(), totalInstanceCount - n);
-
-        Set<CaseInsensitiveString> visitedNodes = new HashSet<>();
+        PipelineTimelineEntry entry = context.pipelineTimeline.instanceFor(dependencyMaterial.getPipelineName(), totalInstanceCount - n);
 
         StageIdentifier dependentStageIdentifier = dependentStageIdentifier(context, entry, CaseInsensitiveString.str(dependencyMaterial.getStageName()));
-        if (!StageIdentifier.NULL.equals(dependentStageIdentifier)) {
-            addToRevisionQueue(entry, revisionQueue, scmMaterials, context, visitedNodes);
-        } else {
+        if (StageIdentifier.NULL.equals(dependentStageIdentifier)) {
             return null;
         }
+
+        List<FaninScmMaterial> scmMaterials = context.scmMaterialsByInstance.get(entry.getId());
+        if (scmMaterials == null) {
+            scmMaterials = scmMaterialsOf(entry, context);
+            context.scmMaterialsByInstance.put(entry.getId(), scmMaterials);
+        }
+        return new Pair<>(dependentStageIdentifier, scmMaterials);
+    }
+
+    // Only depends on the instance and the shape of the graph, neither of which change, so it is worked out once for
+    // every instance the graph looks at.
+    private List<FaninScmMaterial> scmMaterialsOf(PipelineTimelineEntry entry, FanInGraphContext context) {
+        List<FaninScmMaterial> scmMaterials = new ArrayList<>();
+        PipelineTimeline pipelineTimeline = context.pipelineTimeline;
+        Queue<PipelineTimelineEntry.Revision> revisionQueue = new ConcurrentLinkedQueue<>();
+        Set<CaseInsensitiveString> visitedNodes = new HashSet<>();
+
+        addToRevisionQueue(entry, revisionQueue, scmMaterials, context, visitedNodes);
         while (!revisionQueue.isEmpty()) {
             PipelineTimelineEntry.Revision revision = revisionQueue.poll();
             DependencyMaterialRevision dmr = DependencyMaterialRevision.create(revision.revision, null);
             PipelineTimelineEntry pte = pipelineTimeline.getEntryFor(new CaseInsensitiveString(dmr.getPipelineName()), dmr.getPipelineCounter());
             addToRevisionQueue(pte, revisionQueue, scmMaterials, context, visitedNodes);
         }
-
-        return new Pair<>(dependentStageIdentifier, scmMaterials);
+        return Collections.unmodifiableList(scmMaterials);
     }
 
     private boolean validateAllScmRevisionsAreSameWithinAFingerprint(Pair<StageIdentifier, List<FaninScmMaterial>> pIdScmPair) {
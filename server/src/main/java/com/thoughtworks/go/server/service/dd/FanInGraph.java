@@ -47,6 +47,7 @@ import static com.thoughtworks.go.server.service.dd.DependencyFanInNode.Revision
 
 public class FanInGraph {
     private static final int REVISION_BUFFER_SIZE = 5;
+    private static final int MAX_REMEMBERED_INSTANCES = 1000;
 
     private final PipelineDao pipelineDao;
     private final CruiseConfig cruiseConfig;
@@ -57,6 +58,12 @@ public class FanInGraph {
     private final Map<String, MaterialConfig> fingerprintScmMaterialMap = new HashMap<>();
     private final Map<String, DependencyMaterialConfig> fingerprintDepMaterialMap = new HashMap<>();
     private final Map<DependencyMaterialConfig, Set<String>> dependencyMaterialFingerprintMap = new HashMap<>();
+    private final Map<Long, List<FaninScmMaterial>> scmMaterialsByInstance = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<FaninScmMaterial>> eldest) {
+            return size() > MAX_REMEMBERED_INSTANCES;
+        }
+    };
 
     private final DependencyFanInNode root;
     private final CaseInsensitiveString pipelineName;
@@ -152,8 +159,13 @@ public class FanInGraph {
         return dependencyMaterialListMap;
     }
 
-    public MaterialRevisions computeRevisions(MaterialRevisions actualRevisions, PipelineTimeline pipelineTimeline) {
+    /**
+     * Can be called again (e.g. on a graph remembered by {@link FanInGraphCache}), in which case the upstream SCM
+     * revisions worked out for instances seen before are reused.
+     */
+    public synchronized MaterialRevisions computeRevisions(MaterialRevisions actualRevisions, PipelineTimeline pipelineTimeline) {
         assertAllDirectDependenciesArePresentInInput(actualRevisions, pipelineName);
+        nodes.values().forEach(FanInNode::reset);
 
         Pair<List<RootFanInNode>, List<DependencyFanInNode>> scmAndDepMaterialsChildren = getScmAndDepMaterialsChildren();
         List<RootFanInNode> scmChildren = scmAndDepMaterialsChildren.first();
@@ -346,6 +358,7 @@ public class FanInGraph {
         context.fingerprintDepMaterialMap = fingerprintDepMaterialMap;
         context.pipelineDao = pipelineDao;
         context.maxBackTrackLimit = systemEnvironment.get(SystemEnvironment.RESOLVE_FANIN_MAX_BACK_TRACK_LIMIT);
+        context.scmMaterialsByInstance = scmMaterialsByInstance;
         return context;
     }
 
@@ -0,0 +1,78 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Understands remembering the fan-in graphs of pipelines for as long as the config they were built from is current, so
+ * that every schedule check of a pipeline does not walk its upstream config again, and so that the upstream revisions
+ * each graph resolved for past instances are not looked up again. Holds at most
+ * {@link SystemEnvironment#GO_SERVER_FANIN_GRAPH_CACHE_SIZE} graphs, none unless configured.
+ */
+@Component
+public class FanInGraphCache {
+    private final SystemEnvironment systemEnvironment;
+    private final Map<String, Entry> graphs = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public FanInGraphCache(SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    public FanInGraph graphFor(CruiseConfig cruiseConfig, CaseInsensitiveString pipelineName, Supplier<FanInGraph> builder) {
+        int size = systemEnvironment.get(SystemEnvironment.GO_SERVER_FANIN_GRAPH_CACHE_SIZE);
+        if (size <= 0) {
+            clear();
+            return builder.get();
+        }
+
+        String key = pipelineName.toLower();
+        synchronized (this) {
+            Entry entry = graphs.get(key);
+            if (entry != null && entry.cruiseConfig() == cruiseConfig) {
+                return entry.graph();
+            }
+        }
+
+        FanInGraph graph = builder.get();
+        synchronized (this) {
+            graphs.put(key, new Entry(cruiseConfig, graph));
+            Iterator<Entry> leastRecentlyUsed = graphs.values().iterator();
+            while (graphs.size() > size) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        }
+        return graph;
+    }
+
+    private synchronized void clear() {
+        graphs.clear();
+    }
+
+    private record Entry(CruiseConfig cruiseConfig, FanInGraph graph) {
+    }
+}
@@ -20,6 +20,7 @@ import com.thoughtworks.go.domain.materials.MaterialConfig;
 import com.thoughtworks.go.server.dao.PipelineDao;
 import com.thoughtworks.go.server.domain.PipelineTimeline;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -31,4 +32,5 @@ public class FanInGraphContext {
     public Map<String, DependencyMaterialConfig> fingerprintDepMaterialMap;
     public PipelineDao pipelineDao;
     public int maxBackTrackLimit;
+    Map<Long, List<FaninScmMaterial>> scmMaterialsByInstance;
 }
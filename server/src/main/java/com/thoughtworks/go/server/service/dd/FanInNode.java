@@ -28,6 +28,11 @@ public abstract class FanInNode {
         this.materialConfig = materialConfig;
     }
 
+    /**
+     * Forgets whatever was worked out while computing revisions, so that the graph can be used to compute them again.
+     */
+    abstract void reset();
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -27,6 +27,11 @@ public class RootFanInNode extends FanInNode {
         super(material);
     }
 
+    @Override
+    void reset() {
+        scmRevision = null;
+    }
+
     public void setScmRevision(Set<FaninScmMaterial> allScmMaterials) {
         for (FaninScmMaterial scmMaterial : allScmMaterials) {
             if (materialConfig.getFingerprint().equals(scmMaterial.fingerprint)) {
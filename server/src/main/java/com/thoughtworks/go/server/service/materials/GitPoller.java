@@ -19,11 +19,23 @@ import com.thoughtworks.go.config.materials.SubprocessExecutionContext;
 import com.thoughtworks.go.config.materials.git.GitMaterial;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.Revision;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.SystemTimeClock;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 public class GitPoller implements MaterialPoller<GitMaterial> {
+    private final GitRemoteRefProbe remoteRefProbe;
+
+    public GitPoller() {
+        this(new GitRemoteRefProbe(new SystemEnvironment(), new SystemTimeClock()));
+    }
+
+    GitPoller(GitRemoteRefProbe remoteRefProbe) {
+        this.remoteRefProbe = remoteRefProbe;
+    }
 
     @Override
     public List<Modification> latestModification(GitMaterial material, File baseDir, SubprocessExecutionContext execCtx) {
@@ -32,6 +44,9 @@ public class GitPoller implements MaterialPoller<GitMaterial> {
 
     @Override
     public List<Modification> modificationsSince(GitMaterial material, File baseDir, Revision revision, SubprocessExecutionContext execCtx) {
+        if (remoteRefProbe.isUnchangedSince(material, revision)) {
+            return new ArrayList<>();
+        }
         return toggleShallowCloneFeature(material, execCtx).modificationsSince(baseDir, revision, execCtx);
     }
 
@@ -0,0 +1,95 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.materials;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.materials.Revision;
+import com.thoughtworks.go.util.Clock;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Understands telling whether the branch of a git material has moved, by looking at the refs of its remote repository
+ * instead of fetching into the working copy. The refs of a remote are listed once (with {@code git ls-remote}) for all
+ * materials using it, and reused for a few seconds, so that a burst of updates for materials tracking different
+ * branches of the same repository only asks the remote once.
+ */
+public class GitRemoteRefProbe {
+    private static final Logger LOG = LoggerFactory.getLogger(GitRemoteRefProbe.class);
+
+    private final SystemEnvironment systemEnvironment;
+    private final Clock clock;
+    private final ConcurrentMap<String, RemoteRefs> refsByUrl = new ConcurrentHashMap<>();
+
+    public GitRemoteRefProbe(SystemEnvironment systemEnvironment, Clock clock) {
+        this.systemEnvironment = systemEnvironment;
+        this.clock = clock;
+    }
+
+    /**
+     * @return true only if the probe is enabled and the remote branch is known to still point to {@code revision}; when
+     * in doubt (e.g. the remote could not be listed, or the material uses a refspec which is not a single ref), false.
+     */
+    public boolean isUnchangedSince(GitMaterial material, Revision revision) {
+        if (!systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_REF_PROBE_ENABLED) || material.getSubmoduleFolder() != null) {
+            return false;
+        }
+
+        try {
+            String remoteRevision = refsOf(material.urlForCommandLine(), material::remoteRefs).get(material.fullUpstreamRef());
+            return revision.getRevision().equals(remoteRevision);
+        } catch (Exception e) {
+            LOG.debug("[Material Update] Unable to list remote refs of {}, fetching instead.", material.getUriForDisplay(), e);
+            return false;
+        }
+    }
+
+    private Map<String, String> refsOf(String url, Supplier<Map<String, String>> lister) {
+        long now = clock.currentTimeMillis();
+        long expiresAt = now + SECONDS.toMillis(systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_REF_PROBE_TTL_IN_SECONDS));
+        refsByUrl.values().removeIf(refs -> refs.hasExpired(now));
+        return refsByUrl.computeIfAbsent(url, u -> new RemoteRefs(expiresAt)).get(lister);
+    }
+
+    private static class RemoteRefs {
+        private final long expiresAt;
+        private Map<String, String> refs;
+
+        RemoteRefs(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean hasExpired(long now) {
+            return expiresAt <= now;
+        }
+
+        // Listing is done outside the map, so that listing a slow remote does not hold up materials using other remotes
+        synchronized Map<String, String> get(Supplier<Map<String, String>> lister) {
+            if (refs == null) {
+                refs = lister.get();
+            }
+            return refs;
+        }
+    }
+}
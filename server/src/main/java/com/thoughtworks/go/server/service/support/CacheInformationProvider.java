@@ -15,6 +15,8 @@
  */
 package com.thoughtworks.go.server.service.support;
 
+import com.thoughtworks.go.server.cache.CacheRegion;
+import com.thoughtworks.go.server.cache.GoCache;
 import net.sf.ehcache.Cache;
 import net.sf.ehcache.CacheManager;
 import net.sf.ehcache.config.CacheConfiguration;
@@ -28,9 +30,11 @@ import java.util.Map;
 
 @Component
 public class CacheInformationProvider implements ServerInfoProvider {
+    private final GoCache goCache;
 
     @Autowired
-    public CacheInformationProvider() {
+    public CacheInformationProvider(GoCache goCache) {
+        this.goCache = goCache;
     }
 
     @Override
@@ -56,6 +60,12 @@ public class CacheInformationProvider implements ServerInfoProvider {
             }
         }
 
+        LinkedHashMap<String, Object> regionsJson = new LinkedHashMap<>();
+        for (CacheRegion<?, ?> region : goCache.regions()) {
+            regionsJson.put(region.name(), region.statistics());
+        }
+        json.put("Cache regions", regionsJson);
+
         return json;
     }
 
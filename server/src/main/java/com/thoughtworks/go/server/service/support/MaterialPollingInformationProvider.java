@@ -0,0 +1,57 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.materials.MaterialPollingScheduler;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class MaterialPollingInformationProvider implements ServerInfoProvider {
+    private final MaterialPollingScheduler materialPollingScheduler;
+    private final SystemEnvironment systemEnvironment;
+
+    @Autowired
+    public MaterialPollingInformationProvider(MaterialPollingScheduler materialPollingScheduler, SystemEnvironment systemEnvironment) {
+        this.materialPollingScheduler = materialPollingScheduler;
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    @Override
+    public double priority() {
+        return 12.7;
+    }
+
+    @Override
+    public Map<String, Object> asJson() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Adaptive polling enabled", materialPollingScheduler.isEnabled());
+        json.put("Minimum interval in seconds", systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MIN_INTERVAL_IN_SECONDS));
+        json.put("Maximum interval in seconds", systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_INTERVAL_IN_SECONDS));
+        json.put("Maximum queued polls", systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_QUEUED));
+        json.put("Materials", materialPollingScheduler.statistics());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Material Polling";
+    }
+}
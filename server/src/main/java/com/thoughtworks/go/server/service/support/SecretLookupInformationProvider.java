@@ -0,0 +1,54 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.support;
+
+import com.thoughtworks.go.server.service.SecretLookupCache;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class SecretLookupInformationProvider implements ServerInfoProvider {
+    private final SecretLookupCache secretLookupCache;
+    private final SystemEnvironment systemEnvironment;
+
+    @Autowired
+    public SecretLookupInformationProvider(SecretLookupCache secretLookupCache, SystemEnvironment systemEnvironment) {
+        this.secretLookupCache = secretLookupCache;
+        this.systemEnvironment = systemEnvironment;
+    }
+
+    @Override
+    public double priority() {
+        return 12.6;
+    }
+
+    @Override
+    public Map<String, Object> asJson() {
+        LinkedHashMap<String, Object> json = new LinkedHashMap<>();
+        json.put("Cache TTL in seconds", systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS));
+        json.put("Lookups by secret config", secretLookupCache.statistics());
+        return json;
+    }
+
+    @Override
+    public String name() {
+        return "Secrets Lookup";
+    }
+}
@@ -25,10 +25,13 @@ import com.thoughtworks.go.server.dao.PipelineDao;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
+/**
+ * Understands adding the instances of downstream pipelines which were triggered off the revisions already in a value
+ * stream map. The graph is walked a level at a time, looking up the instances triggered off all new revisions of a
+ * node together, rather than one revision at a time.
+ */
 @Component
 public class DownstreamInstancePopulator {
     private PipelineDao pipelineDao;
@@ -41,7 +44,7 @@ public class DownstreamInstancePopulator {
 	public void apply(ValueStreamMap valueStreamMap) {
 		if (valueStreamMap.getCurrentPipeline() != null) {
 			Node currentPipeline = valueStreamMap.getCurrentPipeline();
-			populateRevisionsForAllChildrenOf(currentPipeline, new HashSet<>());
+			populateRevisionsForAllDescendantsOf(List.of(currentPipeline), new HashSet<>());
 		} else {
 			Node currentMaterial = valueStreamMap.getCurrentMaterial();
 			MaterialInstance currentMaterialInstance = valueStreamMap.getCurrentMaterialInstance();
@@ -55,21 +58,34 @@ public class DownstreamInstancePopulator {
 		for (Node downstreamPipeline : downstreamPipelines) {
 			List<PipelineIdentifier> pipelineIdentifiers = pipelineDao.getPipelineInstancesTriggeredWithDependencyMaterial(downstreamPipeline.getName(), currentMaterialInstance, revision);
 			addRevisionsToNode(downstreamPipeline, pipelineIdentifiers);
-			populateRevisionsForAllChildrenOf(downstreamPipeline, visitedRevisions);
 		}
+		populateRevisionsForAllDescendantsOf(downstreamPipelines, visitedRevisions);
 	}
 
-    private void populateRevisionsForAllChildrenOf(Node node, Set<Revision> visitedRevisions) {
-        for (Revision revision : node.revisions()) {
-            if (visitedRevisions.contains(revision)) {
-                continue;
-            }
-            visitedRevisions.add(revision);
-            for (Node child : node.getChildren()) {
-                List<PipelineIdentifier> pipelineIdentifiers = pipelineDao.getPipelineInstancesTriggeredWithDependencyMaterial(child.getName(), ((PipelineRevision) revision).getPipelineIdentifier());
-				addRevisionsToNode(child, pipelineIdentifiers);
-                populateRevisionsForAllChildrenOf(child, visitedRevisions);
+    private void populateRevisionsForAllDescendantsOf(List<Node> nodes, Set<Revision> visitedRevisions) {
+        Collection<Node> level = nodes;
+        while (!level.isEmpty()) {
+            Set<Node> nextLevel = new LinkedHashSet<>();
+            for (Node node : level) {
+                List<PipelineIdentifier> newRevisions = new ArrayList<>();
+                for (Revision revision : node.revisions()) {
+                    if (visitedRevisions.add(revision)) {
+                        newRevisions.add(((PipelineRevision) revision).getPipelineIdentifier());
+                    }
+                }
+                if (newRevisions.isEmpty()) {
+                    continue;
+                }
+
+                for (Node child : node.getChildren()) {
+                    Map<PipelineIdentifier, List<PipelineIdentifier>> triggered = pipelineDao.getPipelineInstancesTriggeredWithDependencyMaterial(child.getName(), newRevisions);
+                    for (PipelineIdentifier revision : newRevisions) {
+                        addRevisionsToNode(child, triggered.getOrDefault(revision, List.of()));
+                    }
+                    nextLevel.add(child);
+                }
             }
+            level = nextLevel;
         }
     }
 
@@ -0,0 +1,123 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.valuestreammap;
+
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.valuestreammap.Node;
+import com.thoughtworks.go.domain.valuestreammap.PipelineDependencyNode;
+import com.thoughtworks.go.domain.valuestreammap.ValueStreamMap;
+import com.thoughtworks.go.server.domain.StageStatusListener;
+import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.presentation.models.ValueStreamMapPresentationModel;
+import com.thoughtworks.go.server.service.StageService;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Understands remembering the value stream maps of pipeline instances, as seen by a user, until a stage of any of the
+ * pipelines in them changes (which includes new downstream instances being scheduled) or the config changes. Holds at
+ * most {@link SystemEnvironment#GO_SERVER_VALUE_STREAM_MAP_CACHE_SIZE} value stream maps, none unless configured.
+ */
+@Component
+public class ValueStreamMapCache implements StageStatusListener {
+    private final SystemEnvironment systemEnvironment;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<String, Long> lastChanged = new ConcurrentHashMap<>();
+    private final AtomicLong changes = new AtomicLong();
+
+    @Autowired
+    public ValueStreamMapCache(StageService stageService, SystemEnvironment systemEnvironment) {
+        this.systemEnvironment = systemEnvironment;
+        stageService.addStageStatusListener(this);
+    }
+
+    /**
+     * Returns a marker to pass to {@link #put}, to be taken before building a value stream map.
+     */
+    public long changesSoFar() {
+        return changes.get();
+    }
+
+    public synchronized ValueStreamMapPresentationModel get(CaseInsensitiveString pipelineName, int counter, Username username, CruiseConfig cruiseConfig) {
+        Key key = new Key(pipelineName, counter, username);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.cruiseConfig() != cruiseConfig) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.presentationModel();
+    }
+
+    /**
+     * Remembers the value stream map, unless any of the pipelines in it has changed since {@code changesSoFar} was
+     * taken, which would mean it could be out of date already.
+     */
+    public synchronized void put(CaseInsensitiveString pipelineName, int counter, Username username, CruiseConfig cruiseConfig,
+                                 ValueStreamMap valueStreamMap, ValueStreamMapPresentationModel presentationModel, long changesSoFar) {
+        int size = systemEnvironment.get(SystemEnvironment.GO_SERVER_VALUE_STREAM_MAP_CACHE_SIZE);
+        if (size <= 0) {
+            entries.clear();
+            return;
+        }
+
+        Set<String> pipelineNames = new HashSet<>();
+        for (Node node : valueStreamMap.allNodes()) {
+            if (node instanceof PipelineDependencyNode) {
+                String name = node.getName().toLowerCase();
+                if (lastChanged.getOrDefault(name, 0L) > changesSoFar) {
+                    return;
+                }
+                pipelineNames.add(name);
+            }
+        }
+
+        entries.put(new Key(pipelineName, counter, username), new Entry(cruiseConfig, presentationModel, pipelineNames));
+        Iterator<Entry> leastRecentlyUsed = entries.values().iterator();
+        while (entries.size() > size) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    @Override
+    public void stageStatusChanged(Stage stage) {
+        String pipelineName = stage.getIdentifier().getPipelineName().toLowerCase();
+        lastChanged.put(pipelineName, changes.incrementAndGet());
+        synchronized (this) {
+            entries.values().removeIf(entry -> entry.pipelineNames().contains(pipelineName));
+        }
+    }
+
+    private record Key(String pipelineName, int counter, String username) {
+        Key(CaseInsensitiveString pipelineName, int counter, Username username) {
+            this(pipelineName.toLower(), counter, CaseInsensitiveString.str(username.getUsername()).toLowerCase());
+        }
+    }
+
+    private record Entry(CruiseConfig cruiseConfig, ValueStreamMapPresentationModel presentationModel, Set<String> pipelineNames) {
+    }
+}
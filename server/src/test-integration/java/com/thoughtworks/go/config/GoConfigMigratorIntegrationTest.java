@@ -70,6 +70,7 @@ import static com.thoughtworks.go.util.GoConstants.CONFIG_SCHEMA_VERSION;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Mockito.mock;
 
 @ExtendWith(ResetCipher.class)
 @ExtendWith(SpringExtension.class)
@@ -119,7 +120,7 @@ public class GoConfigMigratorIntegrationTest {
         resetCipher.setupAESCipherFile();
         exceptions = new ArrayList<>();
         MagicalGoConfigXmlLoader xmlLoader = new MagicalGoConfigXmlLoader(configCache, registry);
-        goConfigMigrator = new GoConfigMigrator(goConfigMigration, systemEnvironment, fullConfigSaveNormalFlow, xmlLoader, new GoConfigFileReader(systemEnvironment), configRepository, serverHealthService, e -> exceptions.add(e));
+        goConfigMigrator = new GoConfigMigrator(goConfigMigration, systemEnvironment, fullConfigSaveNormalFlow, xmlLoader, new GoConfigFileReader(systemEnvironment), configRepository, serverHealthService, mock(ValidatedConfigSnapshot.class), e -> exceptions.add(e));
     }
 
     @AfterEach
@@ -164,6 +164,7 @@ public class DatabaseAccessHelper extends HibernateDaoSupport {
     public void onTearDown() throws Exception {
         databaseTester.onTearDown();
         goCache.clear();
+        ((StageSqlMapDao) stageDao).clearJobDurationStatistics();
     }
 
     public TransactionTemplate txTemplate() {
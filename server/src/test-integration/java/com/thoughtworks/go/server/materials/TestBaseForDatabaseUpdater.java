@@ -20,11 +20,13 @@ import com.thoughtworks.go.domain.materials.Material;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.helper.TestRepo;
 import com.thoughtworks.go.server.dao.DatabaseAccessHelper;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -61,6 +63,7 @@ public abstract class TestBaseForDatabaseUpdater {
     @Autowired private ScmMaterialUpdater scmMaterialUpdater;
     @Autowired private MaterialExpansionService materialExpansionService;
     @Autowired private GoConfigService goConfigService;
+    @Autowired private MDUPerformanceLogger mduPerformanceLogger;
 
     protected MaterialDatabaseUpdater updater;
     protected Material material;
@@ -68,7 +71,7 @@ public abstract class TestBaseForDatabaseUpdater {
     @BeforeEach
     public void setUp(@TempDir Path tempDir) throws Exception {
         dbHelper.onSetUp();
-        updater = new MaterialDatabaseUpdater(materialRepository, serverHealthService, transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater, null, null, materialExpansionService, goConfigService);
+        updater = new MaterialDatabaseUpdater(materialRepository, serverHealthService, transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater, null, null, materialExpansionService, goConfigService, mduPerformanceLogger, new SystemEnvironment());
         testRepo = repo(tempDir);
         material = material();
         testRepo.onSetup();
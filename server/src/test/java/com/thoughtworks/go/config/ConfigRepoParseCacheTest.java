@@ -0,0 +1,110 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.plugin.configrepo.contract.CRConfigurationProperty;
+import com.thoughtworks.go.plugin.configrepo.contract.CRParseResult;
+import com.thoughtworks.go.plugin.configrepo.contract.ErrorCollection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConfigRepoParseCacheTest {
+    private final ConfigRepoParseCache cache = new ConfigRepoParseCache();
+    private final List<CRParseResult> parses = new ArrayList<>();
+    private final Supplier<CRParseResult> parser = () -> {
+        CRParseResult parseResult = new CRParseResult(new ArrayList<>(), new ArrayList<>(), new ErrorCollection());
+        parses.add(parseResult);
+        return parseResult;
+    };
+
+    @TempDir
+    Path checkout;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(checkout.resolve("pipeline.gocd.yaml"), "pipelines: {}", UTF_8);
+        Files.writeString(checkout.resolve("Main.java"), "class Main {}", UTF_8);
+    }
+
+    @Test
+    void shouldNotParseAgainWhenNoneOfTheConfigFilesHaveChanged() throws IOException {
+        CRParseResult first = parse(List.of());
+        Files.writeString(checkout.resolve("Main.java"), "class Main { }", UTF_8);
+        CRParseResult second = parse(List.of());
+
+        assertThat(second).isSameAs(first);
+        assertThat(parses).hasSize(1);
+    }
+
+    @Test
+    void shouldParseAgainWhenAConfigFileHasChanged() throws IOException {
+        parse(List.of());
+        Files.writeString(checkout.resolve("pipeline.gocd.yaml"), "pipelines: {build: {}}", UTF_8);
+        parse(List.of());
+
+        assertThat(parses).hasSize(2);
+    }
+
+    @Test
+    void shouldParseAgainWhenTheConfigurationOfTheConfigRepoHasChanged() {
+        parse(List.of());
+        parse(List.of(new CRConfigurationProperty("file_pattern", "*.yaml")));
+
+        assertThat(parses).hasSize(2);
+    }
+
+    @Test
+    void shouldNotRememberResultsWithErrors() {
+        Supplier<CRParseResult> failingParser = () -> {
+            ErrorCollection errors = new ErrorCollection();
+            errors.addError("pipeline.gocd.yaml", "Invalid");
+            CRParseResult parseResult = new CRParseResult(new ArrayList<>(), new ArrayList<>(), errors);
+            parses.add(parseResult);
+            return parseResult;
+        };
+
+        cache.parse("fingerprint", "yaml.config.plugin", List.of(), checkout.toFile(), List.of("pipeline.gocd.yaml"), failingParser);
+        cache.parse("fingerprint", "yaml.config.plugin", List.of(), checkout.toFile(), List.of("pipeline.gocd.yaml"), failingParser);
+
+        assertThat(parses).hasSize(2);
+    }
+
+    @Test
+    void shouldParseAgainOnceForgotten() {
+        parse(List.of());
+        cache.removeIf("fingerprint"::equals);
+        parse(List.of());
+
+        assertThat(parses).hasSize(2);
+    }
+
+    private CRParseResult parse(List<CRConfigurationProperty> configurations) {
+        File directory = checkout.toFile();
+        return cache.parse("fingerprint", "yaml.config.plugin", configurations, directory, List.of("pipeline.gocd.yaml"), parser);
+    }
+}
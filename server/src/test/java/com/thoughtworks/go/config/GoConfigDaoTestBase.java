@@ -22,6 +22,7 @@ import com.thoughtworks.go.config.update.ConfigUpdateCheckFailedException;
 import com.thoughtworks.go.helper.ConfigFileFixture;
 import com.thoughtworks.go.helper.PipelineMother;
 import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import com.thoughtworks.go.util.GoConfigFileHelper;
 import com.thoughtworks.go.util.ReflectionUtil;
 import org.junit.jupiter.api.Test;
@@ -344,7 +345,7 @@ public abstract class GoConfigDaoTestBase {
         CachedGoConfig cachedConfigService = mock(CachedGoConfig.class);
         CruiseConfig cruiseConfig = mock(CruiseConfig.class);
         when(cachedConfigService.currentConfig()).thenReturn(cruiseConfig);
-        goConfigDao = new GoConfigDao(cachedConfigService);
+        goConfigDao = new GoConfigDao(cachedConfigService, new MetricsRegistry());
         EntityConfigUpdateCommand<?> command = mock(EntityConfigUpdateCommand.class);
         when(command.canContinue(cruiseConfig)).thenReturn(false);
         try {
@@ -365,7 +366,7 @@ public abstract class GoConfigDaoTestBase {
         EntityConfigUpdateCommand<?> saveCommand = mock(EntityConfigUpdateCommand.class);
         when(saveCommand.isValid(cruiseConfig)).thenReturn(true);
         when(saveCommand.canContinue(cruiseConfig)).thenReturn(true);
-        goConfigDao = new GoConfigDao(cachedConfigService);
+        goConfigDao = new GoConfigDao(cachedConfigService, new MetricsRegistry());
         Username currentUser = new Username(new CaseInsensitiveString("user"));
         goConfigDao.updateConfig(saveCommand, currentUser);
 
@@ -44,13 +44,14 @@ public class GoConfigMigratorTest {
     @Mock GoConfigFileReader reader;
     @Mock ConfigRepository configRepository;
     @Mock ServerHealthService serverHealthService;
+    @Mock ValidatedConfigSnapshot validatedConfigSnapshot;
 
     private GoConfigMigrator goConfigMigrator;
 
     @BeforeEach
     public void setup() {
         goConfigMigrator = new GoConfigMigrator(goConfigMigration, systemEnvironment, fullConfigSaveNormalFlow, loader,
-                reader, configRepository, serverHealthService, null);
+                reader, configRepository, serverHealthService, validatedConfigSnapshot, null);
     }
 
     @Test
@@ -112,6 +113,41 @@ public class GoConfigMigratorTest {
         verify(goConfigMigration).revertFileToVersion(any(File.class), any(GoConfigRevision.class));
     }
 
+    @Test
+    public void shouldLoadPreviouslyValidatedConfigWithoutUpgradingOrValidatingIt() throws Exception {
+        String configXml = "cruise_config_xml_contents";
+        GoConfigHolder goConfigHolder = mock(GoConfigHolder.class);
+
+        when(reader.configXml()).thenReturn(configXml);
+        when(validatedConfigSnapshot.hasValidated(configXml)).thenReturn(true);
+        when(loader.loadValidatedConfigHolder(configXml)).thenReturn(goConfigHolder);
+
+        GoConfigHolder configHolder = goConfigMigrator.migrate();
+
+        assertThat(configHolder).isEqualTo(goConfigHolder);
+        verifyNoInteractions(goConfigMigration, fullConfigSaveNormalFlow);
+    }
+
+    @Test
+    public void shouldFallBackToUpgradeAndRememberTheValidatedConfigIfLoadingPreviouslyValidatedConfigFails() throws Exception {
+        String configXml = "cruise_config_xml_contents";
+        CruiseConfig cruiseConfig = mock(CruiseConfig.class);
+        GoConfigHolder goConfigHolder = mock(GoConfigHolder.class);
+
+        when(reader.configXml()).thenReturn(configXml);
+        when(validatedConfigSnapshot.hasValidated(configXml)).thenReturn(true);
+        when(loader.loadValidatedConfigHolder(configXml)).thenThrow(new RuntimeException("boom"));
+        when(goConfigMigration.upgradeIfNecessary(configXml)).thenReturn(configXml);
+        when(loader.deserializeConfig(configXml)).thenReturn(cruiseConfig);
+        when(fullConfigSaveNormalFlow.execute(any(FullConfigUpdateCommand.class), anyList(), eq("Upgrade"))).thenReturn(goConfigHolder);
+
+        GoConfigHolder configHolder = goConfigMigrator.migrate();
+
+        assertThat(configHolder).isEqualTo(goConfigHolder);
+        verify(validatedConfigSnapshot).forget();
+        verify(validatedConfigSnapshot).remember(goConfigHolder);
+    }
+
 
 //    TODO: Test shouldErrorOutIfConfigFileUpgradeFailsAndInAbsenceOfVersionedConfigFile
 }
@@ -77,12 +77,14 @@ public class GoFileConfigDataSourceTest {
     private GoConfigFileReader goConfigFileReader;
     @Mock
     private PartialConfigHelper partials;
+    @Mock
+    private ValidatedConfigSnapshot validatedConfigSnapshot;
 
     @BeforeEach
     public void setup() {
         dataSource = new GoFileConfigDataSource(goConfigMigration,
                 configRepository, systemEnvironment, timeProvider, xmlLoader, xmlWriter,
-                cachedGoPartials, fullConfigSaveMergeFlow, fullConfigSaveNormalFlow, goConfigFileReader, goConfigFileWriter, partials);
+                cachedGoPartials, fullConfigSaveMergeFlow, fullConfigSaveNormalFlow, goConfigFileReader, goConfigFileWriter, partials, validatedConfigSnapshot);
 
 
     }
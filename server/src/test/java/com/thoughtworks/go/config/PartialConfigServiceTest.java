@@ -28,6 +28,8 @@ import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.server.service.ConfigRepoService;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
+import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -76,7 +78,7 @@ public class PartialConfigServiceTest {
         serverHealthService = mock(ServerHealthService.class);
 
         updateCommand = null;
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper) {
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment()) {
             @Override
             protected PartialConfigUpdateCommand buildUpdateCommand(PartialConfig partial, String fingerprint) {
                 if (null == updateCommand) {
@@ -142,7 +144,7 @@ public class PartialConfigServiceTest {
 
         when(partialConfigHelper.isEquivalent(any(PartialConfig.class), any(PartialConfig.class))).thenReturn(false);
 
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper);
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment());
 
         final PartialConfig partial = mock(PartialConfig.class);
         service.onSuccessPartialConfig(configRepoConfig, partial);
@@ -159,7 +161,7 @@ public class PartialConfigServiceTest {
 
         when(partialConfigHelper.isEquivalent(any(PartialConfig.class), any(PartialConfig.class))).thenReturn(true);
 
-        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper);
+        service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, new SystemEnvironment());
 
         service.onSuccessPartialConfig(configRepoConfig, mock(PartialConfig.class));
         verify(cachedGoPartials, never()).cacheAsLastKnown(any(String.class), any(PartialConfig.class));
@@ -241,6 +243,80 @@ public class PartialConfigServiceTest {
         verify(goConfigService).updateConfig(any(UpdateConfigCommand.class));
     }
 
+    @Nested
+    class CoalescedMerges {
+        private ConfigRepoConfig otherConfigRepoConfig;
+
+        @BeforeEach
+        void setup() {
+            SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+            when(systemEnvironment.get(SystemEnvironment.GO_CONFIG_REPO_PARTIAL_MERGE_WINDOW_IN_MILLIS)).thenReturn(60_000);
+
+            configWatchList = mock(GoConfigWatchList.class);
+            when(configWatchList.hasConfigRepoWithFingerprint(any(String.class))).thenReturn(true);
+
+            otherConfigRepoConfig = ConfigRepoConfig.createConfigRepoConfig(git("other-url"), "plugin", "other-id");
+            configRepoConfig.setRules(allowAllGroups());
+            otherConfigRepoConfig.setRules(allowAllGroups());
+
+            service = new PartialConfigService(repoConfigDataSource, configWatchList, goConfigService, cachedGoPartials, serverHealthService, partialConfigHelper, systemEnvironment);
+        }
+
+        @Test
+        void mergesAllQueuedPartialsInASingleConfigUpdate() {
+            when(goConfigService.updateConfig(any(UpdateConfigCommand.class))).thenAnswer(invocationOnMock -> {
+                UpdateConfigCommand command = (UpdateConfigCommand) invocationOnMock.getArguments()[0];
+                command.update(cruiseConfig);
+                return ConfigSaveState.UPDATED;
+            });
+
+            service.onSuccessPartialConfig(configRepoConfig, partial("p1", "one", configRepoConfig));
+            service.onSuccessPartialConfig(otherConfigRepoConfig, partial("p2", "two", otherConfigRepoConfig));
+            verify(goConfigService, never()).updateConfig(any(UpdateConfigCommand.class));
+
+            service.mergePending();
+
+            verify(goConfigService, times(1)).updateConfig(any(UpdateConfigCommand.class));
+            assertEquals(2, cruiseConfig.getPartials().size());
+            assertEquals(2, cachedGoPartials.lastValidPartials().size());
+        }
+
+        @Test
+        void mergesEachQueuedPartialOnItsOwnWhenMergingThemAllIsInvalid() {
+            when(goConfigService.updateConfig(any(UpdateConfigCommand.class))).thenAnswer(invocationOnMock -> {
+                CruiseConfig attempt = new BasicCruiseConfig();
+                ((UpdateConfigCommand) invocationOnMock.getArguments()[0]).update(attempt);
+                if (attempt.getPartials().stream().anyMatch(partial -> partial.getGroups().first().getGroup().equals("broken"))) {
+                    throw new RuntimeException("Invalid");
+                }
+                return ConfigSaveState.UPDATED;
+            });
+
+            PartialConfig valid = partial("p1", "one", configRepoConfig);
+            service.onSuccessPartialConfig(configRepoConfig, valid);
+            service.onSuccessPartialConfig(otherConfigRepoConfig, partial("p2", "broken", otherConfigRepoConfig));
+
+            service.mergePending();
+
+            verify(goConfigService, times(3)).updateConfig(any(UpdateConfigCommand.class));
+            assertEquals(1, cachedGoPartials.lastValidPartials().size());
+            assertEquals(valid, cachedGoPartials.lastValidPartials().get(0));
+            verify(serverHealthService).update(any(ServerHealthState.class));
+        }
+
+        private PartialConfig partial(String pipelineName, String groupName, ConfigRepoConfig repoConfig) {
+            PartialConfig partial = withPipelineInGroup(pipelineName, groupName);
+            partial.setOrigins(new RepoConfigOrigin(repoConfig, "1"));
+            return partial;
+        }
+
+        private Rules allowAllGroups() {
+            Rules rules = new Rules();
+            rules.add(new Allow("refer", SupportedEntity.PIPELINE_GROUP.getType(), "*"));
+            return rules;
+        }
+    }
+
     @Nested
     class WatchList {
         private ScmMaterialConfig material;
@@ -0,0 +1,80 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.config;
+
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class ValidatedConfigSnapshotTest {
+    private static final String CONFIG_XML = "<cruise schemaVersion=\"1\"/>";
+
+    private SystemEnvironment systemEnvironment;
+    private ValidatedConfigSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp(@TempDir Path tempDir) {
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.getCruiseConfigFile()).thenReturn(tempDir.resolve("cruise-config.xml").toString());
+        when(systemEnvironment.get(SystemEnvironment.LOAD_VALIDATED_CONFIG_SNAPSHOT_ON_STARTUP)).thenReturn(true);
+        snapshot = new ValidatedConfigSnapshot(systemEnvironment);
+    }
+
+    @Test
+    public void shouldNotConsiderAnythingValidatedWhenNothingWasRemembered() {
+        assertThat(snapshot.hasValidated(CONFIG_XML)).isFalse();
+    }
+
+    @Test
+    public void shouldConsiderRememberedContentAsValidated() {
+        snapshot.remember(DigestUtils.md5Hex(CONFIG_XML));
+
+        assertThat(snapshot.hasValidated(CONFIG_XML)).isTrue();
+        assertThat(snapshot.hasValidated(CONFIG_XML + " ")).isFalse();
+    }
+
+    @Test
+    public void shouldIgnoreCorruptSnapshot() throws Exception {
+        Files.writeString(snapshot.location(), "not a snapshot");
+
+        assertThat(snapshot.hasValidated(CONFIG_XML)).isFalse();
+    }
+
+    @Test
+    public void shouldForgetRememberedContent() {
+        snapshot.remember(DigestUtils.md5Hex(CONFIG_XML));
+
+        snapshot.forget();
+
+        assertThat(snapshot.hasValidated(CONFIG_XML)).isFalse();
+    }
+
+    @Test
+    public void shouldNotUseSnapshotWhenDisabled() {
+        snapshot.remember(DigestUtils.md5Hex(CONFIG_XML));
+        when(systemEnvironment.get(SystemEnvironment.LOAD_VALIDATED_CONFIG_SNAPSHOT_ON_STARTUP)).thenReturn(false);
+
+        assertThat(snapshot.hasValidated(CONFIG_XML)).isFalse();
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.cache;
+
+import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import net.sf.ehcache.Ehcache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class CacheRegionTest {
+    private TransactionSynchronizationManager transactionSynchronizationManager;
+    private GoCache goCache;
+    private CacheRegion<Key, String> region;
+
+    @BeforeEach
+    void setUp() {
+        transactionSynchronizationManager = mock(TransactionSynchronizationManager.class);
+        goCache = new GoCache(mock(Ehcache.class, RETURNS_DEEP_STUBS), transactionSynchronizationManager);
+        region = goCache.region("test", 100, 0);
+    }
+
+    @Test
+    void shouldLoadAnEntryOnlyOnceUntilItIsRemoved() {
+        AtomicInteger loads = new AtomicInteger();
+
+        region.get(new Key("pipeline", 1), () -> "value-" + loads.incrementAndGet());
+        String cached = region.get(new Key("pipeline", 1), () -> "value-" + loads.incrementAndGet());
+        region.remove(new Key("pipeline", 1));
+        String reloaded = region.get(new Key("pipeline", 1), () -> "value-" + loads.incrementAndGet());
+
+        assertThat(cached).isEqualTo("value-1");
+        assertThat(reloaded).isEqualTo("value-2");
+    }
+
+    @Test
+    void shouldNotCacheValuesWhichLoadAsNull() {
+        AtomicInteger loads = new AtomicInteger();
+
+        region.get(new Key("pipeline", 1), () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        region.get(new Key("pipeline", 1), () -> "value-" + loads.incrementAndGet());
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldNotStoreEntriesWhileATransactionIsActive() {
+        when(transactionSynchronizationManager.isActualTransactionActive()).thenReturn(true);
+
+        region.put(new Key("pipeline", 1), "value");
+
+        assertThat(region.get(new Key("pipeline", 1))).isNull();
+    }
+
+    @Test
+    void shouldLockOnTheSameObjectForEqualKeys() {
+        assertThat(region.lockFor(new Key("pipeline", 1))).isSameAs(region.lockFor(new Key("pipeline", 1)));
+        assertThat(region.lockFor(new Key("pipeline", 1))).isNotSameAs(region.lockFor(new Key("pipeline", 2)));
+    }
+
+    @Test
+    void shouldReturnTheSameRegionWhenAskedForAgainAndClearItWithTheCache() {
+        region.put(new Key("pipeline", 1), "value");
+
+        assertThat(goCache.<Key, String>region("test", 100, 0)).isSameAs(region);
+        goCache.clear();
+
+        assertThat(region.get(new Key("pipeline", 1))).isNull();
+    }
+
+    @Test
+    void shouldTrackHitsAndMisses() {
+        region.put(new Key("pipeline", 1), "value");
+
+        region.get(new Key("pipeline", 1));
+        region.get(new Key("pipeline", 2));
+
+        assertThat(region.statistics())
+            .containsEntry("Maximum Size", 100)
+            .containsEntry("Size", 1L)
+            .containsEntry("Hits", 1L)
+            .containsEntry("Miss", 1L)
+            .containsEntry("Eviction", 0L);
+    }
+
+    private record Key(String pipelineName, int counter) {
+    }
+}
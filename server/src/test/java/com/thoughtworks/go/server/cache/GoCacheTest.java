@@ -95,6 +95,22 @@ public class GoCacheTest {
         assertNull(goCache.get("someKey"));
     }
 
+    @Test
+    public void remove_shouldWaitForCallersLoadingUnderTheInternedKey() throws InterruptedException {
+        String key = new String("someKey");
+        Thread remover = new Thread(() -> goCache.remove(new String("someKey")));
+        synchronized (key.intern()) {
+            remover.start();
+            while (remover.getState() != Thread.State.BLOCKED) {
+                assertTrue(remover.isAlive(), "remove should wait for the key to be unlocked");
+                Thread.sleep(10);
+            }
+            goCache.put(key, "loaded");
+        }
+        remover.join();
+        assertNull(goCache.get(key));
+    }
+
     @Test
     public void get_shouldBombWhenValueIsAPersistentObjectWithoutId() {
         HgMaterial material = MaterialsMother.hgMaterial();
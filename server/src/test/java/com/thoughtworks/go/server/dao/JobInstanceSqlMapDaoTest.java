@@ -15,7 +15,6 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
 import com.thoughtworks.go.domain.JobIdentifier;
 import com.thoughtworks.go.domain.StageIdentifier;
 import com.thoughtworks.go.server.cache.GoCache;
@@ -43,8 +42,6 @@ import static org.mockito.Mockito.*;
 class JobInstanceSqlMapDaoTest {
     private JobInstanceSqlMapDao jobInstanceSqlMapDao;
     @Mock
-    private Cache cache;
-    @Mock
     private TransactionSynchronizationManager transactionSynchronizationManager;
     @Mock
     private TransactionTemplate transactionTemplate;
@@ -66,20 +63,11 @@ class JobInstanceSqlMapDaoTest {
     void setUp() {
         GoCache goCache = new StubGoCache(new TestTransactionSynchronizationManager());
         jobInstanceSqlMapDao = new JobInstanceSqlMapDao(environmentVariableDao, goCache, transactionTemplate, null,
-            cache, transactionSynchronizationManager, resourceRepository,
+            transactionSynchronizationManager, resourceRepository,
             artifactPlanRepository, jobAgentMetadataDao);
         jobInstanceSqlMapDao.setSqlMapClientTemplate(template);
     }
 
-    @Nested
-    class CacheKeyForJobInstanceWithTransitions {
-        @Test
-        void shouldGenerateCacheKey() {
-            assertThat(jobInstanceSqlMapDao.cacheKeyForJobInstanceWithTransitions(1L))
-                .isEqualTo("com.thoughtworks.go.server.dao.JobInstanceSqlMapDao.$jobInstanceWithTransitionIds.$1");
-        }
-    }
-
     @Nested
     class CacheKeyForOriginalJobIdentifier {
         @Test
@@ -198,15 +186,6 @@ class JobInstanceSqlMapDaoTest {
         }
     }
 
-    @Nested
-    class CacheKeyForJobPlan {
-        @Test
-        void shouldGenerateCacheKey() {
-            assertThat(jobInstanceSqlMapDao.cacheKeyForJobPlan(1L))
-                .isEqualTo("com.thoughtworks.go.server.dao.JobInstanceSqlMapDao.$jobPlan.$1");
-        }
-    }
-
     @Nested
     class CacheKeyForActiveJob {
         @Test
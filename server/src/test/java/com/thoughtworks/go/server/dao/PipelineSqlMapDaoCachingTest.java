@@ -518,6 +518,25 @@ class PipelineSqlMapDaoCachingTest {
         assertThat(goCache.<Object>get(cacheKey)).isEqualTo(result);
     }
 
+    @Test
+    void shouldLookUpPipelineInstancesTriggeredOutOfManyDependencyRevisionsWhichAreNotCachedTogether() {
+        goCache.put(pipelineDao.cacheKeyForPipelineInstancesTriggeredWithDependencyMaterial("p1", "p", 1), List.of(new PipelineIdentifier("p1", 1, "1")));
+        doReturn(List.of(new DependentPipelineInstance("p1", 3, "3", "p/2/s/1"), new DependentPipelineInstance("p1", 2, "2", "p/2/s/1")))
+                .when(mockTemplate).queryForList(eq("pipelineInstancesTriggeredOutOfDependencyMaterials"), any());
+
+        Map<PipelineIdentifier, List<PipelineIdentifier>> actual = pipelineDao.getPipelineInstancesTriggeredWithDependencyMaterial("p1",
+                List.of(new PipelineIdentifier("p", 1), new PipelineIdentifier("p", 2), new PipelineIdentifier("p", 3)));
+
+        assertThat(actual)
+                .containsEntry(new PipelineIdentifier("p", 1), List.of(new PipelineIdentifier("p1", 1, "1")))
+                .containsEntry(new PipelineIdentifier("p", 2), List.of(new PipelineIdentifier("p1", 3, "3"), new PipelineIdentifier("p1", 2, "2")))
+                .containsEntry(new PipelineIdentifier("p", 3), List.of());
+        verify(mockTemplate).queryForList("pipelineInstancesTriggeredOutOfDependencyMaterials",
+                arguments("pipelineName", "p1").and("dependencyPipelineName", "p").and("stageLocators", List.of("p/2/%/%", "p/3/%/%")).asMap());
+        assertThat(pipelineDao.getPipelineInstancesTriggeredWithDependencyMaterial("p1", new PipelineIdentifier("p", 3))).isEmpty();
+        verify(mockTemplate, never()).queryForList(eq("pipelineInstancesTriggeredOutOfDependencyMaterial"), any());
+    }
+
     @Test
     void shouldCachePipelineInstancesTriggeredOutOfMaterialRevision() {
         GitMaterialInstance materialInstance = new GitMaterialInstance("url", null, "branch", "submodule", "flyweight");
@@ -25,6 +25,7 @@ import com.thoughtworks.go.helper.ModificationsMother;
 import com.thoughtworks.go.presentation.pipelinehistory.*;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.database.Database;
+import com.thoughtworks.go.server.database.QueryExtensions;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.transaction.SqlMapClientTemplate;
 import com.thoughtworks.go.util.SystemEnvironment;
@@ -117,7 +118,7 @@ class PipelineSqlMapDaoTest {
 
     @Test
     void shouldGetLatestRevisionFromOrderedLists() {
-        PipelineSqlMapDao pipelineSqlMapDao = new PipelineSqlMapDao(null, null, null, null, null, null, null, new SystemEnvironment(), mock(GoConfigDao.class), mock(Database.class), timeProvider);
+        PipelineSqlMapDao pipelineSqlMapDao = new PipelineSqlMapDao(null, null, goCache, null, null, null, null, new SystemEnvironment(), mock(GoConfigDao.class), mock(Database.class), timeProvider);
         List<Modification> list1 = new ArrayList<>();
         List<Modification> list2 = new ArrayList<>();
         assertThat(PipelineSqlMapDao.getLatestRevisionFromOrderedLists(list1, list2)).isNull();
@@ -131,6 +132,44 @@ class PipelineSqlMapDaoTest {
         assertThat(PipelineSqlMapDao.getLatestRevisionFromOrderedLists(list1, list2)).isEqualTo(ModificationsMother.currentRevision());
     }
 
+    @Test
+    void shouldSearchModificationsUsingTheFullTextIndexWhenItIsEnabledAndTheDatabaseSupportsIt() {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        Database database = mock(Database.class);
+        QueryExtensions queryExtensions = mock(QueryExtensions.class);
+        when(systemEnvironment.shouldSearchModificationsUsingFullTextIndex()).thenReturn(true);
+        when(database.getQueryExtensions()).thenReturn(queryExtensions);
+        when(queryExtensions.supportsFullTextModificationSearch()).thenReturn(true);
+        when(queryExtensions.toFullTextQuery("ABC123")).thenReturn("abc123:*");
+        PipelineSqlMapDao pipelineSqlMapDao = new PipelineSqlMapDao(null, null, goCache, null, null, null, null, systemEnvironment, configFileDao, database, timeProvider);
+        pipelineSqlMapDao.setSqlMapClientTemplate(sqlMapClientTemplate);
+
+        pipelineSqlMapDao.findMatchingPipelineInstances("up42", "ABC123", 10);
+
+        Map<String, Object> args = arguments("pipelineName", "up42").and("pattern", "%abc123%").and("rawPattern", "abc123").and("limit", 10)
+                .and("fullTextSearch", true).and("searchTerms", "abc123:*").and("revisionPrefix", "abc123%").asMap();
+        verify(sqlMapClientTemplate).queryForList("findMatchingPipelineInstances", args);
+    }
+
+    @Test
+    void shouldSearchModificationsUsingLikeWhenTheFullTextIndexIsNotEnabled() {
+        SystemEnvironment systemEnvironment = mock(SystemEnvironment.class);
+        Database database = mock(Database.class);
+        QueryExtensions queryExtensions = mock(QueryExtensions.class);
+        when(systemEnvironment.shouldSearchModificationsUsingFullTextIndex()).thenReturn(false);
+        when(database.getQueryExtensions()).thenReturn(queryExtensions);
+        when(queryExtensions.supportsFullTextModificationSearch()).thenReturn(true);
+        PipelineSqlMapDao pipelineSqlMapDao = new PipelineSqlMapDao(null, null, goCache, null, null, null, null, systemEnvironment, configFileDao, database, timeProvider);
+        pipelineSqlMapDao.setSqlMapClientTemplate(sqlMapClientTemplate);
+
+        pipelineSqlMapDao.findMatchingPipelineInstances("up42", "ABC123", 10);
+
+        Map<String, Object> args = arguments("pipelineName", "up42").and("pattern", "%abc123%").and("rawPattern", "abc123").and("limit", 10)
+                .and("fullTextSearch", false).asMap();
+        verify(sqlMapClientTemplate).queryForList("findMatchingPipelineInstances", args);
+        verify(queryExtensions, never()).toFullTextQuery(anyString());
+    }
+
     @Test
     void loadHistoryByIds_shouldLoadHistoryByIdWhenOnlyASingleIdIsNeedeSoThatItUsesTheExistingCacheForEnvironmentsPage() {
         SqlMapClientTemplate mockTemplate = mock(SqlMapClientTemplate.class);
@@ -208,24 +247,6 @@ class PipelineSqlMapDaoTest {
         }
     }
 
-    @Nested
-    class CacheKeyForLatestPipelineIdByPipelineName {
-        @Test
-        void shouldGenerateCacheKey() {
-            assertThat(pipelineSqlMapDao.cacheKeyForLatestPipelineIdByPipelineName("foo"))
-                    .isEqualTo("com.thoughtworks.go.server.dao.PipelineSqlMapDao.$latestPipelineIdByPipelineName.$foo");
-        }
-    }
-
-    @Nested
-    class CacheKeyForPauseState {
-        @Test
-        void shouldGenerateCacheKey() {
-            assertThat(pipelineSqlMapDao.cacheKeyForPauseState("foo"))
-                    .isEqualTo("com.thoughtworks.go.server.dao.PipelineSqlMapDao.$cacheKeyForPauseState.$foo");
-        }
-    }
-
     @Nested
     class cacheKeyForLatestPassedStage {
         @Test
@@ -15,7 +15,6 @@
  */
 package com.thoughtworks.go.server.dao;
 
-import com.opensymphony.oscache.base.Cache;
 import com.rits.cloning.Cloner;
 import com.thoughtworks.go.domain.Stage;
 import com.thoughtworks.go.domain.StageIdentifier;
@@ -53,7 +52,7 @@ class StageSqlMapDaoTest {
     void setUp() {
         goCache = new StubGoCache(new TestTransactionSynchronizationManager());
         sqlMapClientTemplate = mock(SqlMapClientTemplate.class);
-        stageSqlMapDao = new StageSqlMapDao(mock(JobInstanceSqlMapDao.class), new Cache(true, false, false), mock(TransactionTemplate.class), mock(SqlSessionFactory.class), goCache, mock(TransactionSynchronizationManager.class));
+        stageSqlMapDao = new StageSqlMapDao(mock(JobInstanceSqlMapDao.class), mock(TransactionTemplate.class), mock(SqlSessionFactory.class), goCache, mock(TransactionSynchronizationManager.class));
         stageSqlMapDao.setSqlMapClientTemplate(sqlMapClientTemplate);
         Cloner cloner = mock(Cloner.class);
         ReflectionUtil.setField(stageSqlMapDao, "cloner", cloner);
@@ -86,6 +85,20 @@ class StageSqlMapDaoTest {
         assertThat(goCache.<Object>get(cacheKey)).isNull();
     }
 
+    @Test
+    void shouldCacheStagesByIdUntilTheirStatusChanges() {
+        Stage stage = StageMother.custom("stage");
+        stage.setId(1L);
+        doReturn(stage).when(sqlMapClientTemplate).queryForObject("getStageById", 1L);
+
+        stageSqlMapDao.stageById(1L);
+        assertThat(stageSqlMapDao.stageById(1L)).isEqualTo(stage);
+        stageSqlMapDao.stageStatusChanged(stage);
+        stageSqlMapDao.stageById(1L);
+
+        verify(sqlMapClientTemplate, times(2)).queryForObject("getStageById", 1L);
+    }
+
     @Test
     void shouldLoadStageHistoryEntryForAStageRunAfterTheLatestRunThatIsRetrievedForStageHistory() {
         String pipelineName = "some_pipeline_name";
@@ -386,15 +399,6 @@ class StageSqlMapDaoTest {
         }
     }
 
-    @Nested
-    class CacheKeyForStageById {
-        @Test
-        void shouldGenerateCacheKey() {
-            assertThat(stageSqlMapDao.cacheKeyForStageById(1L))
-                    .isEqualTo("com.thoughtworks.go.server.dao.StageSqlMapDao.$stageById.$1");
-        }
-    }
-
     @Nested
     class MutexForStageHistory {
         @Test
@@ -0,0 +1,95 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.domain;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobDurationStatisticsTest {
+    private final JobDurationStatistics statistics = new JobDurationStatistics();
+
+    @Test
+    void shouldBeZeroWhenThereIsNoHistory() {
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", List::of)).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void shouldSeedFromHistoryOnlyOnce() {
+        AtomicInteger lookups = new AtomicInteger();
+        Supplier<List<Long>> history = () -> {
+            lookups.incrementAndGet();
+            return List.of(100L);
+        };
+
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", history)).isEqualTo(Duration.ofSeconds(100));
+        assertThat(statistics.expectedDuration("PIPELINE", "Stage", "JOB", history)).isEqualTo(Duration.ofSeconds(100));
+        assertThat(lookups.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWeighRecentRunsMoreHeavily() {
+        statistics.expectedDuration("pipeline", "stage", "job", () -> List.of(100L));
+
+        statistics.recordSuccessfulRun("pipeline", "stage", "job", 200);
+
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", List::of)).isEqualTo(Duration.ofSeconds(130));
+    }
+
+    @Test
+    void shouldNotTrackRunsOfJobsWhichHaveNotBeenSeeded() {
+        statistics.recordSuccessfulRun("pipeline", "stage", "job", 200);
+
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", () -> List.of(50L))).isEqualTo(Duration.ofSeconds(50));
+    }
+
+    @Test
+    void shouldIgnoreRunsWithoutADuration() {
+        statistics.expectedDuration("pipeline", "stage", "job", () -> List.of(0L, 100L));
+
+        statistics.recordSuccessfulRun("pipeline", "stage", "job", 0);
+
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", List::of)).isEqualTo(Duration.ofSeconds(100));
+    }
+
+    @Test
+    void shouldStartTrackingRunsOnceAJobWithoutHistoryIsSeeded() {
+        statistics.expectedDuration("pipeline", "stage", "job", List::of);
+
+        statistics.recordSuccessfulRun("pipeline", "stage", "job", 42);
+
+        assertThat(statistics.expectedDuration("pipeline", "stage", "job", List::of)).isEqualTo(Duration.ofSeconds(42));
+    }
+
+    @Test
+    void shouldBoundTheNumberOfTrackedJobs() {
+        Cache<JobDurationStatistics.Key, JobDurationStatistics.MovingAverage> averages = Caffeine.newBuilder().maximumSize(1).executor(Runnable::run).build();
+        JobDurationStatistics bounded = new JobDurationStatistics(averages);
+
+        bounded.expectedDuration("pipeline", "stage", "job", () -> List.of(100L));
+        bounded.expectedDuration("pipeline", "stage", "other-job", () -> List.of(10L));
+        averages.cleanUp();
+
+        assertThat(averages.estimatedSize()).isEqualTo(1);
+    }
+}
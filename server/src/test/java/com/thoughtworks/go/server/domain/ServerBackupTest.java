@@ -20,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import java.util.Date;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 public class ServerBackupTest {
 
@@ -64,4 +65,16 @@ public class ServerBackupTest {
         assertThat(backup.getMessage()).isEqualTo(BackupProgressStatus.BACKUP_CONFIG.getMessage());
         assertThat(backup.getStatus()).isEqualTo(BackupStatus.IN_PROGRESS);
     }
+
+    @Test
+    void shouldRememberHowLongEachStepTook() {
+        ServerBackup backup = new ServerBackup("path", new Date(), "admin", "");
+        assertThat(backup.getStepDurationsInMillis()).isEmpty();
+
+        backup.recordStepDuration(BackupProgressStatus.BACKUP_DATABASE, 1200);
+        backup.recordStepDuration(BackupProgressStatus.BACKUP_CONFIG, 30);
+
+        assertThat(backup.getStepDurationsInMillis())
+                .containsExactly(entry(BackupProgressStatus.BACKUP_CONFIG, 30L), entry(BackupProgressStatus.BACKUP_DATABASE, 1200L));
+    }
 }
@@ -16,28 +16,44 @@
 package com.thoughtworks.go.server.materials;
 
 import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.materials.Materials;
 import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.MaterialInstance;
+import com.thoughtworks.go.domain.MaterialRevisions;
 import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.Modification;
+import com.thoughtworks.go.domain.materials.Modifications;
 import com.thoughtworks.go.helper.MaterialsMother;
+import com.thoughtworks.go.server.perf.MDUPerformanceLogger;
 import com.thoughtworks.go.server.persistence.MaterialRepository;
 import com.thoughtworks.go.server.service.GoConfigService;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
+import com.thoughtworks.go.server.transaction.TransactionCallback;
 import com.thoughtworks.go.server.transaction.TransactionTemplate;
 import com.thoughtworks.go.serverhealth.HealthStateScope;
 import com.thoughtworks.go.serverhealth.HealthStateType;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.serverhealth.ServerHealthState;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.File;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -52,13 +68,14 @@ public class MaterialDatabaseUpdaterTest {
     @Mock private PluggableSCMMaterialUpdater pluggableSCMMaterialUpdater;
     @Mock private MaterialExpansionService materialExpansionService;
     @Mock private GoConfigService goConfigService;
+    @Mock private MDUPerformanceLogger mduPerformanceLogger;
 
     private MaterialDatabaseUpdater materialDatabaseUpdater;
 
     @BeforeEach
     public void setUp() {
         materialDatabaseUpdater = new MaterialDatabaseUpdater(materialRepository, healthService, transactionTemplate, dependencyMaterialUpdater, scmMaterialUpdater,
-                packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, goConfigService);
+                packageMaterialUpdater, pluggableSCMMaterialUpdater, materialExpansionService, goConfigService, mduPerformanceLogger, new SystemEnvironment());
     }
 
     @Test
@@ -104,4 +121,27 @@ public class MaterialDatabaseUpdaterTest {
 
         verify(healthService).update(ServerHealthState.errorWithHtml(message, "Unknown error", HealthStateType.general(HealthStateScope.forMaterial(material))));
     }
+
+    @Test
+    public void shouldFindNewModificationsBeforeStartingTheTransactionWhichSavesThem() throws Exception {
+        GitMaterial material = new GitMaterial("url", "branch");
+        MaterialInstance materialInstance = material.createMaterialInstance();
+        File folder = new File("folder");
+        List<Modification> newModifications = List.of(new Modification("user", "comment", "email", new Date(), "revision"));
+        when(materialRepository.findMaterialInstance(material)).thenReturn(materialInstance);
+        doAnswer(invocation -> invocation.<Materials>getArgument(1).add(material)).when(materialExpansionService).expandForHistory(eq(material), any(Materials.class));
+        when(materialRepository.folderFor(material)).thenReturn(folder);
+        when(materialRepository.findLatestModification(material)).thenReturn(new MaterialRevisions());
+        when(scmMaterialUpdater.findNewModifications(material, materialInstance, folder, new Modifications())).thenReturn(newModifications);
+        when(transactionTemplate.executeWithExceptionHandling(any())).thenAnswer(invocation -> invocation.<TransactionCallback>getArgument(0).doInTransaction(null));
+
+        materialDatabaseUpdater.updateMaterial(material);
+
+        InOrder inOrder = inOrder(scmMaterialUpdater, transactionTemplate);
+        inOrder.verify(scmMaterialUpdater).findNewModifications(material, materialInstance, folder, new Modifications());
+        inOrder.verify(transactionTemplate).executeWithExceptionHandling(any());
+        inOrder.verify(scmMaterialUpdater).saveNewModifications(material, materialInstance, folder, newModifications);
+        verify(mduPerformanceLogger).foundNewModifications(anyLong());
+        verify(mduPerformanceLogger).savedNewModifications(anyLong());
+    }
 }
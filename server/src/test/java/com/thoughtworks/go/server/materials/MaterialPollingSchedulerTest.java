@@ -0,0 +1,171 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.materials;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import static com.thoughtworks.go.helper.MaterialsMother.gitMaterial;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MaterialPollingSchedulerTest {
+    private final GitMaterial material = gitMaterial("https://example.com/repo.git");
+    private final GitMaterial anotherMaterial = gitMaterial("https://example.com/another-repo.git");
+    private static final Predicate<Material> NOT_BACKED_OFF = material -> false;
+
+    private SystemEnvironment systemEnvironment;
+    private TestingClock clock;
+    private MaterialPollingScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_ENABLED)).thenReturn(true);
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MIN_INTERVAL_IN_SECONDS)).thenReturn(60);
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_INTERVAL_IN_SECONDS)).thenReturn(1800);
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_QUEUED)).thenReturn(100);
+        clock = new TestingClock();
+        scheduler = new MaterialPollingScheduler(mock(MaterialUpdateCompletedTopic.class), systemEnvironment, clock, new MetricsRegistry());
+    }
+
+    @Test
+    void shouldPollMaterialsWhichHaveNotBeenPolledBeforeRightAway() {
+        assertThat(scheduler.dueForPolling(List.of(material, anotherMaterial), NOT_BACKED_OFF, 0)).containsExactly(material, anotherMaterial);
+    }
+
+    @Test
+    void shouldNotPollMaterialsWhichAreBeingUpdated() {
+        scheduler.queued(material);
+
+        assertThat(scheduler.dueForPolling(List.of(material, anotherMaterial), NOT_BACKED_OFF, 1)).containsExactly(anotherMaterial);
+    }
+
+    @Test
+    void shouldPollMaterialsWhichChangeOftenEveryMinimumInterval() {
+        updated(material, true, 0);
+        clock.addSeconds(59);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).isEmpty();
+
+        clock.addSeconds(1);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldPollMaterialsLessOftenTheLongerTheyGoWithoutChanging() {
+        updated(material, true, 0);
+        clock.addSeconds(1000);
+        updated(material, false, 0);
+
+        clock.addSeconds(99);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).isEmpty();
+        clock.addSeconds(1);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+
+        updated(material, true, 0);
+        clock.addSeconds(60);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldPollMaterialsWhichTakeLongToUpdateLessOften() {
+        updated(material, true, 30);
+
+        clock.addSeconds(299);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).isEmpty();
+        clock.addSeconds(1);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldPollMaterialsAtLeastEveryMaximumInterval() {
+        updated(material, true, 0);
+        clock.addSeconds(100_000);
+        updated(material, false, 0);
+
+        clock.addSeconds(1800);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldNotCountTheTimeMaterialsWaitInTheQueueAsUpdateTime() {
+        scheduler.queued(material);
+        clock.addSeconds(600);
+        scheduler.onMessage(new MaterialUpdateSuccessfulMessage(material, 0, true, 1000));
+
+        clock.addSeconds(60);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldRememberMaterialsWhileTheyAreBackedOff() {
+        updated(material, true, 0);
+        clock.addSeconds(1000);
+        updated(material, false, 0);
+
+        assertThat(scheduler.dueForPolling(List.of(material), m -> true, 0)).isEmpty();
+
+        clock.addSeconds(60);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).isEmpty();
+        clock.addSeconds(40);
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldPollMaterialsAgainRightAwayWhenTheirUpdateFailed() {
+        scheduler.queued(material);
+        scheduler.onMessage(new MaterialUpdateFailedMessage(material, 0, new RuntimeException("boom")));
+
+        assertThat(scheduler.dueForPolling(List.of(material), NOT_BACKED_OFF, 0)).containsExactly(material);
+    }
+
+    @Test
+    void shouldHoldBackPollsBeyondTheMaximumQueuedMostOverdueFirst() {
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_MAX_QUEUED)).thenReturn(3);
+        updated(anotherMaterial, true, 0);
+        clock.addSeconds(1);
+        updated(material, true, 0);
+        clock.addSeconds(60);
+
+        assertThat(scheduler.dueForPolling(List.of(material, anotherMaterial), NOT_BACKED_OFF, 1)).containsExactly(anotherMaterial, material);
+        assertThat(scheduler.dueForPolling(List.of(material, anotherMaterial), NOT_BACKED_OFF, 2)).containsExactly(anotherMaterial);
+        assertThat(scheduler.dueForPolling(List.of(material, anotherMaterial), NOT_BACKED_OFF, 3)).isEmpty();
+    }
+
+    @Test
+    void shouldNotTrackMaterialsWhenAdaptivePollingIsDisabled() {
+        when(systemEnvironment.get(SystemEnvironment.MDU_ADAPTIVE_POLLING_ENABLED)).thenReturn(false);
+
+        scheduler.queued(material);
+
+        assertThat(scheduler.statistics()).isEmpty();
+    }
+
+    private void updated(Material material, boolean foundNewModifications, int updateTimeInSeconds) {
+        scheduler.queued(material);
+        clock.addSeconds(updateTimeInSeconds);
+        scheduler.onMessage(new MaterialUpdateSuccessfulMessage(material, 0, foundNewModifications, updateTimeInSeconds * 1000L));
+    }
+}
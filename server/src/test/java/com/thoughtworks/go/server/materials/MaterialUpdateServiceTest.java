@@ -106,6 +106,8 @@ public class MaterialUpdateServiceTest {
     private MDUPerformanceLogger mduPerformanceLogger;
     @Mock
     private ExponentialBackoffService exponentialBackoffService;
+    @Mock
+    private MaterialPollingScheduler materialPollingScheduler;
 
     private static final SvnMaterialConfig MATERIAL_CONFIG = MaterialConfigsMother.svnMaterialConfig();
     private Username username;
@@ -118,7 +120,8 @@ public class MaterialUpdateServiceTest {
     void setUp() {
         service = new MaterialUpdateService(queue, configQueue, completed, watchList, goConfigService, systemEnvironment,
                 serverHealthService, postCommitHookMaterialType, mduPerformanceLogger, materialConfigConverter,
-                dependencyMaterialUpdateQueue, maintenanceModeService, secretParamResolver, exponentialBackoffService);
+                dependencyMaterialUpdateQueue, maintenanceModeService, secretParamResolver, exponentialBackoffService,
+                materialPollingScheduler);
 
         service.registerMaterialSources(scmMaterialSource);
         service.registerMaterialUpdateCompleteListener(scmMaterialSource);
@@ -177,6 +180,21 @@ public class MaterialUpdateServiceTest {
             verify(queue, never()).post(matchMaterialUpdateMessage(svnMaterial));
             verify(queue).post(matchMaterialUpdateMessage(gitMaterial));
         }
+
+        @Test
+        void shouldOnlyPollMaterialsWhichAreDueWhenAdaptivePollingIsEnabled() {
+            GitMaterial gitMaterial = gitMaterial("test");
+
+            when(materialPollingScheduler.isEnabled()).thenReturn(true);
+            when(scmMaterialSource.materialsForUpdate()).thenReturn(Set.of(svnMaterial, gitMaterial));
+            when(materialPollingScheduler.dueForPolling(eq(Set.of(svnMaterial, gitMaterial)), any(), eq(0))).thenReturn(List.of(gitMaterial));
+
+            service.onTimer();
+
+            verify(queue, never()).post(matchMaterialUpdateMessage(svnMaterial));
+            verify(queue).post(matchMaterialUpdateMessage(gitMaterial));
+            verify(materialPollingScheduler).polled(gitMaterial);
+        }
     }
 
     @Nested
@@ -0,0 +1,108 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    void shouldWriteCountersByLabel() throws IOException {
+        MetricsRegistry.Counter counter = registry.counter("gocd_test_total", "A test counter.", "kind");
+        counter.increment("b");
+        counter.increment("a");
+        counter.increment("a");
+
+        assertThat(scrape()).isEqualTo("""
+                # HELP gocd_test_total A test counter.
+                # TYPE gocd_test_total counter
+                gocd_test_total{kind="a"} 2
+                gocd_test_total{kind="b"} 1
+                """);
+    }
+
+    @Test
+    void shouldWriteCumulativeHistogramBuckets() throws IOException {
+        MetricsRegistry.Histogram histogram = registry.histogram("gocd_test_seconds", "A test histogram.");
+        histogram.observeMillis(3);
+        histogram.observeMillis(700);
+        histogram.observeMillis(MINUTES.toMillis(10));
+
+        String scraped = scrape();
+        assertThat(scraped)
+                .contains("gocd_test_seconds_bucket{le=\"0.001\"} 0\n")
+                .contains("gocd_test_seconds_bucket{le=\"0.005\"} 1\n")
+                .contains("gocd_test_seconds_bucket{le=\"1.0\"} 2\n")
+                .contains("gocd_test_seconds_bucket{le=\"300.0\"} 2\n")
+                .contains("gocd_test_seconds_bucket{le=\"+Inf\"} 3\n")
+                .contains("gocd_test_seconds_sum 600.703\n")
+                .contains("gocd_test_seconds_count 3\n");
+    }
+
+    @Test
+    void shouldReturnTheSameMetricWhenRegisteredAgain() {
+        MetricsRegistry.Histogram histogram = registry.histogram("gocd_test_seconds", "A test histogram.", "kind");
+        registry.histogram("gocd_test_seconds", "A test histogram.", "kind").observeMillis(1, "a");
+
+        assertThat(histogram.count("a")).isEqualTo(1);
+        assertThatThrownBy(() -> registry.counter("gocd_test_seconds", "A test counter."))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Metric 'gocd_test_seconds' is already registered as a histogram");
+    }
+
+    @Test
+    void shouldEscapeLabelValues() throws IOException {
+        registry.counter("gocd_test_total", "A test counter.", "name").increment("a \"quoted\"\nname");
+
+        assertThat(scrape()).contains("gocd_test_total{name=\"a \\\"quoted\\\"\\nname\"} 1\n");
+    }
+
+    @Test
+    void shouldEvaluateGaugesWhenScraped() throws IOException {
+        int[] size = {1};
+        registry.gauge("gocd_test_queue_size", "A test gauge.", () -> size[0]);
+        size[0] = 5;
+
+        assertThat(scrape()).contains("gocd_test_queue_size 5\n");
+    }
+
+    @Test
+    void shouldEvaluateLabelledGaugesWhenScraped() throws IOException {
+        registry.gauge("gocd_test_cache_size", "A test gauge.", "region", () -> Map.of("b", 2, "a", 1));
+
+        assertThat(scrape()).isEqualTo("""
+                # HELP gocd_test_cache_size A test gauge.
+                # TYPE gocd_test_cache_size gauge
+                gocd_test_cache_size{region="a"} 1
+                gocd_test_cache_size{region="b"} 2
+                """);
+    }
+
+    private String scrape() throws IOException {
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        return writer.toString();
+    }
+}
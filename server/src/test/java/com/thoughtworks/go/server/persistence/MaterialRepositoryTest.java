@@ -15,26 +15,38 @@
  */
 package com.thoughtworks.go.server.persistence;
 
+import com.thoughtworks.go.domain.materials.Material;
+import com.thoughtworks.go.domain.materials.MaterialConfig;
+import com.thoughtworks.go.domain.materials.ModifiedAction;
+import com.thoughtworks.go.domain.materials.ModifiedFile;
 import com.thoughtworks.go.domain.materials.Modification;
 import com.thoughtworks.go.domain.materials.git.GitMaterialInstance;
 import com.thoughtworks.go.server.cache.GoCache;
 import com.thoughtworks.go.server.database.Database;
+import com.thoughtworks.go.server.database.QueryExtensions;
 import com.thoughtworks.go.server.service.MaterialConfigConverter;
 import com.thoughtworks.go.server.service.MaterialExpansionService;
 import com.thoughtworks.go.server.transaction.TransactionSynchronizationManager;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.hibernate.Query;
+import org.hibernate.SQLQuery;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.jdbc.Work;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.orm.hibernate3.HibernateTemplate;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.*;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.Mockito.*;
 
 public class MaterialRepositoryTest {
@@ -48,10 +60,15 @@ public class MaterialRepositoryTest {
     private MaterialConfigConverter materialConfigConverter;
     private MaterialExpansionService materialExpansionService;
     private Database databaseStrategy;
+    private QueryExtensions queryExtensions;
+    private SystemEnvironment systemEnvironment;
 
     @BeforeEach
     public void setUp() {
         databaseStrategy = mock(Database.class);
+        queryExtensions = mock(QueryExtensions.class);
+        when(databaseStrategy.getQueryExtensions()).thenReturn(queryExtensions);
+        systemEnvironment = mock(SystemEnvironment.class);
         sessionFactory = mock(SessionFactory.class);
         goCache = mock(GoCache.class);
         ourCustomCache = new HashMap<>();
@@ -59,7 +76,7 @@ public class MaterialRepositoryTest {
         mockHibernateTemplate = mock(HibernateTemplate.class);
         materialConfigConverter = mock(MaterialConfigConverter.class);
         materialExpansionService = mock(MaterialExpansionService.class);
-        materialRepository = new MaterialRepository(sessionFactory, goCache, 4242, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy);
+        materialRepository = new MaterialRepository(sessionFactory, goCache, 4242, transactionSynchronizationManager, materialConfigConverter, materialExpansionService, databaseStrategy, systemEnvironment);
         materialRepository.setHibernateTemplate(mockHibernateTemplate);
         when(goCache.get(anyString())).thenAnswer(invocation -> {
             Object[] arguments = invocation.getArguments();
@@ -107,4 +124,88 @@ public class MaterialRepositoryTest {
         verifyNoInteractions(goCache);
     }
 
+    @Test
+    public void shouldInsertNewModificationsAndTheirFilesInBatchesOldestFirst() throws Exception {
+        GitMaterialInstance materialInstance = new GitMaterialInstance("url", null, "branch", null, UUID.randomUUID().toString());
+        materialInstance.setId(42);
+        Modification older = new Modification("user", "older", "email", new Date(), "rev1");
+        older.setModifiedFiles(List.of(new ModifiedFile("README.md", null, ModifiedAction.added)));
+        Modification newer = new Modification("user", "newer", "email", new Date(), "rev2");
+
+        Session session = mock(Session.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement insertModifications = mock(PreparedStatement.class);
+        PreparedStatement insertFiles = mock(PreparedStatement.class);
+        ResultSet modificationIds = mock(ResultSet.class);
+        ResultSet fileIds = mock(ResultSet.class);
+        when(mockHibernateTemplate.execute(any())).thenAnswer(invocation -> ((HibernateCallback<?>) invocation.getArgument(0)).doInHibernate(session));
+        doAnswer(invocation -> {
+            ((Work) invocation.getArgument(0)).execute(connection);
+            return null;
+        }).when(session).doWork(any());
+        when(connection.prepareStatement(startsWith("INSERT INTO modifications "), aryEq(new String[]{"id"}))).thenReturn(insertModifications);
+        when(connection.prepareStatement(startsWith("INSERT INTO modifiedFiles "), aryEq(new String[]{"id"}))).thenReturn(insertFiles);
+        when(insertModifications.getGeneratedKeys()).thenReturn(modificationIds);
+        when(modificationIds.next()).thenReturn(true, true, false);
+        when(modificationIds.getLong(1)).thenReturn(100L, 101L);
+        when(insertFiles.getGeneratedKeys()).thenReturn(fileIds);
+        when(fileIds.next()).thenReturn(true, false);
+        when(fileIds.getLong(1)).thenReturn(500L);
+
+        materialRepository.saveModifications(materialInstance, List.of(newer, older));
+
+        assertThat(older.getId()).isEqualTo(100L);
+        assertThat(newer.getId()).isEqualTo(101L);
+        assertThat(older.getModifiedFiles().get(0).getId()).isEqualTo(500L);
+        verify(insertModifications, times(2)).addBatch();
+        verify(insertModifications).executeBatch();
+        verify(insertFiles).setLong(1, 100L);
+        verify(insertFiles).executeBatch();
+        verify(mockHibernateTemplate, never()).saveOrUpdate(any());
+        verify(goCache).stopServingForTransaction();
+    }
+
+    @Test
+    public void shouldSearchRevisionsUsingTheFullTextIndexWhenItIsEnabledAndTheDatabaseSupportsIt() {
+        when(systemEnvironment.shouldSearchModificationsUsingFullTextIndex()).thenReturn(true);
+        when(queryExtensions.supportsFullTextModificationSearch()).thenReturn(true);
+        when(queryExtensions.fullTextModificationSearchCondition("m")).thenReturn("<full text condition>");
+        when(queryExtensions.toFullTextQuery("Fix")).thenReturn("fix:*");
+        when(queryExtensions.toPrefixPattern("fix")).thenReturn("fix%");
+        Session session = mock(Session.class);
+        SQLQuery query = stubRevisionSearch(session);
+
+        materialRepository.findRevisionsMatching(mock(MaterialConfig.class), "Fix");
+
+        verify(session).createSQLQuery(contains("<full text condition> OR m.pipelineLabel LIKE :search_string"));
+        verify(query).setString("search_string", "%Fix%");
+        verify(query).setString("search_terms", "fix:*");
+        verify(query).setString("revision_prefix", "fix%");
+    }
+
+    @Test
+    public void shouldSearchRevisionsUsingLikeWhenTheFullTextIndexIsNotEnabled() {
+        when(systemEnvironment.shouldSearchModificationsUsingFullTextIndex()).thenReturn(false);
+        when(queryExtensions.supportsFullTextModificationSearch()).thenReturn(true);
+        Session session = mock(Session.class);
+        SQLQuery query = stubRevisionSearch(session);
+
+        materialRepository.findRevisionsMatching(mock(MaterialConfig.class), "Fix");
+
+        verify(session).createSQLQuery(contains("COALESCE(m.comment, '') LIKE :search_string OR m.pipelineLabel LIKE :search_string"));
+        verify(query).setString("search_string", "%Fix%");
+        verify(query, never()).setString(eq("search_terms"), anyString());
+        verify(query, never()).setString(eq("revision_prefix"), anyString());
+        verify(queryExtensions, never()).fullTextModificationSearchCondition(anyString());
+    }
+
+    private SQLQuery stubRevisionSearch(Session session) {
+        SQLQuery query = mock(SQLQuery.class);
+        Material material = mock(Material.class);
+        when(material.getFingerprint()).thenReturn("fingerprint");
+        when(materialConfigConverter.toMaterial(any())).thenReturn(material);
+        when(session.createSQLQuery(anyString())).thenReturn(query);
+        when(mockHibernateTemplate.execute(any())).thenAnswer(invocation -> ((HibernateCallback<?>) invocation.getArgument(0)).doInHibernate(session));
+        return query;
+    }
 }
@@ -173,6 +173,48 @@ public class ArtifactsDiskCleanerTest {
         verifyNoMoreInteractions(stageService);
     }
 
+    @Test
+    public void shouldStartPurgingAtTheSoftWatermarkWhenConfigured() {
+        serverConfig.setPurgeLimits(20.0, 30.0);
+        when(sysEnv.getArtifactsPurgeSoftWatermarkPercent()).thenReturn(50);
+
+        assertThat(artifactsDiskCleaner.limitInMb()).isEqualTo(25 * GoConstants.MEGABYTES_IN_GIGABYTE);
+    }
+
+    @Test
+    public void shouldPurgeStagesInBatchesSizedByTheSpaceFreedPerStage() {
+        serverConfig.setPurgeLimits(5.0, 9.0);
+        when(sysEnv.getNumberOfArtifactsPurgeThreads()).thenReturn(2);
+        List<Stage> stages = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Stage stage = StageMother.passedStageInstance("stage-" + i, "job", "pipeline");
+            stage.setId(i + 1);
+            stages.add(stage);
+        }
+        List<Stage> remaining = new ArrayList<>(stages);
+        long[] available = {3 * GoConstants.GIGA_BYTE};
+        when(stageService.oldestStagesWithDeletableArtifacts()).thenAnswer(invocation -> List.copyOf(remaining));
+        when(diskSpaceChecker.getUsableSpace(goConfigService.artifactsDir())).thenAnswer(invocation -> available[0]);
+        doAnswer(invocation -> {
+            synchronized (available) {
+                available[0] += GoConstants.GIGA_BYTE;
+            }
+            return null;
+        }).when(artifactService).deleteArtifactsForStage(any(Stage.class));
+        doAnswer(invocation -> {
+            remaining.removeAll(invocation.getArgument(0));
+            return null;
+        }).when(artifactService).markArtifactsDeletedFor(anyList());
+
+        artifactsDiskCleaner.deleteOldArtifacts();
+
+        verify(artifactService).markArtifactsDeletedFor(stages.subList(0, 2));
+        verify(artifactService).markArtifactsDeletedFor(stages.subList(2, 6));
+        verify(artifactService, never()).purgeArtifactsForStage(any());
+        verify(configDbStateRepository).flushConfigState();
+        assertThat(remaining).isEmpty();
+    }
+
     @Test
     public void shouldUseA_NonServerHealthAware_result() {
         serverHealthService = mock(ServerHealthService.class);
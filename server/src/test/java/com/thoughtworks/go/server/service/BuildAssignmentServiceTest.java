@@ -18,6 +18,7 @@ package com.thoughtworks.go.server.service;
 import com.thoughtworks.go.config.*;
 import com.thoughtworks.go.config.elastic.ClusterProfile;
 import com.thoughtworks.go.config.elastic.ElasticProfile;
+import com.thoughtworks.go.config.exceptions.RecordNotFoundException;
 import com.thoughtworks.go.config.materials.PackageMaterial;
 import com.thoughtworks.go.config.materials.PluggableSCMMaterial;
 import com.thoughtworks.go.config.materials.ScmMaterial;
@@ -51,6 +52,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 import static com.thoughtworks.go.helper.MaterialsMother.packageMaterial;
 import static com.thoughtworks.go.helper.MaterialsMother.pluggableSCMMaterial;
@@ -301,11 +303,10 @@ class BuildAssignmentServiceTest {
             lenient().when(scheduleService.updateAssignedInfo(anyString(), any())).thenReturn(false);
             when(goConfigService.artifactStores()).thenReturn(new ArtifactStores());
             when(environmentConfigService.environmentForPipeline(anyString())).thenReturn(environmentConfig);
-            doAnswer(invocation -> {
-                BasicEnvironmentConfig config = invocation.getArgument(0);
-                config.getSecretParams().findFirst("GIT_TOKEN").ifPresent(param -> param.setValue("some-token"));
-                return config;
-            }).when(secretParamResolver).resolve(environmentConfig);
+            when(secretParamResolver.resolve(eq(environmentConfig), anyList(), any())).thenAnswer(invocation -> {
+                invocation.<EnvironmentConfig>getArgument(0).getSecretParams().findFirst("GIT_TOKEN").ifPresent(param -> param.setValue("some-token"));
+                return invocation.<Supplier<BuildAssignment>>getArgument(2).get();
+            });
 
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
             EnvironmentVariableContext environmentVariableContext = work.getAssignment().initialEnvironmentVariableContext();
@@ -314,6 +315,7 @@ class BuildAssignmentServiceTest {
             assertThat(environmentVariableContext.getProperty(GO_AGENT_RESOURCES)).isEqualTo(agentInstance.getResourceConfigs().getCommaSeparatedResourceNames());
             assertThat(environmentVariableContext.getSecureEnvironmentVariables())
                     .contains(new EnvironmentVariableContext.EnvironmentVariable("GIT_TOKEN", "some-token"));
+            assertThat(environmentConfig.getSecretParams().findFirst("GIT_TOKEN").orElseThrow().isUnresolved()).isTrue();
         }
 
         @Test
@@ -340,11 +342,11 @@ class BuildAssignmentServiceTest {
             when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenReturn(pipeline);
             lenient().when(scheduleService.updateAssignedInfo(anyString(), any())).thenReturn(false);
             when(goConfigService.artifactStores()).thenReturn(new ArtifactStores());
-            lenient().doAnswer(invocation -> {
-                BuildAssignment assignment = invocation.getArgument(0);
+            when(secretParamResolver.resolve(isNull(), anyList(), any())).thenAnswer(invocation -> {
+                BuildAssignment assignment = invocation.<Supplier<BuildAssignment>>getArgument(2).get();
                 assignment.getSecretParams().findFirst("GIT_PASSWORD").ifPresent(param -> param.setValue("some-password"));
                 return assignment;
-            }).when(secretParamResolver).resolve(any(BuildAssignment.class));
+            });
 
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
 
@@ -371,12 +373,11 @@ class BuildAssignmentServiceTest {
             when(agentInstance.firstMatching(anyList())).thenReturn(jobPlan1);
             when(pipeline.getBuildCause()).thenReturn(BuildCause.createWithModifications(materialRevisions, "bob"));
             when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenReturn(pipeline);
-            when(goConfigService.artifactStores()).thenReturn(new ArtifactStores());
             when(jobInstanceService.buildById(jobPlan1.getJobId())).thenReturn(jobInstance);
             when(agentInstance.getUuid()).thenReturn("agent_uuid");
             when(jobInstance.getState()).thenReturn(JobState.Completed);
-            lenient().doThrow(new SecretResolutionFailureException("Failed resolving params for keys: 'key1'"))
-                    .when(secretParamResolver).resolve(any(BuildAssignment.class));
+            doThrow(new SecretResolutionFailureException("Failed resolving params for keys: 'key1'"))
+                    .when(secretParamResolver).resolve(isNull(), anyList(), any());
 
             assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
                     .isInstanceOf(SecretResolutionFailureException.class);
@@ -406,7 +407,7 @@ class BuildAssignmentServiceTest {
             when(environmentConfigService.environmentForPipeline(anyString())).thenReturn(new BasicEnvironmentConfig());
             when(jobInstanceService.buildById(anyLong())).thenReturn(jobInstance);
             doThrow(new RulesViolationException("Failed resolving params for keys: 'key1'"))
-                    .when(secretParamResolver).resolve(any(EnvironmentConfig.class));
+                    .when(secretParamResolver).resolve(any(EnvironmentConfig.class), anyList(), any());
 
             assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
                     .isInstanceOf(RulesViolationException.class);
@@ -417,6 +418,69 @@ class BuildAssignmentServiceTest {
             inOrder.verify(jobStatusTopic).post(new JobStatusMessage(jobPlan1.getIdentifier(), JobState.Completed, "agent_uuid"));
         }
 
+        @Test
+        void shouldRescheduleJobIfCreatingWorkFailsAfterTheJobWasAssigned() {
+            final PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
+            pipelineConfig.get(0).getJobs().add(JobConfigMother.jobWithNoResourceRequirement());
+            final AgentInstance agentInstance = mock(AgentInstance.class);
+            final Pipeline pipeline = mock(Pipeline.class);
+            final JobPlan jobPlan1 = getJobPlan(pipelineConfig.getName(), pipelineConfig.get(0).name(), pipelineConfig.get(0).getJobs().last());
+            JobInstance jobInstance = mock(JobInstance.class);
+
+            when(agentInstance.isRegistered()).thenReturn(true);
+            when(agentInstance.getUuid()).thenReturn("agent_uuid");
+            when(agentInstance.firstMatching(anyList())).thenReturn(jobPlan1);
+            when(pipeline.getBuildCause()).thenReturn(BuildCause.createNeverRun());
+            when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenReturn(pipeline);
+            when(scheduleService.updateAssignedInfo(anyString(), any())).thenReturn(false);
+            when(goConfigService.artifactStores()).thenThrow(new RuntimeException("artifact store lookup failed"));
+            when(jobInstanceService.buildById(jobPlan1.getJobId())).thenReturn(jobInstance);
+            when(jobInstance.getState()).thenReturn(JobState.Rescheduled);
+            when(secretParamResolver.resolve(isNull(), anyList(), any())).thenAnswer(invocation -> invocation.<Supplier<BuildAssignment>>getArgument(2).get());
+
+            assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("artifact store lookup failed");
+
+            InOrder inOrder = inOrder(scheduleService, jobStatusTopic);
+            inOrder.verify(scheduleService).updateAssignedInfo("agent_uuid", jobPlan1);
+            inOrder.verify(scheduleService).rescheduleJob(jobInstance);
+            inOrder.verify(jobStatusTopic).post(new JobStatusMessage(jobPlan1.getIdentifier(), JobState.Rescheduled, "agent_uuid"));
+            verify(scheduleService, never()).cancelJob(any(JobInstance.class));
+            verify(agentService, never()).building(anyString(), any());
+        }
+
+        @Test
+        void shouldCancelJobIfItsPipelineIsDeletedWhileCreatingWorkAfterTheJobWasAssigned() {
+            final PipelineConfig pipelineConfig = PipelineConfigMother.pipelineConfig(UUID.randomUUID().toString());
+            pipelineConfig.get(0).getJobs().add(JobConfigMother.jobWithNoResourceRequirement());
+            final AgentInstance agentInstance = mock(AgentInstance.class);
+            final Pipeline pipeline = mock(Pipeline.class);
+            final JobPlan jobPlan1 = getJobPlan(pipelineConfig.getName(), pipelineConfig.get(0).name(), pipelineConfig.get(0).getJobs().last());
+            JobInstance jobInstance = mock(JobInstance.class);
+
+            when(agentInstance.isRegistered()).thenReturn(true);
+            when(agentInstance.getUuid()).thenReturn("agent_uuid");
+            when(agentInstance.firstMatching(anyList())).thenReturn(jobPlan1);
+            when(pipeline.getBuildCause()).thenReturn(BuildCause.createNeverRun());
+            when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenReturn(pipeline);
+            when(scheduleService.updateAssignedInfo(anyString(), any())).thenReturn(false);
+            when(goConfigService.findGroupNameByPipeline(any())).thenThrow(new RecordNotFoundException("pipeline deleted"));
+            when(goConfigService.getCurrentConfig()).thenReturn(new BasicCruiseConfig());
+            when(jobInstanceService.buildByIdWithTransitions(jobPlan1.getJobId())).thenReturn(jobInstance);
+            when(jobInstanceService.buildById(jobPlan1.getJobId())).thenReturn(jobInstance);
+            when(jobInstance.getState()).thenReturn(JobState.Completed);
+            when(secretParamResolver.resolve(isNull(), anyList(), any())).thenAnswer(invocation -> invocation.<Supplier<BuildAssignment>>getArgument(2).get());
+
+            assertThatCode(() -> buildAssignmentService.assignWorkToAgent(agentInstance))
+                    .isInstanceOf(RecordNotFoundException.class);
+
+            InOrder inOrder = inOrder(scheduleService, jobStatusTopic);
+            inOrder.verify(scheduleService).cancelJob(jobInstance);
+            inOrder.verify(jobStatusTopic).post(new JobStatusMessage(jobPlan1.getIdentifier(), JobState.Completed, "agent_uuid"));
+            verify(agentService, never()).building(anyString(), any());
+        }
+
         @Test
         void shouldResolveSecretsInPluggableScmMaterialAndPackageMaterialBeforeCreatingAssignment() {
             final GitMaterial gitMaterial = MaterialsMother.gitMaterial("http://foo.com");
@@ -447,25 +511,18 @@ class BuildAssignmentServiceTest {
             when(scheduledPipelineLoader.pipelineWithPasswordAwareBuildCauseByBuildId(anyLong())).thenReturn(pipeline);
             lenient().when(scheduleService.updateAssignedInfo(anyString(), any())).thenReturn(false);
             when(goConfigService.artifactStores()).thenReturn(new ArtifactStores());
-            doAnswer(invocation -> {
-                BuildAssignment assignment = invocation.getArgument(0);
+            when(secretParamResolver.resolve(isNull(), eq(List.of(gitMaterial, pluggableSCMMaterial, packageMaterial)), any())).thenAnswer(invocation -> {
+                List<Material> materials = invocation.getArgument(1);
+                ((PluggableSCMMaterial) materials.get(1)).getScmConfig().getConfiguration().get(0).getSecretParams().get(0).setValue("some-scm-password");
+                ((PackageMaterial) materials.get(2)).getPackageDefinition().getConfiguration().get(0).getSecretParams().get(0).setValue("some-pkg-password");
+                BuildAssignment assignment = invocation.<Supplier<BuildAssignment>>getArgument(2).get();
                 assignment.getSecretParams().findFirst("GIT_PASSWORD").ifPresent(param -> param.setValue("some-password"));
                 return assignment;
-            }).when(secretParamResolver).resolve(any(BuildAssignment.class));
-            doAnswer(invocation -> {
-                List<Material> materials = invocation.getArgument(0);
-                ((PluggableSCMMaterial) materials.get(0)).getScmConfig().getConfiguration().get(0).getSecretParams().get(0).setValue("some-scm-password");
-                ((PackageMaterial) materials.get(1)).getPackageDefinition().getConfiguration().get(0).getSecretParams().get(0).setValue("some-pkg-password");
-                return materials;
-            }).when(secretParamResolver).resolve(anyList());
-
-            InOrder inOrder = inOrder(goConfigService, secretParamResolver);
+            });
 
             BuildWork work = (BuildWork) buildAssignmentService.assignWorkToAgent(agentInstance);
 
-            inOrder.verify(secretParamResolver).resolve(List.of(pluggableSCMMaterial, packageMaterial));
-            inOrder.verify(goConfigService).artifactStores();
-            inOrder.verify(secretParamResolver).resolve(any(BuildAssignment.class));
+            verify(goConfigService).artifactStores();
 
             assertThat(gitMaterial.hasSecretParams()).isTrue();
             ScmMaterial material = (ScmMaterial) work.getAssignment().materialRevisions().getMaterialRevision(0).getMaterial();
@@ -482,8 +539,7 @@ class BuildAssignmentServiceTest {
         String pipelineName = "pipeline1";
         String environmentName = "uat_environment";
 
-        when(environmentConfigService.environmentForPipeline(pipelineName)).thenReturn(new BasicEnvironmentConfig(new CaseInsensitiveString(environmentName)));
-        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName);
+        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName, new BasicEnvironmentConfig(new CaseInsensitiveString(environmentName)));
 
         assertThat(context.getProperties().size()).isEqualTo(2);
         assertThat(context.getProperty(GO_ENVIRONMENT_NAME)).isEqualTo(environmentName);
@@ -496,8 +552,7 @@ class BuildAssignmentServiceTest {
         String environmentName = "uat_environment";
 
         when(goConfigService.findGroupNameByPipeline(new CaseInsensitiveString(pipelineName))).thenReturn(pipelineGroupName);
-        when(environmentConfigService.environmentForPipeline(pipelineName)).thenReturn(new BasicEnvironmentConfig(new CaseInsensitiveString(environmentName)));
-        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName);
+        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName, new BasicEnvironmentConfig(new CaseInsensitiveString(environmentName)));
 
         assertThat(context.getProperties().size()).isEqualTo(2);
         assertThat(context.getProperty(GO_PIPELINE_GROUP_NAME)).isEqualTo(pipelineGroupName);
@@ -507,8 +562,7 @@ class BuildAssignmentServiceTest {
     void shouldNotSetEnvPropertyWhenNoEnvironmentBelongingToSpecifiedPipelineExists() {
         String pipelineName = "pipeline1";
 
-        when(environmentConfigService.environmentForPipeline(pipelineName)).thenReturn(null);
-        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName);
+        EnvironmentVariableContext context = buildAssignmentService.buildEnvVarContext(pipelineName, null);
 
         assertThat(context.getProperties().size()).isEqualTo(1);
         assertThat(context.getProperty(GO_ENVIRONMENT_NAME)).isNullOrEmpty();
@@ -0,0 +1,134 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.*;
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.StageIdentifier;
+import com.thoughtworks.go.domain.StageResult;
+import com.thoughtworks.go.domain.StageState;
+import com.thoughtworks.go.server.domain.PipelineLockStatusChangeListener;
+import com.thoughtworks.go.server.domain.PipelinePauseChangeListener;
+import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.materials.MaterialUpdateCompletedMessage;
+import com.thoughtworks.go.server.materials.MaterialUpdateCompletedTopic;
+import com.thoughtworks.go.server.materials.MaterialUpdateFailedMessage;
+import com.thoughtworks.go.server.materials.MaterialUpdateSuccessfulMessage;
+import com.thoughtworks.go.server.messaging.GoMessageListener;
+import com.thoughtworks.go.server.messaging.StageStatusMessage;
+import com.thoughtworks.go.server.messaging.StageStatusTopic;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static com.thoughtworks.go.helper.PipelineConfigMother.pipelineConfig;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class PipelineChangeTrackerTest {
+    private SystemEnvironment systemEnvironment;
+    private TestingClock clock;
+    private PipelineChangeTracker tracker;
+    private GoMessageListener<MaterialUpdateCompletedMessage> materialUpdateListener;
+    private GoMessageListener<StageStatusMessage> stageStatusListener;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MaterialUpdateCompletedTopic materialUpdateCompletedTopic = mock(MaterialUpdateCompletedTopic.class);
+        StageStatusTopic stageStatusTopic = mock(StageStatusTopic.class);
+        systemEnvironment = mock(SystemEnvironment.class);
+        clock = new TestingClock();
+        tracker = new PipelineChangeTracker(materialUpdateCompletedTopic, stageStatusTopic, mock(PipelinePauseService.class),
+                mock(PipelineLockService.class), systemEnvironment, clock);
+
+        ArgumentCaptor<GoMessageListener<MaterialUpdateCompletedMessage>> materialUpdateCaptor = ArgumentCaptor.forClass(GoMessageListener.class);
+        verify(materialUpdateCompletedTopic).addListener(materialUpdateCaptor.capture());
+        materialUpdateListener = materialUpdateCaptor.getValue();
+        ArgumentCaptor<GoMessageListener<StageStatusMessage>> stageStatusCaptor = ArgumentCaptor.forClass(GoMessageListener.class);
+        verify(stageStatusTopic).addListener(stageStatusCaptor.capture());
+        stageStatusListener = stageStatusCaptor.getValue();
+
+        tracker.onConfigChange(config(pipelineConfig("up", new MaterialConfigs(git("https://example.com/up.git"))),
+                pipelineConfig("down", new MaterialConfigs(git("https://example.com/down.git")))));
+        tracker.hasChanged("up");
+        tracker.hasChanged("down");
+    }
+
+    @Test
+    void shouldConsiderPipelinesChangedOnlyOnce() {
+        tracker.lockStatusChanged(PipelineLockStatusChangeListener.Event.unLock("up"));
+
+        assertThat(tracker.hasChanged("up")).isTrue();
+        assertThat(tracker.hasChanged("up")).isFalse();
+        assertThat(tracker.hasChanged("down")).isFalse();
+    }
+
+    @Test
+    void shouldConsiderPipelinesWhoseConfigChangedAsChanged() {
+        tracker.onConfigChange(config(pipelineConfig("up", new MaterialConfigs(git("https://example.com/up.git"))),
+                pipelineConfig("down", new MaterialConfigs(git("https://example.com/moved.git")))));
+
+        assertThat(tracker.hasChanged("up")).isFalse();
+        assertThat(tracker.hasChanged("down")).isTrue();
+    }
+
+    @Test
+    void shouldConsiderPipelinesUsingAMaterialWithNewModificationsAsChanged() {
+        materialUpdateListener.onMessage(new MaterialUpdateFailedMessage(new GitMaterial(git("https://example.com/down.git")), 1, new RuntimeException()));
+        assertThat(tracker.hasChanged("down")).isFalse();
+
+        materialUpdateListener.onMessage(new MaterialUpdateSuccessfulMessage(new GitMaterial(git("https://example.com/down.git")), 2, false, 0));
+        assertThat(tracker.hasChanged("down")).isFalse();
+
+        materialUpdateListener.onMessage(new MaterialUpdateSuccessfulMessage(new GitMaterial(git("https://example.com/down.git")), 3, true, 0));
+        assertThat(tracker.hasChanged("up")).isFalse();
+        assertThat(tracker.hasChanged("down")).isTrue();
+    }
+
+    @Test
+    void shouldConsiderPipelinesWithACompletedStageAsChanged() {
+        stageStatusListener.onMessage(new StageStatusMessage(new StageIdentifier("Up", 1, "build", "1"), StageState.Building, StageResult.Unknown));
+        assertThat(tracker.hasChanged("up")).isFalse();
+
+        stageStatusListener.onMessage(new StageStatusMessage(new StageIdentifier("Up", 1, "build", "1"), StageState.Passed, StageResult.Passed));
+        assertThat(tracker.hasChanged("up")).isTrue();
+    }
+
+    @Test
+    void shouldConsiderPausedAndUnpausedPipelinesAsChanged() {
+        tracker.pauseStatusChanged(PipelinePauseChangeListener.Event.unPause("down", Username.ANONYMOUS));
+
+        assertThat(tracker.hasChanged("DOWN")).isTrue();
+    }
+
+    @Test
+    void shouldSweepOnceEverySweepInterval() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SCHEDULE_CHECK_SWEEP_INTERVAL_IN_SECONDS)).thenReturn(300);
+
+        assertThat(tracker.isSweepDue()).isFalse();
+        clock.addSeconds(300);
+        assertThat(tracker.isSweepDue()).isTrue();
+        assertThat(tracker.isSweepDue()).isFalse();
+    }
+
+    private static CruiseConfig config(PipelineConfig... pipelineConfigs) {
+        return new BasicCruiseConfig(new BasicPipelineConfigs("group", new Authorization(), pipelineConfigs));
+    }
+}
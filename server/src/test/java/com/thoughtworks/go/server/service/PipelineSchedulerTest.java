@@ -54,6 +54,7 @@ public class PipelineSchedulerTest {
     private PipelineScheduler scheduler;
     private GoConfigService configService;
     private BuildCauseProducerService buildCauseProducerService;
+    private PipelineChangeTracker pipelineChangeTracker;
 
     @BeforeEach
     public void setUp() {
@@ -64,8 +65,9 @@ public class PipelineSchedulerTest {
         buildCauseProducerService = mock(BuildCauseProducerService.class);
         ScheduleCheckCompletedTopic topic = mock(ScheduleCheckCompletedTopic.class);
         SchedulingPerformanceLogger schedulingPerformanceLogger = mock(SchedulingPerformanceLogger.class);
+        pipelineChangeTracker = mock(PipelineChangeTracker.class);
         scheduler = new PipelineScheduler(configService, serverHealthService, schedulingCheckerService,
-                buildCauseProducerService, queue, topic, schedulingPerformanceLogger);
+                buildCauseProducerService, queue, topic, schedulingPerformanceLogger, pipelineChangeTracker);
     }
 
     @Test
@@ -103,6 +105,30 @@ public class PipelineSchedulerTest {
         verify(queue, times(2)).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("cruise"));
     }
 
+    @Test
+    public void shouldOnlyCheckPipelinesWhichHaveChangedWhenTrackingChanges() {
+        when(pipelineChangeTracker.isEnabled()).thenReturn(true);
+        when(pipelineChangeTracker.hasChanged("mingle")).thenReturn(true);
+        scheduler.onConfigChange(configWithPipelines("cruise", "mingle"));
+
+        scheduler.checkPipelines();
+
+        verify(queue).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("mingle"));
+        verifyNoMoreInteractions(queue);
+    }
+
+    @Test
+    public void shouldCheckAllPipelinesWhenASweepIsDueWhileTrackingChanges() {
+        when(pipelineChangeTracker.isEnabled()).thenReturn(true);
+        when(pipelineChangeTracker.isSweepDue()).thenReturn(true);
+        scheduler.onConfigChange(configWithPipelines("cruise", "mingle"));
+
+        scheduler.checkPipelines();
+
+        verify(queue).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("cruise"));
+        verify(queue).post(ScheduleCheckMessageMatcher.matchScheduleCheckMessage("mingle"));
+    }
+
     @Test
     public void shouldAddErrorIfPipelineIsNotFound() {
         when(configService.hasPipelineNamed(new CaseInsensitiveString("invalid"))).thenReturn(false);
@@ -0,0 +1,113 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service;
+
+import com.thoughtworks.go.config.SecretConfig;
+import com.thoughtworks.go.plugin.domain.secrets.Secret;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.thoughtworks.go.domain.packagerepository.ConfigurationPropertyMother.create;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SecretLookupCacheTest {
+    private final SecretConfig secretConfig = new SecretConfig("vault", "cd.go.vault");
+    private final List<Set<String>> lookups = new ArrayList<>();
+    private final Function<Set<String>, List<Secret>> plugin = keys -> {
+        lookups.add(keys);
+        return keys.stream().map(key -> new Secret(key, key + "-value")).toList();
+    };
+
+    private SystemEnvironment systemEnvironment;
+    private TestingClock clock;
+    private SecretLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        clock = new TestingClock();
+        cache = new SecretLookupCache(systemEnvironment, clock);
+    }
+
+    @Test
+    void shouldAlwaysAskThePluginWhenCachingIsDisabled() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS)).thenReturn(0);
+
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+        List<Secret> secrets = cache.lookup(secretConfig, Set.of("password"), plugin);
+
+        assertThat(secrets).containsExactly(new Secret("password", "password-value"));
+        assertThat(lookups).hasSize(2);
+    }
+
+    @Test
+    void shouldOnlyAskThePluginForSecretsWhichAreNotCached() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS)).thenReturn(60);
+
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+        List<Secret> secrets = cache.lookup(secretConfig, Set.of("password", "username"), plugin);
+
+        assertThat(secrets).containsExactlyInAnyOrder(new Secret("password", "password-value"), new Secret("username", "username-value"));
+        assertThat(lookups).containsExactly(Set.of("password"), Set.of("username"));
+    }
+
+    @Test
+    void shouldAskThePluginAgainOnceTheCachedSecretHasExpired() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS)).thenReturn(60);
+
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+        clock.addSeconds(61);
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+
+        assertThat(lookups).containsExactly(Set.of("password"), Set.of("password"));
+    }
+
+    @Test
+    void shouldNotUseSecretsLookedUpWithAPreviousVersionOfTheSecretConfig() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS)).thenReturn(60);
+        SecretConfig changedSecretConfig = new SecretConfig("vault", "cd.go.vault", create("Address", "https://another.vault"));
+
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+        cache.lookup(changedSecretConfig, Set.of("password"), plugin);
+
+        assertThat(lookups).hasSize(2);
+    }
+
+    @Test
+    void shouldTrackHitsAndLookupsPerSecretConfig() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_SECRETS_LOOKUP_CACHE_TTL_IN_SECONDS)).thenReturn(60);
+
+        cache.lookup(secretConfig, Set.of("password"), plugin);
+        cache.lookup(secretConfig, Set.of("password", "username"), plugin);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> statistics = (Map<String, Object>) cache.statistics().get("vault");
+        assertThat(statistics)
+                .containsEntry("CacheHits", 1L)
+                .containsEntry("CacheMisses", 2L)
+                .containsEntry("PluginLookups", 2L);
+    }
+}
@@ -43,6 +43,8 @@ import com.thoughtworks.go.plugin.access.secrets.SecretsExtension;
 import com.thoughtworks.go.plugin.domain.secrets.Secret;
 import com.thoughtworks.go.remote.work.BuildAssignment;
 import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TimeProvider;
 import com.thoughtworks.go.util.command.EnvironmentVariableContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
@@ -73,7 +75,7 @@ class SecretParamResolverTest {
     @BeforeEach
     void setUp() {
 
-        secretParamResolver = new SecretParamResolver(secretsExtension, goConfigService, rulesService);
+        secretParamResolver = new SecretParamResolver(secretsExtension, goConfigService, rulesService, new SecretLookupCache(new SystemEnvironment(), new TimeProvider()));
     }
 
     @Nested
@@ -242,6 +244,61 @@ class SecretParamResolverTest {
         }
     }
 
+    @Nested
+    class ResolveEverythingForBuildAssignment {
+        @Test
+        void shouldLookupSecretsOfEnvironmentAndMaterialsTogetherAndReuseThemForTheAssignment() {
+            BasicEnvironmentConfig environmentConfig = new BasicEnvironmentConfig(new CaseInsensitiveString("dev"));
+            environmentConfig.addEnvironmentVariable("Token", "{{SECRET:[secret_config_id][password]}}");
+            PackageMaterial packageMaterial = packageMaterial();
+            packageMaterial.getPackageDefinition().getConfiguration().get(0).setConfigurationValue(new ConfigurationValue("{{SECRET:[secret_config_id][pkg_password]}}"));
+            EnvironmentVariables jobEnvironmentVariables = new EnvironmentVariables();
+            jobEnvironmentVariables.add("Password", "{{SECRET:[secret_config_id][password]}}");
+            jobEnvironmentVariables.add("Username", "{{SECRET:[secret_config_id][username]}}");
+
+            SecretConfig secretConfig = new SecretConfig("secret_config_id", "cd.go.file");
+            when(goConfigService.cruiseConfig())
+                    .thenReturn(GoConfigMother.configWithSecretConfig(secretConfig));
+            when(secretsExtension.lookupSecrets("cd.go.file", secretConfig, Set.of("password", "pkg_password")))
+                    .thenReturn(List.of(new Secret("password", "some-password"), new Secret("pkg_password", "some-pkg-password")));
+            when(secretsExtension.lookupSecrets("cd.go.file", secretConfig, Set.of("username")))
+                    .thenReturn(List.of(new Secret("username", "some-username")));
+
+            BuildAssignment buildAssignment = secretParamResolver.resolve(environmentConfig, List.of(packageMaterial), () -> {
+                assertThat(environmentConfig.getSecretParams().get(0).getValue()).isEqualTo("some-password");
+                assertThat(packageMaterial.getPackageDefinition().getConfiguration().get(0).getResolvedValue()).isEqualTo("some-pkg-password");
+                return createAssignment(jobEnvironmentVariables);
+            });
+
+            verify(rulesService).validateSecretConfigReferences(environmentConfig);
+            verify(rulesService).validateSecretConfigReferences(packageMaterial);
+            verify(rulesService).validateSecretConfigReferences(buildAssignment);
+            verify(secretsExtension, times(2)).lookupSecrets(eq("cd.go.file"), eq(secretConfig), anySet());
+            assertThat(buildAssignment.initialEnvironmentVariableContext().getProperty("Password")).isEqualTo("some-password");
+            assertThat(buildAssignment.initialEnvironmentVariableContext().getProperty("Username")).isEqualTo("some-username");
+        }
+
+        @Test
+        void shouldNotCreateAssignment_IfEnvironmentDoesNotHavePermissionToReferToASecretConfig() {
+            BasicEnvironmentConfig environmentConfig = new BasicEnvironmentConfig(new CaseInsensitiveString("dev"));
+            environmentConfig.addEnvironmentVariable("key", "{{SECRET:[secret_config_id][password]}}");
+
+            doThrow(new RuntimeException()).when(rulesService).validateSecretConfigReferences(environmentConfig);
+
+            assertThatCode(() -> secretParamResolver.resolve(environmentConfig, List.of(), () -> {
+                throw new AssertionError("should not create assignment");
+            })).isInstanceOf(RuntimeException.class);
+
+            verifyNoInteractions(secretsExtension);
+        }
+
+        private BuildAssignment createAssignment(EnvironmentVariables jobEnvironmentVariables) {
+            BuildCause buildCause = BuildCause.createManualForced(new MaterialRevisions(), Username.ANONYMOUS);
+            JobPlan plan = defaultJobPlan(jobEnvironmentVariables, new EnvironmentVariables());
+            return BuildAssignment.create(plan, buildCause, new ArrayList<>(), null, null, new ArtifactStores());
+        }
+    }
+
     @Nested
     class ResolveEnvironmentConfig {
         @Test
@@ -52,6 +52,7 @@ public class StubGoCache extends GoCache {
     @Override
     public void clear() {
         map.clear();
+        clearRegions();
     }
 
     @Override
@@ -0,0 +1,113 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.dd;
+
+import com.thoughtworks.go.config.BasicCruiseConfig;
+import com.thoughtworks.go.config.BasicPipelineConfigs;
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.config.PipelineConfig;
+import com.thoughtworks.go.config.materials.MaterialConfigs;
+import com.thoughtworks.go.helper.PipelineConfigMother;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.thoughtworks.go.helper.MaterialConfigsMother.git;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FanInGraphCacheTest {
+    private final AtomicInteger builds = new AtomicInteger();
+
+    private SystemEnvironment systemEnvironment;
+    private FanInGraphCache cache;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        cache = new FanInGraphCache(systemEnvironment);
+    }
+
+    @Test
+    void shouldBuildTheGraphEveryTimeWhenCachingIsDisabled() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_FANIN_GRAPH_CACHE_SIZE)).thenReturn(0);
+        CruiseConfig cruiseConfig = config("p1");
+
+        FanInGraph first = cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"));
+        FanInGraph second = cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReuseTheGraphOfAPipelineForAsLongAsTheConfigIsTheSame() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_FANIN_GRAPH_CACHE_SIZE)).thenReturn(10);
+        CruiseConfig cruiseConfig = config("p1");
+
+        FanInGraph first = cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"));
+        FanInGraph second = cache.graphFor(cruiseConfig, new CaseInsensitiveString("P1"), builder(cruiseConfig, "p1"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(builds.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBuildTheGraphAgainOnceTheConfigHasChanged() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_FANIN_GRAPH_CACHE_SIZE)).thenReturn(10);
+        CruiseConfig cruiseConfig = config("p1");
+        CruiseConfig changedConfig = config("p1");
+
+        FanInGraph first = cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"));
+        FanInGraph second = cache.graphFor(changedConfig, new CaseInsensitiveString("p1"), builder(changedConfig, "p1"));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(cache.graphFor(changedConfig, new CaseInsensitiveString("p1"), builder(changedConfig, "p1"))).isSameAs(second);
+    }
+
+    @Test
+    void shouldForgetTheLeastRecentlyUsedGraphsWhenFull() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_FANIN_GRAPH_CACHE_SIZE)).thenReturn(1);
+        CruiseConfig cruiseConfig = config("p1", "p2");
+
+        FanInGraph first = cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"));
+        cache.graphFor(cruiseConfig, new CaseInsensitiveString("p2"), builder(cruiseConfig, "p2"));
+
+        assertThat(cache.graphFor(cruiseConfig, new CaseInsensitiveString("p1"), builder(cruiseConfig, "p1"))).isNotSameAs(first);
+        assertThat(builds.get()).isEqualTo(3);
+    }
+
+    private Supplier<FanInGraph> builder(CruiseConfig cruiseConfig, String pipelineName) {
+        return () -> {
+            builds.incrementAndGet();
+            return new FanInGraph(cruiseConfig, new CaseInsensitiveString(pipelineName), null, null, null, null);
+        };
+    }
+
+    private CruiseConfig config(String... pipelineNames) {
+        BasicPipelineConfigs pipelines = new BasicPipelineConfigs();
+        for (String pipelineName : pipelineNames) {
+            PipelineConfig pipeline = PipelineConfigMother.pipelineConfig(pipelineName, new MaterialConfigs(git("url-of-" + pipelineName)));
+            pipelines.add(pipeline);
+        }
+        return new BasicCruiseConfig(pipelines);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.service.materials;
+
+import com.thoughtworks.go.config.materials.git.GitMaterial;
+import com.thoughtworks.go.domain.materials.mercurial.StringRevision;
+import com.thoughtworks.go.util.SystemEnvironment;
+import com.thoughtworks.go.util.TestingClock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class GitRemoteRefProbeTest {
+    private SystemEnvironment systemEnvironment;
+    private TestingClock clock;
+    private GitRemoteRefProbe probe;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        clock = new TestingClock();
+        probe = new GitRemoteRefProbe(systemEnvironment, clock);
+    }
+
+    @Test
+    void shouldNotListRemoteRefsWhenDisabled() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_REF_PROBE_ENABLED)).thenReturn(false);
+        GitMaterial material = mock(GitMaterial.class);
+
+        assertThat(probe.isUnchangedSince(material, new StringRevision("abc"))).isFalse();
+        verify(material, never()).remoteRefs();
+    }
+
+    @Test
+    void shouldTellWhetherTheRemoteBranchHasMoved() {
+        enable();
+        GitMaterial master = material("https://example.com/repo.git", "refs/heads/master");
+
+        assertThat(probe.isUnchangedSince(master, new StringRevision("abc"))).isTrue();
+        assertThat(probe.isUnchangedSince(master, new StringRevision("def"))).isFalse();
+    }
+
+    @Test
+    void shouldNotTreatAnUnknownRefAsUnchanged() {
+        enable();
+        GitMaterial material = material("https://example.com/repo.git", "refs/pull/1/head");
+
+        assertThat(probe.isUnchangedSince(material, new StringRevision("abc"))).isFalse();
+    }
+
+    @Test
+    void shouldListTheRefsOfARemoteOnceForAllMaterialsUsingIt() {
+        enable();
+        GitMaterial master = material("https://example.com/repo.git", "refs/heads/master");
+        GitMaterial release = material("https://example.com/repo.git", "refs/heads/release");
+
+        assertThat(probe.isUnchangedSince(master, new StringRevision("abc"))).isTrue();
+        assertThat(probe.isUnchangedSince(release, new StringRevision("123"))).isTrue();
+
+        verify(master).remoteRefs();
+        verify(release, never()).remoteRefs();
+    }
+
+    @Test
+    void shouldListTheRefsAgainOnceTheyHaveExpired() {
+        enable();
+        GitMaterial master = material("https://example.com/repo.git", "refs/heads/master");
+
+        probe.isUnchangedSince(master, new StringRevision("abc"));
+        clock.addSeconds(11);
+        probe.isUnchangedSince(master, new StringRevision("abc"));
+
+        verify(master, times(2)).remoteRefs();
+    }
+
+    @Test
+    void shouldNotTreatTheBranchAsUnchangedWhenTheRemoteCannotBeListed() {
+        enable();
+        GitMaterial material = mock(GitMaterial.class);
+        when(material.urlForCommandLine()).thenReturn("https://example.com/repo.git");
+        when(material.remoteRefs()).thenThrow(new RuntimeException("Connection refused"));
+
+        assertThat(probe.isUnchangedSince(material, new StringRevision("abc"))).isFalse();
+    }
+
+    private void enable() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_REF_PROBE_ENABLED)).thenReturn(true);
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_GIT_REMOTE_REF_PROBE_TTL_IN_SECONDS)).thenReturn(10);
+    }
+
+    private GitMaterial material(String url, String upstreamRef) {
+        GitMaterial material = mock(GitMaterial.class);
+        when(material.urlForCommandLine()).thenReturn(url);
+        when(material.fullUpstreamRef()).thenReturn(upstreamRef);
+        when(material.remoteRefs()).thenReturn(Map.of("refs/heads/master", "abc", "refs/heads/release", "123"));
+        return material;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.server.valuestreammap;
+
+import com.thoughtworks.go.config.BasicCruiseConfig;
+import com.thoughtworks.go.config.CaseInsensitiveString;
+import com.thoughtworks.go.config.CruiseConfig;
+import com.thoughtworks.go.domain.Stage;
+import com.thoughtworks.go.domain.StageIdentifier;
+import com.thoughtworks.go.domain.valuestreammap.PipelineDependencyNode;
+import com.thoughtworks.go.domain.valuestreammap.PipelineRevision;
+import com.thoughtworks.go.domain.valuestreammap.ValueStreamMap;
+import com.thoughtworks.go.server.domain.Username;
+import com.thoughtworks.go.server.presentation.models.ValueStreamMapPresentationModel;
+import com.thoughtworks.go.server.service.StageService;
+import com.thoughtworks.go.util.SystemEnvironment;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+class ValueStreamMapCacheTest {
+    private final CaseInsensitiveString upstream = new CaseInsensitiveString("upstream");
+    private final Username user = new Username("bob");
+    private final CruiseConfig cruiseConfig = new BasicCruiseConfig();
+    private final ValueStreamMapPresentationModel presentationModel = mock(ValueStreamMapPresentationModel.class);
+
+    private SystemEnvironment systemEnvironment;
+    private StageService stageService;
+    private ValueStreamMapCache cache;
+    private ValueStreamMap valueStreamMap;
+
+    @BeforeEach
+    void setUp() {
+        systemEnvironment = mock(SystemEnvironment.class);
+        stageService = mock(StageService.class);
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_VALUE_STREAM_MAP_CACHE_SIZE)).thenReturn(10);
+        cache = new ValueStreamMapCache(stageService, systemEnvironment);
+
+        valueStreamMap = new ValueStreamMap(upstream, new PipelineRevision("upstream", 1, "1"));
+        valueStreamMap.addDownstreamNode(new PipelineDependencyNode(new CaseInsensitiveString("downstream"), "downstream"), upstream);
+    }
+
+    @Test
+    void shouldListenToStageStatusChanges() {
+        verify(stageService).addStageStatusListener(cache);
+    }
+
+    @Test
+    void shouldRememberValueStreamMapsPerUser() {
+        cache.put(upstream, 1, user, cruiseConfig, valueStreamMap, presentationModel, cache.changesSoFar());
+
+        assertThat(cache.get(new CaseInsensitiveString("UPSTREAM"), 1, new Username("BOB"), cruiseConfig)).isSameAs(presentationModel);
+        assertThat(cache.get(upstream, 2, user, cruiseConfig)).isNull();
+        assertThat(cache.get(upstream, 1, new Username("alice"), cruiseConfig)).isNull();
+    }
+
+    @Test
+    void shouldForgetValueStreamMapsOnceTheConfigChanges() {
+        cache.put(upstream, 1, user, cruiseConfig, valueStreamMap, presentationModel, cache.changesSoFar());
+
+        assertThat(cache.get(upstream, 1, user, new BasicCruiseConfig())).isNull();
+        assertThat(cache.get(upstream, 1, user, cruiseConfig)).isNull();
+    }
+
+    @Test
+    void shouldForgetValueStreamMapsWhenAStageOfAnyPipelineInThemChanges() {
+        cache.put(upstream, 1, user, cruiseConfig, valueStreamMap, presentationModel, cache.changesSoFar());
+
+        cache.stageStatusChanged(stageOf("unrelated"));
+        assertThat(cache.get(upstream, 1, user, cruiseConfig)).isSameAs(presentationModel);
+
+        cache.stageStatusChanged(stageOf("downstream"));
+        assertThat(cache.get(upstream, 1, user, cruiseConfig)).isNull();
+    }
+
+    @Test
+    void shouldNotRememberValueStreamMapsWhichChangedWhileTheyWereBeingBuilt() {
+        long changesSoFar = cache.changesSoFar();
+        cache.stageStatusChanged(stageOf("downstream"));
+
+        cache.put(upstream, 1, user, cruiseConfig, valueStreamMap, presentationModel, changesSoFar);
+
+        assertThat(cache.get(upstream, 1, user, cruiseConfig)).isNull();
+    }
+
+    @Test
+    void shouldOnlyRememberTheMostRecentlyUsedValueStreamMaps() {
+        when(systemEnvironment.get(SystemEnvironment.GO_SERVER_VALUE_STREAM_MAP_CACHE_SIZE)).thenReturn(1);
+
+        cache.put(upstream, 1, user, cruiseConfig, valueStreamMap, presentationModel, cache.changesSoFar());
+        cache.put(upstream, 2, user, cruiseConfig, valueStreamMap, presentationModel, cache.changesSoFar());
+
+        assertThat(cache.get(upstream, 1, user, cruiseConfig)).isNull();
+        assertThat(cache.get(upstream, 2, user, cruiseConfig)).isSameAs(presentationModel);
+    }
+
+    private Stage stageOf(String pipelineName) {
+        Stage stage = new Stage();
+        stage.setIdentifier(new StageIdentifier(pipelineName, 1, "build", "1"));
+        return stage;
+    }
+}
@@ -34,6 +34,7 @@ import com.thoughtworks.go.domain.materials.svn.SvnCommand;
 import com.thoughtworks.go.domain.packagerepository.PackageRepository;
 import com.thoughtworks.go.domain.scm.SCM;
 import com.thoughtworks.go.helper.*;
+import com.thoughtworks.go.server.perf.MetricsRegistry;
 import com.thoughtworks.go.server.service.MaintenanceModeService;
 import com.thoughtworks.go.serverhealth.ServerHealthService;
 import com.thoughtworks.go.service.ConfigRepository;
@@ -130,15 +131,16 @@ public class GoConfigFileHelper {
             ConfigElementImplementationRegistry configElementImplementationRegistry = ConfigElementImplementationRegistryMother.withNoPlugins();
             CachedGoPartials cachedGoPartials = new CachedGoPartials(serverHealthService);
             FullConfigSaveNormalFlow normalFlow = new FullConfigSaveNormalFlow(configCache, configElementImplementationRegistry, systemEnvironment, new TimeProvider(), configRepository, cachedGoPartials);
+            ValidatedConfigSnapshot validatedConfigSnapshot = mock(ValidatedConfigSnapshot.class);
             GoFileConfigDataSource dataSource = new GoFileConfigDataSource(new DoNotUpgrade(), configRepository, systemEnvironment, new TimeProvider(),
-                    configCache, configElementImplementationRegistry, cachedGoPartials, null, normalFlow, mock(PartialConfigHelper.class));
+                    configCache, configElementImplementationRegistry, cachedGoPartials, null, normalFlow, mock(PartialConfigHelper.class), validatedConfigSnapshot);
             GoConfigMigration goConfigMigration = new GoConfigMigration(new TimeProvider());
-            GoConfigMigrator goConfigMigrator = new GoConfigMigrator(goConfigMigration, new SystemEnvironment(), configCache, configElementImplementationRegistry, normalFlow, configRepository, serverHealthService);
+            GoConfigMigrator goConfigMigrator = new GoConfigMigrator(goConfigMigration, new SystemEnvironment(), configCache, configElementImplementationRegistry, normalFlow, configRepository, serverHealthService, validatedConfigSnapshot);
             Files.writeString(dataSource.location(), ConfigFileFixture.configWithSecurity(""), UTF_8);
             goConfigMigrator.migrate();
             CachedGoConfig cachedConfigService = new CachedGoConfig(serverHealthService, dataSource, cachedGoPartials, null, maintenanceModeService);
             cachedConfigService.loadConfigIfNull();
-            return new GoConfigDao(cachedConfigService);
+            return new GoConfigDao(cachedConfigService, new MetricsRegistry());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
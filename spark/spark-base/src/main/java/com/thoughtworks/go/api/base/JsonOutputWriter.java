@@ -22,10 +22,10 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.gson.internal.bind.util.ISO8601Utils;
 import com.thoughtworks.go.config.CaseInsensitiveString;
 import com.thoughtworks.go.spark.RequestContext;
+import com.thoughtworks.go.util.SystemEnvironment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.Collection;
@@ -41,21 +41,33 @@ public class JsonOutputWriter {
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     public static final JsonFactory JSON_FACTORY = new JsonFactory(OBJECT_MAPPER)
             .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
-            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)
-            .enable(JsonGenerator.Feature.STRICT_DUPLICATE_DETECTION);
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+
+    // Tracking every field name written is only worth it while testing representers, not on every API response
+    private static final JsonFactory GENERATOR_FACTORY = new SystemEnvironment().get(SystemEnvironment.GO_API_JSON_STRICT_DUPLICATE_DETECTION)
+            ? JSON_FACTORY.copy().enable(JsonGenerator.Feature.STRICT_DUPLICATE_DETECTION)
+            : JSON_FACTORY;
+
+    public static final boolean PRETTY_PRINT_BY_DEFAULT = new SystemEnvironment().get(SystemEnvironment.GO_API_JSON_PRETTY_PRINT);
 
     protected final Writer writer;
     private final RequestContext requestContext;
+    private final boolean prettyPrint;
     private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
 
     public JsonOutputWriter(Writer writer, RequestContext requestContext) {
+        this(writer, requestContext, PRETTY_PRINT_BY_DEFAULT);
+    }
+
+    public JsonOutputWriter(Writer writer, RequestContext requestContext, boolean prettyPrint) {
         this.writer = writer;
         this.requestContext = requestContext;
+        this.prettyPrint = prettyPrint;
     }
 
     public JsonOutputWriter forTopLevelObject(Consumer<OutputWriter> consumer) {
-        bufferWriterAndFlushWhenDone(writer, bufferedWriter -> {
-            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(bufferedWriter, requestContext)) {
+        flushWhenDone(() -> {
+            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(writer, requestContext, prettyPrint)) {
                 jacksonOutputWriter.forTopLevelObject(consumer);
             }
         });
@@ -64,8 +76,8 @@ public class JsonOutputWriter {
     }
 
     public JsonOutputWriter forTopLevelArray(Consumer<OutputListWriter> consumer) {
-        bufferWriterAndFlushWhenDone(writer, bufferedWriter -> {
-            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(bufferedWriter, requestContext)) {
+        flushWhenDone(() -> {
+            try (JsonOutputWriterUsingJackson jacksonOutputWriter = new JsonOutputWriterUsingJackson(writer, requestContext, prettyPrint)) {
                 jacksonOutputWriter.forTopLevelArray(consumer);
             }
         });
@@ -73,13 +85,13 @@ public class JsonOutputWriter {
         return this;
     }
 
-    private void bufferWriterAndFlushWhenDone(Writer writer, Consumer<BufferedWriter> consumer) {
-        BufferedWriter bufferedWriter = (writer instanceof BufferedWriter) ? (BufferedWriter) writer : new BufferedWriter(writer, 32 * 1024);
+    // The jackson generator buffers on its own, so it writes straight through to the (response) writer in chunks
+    private void flushWhenDone(Runnable generate) {
         try {
             try {
-                consumer.accept(bufferedWriter);
+                generate.run();
             } finally {
-                bufferedWriter.flush();
+                writer.flush();
             }
         } catch (Exception e) {
             log.error("There was an error generating JSON", e);
@@ -93,11 +105,13 @@ public class JsonOutputWriter {
         private final RequestContext requestContext;
         private final JsonGenerator jacksonWriter;
 
-        private JsonOutputWriterUsingJackson(Writer writer, RequestContext requestContext) {
+        private JsonOutputWriterUsingJackson(Writer writer, RequestContext requestContext, boolean prettyPrint) {
             this.requestContext = requestContext;
             try {
-                jacksonWriter = JSON_FACTORY.createGenerator(writer);
-                jacksonWriter.useDefaultPrettyPrinter();
+                jacksonWriter = GENERATOR_FACTORY.createGenerator(writer);
+                if (prettyPrint) {
+                    jacksonWriter.useDefaultPrettyPrinter();
+                }
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
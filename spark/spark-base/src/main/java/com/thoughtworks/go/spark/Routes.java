@@ -702,6 +702,7 @@ public class Routes {
     public static class Support {
         public static final String BASE = "/api/support";
         public static final String PROCESS_LIST = "/process_list";
+        public static final String METRICS = "/metrics";
     }
 
     public static class ServerInfo {
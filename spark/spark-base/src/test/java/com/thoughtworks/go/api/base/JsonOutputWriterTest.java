@@ -0,0 +1,47 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.api.base;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonOutputWriterTest {
+    private final Consumer<OutputWriter> representer = writer -> writer
+            .add("name", "up42")
+            .addChildList("stages", stages -> stages.value("build").value("test"));
+
+    @Test
+    void shouldWriteCompactJson() {
+        StringWriter writer = new StringWriter();
+
+        new JsonOutputWriter(writer, null, false).forTopLevelObject(representer);
+
+        assertThat(writer.toString()).isEqualTo("{\"name\":\"up42\",\"stages\":[\"build\",\"test\"]}");
+    }
+
+    @Test
+    void shouldWritePrettyJsonWhenAskedTo() {
+        StringWriter writer = new StringWriter();
+
+        new JsonOutputWriter(writer, null, true).forTopLevelObject(representer);
+
+        assertThat(writer.toString()).isEqualToNormalizingNewlines("{\n  \"name\" : \"up42\",\n  \"stages\" : [ \"build\", \"test\" ]\n}");
+    }
+}
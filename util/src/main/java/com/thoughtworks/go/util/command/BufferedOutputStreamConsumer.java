@@ -0,0 +1,69 @@
+/*
+ * Copyright Thoughtworks, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.thoughtworks.go.util.command;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Understands holding on to console output, so that it can be passed on in one piece later.
+ */
+public class BufferedOutputStreamConsumer implements ConsoleOutputStreamConsumer {
+    private final List<Line> lines = new ArrayList<>();
+
+    @Override
+    public synchronized void stdOutput(String line) {
+        lines.add(new Line(false, null, line));
+    }
+
+    @Override
+    public synchronized void errOutput(String line) {
+        lines.add(new Line(true, null, line));
+    }
+
+    @Override
+    public synchronized void taggedStdOutput(String tag, String line) {
+        lines.add(new Line(false, tag, line));
+    }
+
+    @Override
+    public synchronized void taggedErrOutput(String tag, String line) {
+        lines.add(new Line(true, tag, line));
+    }
+
+    public synchronized void writeTo(ConsoleOutputStreamConsumer consumer) {
+        for (Line line : lines) {
+            line.writeTo(consumer);
+        }
+        lines.clear();
+    }
+
+    private record Line(boolean error, String tag, String line) {
+        void writeTo(ConsoleOutputStreamConsumer consumer) {
+            if (tag == null) {
+                if (error) {
+                    consumer.errOutput(line);
+                } else {
+                    consumer.stdOutput(line);
+                }
+            } else if (error) {
+                consumer.taggedErrOutput(tag, line);
+            } else {
+                consumer.taggedStdOutput(tag, line);
+            }
+        }
+    }
+}